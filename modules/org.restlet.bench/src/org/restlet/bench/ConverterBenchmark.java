@@ -0,0 +1,118 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.MediaType;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.converter.ConverterUtils;
+import org.restlet.engine.resource.VariantInfo;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.service.ConverterService;
+
+/**
+ * Benchmarks the selection of converter helpers and the conversions done by
+ * the converter service.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    /** The converter service. */
+    private ConverterService converterService;
+
+    /** The source representation to convert. */
+    private Representation representation;
+
+    /** The target variant. */
+    private Variant variant;
+
+    @Setup
+    public void setup() {
+        this.converterService = new ConverterService();
+        this.representation = new StringRepresentation("hello, world",
+                MediaType.TEXT_PLAIN);
+        this.variant = new Variant(MediaType.TEXT_PLAIN);
+    }
+
+    @Benchmark
+    public ConverterHelper getBestHelperFromObject() {
+        return ConverterUtils.getBestHelper("hello, world", this.variant, null);
+    }
+
+    @Benchmark
+    public ConverterHelper getBestHelperToObject() {
+        return ConverterUtils.getBestHelper(this.representation, String.class,
+                null);
+    }
+
+    @Benchmark
+    public List<VariantInfo> getVariants() {
+        return ConverterUtils.getVariants(String.class, null);
+    }
+
+    @Benchmark
+    public String toObject() throws IOException {
+        return this.converterService.toObject(this.representation,
+                String.class, null);
+    }
+
+    @Benchmark
+    public Representation toRepresentation() {
+        return this.converterService.toRepresentation("hello, world",
+                this.variant, null);
+    }
+
+}
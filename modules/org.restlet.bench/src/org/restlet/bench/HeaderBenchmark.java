@@ -0,0 +1,126 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.ClientInfo;
+import org.restlet.engine.header.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.header.HeaderReader;
+import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.representation.Representation;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the parsing of a realistic set of HTTP request headers, as sent
+ * by a web browser.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderBenchmark {
+
+    /** The raw header lines. */
+    private static final String[] LINES = {
+            "Host: www.example.com",
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:109.0) Gecko/20100101 Firefox/119.0",
+            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8",
+            "Accept-Language: en-US,en;q=0.7,fr;q=0.3",
+            "Accept-Encoding: gzip, deflate, br",
+            "Accept-Charset: utf-8, iso-8859-1;q=0.5",
+            "Connection: keep-alive",
+            "Cookie: session=6f1c2a; theme=dark; lang=en",
+            "Content-Type: application/json; charset=UTF-8",
+            "Content-Length: 348",
+            "Cache-Control: max-age=0",
+            "If-None-Match: \"686897696a7c876b7e\"",
+            "X-Requested-With: XMLHttpRequest" };
+
+    /** The headers already split. */
+    private Series<Header> headers;
+
+    @Setup
+    public void setup() throws IOException {
+        this.headers = readHeaders();
+    }
+
+    @Benchmark
+    public ClientInfo parsePreferences() {
+        ClientInfo result = new ClientInfo();
+        PreferenceReader.addMediaTypes(this.headers.getFirstValue(
+                HeaderConstants.HEADER_ACCEPT, true), result);
+        PreferenceReader.addLanguages(this.headers.getFirstValue(
+                HeaderConstants.HEADER_ACCEPT_LANGUAGE, true), result);
+        PreferenceReader.addEncodings(this.headers.getFirstValue(
+                HeaderConstants.HEADER_ACCEPT_ENCODING, true), result);
+        PreferenceReader.addCharacterSets(this.headers.getFirstValue(
+                HeaderConstants.HEADER_ACCEPT_CHARSET, true), result);
+        return result;
+    }
+
+    @Benchmark
+    public Representation extractEntityHeaders() {
+        return HeaderUtils.extractEntityHeaders(this.headers, null);
+    }
+
+    @Benchmark
+    public Series<Header> readHeaders() throws IOException {
+        Series<Header> result = new Series<Header>(Header.class);
+
+        for (String line : LINES) {
+            result.add(HeaderReader.readHeader(line));
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Context;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Protocol;
+import org.restlet.engine.connector.Connection;
+import org.restlet.engine.connector.HttpInboundRequest;
+import org.restlet.engine.connector.HttpServerHelper;
+import org.restlet.engine.header.Header;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the creation of inbound requests by the internal HTTP server
+ * connector, from the request line and a browser-like set of headers. Run it
+ * with the "-prof gc" option to compare the bytes allocated per request.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboundRequestBenchmark {
+
+    /** The media types supported by the resource. */
+    private static final List<MediaType> SUPPORTED = Arrays.asList(
+            MediaType.TEXT_HTML, MediaType.APPLICATION_JSON);
+
+    /** The network connection. */
+    private Connection<Server> connection;
+
+    /** The request headers. */
+    private Series<Header> headers;
+
+    /** The HTTP server. */
+    private Server server;
+
+    @Setup
+    public void setup() throws Exception {
+        this.server = new Server(new Context(), Protocol.HTTP, 0);
+        this.server.start();
+        HttpServerHelper helper = (HttpServerHelper) this.server.getContext()
+                .getAttributes().get("org.restlet.engine.helper");
+        this.connection = helper.getConnectionPool().checkout();
+
+        this.headers = new Series<Header>(Header.class);
+        this.headers.add("Host", "www.example.com");
+        this.headers
+                .add("User-Agent",
+                        "Mozilla/5.0 (X11; Linux x86_64; rv:109.0) Gecko/20100101 Firefox/119.0");
+        this.headers
+                .add("Accept",
+                        "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8");
+        this.headers.add("Accept-Language", "en-US,en;q=0.7,fr;q=0.3");
+        this.headers.add("Accept-Encoding", "gzip, deflate, br");
+        this.headers.add("Connection", "keep-alive");
+        this.headers.add("Cookie", "session=38afes7a8; theme=light");
+        this.headers.add("If-None-Match", "\"xyzzy\"");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.server.stop();
+    }
+
+    /**
+     * Creates a request and reads the properties needed to route and log it.
+     * 
+     * @return The request agent.
+     */
+    @Benchmark
+    public String routeAndLog() {
+        HttpInboundRequest request = createRequest();
+        request.getResourceRef().getRemainingPart();
+        request.getClientInfo().getAddress();
+        return request.getClientInfo().getAgent();
+    }
+
+    /**
+     * Creates a request and negotiates its content.
+     * 
+     * @return The preferred media type.
+     */
+    @Benchmark
+    public MediaType negotiate() {
+        HttpInboundRequest request = createRequest();
+        request.getResourceRef().getRemainingPart();
+        request.getClientInfo().getAgent();
+        return request.getClientInfo().getPreferredMediaType(SUPPORTED);
+    }
+
+    /**
+     * Creates a request.
+     * 
+     * @return The request created.
+     */
+    private HttpInboundRequest createRequest() {
+        HttpInboundRequest result = new HttpInboundRequest(
+                this.server.getContext(), this.connection, "GET",
+                "/accounts/123/orders?page=2", "HTTP/1.1");
+        result.setHeaders(this.headers);
+        return result;
+    }
+
+}
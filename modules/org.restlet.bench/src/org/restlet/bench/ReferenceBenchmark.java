@@ -0,0 +1,132 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.data.Reference;
+
+/**
+ * Benchmarks the parsing and normalization of references.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceBenchmark {
+
+    /** A typical absolute URI with a query and a fragment. */
+    private static final String URI = "http://www.example.com:8080/api/v1/users/1234/orders?status=open&sort=date&page=2#top";
+
+    /** A URI requiring normalization. */
+    private static final String DENORMALIZED_URI = "http://www.example.com/a/b/../c/./d/%7Euser/e/../f";
+
+    /** The base reference to resolve against. */
+    private final Reference baseRef = new Reference(
+            "http://www.example.com:8080/api/v1/");
+
+    /** A reference read several times, like a request resource reference. */
+    private Reference resourceRef;
+
+    @Setup
+    public void setup() {
+        this.resourceRef = new Reference(URI);
+    }
+
+    @Benchmark
+    public String decode() {
+        return Reference.decode("/api/v1/users/J%C3%A9r%C3%B4me%20L/orders");
+    }
+
+    @Benchmark
+    public String decodeUnescaped() {
+        return Reference.decode("/api/v1/users/1234/orders");
+    }
+
+    @Benchmark
+    public String encode() {
+        return Reference.encode("J\u00e9r\u00f4me L");
+    }
+
+    @Benchmark
+    public Reference normalize() {
+        return new Reference(DENORMALIZED_URI).normalize();
+    }
+
+    @Benchmark
+    public String parseComponents() {
+        Reference reference = new Reference(URI);
+        return reference.getScheme() + reference.getHostDomain()
+                + reference.getHostPort() + reference.getPath()
+                + reference.getQuery() + reference.getFragment();
+    }
+
+    @Benchmark
+    public String parseDecodedPath() {
+        return new Reference(URI).getPath(true);
+    }
+
+    @Benchmark
+    public Object readComponents() {
+        return this.resourceRef.getSegments(true).size()
+                + this.resourceRef.getPath(true).length()
+                + this.resourceRef.getQuery(true).length();
+    }
+
+    @Benchmark
+    public Reference relativeRef() {
+        return new Reference(URI).getRelativeRef(this.baseRef);
+    }
+
+    @Benchmark
+    public Reference targetRef() {
+        return new Reference(this.baseRef, "users/1234/orders?status=open")
+                .getTargetRef();
+    }
+
+}
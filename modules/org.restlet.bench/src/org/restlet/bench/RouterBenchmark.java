@@ -0,0 +1,109 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Reference;
+import org.restlet.routing.Router;
+
+/**
+ * Benchmarks the scoring of routes by a router in order to select the next
+ * Restlet.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouterBenchmark {
+
+    /** The number of attached routes. */
+    @Param({ "10", "100" })
+    private int routes;
+
+    /** The routing mode. */
+    @Param({ "" + Router.MODE_BEST_MATCH, "" + Router.MODE_FIRST_MATCH })
+    private int routingMode;
+
+    /** The router to benchmark. */
+    private Router router;
+
+    /** The base reference of the requests. */
+    private Reference baseRef;
+
+    @Setup
+    public void setup() {
+        Restlet target = new Restlet() {
+        };
+
+        this.router = new Router(new Context());
+        this.router.setRoutingMode(this.routingMode);
+
+        for (int i = 0; i < this.routes; i++) {
+            this.router.attach("/resources" + i + "/{id}/items/{itemId}",
+                    target);
+        }
+
+        this.baseRef = new Reference("http://localhost:8080");
+    }
+
+    @Benchmark
+    public Restlet getNext() {
+        Request request = new Request(Method.GET, "http://localhost:8080/resources"
+                + (this.routes - 1) + "/1234/items/5678");
+        request.getResourceRef().setBaseRef(this.baseRef);
+        return this.router.getNext(request, new Response(request));
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.engine.header.Header;
+import org.restlet.engine.header.HeaderConstants;
+import org.restlet.engine.util.HeaderSeries;
+import org.restlet.util.Series;
+
+/**
+ * Benchmarks the lookups of named values in a series of headers, as used by the
+ * connectors for the message headers. Both the plain {@link Series} and the
+ * indexed {@link HeaderSeries} are measured so that they can be compared.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeriesBenchmark {
+
+    /** Indicates if the indexed series of headers should be measured. */
+    @Param({ "false", "true" })
+    private boolean indexed;
+
+    /** The series of headers to search. */
+    private Series<Header> headers;
+
+    @Setup
+    public void setup() {
+        this.headers = this.indexed ? new HeaderSeries() : new Series<Header>(
+                Header.class);
+        this.headers.add(HeaderConstants.HEADER_HOST, "www.example.com");
+        this.headers.add(HeaderConstants.HEADER_USER_AGENT, "Mozilla/5.0");
+        this.headers.add(HeaderConstants.HEADER_ACCEPT, "text/html");
+        this.headers.add(HeaderConstants.HEADER_ACCEPT_LANGUAGE, "en-US");
+        this.headers.add(HeaderConstants.HEADER_ACCEPT_ENCODING, "gzip");
+        this.headers.add(HeaderConstants.HEADER_CONNECTION, "keep-alive");
+        this.headers.add(HeaderConstants.HEADER_COOKIE, "session=6f1c2a");
+        this.headers.add(HeaderConstants.HEADER_CACHE_CONTROL, "max-age=0");
+        this.headers.add(HeaderConstants.HEADER_CONTENT_TYPE,
+                "application/json");
+        this.headers.add(HeaderConstants.HEADER_CONTENT_LENGTH, "348");
+        this.headers.add("X-Forwarded-For", "10.0.0.1");
+        this.headers.add("X-Requested-With", "XMLHttpRequest");
+    }
+
+    @Benchmark
+    public String getFirstValue() {
+        return this.headers.getFirstValue(HeaderConstants.HEADER_CONTENT_LENGTH);
+    }
+
+    @Benchmark
+    public String getFirstValueIgnoreCase() {
+        return this.headers.getFirstValue("content-length", true);
+    }
+
+    @Benchmark
+    public String getFirstValueMissing() {
+        return this.headers.getFirstValue("Transfer-Encoding", true);
+    }
+
+    @Benchmark
+    public String getValues() {
+        return this.headers.getValues(HeaderConstants.HEADER_ACCEPT, ",",
+                true);
+    }
+
+    @Benchmark
+    public Series<Header> subList() {
+        return this.headers.subList(HeaderConstants.HEADER_ACCEPT, true);
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.restlet.routing.Template;
+
+/**
+ * Benchmarks the parsing and formatting of URI templates.
+ * 
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+    /** The template pattern. */
+    private static final String PATTERN = "/users/{userId}/orders/{orderId}?format={format}";
+
+    /** A URI matching the template. */
+    private static final String URI = "/users/1234/orders/5678?format=json";
+
+    /** The pre-compiled template. */
+    private Template template;
+
+    /** The variable values to format. */
+    private Map<String, Object> values;
+
+    @Setup
+    public void setup() {
+        this.template = new Template(PATTERN);
+        this.values = new HashMap<String, Object>();
+        this.values.put("userId", "1234");
+        this.values.put("orderId", "5678");
+        this.values.put("format", "json");
+    }
+
+    @Benchmark
+    public String format() {
+        return this.template.format(this.values);
+    }
+
+    @Benchmark
+    public int match() {
+        return this.template.match(URI);
+    }
+
+    @Benchmark
+    public Map<String, Object> parse() {
+        Map<String, Object> variables = new HashMap<String, Object>();
+        this.template.parse(URI, variables);
+        return variables;
+    }
+
+    @Benchmark
+    public int parseNewTemplate() {
+        return new Template(PATTERN).parse(URI,
+                new HashMap<String, Object>());
+    }
+
+}
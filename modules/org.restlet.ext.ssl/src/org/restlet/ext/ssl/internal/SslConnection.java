@@ -346,6 +346,17 @@ public class SslConnection<T extends Connector> extends Connection<T> {
         getSslEngine().beginHandshake();
     }
 
+    /**
+     * Returns false as the entities must be encrypted by the SSL writable
+     * channel instead of being directly transferred to the socket channel.
+     * 
+     * @return False.
+     */
+    @Override
+    public boolean isDirectTransfer() {
+        return false;
+    }
+
     /**
      * Indicates if the SSL handshake is going on.
      * 
@@ -81,6 +81,7 @@ import org.restlet.test.resource.ResourceTestSuite;
 import org.restlet.test.routing.FilterTestCase;
 import org.restlet.test.routing.RedirectTestCase;
 import org.restlet.test.routing.RouteListTestCase;
+import org.restlet.test.routing.RouterTestCase;
 import org.restlet.test.routing.ValidatorTestCase;
 import org.restlet.test.security.HttpBasicTestCase;
 import org.restlet.test.security.RoleTestCase;
@@ -132,6 +133,7 @@ public class RestletTestSuite extends TestSuite {
         addTestSuite(RestletXmlTestCase.class);
         addTestSuite(RiapTestCase.class);
         addTestSuite(RouteListTestCase.class);
+        addTestSuite(RouterTestCase.class);
         addTestSuite(DigestVerifierTestCase.class);
         addTestSuite(RecipientInfoTestCase.class);
         addTestSuite(RoleTestCase.class);
@@ -262,8 +262,9 @@ public class MediaTypeTestCase extends RestletTestCase {
         assertEquals("x-restlet-test", newType.getSubType());
         assertEquals("application/x-restlet-test", newType.getName());
 
-        // Should not have got registered by call to valueOf() alone
-        assertNotSame(newType, MediaType.valueOf("application/x-restlet-test"));
+        // Should not have got registered by call to valueOf() alone, but the
+        // unregistered instance is interned
+        assertSame(newType, MediaType.valueOf("application/x-restlet-test"));
 
         final MediaType registeredType = MediaType.register(
                 "application/x-restlet-test", "Restlet testcase");
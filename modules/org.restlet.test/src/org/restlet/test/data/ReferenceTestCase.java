@@ -36,6 +36,7 @@ package org.restlet.test.data;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.restlet.data.CharacterSet;
 import org.restlet.data.Form;
 import org.restlet.data.Protocol;
 import org.restlet.data.Reference;
@@ -92,6 +93,76 @@ public class ReferenceTestCase extends RestletTestCase {
                 ref.toString());
     }
 
+    /**
+     * Tests the caching of the parsed components.
+     */
+    public void testComponents() {
+        Reference ref = new Reference("http://www.restlet.org/a%20b/c/?q=x%3Dy");
+        assertSame(ref.getPath(), ref.getPath());
+        assertSame(ref.getQuery(true), ref.getQuery(true));
+        assertEquals("/a b/c/", ref.getPath(true));
+        assertEquals("q=x=y", ref.getQuery(true));
+        assertEquals("[a b, c, ]", ref.getSegments(true).toString());
+
+        // Returned lists are modifiable copies
+        ref.getSegments().clear();
+        assertEquals(3, ref.getSegments().size());
+
+        // Components are updated after each modification
+        ref.setPath("/d");
+        ref.setQuery(null);
+        assertEquals("/d", ref.getPath(true));
+        assertNull(ref.getQuery());
+        assertEquals("[d]", ref.getSegments(true).toString());
+        assertEquals("/d", ref.clone().getPath());
+
+        // Normalization
+        ref = new Reference("HTTP://WWW.Restlet.org:80/a/./b/../c");
+        assertEquals("http://www.restlet.org/a/c", ref.getTargetRef()
+                .toString());
+        ref = new Reference("http://www.restlet.org/a/.b/..c");
+        assertEquals(ref, ref.getTargetRef());
+    }
+
+    /**
+     * Tests the decoding and encoding against the JDK implementation.
+     */
+    public void testDecoding() throws Exception {
+        String[] values = { "", "abc", "a b+c", "a%20b", "x*y~z",
+                "caf\u00e9 \u20ac", "\ud83d\ude00/?&=", "%E2%82%ACx%2b" };
+
+        for (String value : values) {
+            assertEquals(java.net.URLDecoder.decode(value, "UTF-8"),
+                    Reference.decode(value));
+            assertEquals(java.net.URLEncoder.encode(value, "UTF-8"),
+                    Reference.encode(value, false));
+            assertEquals(java.net.URLEncoder.encode(value, "UTF-8")
+                    .replace("+", "%20").replace("*", "%2A")
+                    .replace("%7E", "~"), Reference.encode(value));
+            assertEquals(java.net.URLDecoder.decode(value, "ISO-8859-1"),
+                    Reference.decode(value, CharacterSet.ISO_8859_1));
+        }
+
+        // Unchanged values are returned as is
+        String value = "abc-def";
+        assertSame(value, Reference.decode(value));
+        assertSame(value, Reference.encode(value));
+
+        try {
+            Reference.decode("a%2");
+            fail("Incomplete escape sequence accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        try {
+            Reference.decode("a%zz");
+            fail("Illegal escape sequence accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
     public void testEmptyRef() {
         Reference reference = new Reference();
         reference.setAuthority("testAuthority"); // must not produce NPE
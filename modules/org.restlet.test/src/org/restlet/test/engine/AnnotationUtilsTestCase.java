@@ -33,15 +33,25 @@
 
 package org.restlet.test.engine;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import junit.framework.Assert;
 
+import org.restlet.data.Form;
+import org.restlet.data.MediaType;
 import org.restlet.data.Method;
+import org.restlet.engine.Engine;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.converter.DefaultConverter;
 import org.restlet.engine.resource.AnnotationInfo;
 import org.restlet.engine.resource.AnnotationUtils;
+import org.restlet.engine.resource.DispatchPlan;
+import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.Get;
 import org.restlet.resource.Put;
+import org.restlet.service.ConverterService;
+import org.restlet.service.MetadataService;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -55,6 +65,16 @@ public class AnnotationUtilsTestCase extends RestletTestCase {
 
     }
 
+    public static interface IDispatch {
+
+        String getRaw();
+
+        String getText();
+
+        String postText(String text);
+
+    }
+
     public static interface IParent<S, T> {
 
         @Get
@@ -65,6 +85,92 @@ public class AnnotationUtilsTestCase extends RestletTestCase {
 
     }
 
+    public void testDispatchPlan() throws Exception {
+        List<AnnotationInfo> infos = new ArrayList<AnnotationInfo>();
+        infos.add(new AnnotationInfo(IDispatch.class, Method.GET,
+                IDispatch.class.getMethod("getRaw"), "txt?mode=raw"));
+        infos.add(new AnnotationInfo(IDispatch.class, Method.GET,
+                IDispatch.class.getMethod("getText"), "txt|xml"));
+        infos.add(new AnnotationInfo(IDispatch.class, Method.POST,
+                IDispatch.class.getMethod("postText", String.class),
+                "txt:txt"));
+        MetadataService metadataService = new MetadataService();
+        ConverterService converterService = new ConverterService();
+        DispatchPlan plan = new DispatchPlan(infos, Method.GET,
+                metadataService, converterService);
+        assertEquals(2, plan.getCandidates().size());
+        assertEquals(1, plan.getCandidates().get(0).getResponseVariants()
+                .size());
+        assertEquals(3, plan.getCandidates().get(1).getResponseVariants()
+                .size());
+
+        // The query constraint is checked for each call
+        assertSame(infos.get(0), plan.getAnnotation(new Form("mode=raw"), null));
+        assertSame(infos.get(1), plan.getAnnotation(new Form(), null));
+
+        // The request entity is checked against the precomputed variants
+        plan = new DispatchPlan(infos, Method.POST, metadataService,
+                converterService);
+        assertSame(infos.get(2), plan.getAnnotation(new Form(),
+                new StringRepresentation("test", MediaType.TEXT_PLAIN)));
+        assertNull(plan.getAnnotation(new Form(), new StringRepresentation(
+                "test", MediaType.APPLICATION_JSON)));
+        assertEquals(1.0f, plan.getCandidates().get(0).getInputScore(
+                new StringRepresentation("test", MediaType.TEXT_PLAIN)));
+        assertTrue(new DispatchPlan(infos, Method.DELETE, metadataService,
+                converterService).isEmpty());
+    }
+
+    public void testGetDispatchPlan() {
+        MetadataService metadataService = new MetadataService();
+        ConverterService converterService = new ConverterService();
+        DispatchPlan plan = AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, metadataService, converterService);
+        assertEquals(2, plan.getCandidates().size());
+        assertSame(plan, AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, metadataService, converterService));
+        assertNotSame(plan, AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, new MetadataService(),
+                converterService));
+
+        // Applications alternating on the same class keep their own plans
+        ConverterService otherService = new ConverterService();
+        DispatchPlan otherPlan = AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, metadataService, otherService);
+        assertNotSame(plan, otherPlan);
+        assertSame(plan, AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, metadataService, converterService));
+        assertSame(otherPlan, AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, metadataService, otherService));
+
+        // Changing the metadata mappings invalidates the plans
+        metadataService.addExtension("text", MediaType.TEXT_PLAIN);
+        DispatchPlan changedPlan = AnnotationUtils.getInstance()
+                .getDispatchPlan(IChild.class, Method.PUT, metadataService,
+                        converterService);
+        assertNotSame(plan, changedPlan);
+        assertSame(changedPlan, AnnotationUtils.getInstance().getDispatchPlan(
+                IChild.class, Method.PUT, metadataService, converterService));
+        metadataService.clearExtensions();
+        assertNotSame(changedPlan, AnnotationUtils.getInstance()
+                .getDispatchPlan(IChild.class, Method.PUT, metadataService,
+                        converterService));
+        plan = AnnotationUtils.getInstance().getDispatchPlan(IChild.class,
+                Method.PUT, metadataService, converterService);
+
+        // Registering a converter invalidates the plans
+        ConverterHelper converter = new DefaultConverter();
+        Engine.getInstance().getRegisteredConverters().add(converter);
+
+        try {
+            assertNotSame(plan, AnnotationUtils.getInstance().getDispatchPlan(
+                    IChild.class, Method.PUT, metadataService,
+                    converterService));
+        } finally {
+            Engine.getInstance().getRegisteredConverters().remove(converter);
+        }
+    }
+
     public void testGetAnnotationsWithGenericParameterType() {
         List<AnnotationInfo> infos = AnnotationUtils.getInstance()
                 .getAnnotations(IChild.class);
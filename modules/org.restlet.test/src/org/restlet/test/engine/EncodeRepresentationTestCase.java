@@ -0,0 +1,186 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.restlet.data.Encoding;
+import org.restlet.data.MediaType;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.engine.io.BioUtils;
+import org.restlet.representation.OutputRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the encoding of representations.
+ * 
+ * @author agent
+ */
+public class EncodeRepresentationTestCase extends RestletTestCase {
+
+    /** The uncompressed text. */
+    private static final String TEXT = createText();
+
+    /**
+     * Creates a compressible text larger than the IO buffers.
+     * 
+     * @return The text.
+     */
+    private static String createText() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 5000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item")
+                    .append(i % 7).append("\"}\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Decodes compressed bytes.
+     * 
+     * @param encoding
+     *            The encoding of the bytes.
+     * @param bytes
+     *            The compressed bytes.
+     * @return The decoded text.
+     */
+    private String decode(Encoding encoding, byte[] bytes) throws IOException {
+        InputStream in = new ByteArrayInputStream(bytes);
+
+        if (Encoding.GZIP.equals(encoding)) {
+            in = new GZIPInputStream(in);
+        } else {
+            in = new InflaterInputStream(in);
+        }
+
+        return BioUtils.toString(in);
+    }
+
+    /**
+     * Reads a whole channel.
+     * 
+     * @param channel
+     *            The channel to read.
+     * @return The bytes read.
+     */
+    private byte[] read(ReadableByteChannel channel) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            result.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+
+        channel.close();
+        return result.toByteArray();
+    }
+
+    /**
+     * Writes a representation to a byte array.
+     * 
+     * @param representation
+     *            The representation to write.
+     * @return The bytes written.
+     */
+    private byte[] write(Representation representation) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        representation.write(result);
+        return result.toByteArray();
+    }
+
+    public void testChannel() throws IOException {
+        for (Encoding encoding : new Encoding[] { Encoding.GZIP,
+                Encoding.DEFLATE }) {
+            byte[] encoded = read(new EncodeRepresentation(encoding,
+                    new StringRepresentation(TEXT)).getChannel());
+            assertTrue(encoded.length < TEXT.length());
+            assertEquals(TEXT, decode(encoding, encoded));
+        }
+    }
+
+    public void testCompressionLevel() throws IOException {
+        byte[] stored = write(new EncodeRepresentation(Encoding.GZIP,
+                new StringRepresentation(TEXT), 0));
+        byte[] best = write(new EncodeRepresentation(Encoding.GZIP,
+                new StringRepresentation(TEXT), 9));
+        assertTrue(stored.length > TEXT.length());
+        assertTrue(best.length < TEXT.length());
+        assertEquals(TEXT, decode(Encoding.GZIP, stored));
+        assertEquals(TEXT, decode(Encoding.GZIP, best));
+    }
+
+    public void testStream() throws IOException {
+        for (Encoding encoding : new Encoding[] { Encoding.GZIP,
+                Encoding.DEFLATE }) {
+            InputStream in = new EncodeRepresentation(encoding,
+                    new StringRepresentation(TEXT)).getStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BioUtils.copy(in, out);
+            assertEquals(TEXT, decode(encoding, out.toByteArray()));
+        }
+    }
+
+    public void testWrite() throws IOException {
+        Representation output = new OutputRepresentation(MediaType.TEXT_PLAIN) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                outputStream.write(TEXT.getBytes("US-ASCII"));
+            }
+        };
+
+        for (Encoding encoding : new Encoding[] { Encoding.GZIP,
+                Encoding.DEFLATE }) {
+            // Pooled deflaters are reused by successive encodings
+            for (int i = 0; i < 3; i++) {
+                assertEquals(TEXT, decode(encoding,
+                        write(new EncodeRepresentation(encoding, output))));
+            }
+        }
+    }
+
+}
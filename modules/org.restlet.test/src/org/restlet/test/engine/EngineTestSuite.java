@@ -36,11 +36,19 @@ package org.restlet.test.engine;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.restlet.test.engine.connector.ConnectionControllerTestCase;
+import org.restlet.test.engine.connector.HostConnectionsTestCase;
+import org.restlet.test.engine.connector.HostResolverCacheTestCase;
 import org.restlet.test.engine.connector.HttpInboundRequestTestCase;
 import org.restlet.test.engine.io.BioUtilsTestCase;
 import org.restlet.test.engine.io.BufferTestCase;
 import org.restlet.test.engine.io.ReaderInputStreamTestCase;
+import org.restlet.test.engine.log.AccessLogWriterTestCase;
 import org.restlet.test.engine.util.Base64TestCase;
+import org.restlet.test.engine.util.HeaderSeriesTestCase;
+import org.restlet.test.engine.util.IndexedFormTestCase;
+import org.restlet.test.engine.util.InternCacheTestCase;
+import org.restlet.test.engine.util.PoolTestCase;
 
 /**
  * Suite of unit tests for the Restlet Framework.
@@ -61,6 +69,7 @@ public class EngineTestSuite extends TestSuite {
     /** Constructor. */
     public EngineTestSuite() {
         super("Engine package");
+        addTestSuite(AccessLogWriterTestCase.class);
         addTestSuite(AlphaNumericComparatorTestCase.class);
         addTestSuite(AnnotationUtilsTestCase.class);
         addTestSuite(Base64TestCase.class);
@@ -68,10 +77,18 @@ public class EngineTestSuite extends TestSuite {
         addTestSuite(BioUtilsTestCase.class);
         addTestSuite(CookiesTestCase.class);
         addTestSuite(ContentTypeTestCase.class);
+        addTestSuite(EncodeRepresentationTestCase.class);
         addTestSuite(HeaderTestCase.class);
+        addTestSuite(HeaderSeriesTestCase.class);
         addTestSuite(HttpCallTestCase.class);
+        addTestSuite(ConnectionControllerTestCase.class);
+        addTestSuite(HostConnectionsTestCase.class);
+        addTestSuite(HostResolverCacheTestCase.class);
         addTestSuite(HttpInboundRequestTestCase.class);
         addTestSuite(ImmutableDateTestCase.class);
+        addTestSuite(IndexedFormTestCase.class);
+        addTestSuite(InternCacheTestCase.class);
+        addTestSuite(PoolTestCase.class);
         addTestSuite(UnclosableInputStreamTestCase.class);
         addTestSuite(UnclosableOutputStreamTestCase.class);
         addTestSuite(PreferencesTestCase.class);
@@ -92,6 +109,7 @@ public class EngineTestSuite extends TestSuite {
         addTestSuite(GetChunkedTestCase.class);
         addTestSuite(PostPutTestCase.class);
         addTestSuite(RemoteClientAddressTestCase.class);
+        addTestSuite(org.restlet.test.ext.ssl.FileTransferTestCase.class);
         addTestSuite(org.restlet.test.ext.ssl.SslGetTestCase.class);
         addTestSuite(org.restlet.test.ext.ssl.SslClientContextGetTestCase.class);
         // [enddef]
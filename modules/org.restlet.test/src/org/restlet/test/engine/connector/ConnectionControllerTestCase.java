@@ -0,0 +1,299 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.engine.connector;
+
+import java.io.IOException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.engine.Engine;
+import org.restlet.engine.connector.ConnectionController;
+import org.restlet.engine.connector.ConnectionHelper;
+import org.restlet.engine.connector.HttpClientHelper;
+import org.restlet.engine.connector.HttpServerHelper;
+import org.restlet.engine.connector.SelectorController;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit test for the connection controllers and their blocking mode.
+ * 
+ * @author agent
+ */
+public class ConnectionControllerTestCase extends RestletTestCase {
+
+    /**
+     * Connection controller letting the test drive its initialization and
+     * selections.
+     */
+    private static class TestController extends ConnectionController {
+
+        public TestController(ConnectionHelper<?> helper) {
+            super(helper);
+        }
+
+        public void init() {
+            initSelector();
+        }
+
+        public void select() throws IOException {
+            selectKeys(0);
+        }
+    }
+
+    /**
+     * Client helper counting the messages handled by the controller instead
+     * of sending them, optionally queuing them again once.
+     */
+    private static class CountingHelper extends HttpClientHelper {
+
+        private int inboundCount;
+
+        private int outboundCount;
+
+        private final boolean requeue;
+
+        public CountingHelper(boolean requeue) {
+            super(null);
+            this.requeue = requeue;
+        }
+
+        public void add(int count) {
+            for (int i = 0; i < count; i++) {
+                getInboundMessages().add(new Response(new Request()));
+                getOutboundMessages().add(new Response(new Request()));
+            }
+        }
+
+        @Override
+        public boolean control() {
+            return super.control();
+        }
+
+        @Override
+        protected void handleInbound(Response response) {
+            this.inboundCount++;
+
+            if (this.requeue) {
+                getInboundMessages().add(response);
+            }
+        }
+
+        @Override
+        protected void handleOutbound(Response response) {
+            this.outboundCount++;
+
+            if (this.requeue) {
+                getOutboundMessages().add(response);
+            }
+        }
+
+        public int getPendingCount() {
+            return getInboundMessages().size() + getOutboundMessages().size();
+        }
+    }
+
+    /**
+     * Sends concurrent requests and checks that they all complete well before
+     * the selection time out, so the blocked controllers must be woken up.
+     * 
+     * @param blocking
+     *            Indicates if the controllers block on their selector.
+     * @param selectorThreads
+     *            The number of server selector threads.
+     */
+    private void testRoundTrips(boolean blocking, int selectorThreads)
+            throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredClients()
+                .add(new HttpClientHelper(null));
+        Engine.getInstance().getRegisteredServers()
+                .add(new HttpServerHelper(null));
+        Server server = new Server(new Context(), Protocol.HTTP, 0,
+                new Restlet() {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity("hello", MediaType.TEXT_PLAIN);
+                    }
+                });
+        server.getContext().getParameters()
+                .add("controllerBlocking", Boolean.toString(blocking));
+        server.getContext().getParameters()
+                .add("controllerBlockingTimeMs", "60000");
+        server.getContext().getParameters()
+                .add("selectorThreads", Integer.toString(selectorThreads));
+        server.start();
+        HttpServerHelper serverHelper = (HttpServerHelper) server
+                .getContext().getAttributes().get("org.restlet.engine.helper");
+
+        if (selectorThreads > 1) {
+            assertEquals(selectorThreads, serverHelper
+                    .getSelectorControllers().size());
+        }
+
+        final Client client = new Client(new Context(), Protocol.HTTP);
+        client.getContext().getParameters()
+                .add("controllerBlocking", Boolean.toString(blocking));
+        client.getContext().getParameters()
+                .add("controllerBlockingTimeMs", "60000");
+        client.getContext().getParameters()
+                .add("maxConnectionsPerHost", "8");
+        client.start();
+
+        try {
+            final String uri = "http://localhost:" + server.getActualPort()
+                    + "/test";
+            final int[] errors = new int[1];
+            Thread[] threads = new Thread[4];
+            long start = System.currentTimeMillis();
+
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10; j++) {
+                            Response response = client.handle(new Request(
+                                    Method.GET, uri));
+
+                            try {
+                                if (!"hello".equals(response.getEntity()
+                                        .getText())) {
+                                    synchronized (errors) {
+                                        errors[0]++;
+                                    }
+                                }
+                            } catch (IOException e) {
+                                synchronized (errors) {
+                                    errors[0]++;
+                                }
+                            }
+                        }
+                    }
+                };
+                threads[i].start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join(30000);
+            }
+
+            assertEquals(0, errors[0]);
+            assertTrue(System.currentTimeMillis() - start < 30000);
+
+            for (SelectorController selectorController : serverHelper
+                    .getSelectorControllers()) {
+                assertTrue(selectorController.isRunning());
+            }
+        } finally {
+            client.stop();
+            server.stop();
+        }
+    }
+
+    public void testBlocking() throws Exception {
+        testRoundTrips(true, 1);
+    }
+
+    public void testControlDrainsQueues() {
+        CountingHelper helper = new CountingHelper(false);
+        helper.add(10);
+        helper.control();
+        assertEquals(10, helper.inboundCount);
+        assertEquals(10, helper.outboundCount);
+        assertEquals(0, helper.getPendingCount());
+    }
+
+    public void testControlRequeued() {
+        CountingHelper helper = new CountingHelper(true);
+        helper.add(10);
+
+        // Messages queued again are left for the next control cycle
+        helper.control();
+        assertEquals(10, helper.inboundCount);
+        assertEquals(10, helper.outboundCount);
+        assertEquals(20, helper.getPendingCount());
+
+        helper.control();
+        assertEquals(20, helper.inboundCount);
+        assertEquals(20, helper.outboundCount);
+    }
+
+    public void testInitWithPendingRegistrations() throws Exception {
+        Client client = new Client(new Context(), Protocol.HTTP);
+        client.getContext().getParameters().add("controllerBlocking", "true");
+        client.getContext().getParameters()
+                .add("controllerBlockingTimeMs", "60000");
+        TestController controller = new TestController(new HttpClientHelper(
+                client));
+        Pipe pipe = Pipe.open();
+
+        try {
+            // Registered before the selector is ready, so it can't be woken up
+            pipe.source().configureBlocking(false);
+            controller.register(pipe.source(), SelectionKey.OP_READ, null);
+            controller.init();
+            assertTrue(controller.isBlocking());
+
+            // The first selection doesn't block on the pending registration
+            long start = System.currentTimeMillis();
+            controller.select();
+            assertTrue(System.currentTimeMillis() - start < 30000);
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+    public void testNonBlocking() throws Exception {
+        testRoundTrips(false, 1);
+    }
+
+    public void testSelectorThreads() throws Exception {
+        testRoundTrips(false, 3);
+    }
+
+    public void testSelectorThreadsBlocking() throws Exception {
+        testRoundTrips(true, 3);
+    }
+
+}
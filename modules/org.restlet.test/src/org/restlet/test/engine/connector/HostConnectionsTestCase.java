@@ -0,0 +1,420 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Protocol;
+import org.restlet.engine.Engine;
+import org.restlet.engine.connector.HostConnections;
+import org.restlet.engine.connector.HostResolver;
+import org.restlet.engine.connector.HttpClientHelper;
+import org.restlet.engine.connector.HttpServerHelper;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit test for the per-host connections of client connectors.
+ * 
+ * @author agent
+ */
+public class HostConnectionsTestCase extends RestletTestCase {
+
+    /**
+     * Client helper failing to open any connection, recording the addresses
+     * it tried to connect to.
+     */
+    private static class FailingHelper extends HttpClientHelper {
+
+        private final List<InetSocketAddress> addresses = new CopyOnWriteArrayList<InetSocketAddress>();
+
+        public FailingHelper() {
+            super(null);
+        }
+
+        @Override
+        protected SocketChannel createSocketChannel(boolean secure,
+                InetSocketAddress socketAddress) throws IOException {
+            this.addresses.add(socketAddress);
+            throw new ConnectException("Connection refused");
+        }
+
+        @Override
+        public boolean controlWaitingCalls(HostConnections host) {
+            return super.controlWaitingCalls(host);
+        }
+    }
+
+    public void testConnectFailure() throws Exception {
+        FailingHelper helper = new FailingHelper();
+        Response response = new Response(new Request(Method.GET,
+                "http://localhost:8182/"));
+        helper.doHandleOutbound(response);
+
+        // The index created for the unreachable host is removed right away
+        assertTrue(response.getStatus().isConnectorError());
+        assertTrue(helper.getHostConnections().isEmpty());
+    }
+
+    public void testControllerResolution() throws Exception {
+        final AtomicInteger resolutions = new AtomicInteger();
+        FailingHelper helper = new FailingHelper();
+        helper.setHostResolver(new HostResolver() {
+            public InetAddress[] resolve(String hostDomain)
+                    throws UnknownHostException {
+                resolutions.incrementAndGet();
+                return new InetAddress[] { InetAddress.getByAddress(
+                        hostDomain, new byte[] { 10, 0, 0, 2 }) };
+            }
+        });
+
+        // Queue a call whose host was resolved by the calling thread
+        HostConnections host = new HostConnections(
+                InetSocketAddress.createUnresolved("example.com", 80));
+        host.setResolvedAddress(new InetSocketAddress(InetAddress
+                .getByAddress("example.com", new byte[] { 10, 0, 0, 1 }), 80));
+        Response response = new Response(new Request(Method.GET,
+                "http://example.com/"));
+        host.offer(response, System.currentTimeMillis() + 60000, 10);
+
+        // The controller connects without resolving the host again
+        helper.controlWaitingCalls(host);
+        assertEquals(0, resolutions.get());
+        assertEquals(1, helper.addresses.size());
+        assertEquals("10.0.0.1", helper.addresses.get(0).getAddress()
+                .getHostAddress());
+        assertTrue(response.getStatus().isConnectorError());
+    }
+
+    public void testFailedConnection() throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredClients()
+                .add(new HttpClientHelper(null));
+
+        // Find a port where nothing listens
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+
+        Client client = new Client(new Context(), Protocol.HTTP);
+        client.start();
+
+        try {
+            Response response = client.handle(new Request(Method.GET,
+                    "http://localhost:" + port + "/"));
+            assertTrue(response.getStatus().isConnectorError());
+            HttpClientHelper helper = (HttpClientHelper) client.getContext()
+                    .getAttributes().get("org.restlet.engine.helper");
+
+            // The index of the unreachable host is eventually removed
+            for (int i = 0; !helper.getHostConnections().isEmpty()
+                    && (i < 100); i++) {
+                Thread.sleep(20);
+            }
+
+            assertTrue(helper.getHostConnections().isEmpty());
+        } finally {
+            client.stop();
+        }
+    }
+
+    public void testHostName() throws Exception {
+        FailingHelper helper = new FailingHelper();
+        helper.setHostResolver(new HostResolver() {
+            public InetAddress[] resolve(String hostDomain)
+                    throws UnknownHostException {
+                return new InetAddress[] {
+                        InetAddress.getByAddress(hostDomain, new byte[] { 10,
+                                0, 0, 1 }),
+                        InetAddress.getByAddress(hostDomain, new byte[] { 10,
+                                0, 0, 2 }) };
+            }
+        });
+        helper.start();
+
+        try {
+            // The host name is resolved for each new connection
+            for (int i = 0; i < 2; i++) {
+                helper.doHandleOutbound(new Response(new Request(Method.GET,
+                        "http://example.com/")));
+            }
+
+            assertEquals(2, helper.addresses.size());
+            assertEquals("10.0.0.1", helper.addresses.get(0).getAddress()
+                    .getHostAddress());
+            assertEquals("10.0.0.2", helper.addresses.get(1).getAddress()
+                    .getHostAddress());
+        } finally {
+            helper.stop();
+        }
+    }
+
+    public void testMaxConnectionsPerHost() throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredClients()
+                .add(new HttpClientHelper(null));
+        Engine.getInstance().getRegisteredServers()
+                .add(new HttpServerHelper(null));
+        Server server = new Server(new Context(), Protocol.HTTP, 0,
+                new Restlet() {
+                    @Override
+                    public void handle(Request request, Response response) {
+                        response.setEntity("hello", MediaType.TEXT_PLAIN);
+                    }
+                });
+        server.start();
+        final Client client = new Client(new Context(), Protocol.HTTP);
+        client.getContext().getParameters()
+                .add("maxConnectionsPerHost", "1");
+        client.start();
+
+        try {
+            final String uri = "http://localhost:" + server.getActualPort()
+                    + "/test";
+            final int[] errors = new int[1];
+            Thread[] threads = new Thread[4];
+
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 20; j++) {
+                            Response response = client.handle(new Request(
+                                    Method.GET, uri));
+
+                            try {
+                                if (!"hello".equals(response.getEntity()
+                                        .getText())) {
+                                    synchronized (errors) {
+                                        errors[0]++;
+                                    }
+                                }
+                            } catch (IOException e) {
+                                synchronized (errors) {
+                                    errors[0]++;
+                                }
+                            }
+                        }
+                    }
+                };
+                threads[i].start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(0, errors[0]);
+            HttpClientHelper helper = (HttpClientHelper) client.getContext()
+                    .getAttributes().get("org.restlet.engine.helper");
+
+            for (HostConnections host : helper.getHostConnections()) {
+                assertTrue(host.getConnectionCount() <= 1);
+                assertEquals(0, host.getWaitingCount());
+            }
+        } finally {
+            client.stop();
+            server.stop();
+        }
+    }
+
+    public void testPipelining() throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredClients()
+                .add(new HttpClientHelper(null));
+
+        // Minimal server answering three requests per connection
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final int[] connections = new int[1];
+        Thread acceptor = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = serverSocket.accept();
+
+                        synchronized (connections) {
+                            connections[0]++;
+                        }
+
+                        serve(socket, 3);
+                    }
+                } catch (IOException e) {
+                    // Server socket closed
+                }
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        final Client client = new Client(new Context(), Protocol.HTTP);
+        client.getContext().getParameters()
+                .add("maxConnectionsPerHost", "1");
+        client.getContext().getParameters()
+                .add("pipeliningConnections", "true");
+        client.start();
+
+        try {
+            final String uri = "http://localhost:"
+                    + serverSocket.getLocalPort() + "/";
+            final int[] errors = new int[1];
+            Thread[] threads = new Thread[4];
+
+            for (int i = 0; i < threads.length; i++) {
+                final int index = i;
+                threads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10; j++) {
+                            String path = index + "-" + j;
+                            Response response = client.handle(new Request(
+                                    Method.GET, uri + path));
+
+                            try {
+                                if (!response.getStatus().isSuccess()
+                                        || !path.equals(response.getEntity()
+                                                .getText())) {
+                                    synchronized (errors) {
+                                        errors[0]++;
+                                    }
+                                }
+                            } catch (IOException e) {
+                                synchronized (errors) {
+                                    errors[0]++;
+                                }
+                            }
+                        }
+                    }
+                };
+                threads[i].start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Each response matches its request despite the closed connections
+            assertEquals(0, errors[0]);
+            assertTrue(connections[0] >= 40 / 3);
+        } finally {
+            client.stop();
+            serverSocket.close();
+        }
+    }
+
+    public void testWaitingCalls() {
+        HostConnections host = new HostConnections(new InetSocketAddress(
+                "localhost", 8182));
+        assertTrue(host.isEmpty());
+
+        Response r1 = new Response(new Request());
+        Response r2 = new Response(new Request());
+        Response r3 = new Response(new Request());
+        assertTrue(host.offer(r1, 1000, 2));
+        assertTrue(host.offer(r2, 2000, 2));
+        assertFalse(host.offer(r3, 3000, 2));
+        assertEquals(2, host.getWaitingCount());
+        assertFalse(host.isEmpty());
+
+        // Calls are served in arrival order and only expire after the deadline
+        assertSame(r1, host.peek());
+        assertNull(host.pollExpired(999));
+        assertSame(r1, host.pollExpired(1000));
+        assertSame(r2, host.poll());
+        assertNull(host.poll());
+        assertEquals(0, host.getWaitingCount());
+        assertTrue(host.isEmpty());
+        assertFalse(host.isRemoved());
+    }
+
+    /**
+     * Answers the requests received on a socket by echoing their path, then
+     * closes the connection after the given number of responses.
+     * 
+     * @param socket
+     *            The socket to serve.
+     * @param maxResponses
+     *            The number of responses after which to close.
+     */
+    private void serve(Socket socket, int maxResponses) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                socket.getInputStream(), "ISO-8859-1"));
+        OutputStream out = socket.getOutputStream();
+        String line = reader.readLine();
+
+        for (int i = 1; (line != null) && (i <= maxResponses); i++) {
+            String path = line.split(" ")[1].substring(1);
+
+            while ((line != null) && (line.length() > 0)) {
+                line = reader.readLine();
+            }
+
+            out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\n"
+                    + "Content-Length: " + path.length()
+                    + ((i == maxResponses) ? "\r\nConnection: close" : "")
+                    + "\r\n\r\n" + path).getBytes("ISO-8859-1"));
+            out.flush();
+            line = (i < maxResponses) ? reader.readLine() : null;
+        }
+
+        // Drain the unanswered pipelined requests before closing
+        socket.shutdownOutput();
+
+        while (reader.read() != -1) {
+        }
+
+        socket.close();
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.connector;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.restlet.engine.connector.HostResolver;
+import org.restlet.engine.connector.HostResolverCache;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit test for the cache of host resolutions.
+ * 
+ * @author agent
+ */
+public class HostResolverCacheTestCase extends RestletTestCase {
+
+    /** Resolver counting its calls and returning local addresses. */
+    private static class MockResolver implements HostResolver {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private volatile int lastByte = 1;
+
+        public InetAddress[] resolve(String hostDomain)
+                throws UnknownHostException {
+            calls.incrementAndGet();
+
+            if ("unknown".equals(hostDomain)) {
+                throw new UnknownHostException(hostDomain);
+            }
+
+            return new InetAddress[] {
+                    InetAddress.getByAddress(hostDomain, new byte[] { 10, 0,
+                            0, (byte) lastByte }),
+                    InetAddress.getByAddress(hostDomain, new byte[] { 10, 0,
+                            0, (byte) (lastByte + 1) }) };
+        }
+    }
+
+    private static final Logger LOGGER = Logger
+            .getLogger(HostResolverCacheTestCase.class.getName());
+
+    public void testMaxSize() throws Exception {
+        MockResolver resolver = new MockResolver();
+        HostResolverCache cache = new HostResolverCache(resolver, 60000, 0,
+                3, LOGGER);
+
+        for (int i = 0; i < 10; i++) {
+            cache.resolve("host" + i);
+            assertTrue(cache.getSize() <= 3);
+        }
+
+        // The most recent resolutions are kept
+        cache.resolve("host9");
+        assertEquals(10, resolver.calls.get());
+        cache.stop();
+    }
+
+    public void testNegativeTtl() throws Exception {
+        MockResolver resolver = new MockResolver();
+        HostResolverCache cache = new HostResolverCache(resolver, 60000,
+                60000, 100, LOGGER);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                cache.resolve("unknown");
+                fail("UnknownHostException expected");
+            } catch (UnknownHostException uhe) {
+                // Expected
+            }
+        }
+
+        assertEquals(1, resolver.calls.get());
+        cache.stop();
+    }
+
+    public void testNoCache() throws Exception {
+        MockResolver resolver = new MockResolver();
+        HostResolverCache cache = new HostResolverCache(resolver, 0, 0,
+                100, LOGGER);
+        cache.resolve("host");
+        cache.resolve("host");
+        assertEquals(2, resolver.calls.get());
+        assertEquals(0, cache.getSize());
+        cache.stop();
+    }
+
+    public void testRefreshAhead() throws Exception {
+        MockResolver resolver = new MockResolver();
+        HostResolverCache cache = new HostResolverCache(resolver, 500, 0,
+                100, LOGGER);
+        assertEquals("10.0.0.1", cache.resolve("host").getHostAddress());
+
+        // Used during the last fifth of the time to live
+        Thread.sleep(420);
+        resolver.lastByte = 5;
+        String address = cache.resolve("host").getHostAddress();
+        assertTrue(address.equals("10.0.0.1") || address.equals("10.0.0.2"));
+
+        for (int i = 0; (i < 50) && (resolver.calls.get() < 2); i++) {
+            Thread.sleep(10);
+        }
+
+        Thread.sleep(20);
+        assertEquals(2, resolver.calls.get());
+        address = cache.resolve("host").getHostAddress();
+        assertTrue(address.equals("10.0.0.5") || address.equals("10.0.0.6"));
+        cache.stop();
+    }
+
+    public void testRotation() throws Exception {
+        MockResolver resolver = new MockResolver();
+        HostResolverCache cache = new HostResolverCache(resolver, 60000, 0,
+                100, LOGGER);
+        assertEquals("10.0.0.1", cache.resolve("host").getHostAddress());
+        assertEquals("10.0.0.2", cache.resolve("host").getHostAddress());
+        assertEquals("10.0.0.1", cache.resolve("host").getHostAddress());
+        assertEquals(1, resolver.calls.get());
+        assertEquals(1, cache.getSize());
+        cache.stop();
+    }
+
+}
@@ -33,8 +33,14 @@
 
 package org.restlet.test.engine.connector;
 
+import java.util.Arrays;
+
 import org.restlet.Context;
 import org.restlet.Server;
+import org.restlet.data.ClientInfo;
+import org.restlet.data.Language;
+import org.restlet.data.MediaType;
+import org.restlet.data.Preference;
 import org.restlet.data.Protocol;
 import org.restlet.engine.Engine;
 import org.restlet.engine.connector.Connection;
@@ -51,6 +57,107 @@ import org.restlet.util.Series;
  */
 public class HttpInboundRequestTestCase extends RestletTestCase {
 
+    public void testDefaultDate() throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredServers()
+                .add(new HttpServerHelper(null));
+        Server server = new Server(new Context(), Protocol.HTTP, 0);
+        server.start();
+
+        try {
+            HttpServerHelper hsh = (HttpServerHelper) server.getContext()
+                    .getAttributes().get("org.restlet.engine.helper");
+            Connection<Server> c = hsh.getConnectionPool().checkout();
+
+            HttpInboundRequest hir = new HttpInboundRequest(
+                    server.getContext(), c, "GET", "/accounts", "HTTP/1.1");
+            Series<Header> headers = new Series<Header>(Header.class);
+            headers.add("Host", "localhost");
+            long before = System.currentTimeMillis();
+            hir.setHeaders(headers);
+            long after = System.currentTimeMillis();
+            Thread.sleep(50);
+
+            // Without a "Date" header, the reception time is used
+            long date = hir.getDate().getTime();
+            assertTrue(date >= before);
+            assertTrue(date <= after);
+        } finally {
+            server.stop();
+        }
+    }
+
+    public void testLazyClientInfo() {
+        Series<Header> headers = new Series<Header>(Header.class);
+        headers.add("Accept", "text/html,application/json;q=0.5");
+        headers.add("Accept-Encoding", "gzip");
+        headers.add("Expect", "100-continue");
+        ClientInfo clientInfo = new ClientInfo(headers);
+
+        // Accepting a media type first parses the headers
+        clientInfo.accept(MediaType.TEXT_PLAIN);
+        assertEquals(3, clientInfo.getAcceptedMediaTypes().size());
+        assertEquals(MediaType.TEXT_PLAIN, clientInfo.getAcceptedMediaTypes()
+                .get(2).getMetadata());
+        assertEquals(1, clientInfo.getAcceptedEncodings().size());
+        assertEquals(1, clientInfo.getExpectations().size());
+
+        // Missing headers accept all the metadata
+        assertEquals(1, clientInfo.getAcceptedLanguages().size());
+        assertEquals(Language.ALL, clientInfo.getAcceptedLanguages().get(0)
+                .getMetadata());
+    }
+
+    public void testLazyHeaders() throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredServers()
+                .add(new HttpServerHelper(null));
+        Server server = new Server(new Context(), Protocol.HTTP, 0);
+        server.start();
+
+        try {
+            HttpServerHelper hsh = (HttpServerHelper) server.getContext()
+                    .getAttributes().get("org.restlet.engine.helper");
+            Connection<Server> c = hsh.getConnectionPool().checkout();
+
+            HttpInboundRequest hir = new HttpInboundRequest(
+                    server.getContext(), c, "GET", "/accounts", "HTTP/1.1");
+            Series<Header> headers = new Series<Header>(Header.class);
+            headers.add("Host", "localhost");
+            headers.add("Accept", "text/html,application/json;q=0.5");
+            headers.add("Accept-Language", "fr,en;q=0.8");
+            headers.add("Date", "Sun, 06 Nov 1994 08:49:37 GMT");
+            headers.add("Expect", "100-continue");
+            headers.add("Max-Forwards", "5");
+            headers.add("User-Agent", "Test/1.0");
+            hir.setHeaders(headers);
+
+            ClientInfo clientInfo = hir.getClientInfo();
+            assertEquals("Test/1.0", clientInfo.getAgent());
+            assertEquals(2, clientInfo.getAcceptedMediaTypes().size());
+            assertEquals(MediaType.TEXT_HTML, clientInfo
+                    .getAcceptedMediaTypes().get(0).getMetadata());
+            assertEquals(0.5F, clientInfo.getAcceptedMediaTypes().get(1)
+                    .getQuality());
+            assertEquals(2, clientInfo.getAcceptedLanguages().size());
+            assertEquals(1, clientInfo.getAcceptedCharacterSets().size());
+            assertEquals(1, clientInfo.getExpectations().size());
+            assertEquals(MediaType.TEXT_HTML,
+                    clientInfo.getPreferredMediaType(Arrays.asList(
+                            MediaType.APPLICATION_JSON, MediaType.TEXT_HTML)));
+            assertEquals(784111777000L, hir.getDate().getTime());
+            assertEquals(5, hir.getMaxForwards());
+
+            clientInfo.setAcceptedMediaTypes(Arrays
+                    .asList(new Preference<MediaType>(MediaType.TEXT_PLAIN)));
+            assertEquals(1, clientInfo.getAcceptedMediaTypes().size());
+            hir.setMaxForwards(2);
+            assertEquals(2, hir.getMaxForwards());
+        } finally {
+            server.stop();
+        }
+    }
+
     public void testRequestUri() throws Exception {
         Engine.register(false);
         Engine.getInstance().getRegisteredServers()
@@ -38,11 +38,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 import org.restlet.data.CharacterSet;
 import org.restlet.data.MediaType;
 import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.io.IoUtils;
+import org.restlet.engine.io.NioUtils;
 import org.restlet.representation.OutputRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.WriterRepresentation;
 import org.restlet.test.RestletTestCase;
 
 /**
@@ -52,6 +59,173 @@ import org.restlet.test.RestletTestCase;
  */
 public class BioUtilsTestCase extends RestletTestCase {
 
+    /**
+     * Output representation recording the threads writing its content.
+     */
+    private static class ThreadOutputRepresentation extends
+            OutputRepresentation {
+
+        /** The content to write. */
+        private final byte[] content;
+
+        /** Indicates if the content can only be written once. */
+        private volatile boolean oneShot;
+
+        /** The last thread writing the content. */
+        private volatile Thread writer;
+
+        /** The number of writes. */
+        private volatile int writes;
+
+        public ThreadOutputRepresentation(byte[] content) {
+            super(MediaType.APPLICATION_OCTET_STREAM, content.length);
+            this.content = content;
+        }
+
+        @Override
+        public void write(OutputStream outputStream) throws IOException {
+            this.writer = Thread.currentThread();
+            this.writes++;
+
+            if (this.oneShot && (this.writes > 1)) {
+                throw new IOException("The content was already written");
+            }
+
+            // Write in small slices like typical serializers
+            for (int i = 0; i < this.content.length; i += 1000) {
+                outputStream.write(this.content, i,
+                        Math.min(1000, this.content.length - i));
+            }
+        }
+    }
+
+    /**
+     * Creates a content of a given size.
+     * 
+     * @param size
+     *            The content size.
+     * @return The content.
+     */
+    private byte[] createContent(int size) {
+        byte[] result = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            result[i] = (byte) i;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a stream fully.
+     * 
+     * @param is
+     *            The stream to read.
+     * @return The bytes read.
+     */
+    private byte[] readFully(InputStream is) throws IOException {
+        java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+        BioUtils.copy(is, baos);
+        return baos.toByteArray();
+    }
+
+    public void testBridgeChannel() throws IOException {
+        byte[] content = createContent(10000);
+        ThreadOutputRepresentation or = new ThreadOutputRepresentation(content);
+        ReadableByteChannel channel = NioUtils.getChannel(or);
+        assertSame(Thread.currentThread(), or.writer);
+
+        ByteBuffer buffer = ByteBuffer.allocate(content.length + 10);
+
+        while (channel.read(buffer) != -1) {
+        }
+
+        assertEquals(content.length, buffer.position());
+        buffer.flip();
+        assertEquals(ByteBuffer.wrap(content), buffer);
+    }
+
+    public void testBridgeLarge() throws IOException {
+        byte[] content = createContent(IoUtils.BRIDGE_SIZE + 5000);
+        ThreadOutputRepresentation or = new ThreadOutputRepresentation(content);
+        byte[] result = readFully(or.getStream());
+
+        // The content is directly produced by a writer thread
+        assertEquals(1, or.writes);
+        assertNotSame(Thread.currentThread(), or.writer);
+        assertTrue(java.util.Arrays.equals(content, result));
+    }
+
+    public void testBridgeReader() throws IOException {
+        final String text = "Hello in-thread bridge";
+        WriterRepresentation wr = new WriterRepresentation(MediaType.TEXT_PLAIN) {
+            @Override
+            public void write(Writer writer) throws IOException {
+                writer.write(text);
+            }
+        };
+
+        assertEquals(text, BioUtils.toString(wr.getReader()));
+        assertEquals(text, BioUtils.toString(wr.getStream()));
+    }
+
+    public void testBridgeStream() throws IOException {
+        byte[] content = createContent(10000);
+        ThreadOutputRepresentation or = new ThreadOutputRepresentation(content);
+        byte[] result = readFully(or.getStream());
+        assertEquals(1, or.writes);
+        assertSame(Thread.currentThread(), or.writer);
+        assertTrue(java.util.Arrays.equals(content, result));
+
+        // Transient content can only be produced once, through a pipe
+        or = new ThreadOutputRepresentation(content);
+        or.setTransient(true);
+        result = readFully(or.getStream());
+        assertEquals(1, or.writes);
+        assertNotSame(Thread.currentThread(), or.writer);
+        assertTrue(java.util.Arrays.equals(content, result));
+    }
+
+    public void testBridgeUnknownSize() throws IOException {
+        byte[] content = createContent(IoUtils.BRIDGE_SIZE + 5000);
+
+        // One-shot producers whose size isn't known are written only once
+        ThreadOutputRepresentation or = new ThreadOutputRepresentation(content);
+        or.setSize(Representation.UNKNOWN_SIZE);
+        or.oneShot = true;
+        byte[] result = readFully(or.getStream());
+        assertEquals(1, or.writes);
+        assertTrue(java.util.Arrays.equals(content, result));
+
+        or = new ThreadOutputRepresentation(content);
+        or.setSize(Representation.UNKNOWN_SIZE);
+        or.oneShot = true;
+        result = readFully(NioUtils.getStream(NioUtils.getChannel(or)));
+        assertEquals(1, or.writes);
+        assertTrue(java.util.Arrays.equals(content, result));
+
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; sb.length() <= IoUtils.BRIDGE_SIZE; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+
+        final int[] writes = new int[1];
+        WriterRepresentation wr = new WriterRepresentation(MediaType.TEXT_PLAIN) {
+            @Override
+            public void write(Writer writer) throws IOException {
+                if (++writes[0] > 1) {
+                    throw new IOException("The content was already written");
+                }
+
+                writer.write(sb.toString());
+            }
+        };
+
+        assertEquals(sb.toString(), BioUtils.toString(wr.getReader()));
+        assertEquals(1, writes[0]);
+    }
+
     public void testGetStream() throws IOException {
         StringWriter writer = new StringWriter();
         OutputStream out = BioUtils.getOutputStream(writer, CharacterSet.UTF_8);
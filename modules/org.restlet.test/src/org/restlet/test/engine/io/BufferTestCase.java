@@ -34,8 +34,10 @@
 package org.restlet.test.engine.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.restlet.engine.io.Buffer;
+import org.restlet.engine.io.BufferPool;
 import org.restlet.engine.io.BufferState;
 import org.restlet.test.RestletTestCase;
 
@@ -73,4 +75,76 @@ public class BufferTestCase extends RestletTestCase {
         buffer.drain(sb, BufferState.FILLING);
         assertEquals("Remaining buffer", "ijklmnopqrstuvwxyz", sb.toString());
     }
+
+    public void testPoolCheckin() {
+        BufferPool pool = new BufferPool(false);
+        ByteBuffer byteBuffer = pool.checkout(1000);
+        byteBuffer.put((byte) 1);
+        pool.checkin(byteBuffer);
+        assertEquals(0, pool.getOutstandingBytes());
+
+        // Null buffers are ignored
+        pool.checkin(null);
+        assertEquals(0, pool.getOutstandingBytes());
+
+        // Unused buffers are released by two successive trims
+        assertEquals(0, pool.trim());
+        assertEquals(1, pool.trim());
+    }
+
+    public void testPoolCheckout() {
+        BufferPool pool = new BufferPool(false);
+        ByteBuffer byteBuffer = pool.checkout(1000);
+
+        // Sizes are rounded up to the next power of two
+        assertEquals(1024, byteBuffer.capacity());
+        assertEquals(0, byteBuffer.position());
+        assertEquals(1024, byteBuffer.limit());
+        assertFalse(byteBuffer.isDirect());
+        assertEquals(1024, pool.checkout(1024).capacity());
+        assertEquals(1, pool.checkout(0).capacity());
+        assertEquals(2049, pool.getOutstandingBytes());
+        assertEquals(0, pool.getHits());
+        assertEquals(3, pool.getMisses());
+        assertTrue(new BufferPool(true).checkout(16).isDirect());
+    }
+
+    public void testPoolReuse() throws IOException {
+        BufferPool pool = new BufferPool(false);
+        ByteBuffer byteBuffer = pool.checkout(1000);
+        byteBuffer.put((byte) 1);
+        pool.checkin(byteBuffer);
+
+        // The same cleared byte buffer is reused for the same size class
+        assertSame(byteBuffer, pool.checkout(600));
+        assertEquals(0, byteBuffer.position());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertNotSame(byteBuffer, pool.checkout(1000));
+        pool.checkin(byteBuffer);
+
+        // A pooled buffer only borrows its byte buffer when needed and
+        // returns it once empty
+        Buffer buffer = new Buffer(1000, pool);
+        assertFalse(buffer.release());
+        buffer.fill("abc");
+        assertSame(byteBuffer.array(), buffer.getBytes().array());
+        assertEquals(1000, buffer.capacity());
+        assertEquals(1000, buffer.getBytes().limit());
+        assertFalse(buffer.release());
+        buffer.flip();
+        StringBuilder sb = new StringBuilder();
+        buffer.drain(sb, BufferState.FILLING);
+        assertEquals("abc", sb.toString());
+        assertTrue(buffer.release());
+        assertEquals(1024, pool.getOutstandingBytes());
+        buffer.fill("def");
+        assertSame(byteBuffer.array(), buffer.getBytes().array());
+
+        // The requested size is kept after each clear
+        buffer.clear();
+        assertEquals(1000, buffer.getBytes().limit());
+        assertEquals(1000, buffer.remaining());
+    }
+
 }
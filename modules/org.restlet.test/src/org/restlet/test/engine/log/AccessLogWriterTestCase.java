@@ -0,0 +1,151 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Calendar;
+import java.util.logging.Logger;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.log.AccessLogRecord;
+import org.restlet.engine.log.AccessLogWriter;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the asynchronous access log writer.
+ * 
+ * @author agent
+ */
+public class AccessLogWriterTestCase extends RestletTestCase {
+
+    /**
+     * Creates a response to log.
+     * 
+     * @param path
+     *            The resource path.
+     * @return The response.
+     */
+    private Response createResponse(String path) {
+        Request request = new Request(Method.GET, "http://localhost:8182"
+                + path + "?q=1");
+        request.getClientInfo().setAddress("127.0.0.1");
+        request.getClientInfo().setAgent("test-agent");
+        Response response = new Response(request);
+        response.setStatus(Status.SUCCESS_OK);
+        response.setEntity("hello", null);
+        return response;
+    }
+
+    public void testDropWhenStopped() throws Exception {
+        File file = File.createTempFile("access", ".log");
+        file.deleteOnExit();
+        AccessLogWriter writer = new AccessLogWriter(file, 2, false,
+                Logger.getAnonymousLogger());
+        assertFalse(writer.log(createResponse("/a"), 1, null, false));
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(0, writer.getWrittenCount());
+    }
+
+    public void testUserIdentifier() {
+        Response response = createResponse("/a");
+        assertNull(AccessLogRecord.getUserIdentifier(response, false));
+
+        response.getRequest().setChallengeResponse(
+                new ChallengeResponse(ChallengeScheme.HTTP_BASIC, "scott",
+                        "tiger"));
+        String userIdentifier = AccessLogRecord.getUserIdentifier(response,
+                false);
+        assertEquals("scott", userIdentifier);
+
+        // The resolved identifier is formatted without any lookup
+        AccessLogRecord record = new AccessLogRecord();
+        record.update(response, 1, null, userIdentifier);
+        StringBuilder sb = new StringBuilder();
+        record.format(sb, Calendar.getInstance());
+        assertEquals("scott", sb.toString().split("\t")[3]);
+    }
+
+    public void testWrite() throws Exception {
+        File file = File.createTempFile("access", ".log");
+        file.deleteOnExit();
+        AccessLogWriter writer = new AccessLogWriter(file, 4, true,
+                Logger.getAnonymousLogger());
+        writer.start();
+
+        // More calls than the capacity of the ring buffer
+        for (int i = 0; i < 10; i++) {
+            assertTrue(writer.log(createResponse("/res" + i), i, null, false));
+        }
+
+        assertTrue(writer.log(createResponse("/custom"), 0, "custom message",
+                false));
+        writer.stop();
+        assertEquals(0, writer.getDroppedCount());
+        assertEquals(11, writer.getWrittenCount());
+
+        String[] lines = BioUtils.toString(new FileInputStream(file)).split(
+                System.getProperty("line.separator"));
+        assertEquals(11, lines.length);
+
+        for (int i = 0; i < 10; i++) {
+            String[] fields = lines[i].split("\t");
+            assertEquals(16, fields.length);
+            assertTrue(fields[0].matches("\\d{4}-\\d{2}-\\d{2}"));
+            assertTrue(fields[1].matches("\\d{2}:\\d{2}:\\d{2}"));
+            assertEquals("127.0.0.1", fields[2]);
+            assertEquals("-", fields[3]);
+            assertEquals("GET", fields[6]);
+            assertEquals("/res" + i, fields[7]);
+            assertEquals("q=1", fields[8]);
+            assertEquals("200", fields[9]);
+            assertEquals("5", fields[10]);
+            assertEquals(Integer.toString(i), fields[12]);
+            assertEquals("test-agent", fields[14]);
+        }
+
+        assertEquals("custom message", lines[10]);
+
+        // Calls after the stop are dropped
+        assertFalse(writer.log(createResponse("/late"), 0, null, false));
+        assertEquals(1, writer.getDroppedCount());
+    }
+
+}
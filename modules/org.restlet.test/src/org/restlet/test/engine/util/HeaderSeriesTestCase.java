@@ -0,0 +1,147 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.restlet.engine.header.Header;
+import org.restlet.engine.util.HeaderSeries;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Unit tests for the {@link HeaderSeries} class.
+ * 
+ * @author agent
+ */
+public class HeaderSeriesTestCase extends RestletTestCase {
+
+    /**
+     * Creates a series large enough to be indexed.
+     * 
+     * @return A new series.
+     */
+    private HeaderSeries createSeries() {
+        HeaderSeries result = new HeaderSeries();
+
+        for (int i = 0; i < 10; i++) {
+            result.add("X-Header-" + i, "value" + i);
+        }
+
+        result.add("Accept", "text/html");
+        result.add("accept", "text/plain");
+        return result;
+    }
+
+    public void testConcurrentReads() throws Exception {
+        final HeaderSeries series = createSeries();
+        final int[] errors = new int[1];
+        Thread[] threads = new Thread[4];
+
+        for (int round = 0; round < 20; round++) {
+            // Each modification makes the readers rebuild the index
+            series.add("X-Round", Integer.toString(round));
+
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 1000; j++) {
+                            if (!("value" + (j % 10)).equals(series
+                                    .getFirstValue("x-header-" + (j % 10),
+                                            true))) {
+                                synchronized (errors) {
+                                    errors[0]++;
+                                }
+                            }
+                        }
+                    }
+                };
+                threads[i].start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        assertEquals(0, errors[0]);
+    }
+
+    public void testLookup() {
+        HeaderSeries series = createSeries();
+        assertEquals("text/html", series.getFirstValue("ACCEPT", true));
+        assertEquals("text/plain", series.getFirstValue("accept"));
+        assertNull(series.getFirstValue("ACCEPT"));
+        assertEquals("text/html,text/plain", series.getValues("Accept"));
+        assertEquals("text/html", series.getValues("Accept", ",", false));
+        assertEquals(2, series.getValuesArray("accept", true).length);
+        assertEquals("value3", series.getFirstValue("x-header-3", true));
+        assertNull(series.getFirst("Unknown", true));
+        assertFalse(series.removeAll("Unknown", true));
+    }
+
+    public void testModifications() {
+        HeaderSeries series = createSeries();
+        assertEquals("text/html", series.getFirstValue("accept", true));
+
+        // Structural changes made through the list views are detected
+        series.add(0, new Header("Accept", "text/xml"));
+        assertEquals("text/xml", series.getFirstValue("accept", true));
+        series.set(0, new Header("Accept", "application/json"));
+        assertEquals("application/json", series.getFirstValue("accept", true));
+
+        for (Iterator<Header> iter = series.iterator(); iter.hasNext();) {
+            if ("Accept".equals(iter.next().getName())) {
+                iter.remove();
+            }
+        }
+
+        assertEquals("text/plain", series.getFirstValue("Accept", true));
+        series.subList(0, 5).clear();
+        assertNull(series.getFirstValue("x-header-3", true));
+        assertEquals("value7", series.getFirstValue("x-header-7", true));
+        Collections.reverse(series);
+        assertEquals("text/plain", series.getValues("accept"));
+
+        assertTrue(series.removeAll("ACCEPT", true));
+        assertNull(series.getFirstValue("accept", true));
+
+        Series<Header> values = series.subList("X-HEADER-9", true);
+        assertEquals(1, values.size());
+        assertEquals("value9", values.get(0).getValue());
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.List;
+
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Form;
+import org.restlet.data.Method;
+import org.restlet.data.Parameter;
+import org.restlet.engine.util.FormReader;
+import org.restlet.engine.util.IndexedForm;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Get;
+import org.restlet.resource.ServerResource;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the indexed form and the query caching of resources.
+ * 
+ * @author agent
+ */
+public class IndexedFormTestCase extends RestletTestCase {
+
+    /**
+     * Annotated resource counting the copies of its query.
+     */
+    public static class QueryResource extends ServerResource {
+
+        /** The number of copies of the query. */
+        private int queryCopies;
+
+        @Get("txt?mode=full")
+        public String getFull() {
+            return "full";
+        }
+
+        @Override
+        public Form getQuery() {
+            this.queryCopies++;
+            return super.getQuery();
+        }
+
+        @Get("xml?mode=short")
+        public String getShort() {
+            return "<short/>";
+        }
+    }
+
+    public void testConcurrentLookups() throws Exception {
+        final Form form = new IndexedForm("a=1&b=2&c=3");
+        final boolean[] failed = new boolean[1];
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        if (!"2".equals(form.getFirstValue("b"))) {
+                            failed[0] = true;
+                        }
+                    }
+                }
+            };
+        }
+
+        // Each thread may build and publish its own snapshot
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(failed[0]);
+    }
+
+    public void testDispatch() {
+        QueryResource resource = new QueryResource();
+        Request request = new Request(Method.GET,
+                "http://localhost/search?mode=full");
+        resource.init(new Context(), request, new Response(request));
+
+        // The annotations are matched against the parsed query, not copies
+        List<Variant> variants = resource.getVariants();
+        assertEquals(1, variants.size());
+        assertEquals(0, resource.queryCopies);
+    }
+
+    public void testLookup() {
+        Form form = new IndexedForm("a=1&b=2&a=3&c&d=%20x");
+        assertEquals(5, form.size());
+        assertEquals("1", form.getFirstValue("a"));
+        assertEquals("2", form.getFirstValue("b"));
+        assertNull(form.getFirstValue("c"));
+        assertNotNull(form.getFirst("c"));
+        assertEquals(" x", form.getFirstValue("d"));
+        assertNull(form.getFirstValue("A"));
+        assertEquals("1", form.getFirstValue("A", true));
+        assertNull(form.getFirstValue("e"));
+
+        // The index follows the modifications
+        form.removeFirst("a");
+        assertEquals("3", form.getFirstValue("a"));
+        form.set(0, new Parameter("b", "4"));
+        assertEquals("4", form.getFirstValue("b"));
+        form.add("e", "5");
+        assertEquals("5", form.getFirstValue("e"));
+        form.clear();
+        assertNull(form.getFirstValue("e"));
+    }
+
+    public void testQuery() {
+        ServerResource resource = new ServerResource() {
+        };
+        Request request = new Request(Method.GET,
+                "http://localhost/search?q=restlet&page=2");
+        resource.init(new Context(), request, new Response(request));
+
+        assertEquals("restlet", resource.getQueryValue("q"));
+        assertEquals("2", resource.getQueryValue("page"));
+
+        // Each caller gets its own copy of the cached query
+        Form query = resource.getQuery();
+        assertNotSame(query, resource.getQuery());
+        assertEquals(2, query.size());
+        query.set("q", "other");
+        query.getFirst("page").setName("size");
+        query.add("lang", "en");
+        assertEquals("restlet", resource.getQueryValue("q"));
+        assertEquals("2", resource.getQueryValue("page"));
+        assertNull(resource.getQueryValue("size"));
+        assertNull(resource.getQueryValue("lang"));
+        assertEquals(2, resource.getQuery().size());
+
+        // The query is parsed again once the reference changes
+        resource.setQueryValue("page", "3");
+        assertEquals("3", resource.getQuery().getFirstValue("page"));
+        assertEquals("3", resource.getQueryValue("page"));
+        assertEquals("restlet", resource.getQueryValue("q"));
+
+        resource.getReference().setQuery(null);
+        assertTrue(resource.getQuery().isEmpty());
+        assertNull(resource.getQueryValue("q"));
+    }
+
+    public void testStreaming() throws Exception {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 1000; i++) {
+            sb.append("p").append(i).append("=v%20").append(i).append('&');
+        }
+
+        FormReader reader = new FormReader(new StringRepresentation(sb));
+        int count = 0;
+
+        for (Parameter param = reader.readNextParameter(); param != null; param = reader
+                .readNextParameter()) {
+            assertEquals("p" + count, param.getName());
+            assertEquals("v " + count, param.getValue());
+            count++;
+        }
+
+        assertEquals(1000, count);
+    }
+
+}
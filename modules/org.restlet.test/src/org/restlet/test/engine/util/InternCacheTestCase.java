@@ -0,0 +1,115 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.List;
+
+import org.restlet.data.CharacterSet;
+import org.restlet.data.ClientInfo;
+import org.restlet.data.Encoding;
+import org.restlet.data.Language;
+import org.restlet.data.MediaType;
+import org.restlet.data.Preference;
+import org.restlet.engine.header.ContentType;
+import org.restlet.engine.header.PreferenceReader;
+import org.restlet.engine.util.InternCache;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the interning of parsed metadata.
+ * 
+ * @author agent
+ */
+public class InternCacheTestCase extends RestletTestCase {
+
+    public void testBounds() {
+        InternCache<String> cache = new InternCache<String>(2);
+        String a = new String("a");
+        assertSame(a, cache.intern("a", a));
+        assertSame(a, cache.intern("a", new String("a")));
+        assertSame(a, cache.get("a"));
+        cache.intern("b", "b");
+        assertEquals(2, cache.size());
+
+        // The cache is cleared once full
+        cache.intern("c", "c");
+        assertEquals(1, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals("c", cache.get("c"));
+        assertNull(cache.get(null));
+    }
+
+    public void testContentType() {
+        ContentType ct1 = new ContentType("application/x-test; charset=utf-8");
+        ContentType ct2 = new ContentType("application/x-test; charset=utf-8");
+        assertSame(ct1.getMediaType(), ct2.getMediaType());
+        assertSame(CharacterSet.UTF_8, ct1.getCharacterSet());
+        assertEquals(new MediaType("application/x-test"), ct1.getMediaType());
+    }
+
+    public void testPreferences() {
+        ClientInfo ci1 = new ClientInfo();
+        ClientInfo ci2 = new ClientInfo();
+        String accept = "application/x-test;level=1;q=0.5, application/x-other";
+        PreferenceReader.addMediaTypes(accept, ci1);
+        PreferenceReader.addMediaTypes(accept, ci2);
+        List<Preference<MediaType>> prefs1 = ci1.getAcceptedMediaTypes();
+        List<Preference<MediaType>> prefs2 = ci2.getAcceptedMediaTypes();
+        assertEquals(2, prefs1.size());
+        assertSame(prefs1.get(0).getMetadata(), prefs2.get(0).getMetadata());
+        assertSame(prefs1.get(1).getMetadata(), prefs2.get(1).getMetadata());
+        assertEquals("1", prefs1.get(0).getMetadata().getParameters()
+                .getFirstValue("level"));
+        assertEquals(0.5F, prefs1.get(0).getQuality());
+
+        // Other parameter values give other media types
+        ClientInfo ci3 = new ClientInfo();
+        PreferenceReader.addMediaTypes("application/x-test;level=2", ci3);
+        assertEquals("2", ci3.getAcceptedMediaTypes().get(0).getMetadata()
+                .getParameters().getFirstValue("level"));
+    }
+
+    public void testValueOf() {
+        assertSame(MediaType.valueOf("application/x-test"),
+                MediaType.valueOf("application/x-test"));
+        assertSame(MediaType.TEXT_PLAIN, MediaType.valueOf("text/plain"));
+        assertSame(Language.valueOf("de-ch"), Language.valueOf("de-ch"));
+        assertSame(Encoding.valueOf("x-test"), Encoding.valueOf("x-test"));
+        assertSame(CharacterSet.valueOf("x-test"),
+                CharacterSet.valueOf("x-test"));
+        assertEquals("X-TEST", CharacterSet.valueOf("x-test").getName());
+        assertNull(MediaType.valueOf(""));
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.engine.util;
+
+import java.util.zip.Deflater;
+
+import org.restlet.engine.io.DeflaterPool;
+import org.restlet.engine.util.Pool;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the {@link Pool} class.
+ * 
+ * @author agent
+ */
+public class PoolTestCase extends RestletTestCase {
+
+    /** Pool of string builders. */
+    private static class BuilderPool extends Pool<StringBuilder> {
+
+        private int released;
+
+        public BuilderPool(int initialSize, int maxSize) {
+            super(initialSize, maxSize);
+        }
+
+        @Override
+        protected void clear(StringBuilder object) {
+            object.setLength(0);
+        }
+
+        @Override
+        protected StringBuilder createObject() {
+            return new StringBuilder();
+        }
+
+        @Override
+        protected void release(StringBuilder object) {
+            this.released++;
+        }
+    }
+
+    public void testDeflaterPool() {
+        DeflaterPool pool = new DeflaterPool(false, 1);
+        Deflater d1 = pool.checkout(1);
+        Deflater d2 = pool.checkout(9);
+        pool.checkin(d1);
+        pool.checkin(d2);
+
+        // The deflater dropped by the full pool was ended
+        assertSame(d1, pool.checkout(6));
+        d1.deflate(new byte[16]);
+
+        try {
+            d2.deflate(new byte[16]);
+            fail("The dropped deflater should have been ended");
+        } catch (NullPointerException e) {
+            // Expected
+        }
+    }
+
+    public void testMaxSize() {
+        BuilderPool pool = new BuilderPool(5, 3);
+        assertEquals(3, pool.getSize());
+
+        StringBuilder sb = pool.checkout();
+        sb.append("test");
+        pool.checkin(sb);
+        assertEquals(3, pool.getSize());
+        pool.checkin(new StringBuilder());
+        assertEquals(3, pool.getSize());
+
+        pool.setMaxSize(-1);
+        pool.checkin(new StringBuilder());
+        assertEquals(4, pool.getSize());
+
+        pool.clear();
+        assertEquals(0, pool.getSize());
+    }
+
+    public void testRelease() {
+        BuilderPool pool = new BuilderPool(5, 3);
+        assertEquals(2, pool.released);
+        pool.checkin(new StringBuilder());
+        assertEquals(3, pool.released);
+
+        assertEquals(0, pool.trim(1));
+        assertEquals(2, pool.trim(1));
+        assertEquals(5, pool.released);
+
+        pool.clear();
+        assertEquals(6, pool.released);
+        assertEquals(0, pool.getSize());
+    }
+
+    public void testStatistics() {
+        BuilderPool pool = new BuilderPool(1, -1);
+        StringBuilder sb1 = pool.checkout();
+        StringBuilder sb2 = pool.checkout();
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        pool.checkin(sb1);
+        pool.checkin(sb2);
+        assertSame(sb1, pool.checkout());
+        assertEquals(2, pool.getHits());
+        assertEquals(1, pool.getSize());
+    }
+
+    public void testTrim() {
+        BuilderPool pool = new BuilderPool(10, -1);
+
+        // First call sets the idle mark
+        assertEquals(0, pool.trim(0));
+
+        // Use up to 4 objects at the same time, 6 stay idle
+        StringBuilder[] objects = new StringBuilder[4];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = pool.checkout();
+        }
+        for (int i = 0; i < objects.length; i++) {
+            pool.checkin(objects[i]);
+        }
+
+        assertEquals(6, pool.trim(2));
+        assertEquals(4, pool.getSize());
+
+        // No activity, all objects stayed idle
+        assertEquals(2, pool.trim(2));
+        assertEquals(2, pool.getSize());
+        assertEquals(0, pool.trim(2));
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.ext.ssl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.Server;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Parameter;
+import org.restlet.data.Protocol;
+import org.restlet.data.Status;
+import org.restlet.engine.ConnectorHelper;
+import org.restlet.engine.Engine;
+import org.restlet.engine.io.BioUtils;
+import org.restlet.representation.FileRepresentation;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.Series;
+
+/**
+ * Test that file entities sent by the internal connectors, which may be
+ * directly transferred to the socket channel, are correctly received over
+ * HTTP and HTTPS.
+ * 
+ * @author agent
+ */
+public class FileTransferTestCase extends RestletTestCase {
+
+    /** The content of the file entity. */
+    private byte[] content;
+
+    /** The file entity. */
+    private File file;
+
+    /** The test directory. */
+    private final File testDir = new File(
+            System.getProperty("java.io.tmpdir"), "FileTransferTestCase");
+
+    /** The test key store. */
+    private final File testKeystoreFile = new File(testDir, "dummy.jks");
+
+    /**
+     * Gets the file entity with the given connectors and checks its content.
+     * 
+     * @param protocol
+     *            The protocol used.
+     * @param serverHelper
+     *            The server connector helper.
+     * @param clientHelper
+     *            The client connector helper.
+     */
+    private void get(Protocol protocol, ConnectorHelper<Server> serverHelper,
+            ConnectorHelper<Client> clientHelper) throws Exception {
+        Engine.register(false);
+        Engine.getInstance().getRegisteredServers().add(serverHelper);
+        Engine.getInstance().getRegisteredClients().add(clientHelper);
+        Server server = new Server(new Context(), protocol, 0, new Restlet() {
+            @Override
+            public void handle(Request request, Response response) {
+                response.setEntity(new FileRepresentation(file,
+                        MediaType.APPLICATION_OCTET_STREAM));
+            }
+        });
+        Client client = new Client(new Context(), protocol);
+
+        if (Protocol.HTTPS.equals(protocol)) {
+            Series<Parameter> parameters = server.getContext()
+                    .getParameters();
+            parameters.add("keystorePath", testKeystoreFile.getPath());
+            parameters.add("keystorePassword", "testtest");
+            parameters.add("keyPassword", "testtest");
+            parameters.add("sslProtocol", "TLSv1.2");
+            parameters = client.getContext().getParameters();
+            parameters.add("truststorePath", testKeystoreFile.getPath());
+            parameters.add("truststorePassword", "testtest");
+            parameters.add("sslProtocol", "TLSv1.2");
+        }
+
+        server.start();
+        client.start();
+
+        try {
+            Response response = client.handle(new Request(Method.GET,
+                    protocol.getSchemeName() + "://localhost:"
+                            + server.getActualPort() + "/file"));
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            response.getEntity().write(out);
+            assertTrue(Arrays.equals(this.content, out.toByteArray()));
+        } finally {
+            client.stop();
+            server.stop();
+        }
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        BioUtils.delete(this.testDir, true);
+        this.testDir.mkdir();
+
+        // Write a file entity larger than the connector buffers
+        this.content = new byte[300000];
+
+        for (int i = 0; i < this.content.length; i++) {
+            this.content[i] = (byte) (i % 251);
+        }
+
+        this.file = new File(this.testDir, "file.bin");
+        OutputStream outputStream = new FileOutputStream(this.file);
+        outputStream.write(this.content);
+        outputStream.close();
+
+        // Copy the key store into the test directory
+        Response response = new Client(Protocol.CLAP).handle(new Request(
+                Method.GET, "clap://class/org/restlet/test/engine/dummy.jks"));
+        outputStream = new FileOutputStream(this.testKeystoreFile);
+        response.getEntity().write(outputStream);
+        outputStream.close();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BioUtils.delete(this.testDir, true);
+
+        // Restore a clean engine
+        Engine.register();
+        super.tearDown();
+    }
+
+    public void testHttp() throws Exception {
+        get(Protocol.HTTP,
+                new org.restlet.engine.connector.HttpServerHelper(null),
+                new org.restlet.engine.connector.HttpClientHelper(null));
+    }
+
+    public void testHttps() throws Exception {
+        get(Protocol.HTTPS, new org.restlet.ext.ssl.HttpsServerHelper(null),
+                new org.restlet.ext.ssl.HttpsClientHelper(null));
+    }
+
+}
@@ -34,21 +34,30 @@
 package org.restlet.test.resource;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.restlet.Application;
 import org.restlet.Component;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
+import org.restlet.data.Dimension;
+import org.restlet.data.Encoding;
 import org.restlet.data.Language;
 import org.restlet.data.LocalReference;
+import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Protocol;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.engine.header.PreferenceReader;
 import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.local.EncodedVariantCache;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.Directory;
@@ -230,6 +239,147 @@ public class DirectoryTestCase extends RestletTestCase {
         clientComponent.stop();
     }
 
+    /**
+     * Returns the decoded text of a response entity.
+     * 
+     * @param response
+     *            The response.
+     * @return The decoded text.
+     */
+    private String getDecodedText(Response response) throws IOException {
+        String result;
+
+        if (response.getEntity().getEncodings().contains(Encoding.GZIP)) {
+            result = BioUtils.toString(new GZIPInputStream(response
+                    .getEntity().getStream()));
+        } else {
+            result = response.getEntity().getText();
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets a file while accepting the given encodings.
+     * 
+     * @param application
+     *            The application.
+     * @param resourceRef
+     *            The resource URI.
+     * @param acceptEncoding
+     *            The value of the "Accept-Encoding" header.
+     * @return The response.
+     */
+    private Response getEncoded(Application application, String resourceRef,
+            String acceptEncoding) {
+        Request request = new Request(Method.GET, resourceRef);
+        request.getResourceRef().setBaseRef(this.webSiteURL);
+        PreferenceReader.addEncodings(acceptEncoding, request.getClientInfo());
+        Response response = new Response(request);
+        application.handle(request, response);
+        return response;
+    }
+
+    /**
+     * Gets a file while accepting the GZIP encoding.
+     * 
+     * @param application
+     *            The application.
+     * @param resourceRef
+     *            The resource URI.
+     * @return The response.
+     */
+    private Response getGzip(Application application, String resourceRef) {
+        return getEncoded(application, resourceRef, "gzip");
+    }
+
+    public void testEncodedVariants() throws Exception {
+        this.testDir = new File(System.getProperty("java.io.tmpdir"),
+                "DirectoryTestCase/encoded" + new Date().getTime());
+        this.testDir.mkdirs();
+        Component clientComponent = new Component();
+        clientComponent.getClients().add(Protocol.FILE);
+        MyApplication application = new MyApplication(this.testDir);
+        clientComponent.getDefaultHost().attach("", application);
+        clientComponent.start();
+
+        try {
+            StringBuilder sb = new StringBuilder();
+
+            for (int i = 0; i < 500; i++) {
+                sb.append("line ").append(i % 10).append('\n');
+            }
+
+            String text = sb.toString();
+            File file = new File(this.testDir, "app.txt");
+            writeFile(file, text.getBytes(), false);
+            file.setLastModified(1000000000000L);
+            String uri = this.webSiteURL.concat("app.txt");
+            Directory directory = application.getDirectory();
+
+            // The file is returned as is by default
+            Response response = getGzip(application, uri);
+            assertEquals(Status.SUCCESS_OK, response.getStatus());
+            assertTrue(response.getEntity().getEncodings().isEmpty());
+            assertEquals(text, response.getEntity().getText());
+
+            // The encoded variant is computed once then cached
+            EncodedVariantCache cache = new EncodedVariantCache(100000);
+            directory.setEncodedCache(cache);
+            response = getGzip(application, uri);
+            assertTrue(response.getEntity().getEncodings()
+                    .contains(Encoding.GZIP));
+            assertTrue(response.getDimensions().contains(Dimension.ENCODING));
+            assertTrue(response.getEntity().getSize() < text.length());
+            assertEquals(text, getDecodedText(response));
+            assertEquals(1, cache.getCount());
+            response = getGzip(application, uri);
+            assertEquals(text, getDecodedText(response));
+            assertEquals(1, cache.getCount());
+
+            // An explicit preference overrides the wildcard
+            response = getEncoded(application, uri, "*, gzip;q=0");
+            assertEquals(1, response.getEntity().getEncodings().size());
+            assertTrue(response.getEntity().getEncodings()
+                    .contains(Encoding.DEFLATE));
+            assertEquals(2, cache.getCount());
+
+            // A preferred identity encoding is respected
+            response = getEncoded(application, uri, "identity, gzip;q=0.5");
+            assertTrue(response.getEntity().getEncodings().isEmpty());
+            assertEquals(text, response.getEntity().getText());
+
+            // Another compression level isn't served from the cache
+            application.getEncoderService().setCompressionLevel(1);
+            assertEquals(text, getDecodedText(getGzip(application, uri)));
+            assertEquals(3, cache.getCount());
+
+            // An up to date precompressed sibling is preferred
+            File gzFile = new File(this.testDir, "app.txt.gz");
+            writeFile(gzFile, "precompressed".getBytes(), true);
+            gzFile.setLastModified(file.lastModified() + 1000);
+            directory.setPrecompressedAllowed(true);
+            response = getGzip(application, uri);
+            assertEquals(MediaType.TEXT_PLAIN, response.getEntity()
+                    .getMediaType());
+            assertEquals("precompressed", getDecodedText(response));
+
+            // An outdated precompressed sibling is ignored
+            gzFile.setLastModified(file.lastModified() - 1000);
+            response = getGzip(application, uri);
+            assertEquals(text, getDecodedText(response));
+
+            // A modified file isn't served from the cache
+            writeFile(file, "modified".getBytes(), false);
+            file.setLastModified(1000000002000L);
+            directory.setPrecompressedAllowed(false);
+            assertEquals("modified", getDecodedText(getGzip(application, uri)));
+        } finally {
+            clientComponent.stop();
+            BioUtils.delete(this.testDir, true);
+        }
+    }
+
     /**
      * Helper
      * 
@@ -554,4 +704,26 @@ public class DirectoryTestCase extends RestletTestCase {
         BioUtils.delete(testDirectory, true);
         System.out.println("End of tests*********************");
     }
+
+    /**
+     * Writes the content of a file.
+     * 
+     * @param file
+     *            The file to write.
+     * @param content
+     *            The content to write.
+     * @param gzip
+     *            Indicates if the content must be compressed.
+     */
+    private void writeFile(File file, byte[] content, boolean gzip)
+            throws IOException {
+        OutputStream out = new FileOutputStream(file);
+
+        if (gzip) {
+            out = new GZIPOutputStream(out);
+        }
+
+        out.write(content);
+        out.close();
+    }
 }
@@ -33,6 +33,8 @@
 
 package org.restlet.test.routing;
 
+import java.util.Collections;
+
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.routing.Route;
@@ -75,6 +77,61 @@ public class RouteListTestCase extends RestletTestCase {
         assertNull(list.getLast(null, null, 6f));
     }
 
+    public void testGetModificationCount() {
+        final RouteList list = new RouteList();
+        final Route route = new MockScoringRoute(5);
+        int count = list.getModificationCount();
+
+        list.add(route);
+        assertTrue(count != (count = list.getModificationCount()));
+        list.set(0, new MockScoringRoute(6));
+        assertTrue(count != (count = list.getModificationCount()));
+        list.add(0, route);
+        assertTrue(count != (count = list.getModificationCount()));
+        list.remove(route);
+        assertTrue(count != (count = list.getModificationCount()));
+        list.removeAll(Collections.singleton(route));
+        assertTrue(count != (count = list.getModificationCount()));
+        list.clear();
+        assertTrue(count != (count = list.getModificationCount()));
+
+        // Read operations don't change the count
+        list.getFirst(null, null, 1f);
+        list.subList(0, 0);
+        assertEquals(count, list.getModificationCount());
+
+        // Sub-lists are copies
+        list.add(route);
+        count = list.getModificationCount();
+        list.subList(0, 1).clear();
+        assertEquals(1, list.size());
+        assertEquals(count, list.getModificationCount());
+    }
+
+    public void testGetModificationCountConcurrently() throws Exception {
+        final RouteList list = new RouteList();
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        list.add(new MockScoringRoute(j));
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, list.size());
+        assertEquals(4000, list.getModificationCount());
+    }
+
     public void testGetNext() {
         final RouteList list = new RouteList();
 
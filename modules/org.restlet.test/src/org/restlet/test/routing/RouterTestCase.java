@@ -0,0 +1,232 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.test.routing;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.data.Method;
+import org.restlet.data.Reference;
+import org.restlet.routing.Route;
+import org.restlet.routing.Router;
+import org.restlet.routing.Template;
+import org.restlet.routing.TemplateRoute;
+import org.restlet.test.RestletTestCase;
+import org.restlet.util.RouteList;
+
+/**
+ * Test case for the Router class.
+ * 
+ * @author agent
+ */
+public class RouterTestCase extends RestletTestCase {
+
+    /** Route scoring a constant value whatever the call. */
+    static class MockScoringRoute extends Route {
+        final float score;
+
+        public MockScoringRoute(Router router, float score) {
+            super(router, null);
+            this.score = score;
+        }
+
+        @Override
+        public float score(Request request, Response response) {
+            return this.score;
+        }
+    }
+
+    /** Target restlet of the test routes. */
+    private static final Restlet TARGET = new Restlet() {
+    };
+
+    private static final String[] PATTERNS = { "/users", "/users/",
+            "/users/{id}", "/users/{id}/orders", "/users/{id}/orders/{oid}",
+            "/users/me", "/users/me/{x}", "/user{suffix}", "/orders/{id}",
+            "/orders/{id}?format={f}", "/static/", "/static/css/",
+            "/static/css/{file}", "/{any}", "/{a}/{b}", "", "x{y}", "/a.b/",
+            "/a/b/c/d/{e}", "/a/b/", "/a/{b}/c" };
+
+    private static final String[] URIS = { "/", "/users", "/users/",
+            "/users/123", "/users/123/", "/users/123/orders",
+            "/users/123/orders/9", "/users/me", "/users/me/", "/users/me/x",
+            "/userbob", "/orders/1", "/orders/1?format=json",
+            "/static/css/site.css", "/static/js/app.js", "/a.b/", "/a/b/c/d/e",
+            "/a/x/c", "/a/b/", "x1", "", "/unknown/path/here" };
+
+    /**
+     * Creates a router with the test routes.
+     * 
+     * @param compiledMatching
+     *            Indicates if the compiled matching is enabled.
+     * @param routingMode
+     *            The routing mode.
+     * @param matchingMode
+     *            The template matching mode.
+     * @return The router created.
+     */
+    private Router createRouter(boolean compiledMatching, int routingMode,
+            int matchingMode) {
+        Router result = new Router();
+        result.setCompiledMatching(compiledMatching);
+        result.setRoutingMode(routingMode);
+        result.setDefaultMatchingMode(matchingMode);
+
+        for (int i = 0; i < PATTERNS.length; i++) {
+            TemplateRoute route = result.attach(PATTERNS[i], TARGET);
+
+            if (i % 3 == 0) {
+                route.setMatchingQuery(true);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the index of the route selected for the given URI.
+     * 
+     * @param router
+     *            The router.
+     * @param uri
+     *            The relative URI.
+     * @return The index of the route selected or -1.
+     */
+    private int route(Router router, String uri) {
+        Request request = new Request(Method.GET, "http://localhost:8182"
+                + uri);
+        request.getResourceRef().setBaseRef(
+                new Reference("http://localhost:8182"));
+        Restlet next = router.getNext(request, new Response(request));
+        return router.getRoutes().indexOf(next);
+    }
+
+    /**
+     * Asserts that both routers select the same routes for all test URIs.
+     * 
+     * @param expected
+     *            The router with regular scoring.
+     * @param actual
+     *            The router with compiled matching.
+     */
+    private void assertSameRoutes(Router expected, Router actual) {
+        for (String uri : URIS) {
+            assertEquals("Route mismatch for \"" + uri + "\"",
+                    route(expected, uri), route(actual, uri));
+        }
+    }
+
+    public void testCompiledMatchingConsistency() {
+        int[] routingModes = { Router.MODE_BEST_MATCH, Router.MODE_FIRST_MATCH };
+        int[] matchingModes = { Template.MODE_EQUALS,
+                Template.MODE_STARTS_WITH };
+
+        for (int routingMode : routingModes) {
+            for (int matchingMode : matchingModes) {
+                assertSameRoutes(
+                        createRouter(false, routingMode, matchingMode),
+                        createRouter(true, routingMode, matchingMode));
+            }
+        }
+    }
+
+    public void testCompiledMatchingWithCustomRoute() {
+        Router expected = createRouter(false, Router.MODE_BEST_MATCH,
+                Template.MODE_STARTS_WITH);
+        Router actual = createRouter(true, Router.MODE_BEST_MATCH,
+                Template.MODE_STARTS_WITH);
+        expected.getRoutes().add(3, new MockScoringRoute(expected, 0.99F));
+        actual.getRoutes().add(3, new MockScoringRoute(actual, 0.99F));
+        assertSameRoutes(expected, actual);
+    }
+
+    public void testCompiledMatchingUpdates() {
+        Router expected = createRouter(false, Router.MODE_FIRST_MATCH,
+                Template.MODE_EQUALS);
+        Router actual = createRouter(true, Router.MODE_FIRST_MATCH,
+                Template.MODE_EQUALS);
+        assertSameRoutes(expected, actual);
+
+        // Attach new routes
+        expected.getRoutes().add(0,
+                new TemplateRoute(expected, "/static/js/{file}", TARGET));
+        actual.getRoutes().add(0,
+                new TemplateRoute(actual, "/static/js/{file}", TARGET));
+        assertSameRoutes(expected, actual);
+        assertEquals(0, route(actual, "/static/js/app.js"));
+
+        // Change a pattern
+        ((TemplateRoute) expected.getRoutes().get(0)).getTemplate()
+                .setPattern("/static/{dir}/{file}");
+        ((TemplateRoute) actual.getRoutes().get(0)).getTemplate().setPattern(
+                "/static/{dir}/{file}");
+        assertSameRoutes(expected, actual);
+        assertEquals(0, route(actual, "/static/css/site.css"));
+
+        // Change the pattern of a template shared by both routers
+        Template shared = new Template("/shared/{file}");
+        ((TemplateRoute) expected.getRoutes().get(0)).setTemplate(shared);
+        ((TemplateRoute) actual.getRoutes().get(0)).setTemplate(shared);
+        assertEquals(0, route(actual, "/shared/logo.png"));
+        shared.setPattern("/common/{file}");
+        assertSameRoutes(expected, actual);
+        assertEquals(0, route(actual, "/common/logo.png"));
+        assertEquals(route(expected, "/shared/logo.png"),
+                route(actual, "/shared/logo.png"));
+
+        // Replace a template
+        ((TemplateRoute) expected.getRoutes().get(0)).setTemplate(new Template(
+                "/assets/{file}"));
+        ((TemplateRoute) actual.getRoutes().get(0)).setTemplate(new Template(
+                "/assets/{file}"));
+        assertSameRoutes(expected, actual);
+        assertEquals(0, route(actual, "/assets/logo.png"));
+
+        // Detach routes
+        expected.getRoutes().remove(0);
+        actual.getRoutes().remove(0);
+        expected.getRoutes().remove(3);
+        actual.getRoutes().remove(3);
+        assertSameRoutes(expected, actual);
+
+        // Replace the list of routes
+        RouteList routes = new RouteList();
+        routes.add(new TemplateRoute(actual, "/static/css/{file}", TARGET));
+        actual.setRoutes(routes);
+        assertEquals(0, route(actual, "/static/css/site.css"));
+        assertEquals(-1, route(actual, "/users"));
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.test.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.restlet.data.CharacterSet;
+import org.restlet.data.MediaType;
+import org.restlet.engine.Engine;
+import org.restlet.engine.converter.ConverterHelper;
+import org.restlet.engine.resource.VariantInfo;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.representation.Variant;
+import org.restlet.resource.Resource;
+import org.restlet.service.ConverterService;
+import org.restlet.test.RestletTestCase;
+
+/**
+ * Unit tests for the converter service.
+ * 
+ * @author agent
+ */
+public class ConverterServiceTestCase extends RestletTestCase {
+
+    /**
+     * Converter preferred for strings, counting its scorings.
+     */
+    private static class StringConverter extends ConverterHelper {
+
+        private int scorings;
+
+        @Override
+        public List<Class<?>> getObjectClasses(Variant source) {
+            return null;
+        }
+
+        @Override
+        public List<VariantInfo> getVariants(Class<?> source) {
+            return null;
+        }
+
+        @Override
+        public float score(Object source, Variant target, Resource resource) {
+            scorings++;
+            return (source instanceof String) ? 2.0F : -1.0F;
+        }
+
+        @Override
+        public <T> float score(Representation source, Class<T> target,
+                Resource resource) {
+            scorings++;
+            return String.class.equals(target) ? 2.0F : -1.0F;
+        }
+
+        @Override
+        public <T> T toObject(Representation source, Class<T> target,
+                Resource resource) throws IOException {
+            return target.cast("converted");
+        }
+
+        @Override
+        public Representation toRepresentation(Object source, Variant target,
+                Resource resource) throws IOException {
+            return new StringRepresentation("converted");
+        }
+    }
+
+    public void testCache() throws IOException {
+        ConverterService cs = new ConverterService();
+        Variant variant = new Variant(MediaType.TEXT_PLAIN);
+        assertEquals("hello", cs.toRepresentation("hello", variant, null)
+                .getText());
+        assertEquals("hello", cs.toRepresentation("hello", variant, null)
+                .getText());
+        assertEquals("hello", cs.toObject(new StringRepresentation("hello"),
+                String.class, null));
+        assertEquals("hello", cs.toObject(new StringRepresentation("hello"),
+                String.class, null));
+        assertEquals(2, cs.getCacheMisses());
+        assertEquals(2, cs.getCacheHits());
+        assertEquals(2, cs.getCacheSize());
+
+        // Registering a converter invalidates the cache
+        StringConverter converter = new StringConverter();
+        Engine.getInstance().getRegisteredConverters().add(converter);
+
+        try {
+            assertEquals("converted", cs.toRepresentation("hello", variant,
+                    null).getText());
+            assertEquals("converted", cs.toRepresentation("hello", variant,
+                    null).getText());
+            assertEquals("converted", cs.toObject(new StringRepresentation(
+                    "hello"), String.class, null));
+            assertEquals(4, cs.getCacheMisses());
+            assertEquals(2, cs.getCacheSize());
+            assertEquals(2, converter.scorings);
+        } finally {
+            Engine.getInstance().getRegisteredConverters().remove(converter);
+        }
+
+        assertEquals("hello", cs.toRepresentation("hello", variant, null)
+                .getText());
+        assertEquals(5, cs.getCacheMisses());
+
+        // Disabled cache
+        cs.setHelperCached(false);
+        cs.toRepresentation("hello", variant, null);
+        assertEquals(5, cs.getCacheMisses());
+        assertEquals(3, cs.getCacheHits());
+    }
+
+    public void testCacheKeys() throws IOException {
+        ConverterService cs = new ConverterService();
+        cs.toRepresentation("hello", new Variant(MediaType.TEXT_PLAIN), null);
+        cs.toRepresentation("hello", new Variant(MediaType.TEXT_PLAIN), null);
+        assertEquals(1, cs.getCacheMisses());
+
+        // Media type parameters and character sets are part of the keys
+        MediaType flowed = new MediaType("text/plain; format=flowed");
+        cs.toRepresentation("hello", new Variant(flowed), null);
+        Variant latin = new Variant(MediaType.TEXT_PLAIN);
+        latin.setCharacterSet(CharacterSet.ISO_8859_1);
+        cs.toRepresentation("hello", latin, null);
+        assertEquals(3, cs.getCacheMisses());
+
+        // A missing variant differs from a variant without media type
+        cs.toRepresentation("hello", null, null);
+        cs.toRepresentation("hello", new Variant(), null);
+        assertEquals(5, cs.getCacheMisses());
+        assertEquals(1, cs.getCacheHits());
+    }
+
+}
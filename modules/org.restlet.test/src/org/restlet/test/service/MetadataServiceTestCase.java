@@ -33,6 +33,10 @@
 
 package org.restlet.test.service;
 
+import java.util.Locale;
+
+import org.restlet.data.Encoding;
+import org.restlet.data.Language;
 import org.restlet.data.MediaType;
 import org.restlet.service.MetadataService;
 import org.restlet.test.RestletTestCase;
@@ -44,6 +48,49 @@ import org.restlet.test.RestletTestCase;
  */
 public class MetadataServiceTestCase extends RestletTestCase {
 
+    public void testIndexes() {
+        MetadataService ms = new MetadataService();
+        assertEquals(MediaType.TEXT_XML, ms.getMediaType("xml"));
+        assertEquals(2, ms.getAllMediaTypes("xml").size());
+        assertEquals("txt", ms.getExtension(MediaType.TEXT_PLAIN));
+        assertEquals(Language.FRENCH, ms.getLanguage("fr"));
+        assertNull(ms.getLanguage("xml"));
+        assertNull(ms.getAllLanguages("xml"));
+
+        // Metadata names are compared ignoring the case
+        assertEquals("en", ms.getExtension(new Language("EN")));
+        assertEquals("en", ms.getExtension(new Language("En")));
+        assertEquals("ftl", ms.getExtension(new Encoding("FREEMARKER")));
+
+        // The indexes follow the changes of the mappings
+        ms.addExtension("xml", MediaType.APPLICATION_XML, true);
+        ms.addExtension("text", MediaType.TEXT_PLAIN, true);
+        ms.addExtension("txt2", MediaType.TEXT_PLAIN);
+        assertEquals(MediaType.APPLICATION_XML, ms.getMediaType("xml"));
+        assertEquals(3, ms.getAllMediaTypes("xml").size());
+        assertEquals("text", ms.getExtension(MediaType.TEXT_PLAIN));
+        assertEquals(MediaType.TEXT_PLAIN, ms.getMediaType("txt2"));
+
+        ms.clearExtensions();
+        assertNull(ms.getMediaType("xml"));
+        assertNull(ms.getAllMetadata("xml"));
+        assertNull(ms.getExtension(MediaType.TEXT_PLAIN));
+    }
+
+    public void testLocale() {
+        Locale defaultLocale = Locale.getDefault();
+
+        try {
+            // The Turkish locale lower-cases "I" to a dotless "i"
+            Locale.setDefault(new Locale("tr", "TR"));
+            MetadataService ms = new MetadataService();
+            ms.addExtension("it", new Language("it"));
+            assertEquals("it", ms.getExtension(new Language("IT")));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
     public void testStrict() {
         MetadataService ms = new MetadataService();
         MediaType ma = ms.getMediaType("ma");
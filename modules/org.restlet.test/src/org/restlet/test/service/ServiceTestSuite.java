@@ -43,6 +43,7 @@ public class ServiceTestSuite {
 
         // $JUnit-BEGIN$
         suite.addTestSuite(ConnegServiceTestCase.class);
+        suite.addTestSuite(ConverterServiceTestCase.class);
         suite.addTestSuite(MetadataServiceTestCase.class);
         // $JUnit-END$
 
@@ -90,6 +90,50 @@ public class TemplateTestCase extends RestletTestCase {
         assertEquals("123/456", variables3.get("v1"));
     }
 
+    public void testSegmentMatching() {
+        Template template = new Template("/users/{id}/orders/{oid}",
+                Template.MODE_STARTS_WITH, Variable.TYPE_URI_SEGMENT, "",
+                true, false);
+
+        Map<String, Object> variables = new HashMap<String, Object>();
+        String string = "/users/12%203/orders/9?format=json";
+        assertEquals(22, template.parse(string, variables));
+        assertEquals("12%203", variables.get("id"));
+        assertEquals("9", variables.get("oid"));
+
+        assertEquals(-1, template.match("/users//orders/9"));
+        assertEquals(-1, template.match("/users/1/order/9"));
+        assertEquals(-1, template.match("/users/1%2/orders/9"));
+
+        template.setMatchingMode(Template.MODE_EQUALS);
+        assertEquals(-1, template.match(string));
+        assertEquals(18, template.match("/users/1/orders/90"));
+
+        template = new Template("/files/{name}.{ext}",
+                Template.MODE_EQUALS, Variable.TYPE_URI_SEGMENT, "", true,
+                false);
+        variables.clear();
+        assertEquals(17, template.parse("/files/a.b.tar.gz", variables));
+        assertEquals("a.b.tar", variables.get("name"));
+        assertEquals("gz", variables.get("ext"));
+    }
+
+    public void testAllMatching() {
+        Template template = new Template("/static/{path}/index.html",
+                Template.MODE_STARTS_WITH);
+
+        Map<String, Object> variables = new HashMap<String, Object>();
+        String string = "/static/a/index.html/b/index.html?q";
+        assertEquals(33, template.parse(string, variables));
+        assertEquals("a/index.html/b", variables.get("path"));
+
+        template.setMatchingMode(Template.MODE_EQUALS);
+        assertEquals(-1, template.match(string));
+        assertEquals(-1, template.match("/static//index.html"));
+        assertEquals(-1, template.match("/static/a\n/index.html"));
+        assertEquals(24, template.match("/static/a/b/c/index.html"));
+    }
+
     public void testVariableNames() throws Exception {
         Template tpl = new Template(
                 "http://{userId}.restlet.com/invoices/{invoiceId}");
@@ -39,6 +39,11 @@ package org.restlet.data;
  * @author Jerome Louvel
  */
 public final class CharacterSet extends Metadata {
+    // [ifndef gwt] member
+    /** The unknown character sets interned by {@link #valueOf(String)}. */
+    private static final org.restlet.engine.util.InternCache<CharacterSet> INTERNED = new org.restlet.engine.util.InternCache<CharacterSet>(
+            1024);
+
     /** All character sets acceptable. */
     public static final CharacterSet ALL = new CharacterSet("*",
             "All character sets");
@@ -251,7 +256,15 @@ public final class CharacterSet extends Metadata {
             } else if (name.equalsIgnoreCase(MACINTOSH.getName())) {
                 result = MACINTOSH;
             } else {
-                result = new CharacterSet(name);
+                // [ifndef gwt]
+                result = INTERNED.get(name);
+
+                if (result == null) {
+                    result = INTERNED.intern(name, new CharacterSet(name));
+                }
+                // [enddef]
+                // [ifdef gwt] instruction uncomment
+                // result = new CharacterSet(name);
             }
         }
 
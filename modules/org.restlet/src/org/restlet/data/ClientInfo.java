@@ -287,6 +287,17 @@ public final class ClientInfo {
     /** The email address of the human user controlling the user agent. */
     private volatile String from;
 
+    // [ifndef gwt] member
+    /**
+     * The headers whose preferences and expectations are parsed on first
+     * access, or null.
+     */
+    private volatile org.restlet.util.Series<org.restlet.engine.header.Header> headers;
+
+    // [ifndef gwt] member
+    /** Indicates if the headers are being parsed. */
+    private boolean parsingHeaders;
+
     /** The port number. */
     private volatile int port;
 
@@ -342,6 +353,22 @@ public final class ClientInfo {
         }
     }
 
+    // [ifndef gwt] method
+    /**
+     * Constructor from the headers of an inbound call. The "Accept*" and
+     * "Expect" headers are only parsed on first access to the preferences or
+     * expectations, as most calls, for example when only logged, never look
+     * at them.
+     * 
+     * @param headers
+     *            The headers of the inbound call.
+     */
+    public ClientInfo(
+            org.restlet.util.Series<org.restlet.engine.header.Header> headers) {
+        this();
+        this.headers = headers;
+    }
+
     /**
      * Constructor from a media type.
      * 
@@ -403,6 +430,9 @@ public final class ClientInfo {
      * @return The character set preferences.
      */
     public List<Preference<CharacterSet>> getAcceptedCharacterSets() {
+        // [ifndef gwt] instruction
+        parseHeaders();
+
         // Lazy initialization with double-check.
         List<Preference<CharacterSet>> a = this.acceptedCharacterSets;
         if (a == null) {
@@ -426,6 +456,9 @@ public final class ClientInfo {
      * @return The encoding preferences.
      */
     public List<Preference<Encoding>> getAcceptedEncodings() {
+        // [ifndef gwt] instruction
+        parseHeaders();
+
         // Lazy initialization with double-check.
         List<Preference<Encoding>> a = this.acceptedEncodings;
         if (a == null) {
@@ -449,6 +482,9 @@ public final class ClientInfo {
      * @return The language preferences.
      */
     public List<Preference<Language>> getAcceptedLanguages() {
+        // [ifndef gwt] instruction
+        parseHeaders();
+
         // Lazy initialization with double-check.
         List<Preference<Language>> a = this.acceptedLanguages;
         if (a == null) {
@@ -472,6 +508,9 @@ public final class ClientInfo {
      * @return The media type preferences.
      */
     public List<Preference<MediaType>> getAcceptedMediaTypes() {
+        // [ifndef gwt] instruction
+        parseHeaders();
+
         // Lazy initialization with double-check.
         List<Preference<MediaType>> a = this.acceptedMediaTypes;
         if (a == null) {
@@ -660,6 +699,8 @@ public final class ClientInfo {
      * @return The client expectations.
      */
     public List<org.restlet.data.Expectation> getExpectations() {
+        parseHeaders();
+
         // Lazy initialization with double-check.
         List<org.restlet.data.Expectation> a = this.expectations;
         if (a == null) {
@@ -972,6 +1013,73 @@ public final class ClientInfo {
         return this.authenticated;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Parses the "Accept*" and "Expect" headers given at construction time,
+     * only once. If an error occurs during the parsing of a header, the error
+     * is traced and the other headers are still parsed.
+     */
+    private void parseHeaders() {
+        if (this.headers != null) {
+            synchronized (this) {
+                // The readers call back the getters while parsing
+                if ((this.headers != null) && !this.parsingHeaders) {
+                    this.parsingHeaders = true;
+
+                    // Extract the header values
+                    String acceptCharset = this.headers
+                            .getValues(org.restlet.engine.header.HeaderConstants.HEADER_ACCEPT_CHARSET);
+                    String acceptEncoding = this.headers
+                            .getValues(org.restlet.engine.header.HeaderConstants.HEADER_ACCEPT_ENCODING);
+                    String acceptLanguage = this.headers
+                            .getValues(org.restlet.engine.header.HeaderConstants.HEADER_ACCEPT_LANGUAGE);
+                    String acceptMediaType = this.headers
+                            .getValues(org.restlet.engine.header.HeaderConstants.HEADER_ACCEPT);
+                    String expect = this.headers
+                            .getValues(org.restlet.engine.header.HeaderConstants.HEADER_EXPECT);
+
+                    try {
+                        org.restlet.engine.header.PreferenceReader
+                                .addCharacterSets(acceptCharset, this);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().info(e.getMessage());
+                    }
+
+                    try {
+                        org.restlet.engine.header.PreferenceReader
+                                .addEncodings(acceptEncoding, this);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().info(e.getMessage());
+                    }
+
+                    try {
+                        org.restlet.engine.header.PreferenceReader
+                                .addLanguages(acceptLanguage, this);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().info(e.getMessage());
+                    }
+
+                    try {
+                        org.restlet.engine.header.PreferenceReader
+                                .addMediaTypes(acceptMediaType, this);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().info(e.getMessage());
+                    }
+
+                    try {
+                        org.restlet.engine.header.ExpectationReader.addValues(
+                                expect, this);
+                    } catch (Exception e) {
+                        Context.getCurrentLogger().info(e.getMessage());
+                    }
+
+                    this.headers = null;
+                    this.parsingHeaders = false;
+                }
+            }
+        }
+    }
+
     /**
      * Sets the character set preferences. Note that when used with HTTP
      * connectors, this property maps to the "Accept-Charset" header.
@@ -40,6 +40,11 @@ package org.restlet.data;
  * @author Jerome Louvel
  */
 public final class Encoding extends Metadata {
+    // [ifndef gwt] member
+    /** The unknown encodings interned by {@link #valueOf(String)}. */
+    private static final org.restlet.engine.util.InternCache<Encoding> INTERNED = new org.restlet.engine.util.InternCache<Encoding>(
+            1024);
+
     /** All encodings acceptable. */
     public static final Encoding ALL = new Encoding("*", "All encodings");
 
@@ -98,7 +103,15 @@ public final class Encoding extends Metadata {
             } else if (name.equalsIgnoreCase(VELOCITY.getName())) {
                 result = VELOCITY;
             } else {
-                result = new Encoding(name);
+                // [ifndef gwt]
+                result = INTERNED.get(name);
+
+                if (result == null) {
+                    result = INTERNED.intern(name, new Encoding(name));
+                }
+                // [enddef]
+                // [ifdef gwt] instruction uncomment
+                // result = new Encoding(name);
             }
         }
 
@@ -45,6 +45,11 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * @author Jerome Louvel
  */
 public final class Language extends Metadata {
+    // [ifndef gwt] member
+    /** The unknown languages interned by {@link #valueOf(String)}. */
+    private static final org.restlet.engine.util.InternCache<Language> INTERNED = new org.restlet.engine.util.InternCache<Language>(
+            1024);
+
     /** All languages acceptable. */
     public static final Language ALL = new Language("*", "All languages");
 
@@ -105,7 +110,15 @@ public final class Language extends Metadata {
             } else if (name.equalsIgnoreCase(SPANISH.getName())) {
                 result = SPANISH;
             } else {
-                result = new Language(name);
+                // [ifndef gwt]
+                result = INTERNED.get(name);
+
+                if (result == null) {
+                    result = INTERNED.intern(name, new Language(name));
+                }
+                // [enddef]
+                // [ifdef gwt] instruction uncomment
+                // result = new Language(name);
             }
         }
 
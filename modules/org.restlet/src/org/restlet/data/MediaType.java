@@ -66,6 +66,14 @@ public final class MediaType extends Metadata {
      */
     private static volatile Map<String, MediaType> _types = null;
 
+    // [ifndef gwt] member
+    /**
+     * The unregistered media types interned by {@link #valueOf(String)}.<br>
+     * Keep the underscore for the ordering.
+     */
+    private static final org.restlet.engine.util.InternCache<MediaType> _interned = new org.restlet.engine.util.InternCache<MediaType>(
+            1024);
+
     public static final MediaType ALL = register("*/*", "All media");
 
     public static final MediaType APPLICATION_ALL = register("application/*",
@@ -843,7 +851,15 @@ public final class MediaType extends Metadata {
         if ((name != null) && !name.equals("")) {
             result = getTypes().get(name);
             if (result == null) {
-                result = new MediaType(name);
+                // [ifndef gwt]
+                result = _interned.get(name);
+
+                if (result == null) {
+                    result = _interned.intern(name, new MediaType(name));
+                }
+                // [enddef]
+                // [ifdef gwt] instruction uncomment
+                // result = new MediaType(name);
             }
         }
 
@@ -35,6 +35,7 @@ package org.restlet.data;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -123,6 +124,38 @@ import org.restlet.engine.Edition;
  */
 public class Reference {
 
+    /**
+     * Components lazily extracted from the internal reference, with their
+     * decoded forms. A new instance is used each time the internal reference
+     * is modified.
+     */
+    private static class Components {
+
+        /** The decoded path. */
+        private volatile String decodedPath;
+
+        /** The decoded query. */
+        private volatile String decodedQuery;
+
+        /** The decoded segments. */
+        private volatile String[] decodedSegments;
+
+        /** The path. */
+        private volatile String path;
+
+        /** Indicates if the path has been extracted. */
+        private volatile boolean pathExtracted;
+
+        /** The query. */
+        private volatile String query;
+
+        /** Indicates if the query has been extracted. */
+        private volatile boolean queryExtracted;
+
+        /** The segments. */
+        private volatile String[] segments;
+    }
+
     /** Helps to map characters and their validity as URI characters. */
     private static final boolean[] charValidityMap = new boolean[127];
 
@@ -172,8 +205,9 @@ public class Reference {
         String result = null;
         // [ifndef gwt]
         try {
-            result = (characterSet == null) ? toDecode : java.net.URLDecoder
-                    .decode(toDecode, characterSet.getName());
+            result = (characterSet == null) ? toDecode
+                    : org.restlet.engine.util.ReferenceUtils.decode(toDecode,
+                            characterSet);
         } catch (UnsupportedEncodingException uee) {
             Context.getCurrentLogger()
                     .log(Level.WARNING,
@@ -253,8 +287,9 @@ public class Reference {
 
         // [ifndef gwt]
         try {
-            result = (characterSet == null) ? toEncode : java.net.URLEncoder
-                    .encode(toEncode, characterSet.getName());
+            result = (characterSet == null) ? toEncode
+                    : org.restlet.engine.util.ReferenceUtils.encode(toEncode,
+                            queryString, characterSet);
         } catch (UnsupportedEncodingException uee) {
             Context.getCurrentLogger()
                     .log(Level.WARNING,
@@ -271,13 +306,12 @@ public class Reference {
         // System.err
         // .println("Unable to encode the string with the UTF-8 character set.");
         // }
+        // if (queryString) {
+        // result = result.replace("+", "%20").replace("*", "%2A")
+        // .replace("%7E", "~");
+        // }
         // [enddef]
 
-        if (queryString) {
-            result = result.replace("+", "%20").replace("*", "%2A")
-                    .replace("%7E", "~");
-        }
-
         return result;
     }
 
@@ -524,6 +558,9 @@ public class Reference {
     /** The base reference for relative references. */
     private volatile Reference baseRef;
 
+    /** The components lazily extracted from the internal reference. */
+    private volatile Components components;
+
     /** The fragment separator index. */
     private volatile int fragmentIndex;
 
@@ -788,6 +825,7 @@ public class Reference {
             newRef.baseRef = this.baseRef.clone();
         }
 
+        newRef.components = this.components;
         newRef.fragmentIndex = this.fragmentIndex;
         newRef.internalRef = this.internalRef;
         newRef.queryIndex = this.queryIndex;
@@ -875,6 +913,124 @@ public class Reference {
         return false;
     }
 
+    /**
+     * Extracts the path component from the internal reference.
+     * 
+     * @return The path component or null.
+     * @see #getPath()
+     */
+    private String extractPath() {
+        String result = null;
+        final String part = isRelative() ? getRelativePart()
+                : getSchemeSpecificPart();
+
+        if (part != null) {
+            if (part.startsWith("//")) {
+                // Authority found
+                final int index1 = part.indexOf('/', 2);
+
+                if (index1 != -1) {
+                    // Path found
+                    final int index2 = part.indexOf('?');
+                    if (index2 != -1) {
+                        // Query found
+                        result = part.substring(index1, index2);
+                    } else {
+                        // No query found
+                        result = part.substring(index1);
+                    }
+                } else {
+                    // Path must be empty in this case
+                }
+            } else {
+                // No authority found
+                final int index = part.indexOf('?');
+                if (index != -1) {
+                    // Query found
+                    result = part.substring(0, index);
+                } else {
+                    // No query found
+                    result = part;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Extracts the query component from the internal reference.
+     * 
+     * @return The query component or null.
+     * @see #getQuery()
+     */
+    private String extractQuery() {
+        if (hasQuery()) {
+            // Query found
+            if (hasFragment()) {
+                if (this.queryIndex < this.fragmentIndex) {
+                    // Fragment found and query sign not inside fragment
+                    return this.internalRef.substring(this.queryIndex + 1,
+                            this.fragmentIndex);
+                }
+
+                return null;
+            }
+
+            // No fragment found
+            return this.internalRef.substring(this.queryIndex + 1);
+        }
+
+        // No query found
+        return null;
+    }
+
+    /**
+     * Extracts the segments of a hierarchical path from the internal
+     * reference.
+     * 
+     * @return The segments of a hierarchical path.
+     * @see #getSegments()
+     */
+    private String[] extractSegments() {
+        final List<String> result = new ArrayList<String>();
+        final String path = getPath();
+        int start = -2; // The index of the slash starting the segment
+        char current;
+
+        if (path != null) {
+            for (int i = 0; i < path.length(); i++) {
+                current = path.charAt(i);
+
+                if (current == '/') {
+                    if (start == -2) {
+                        // Beginning of an absolute path or sequence of two
+                        // separators
+                        start = i;
+                    } else {
+                        // End of a segment
+                        result.add(path.substring(start + 1, i));
+                        start = i;
+                    }
+                } else {
+                    if (start == -2) {
+                        // Starting a new segment for a relative path
+                        start = -1;
+                    } else {
+                        // Looking for the next character
+                    }
+                }
+            }
+
+            if (start != -2) {
+                // Add the last segment
+                result.add(path.substring(start + 1));
+            }
+        }
+
+        return result.toArray(new String[result.size()]);
+    }
+
     /**
      * Returns the authority component for hierarchical identifiers. Includes
      * the user info, host name and the host port number.<br>
@@ -927,6 +1083,22 @@ public class Reference {
         return this.baseRef;
     }
 
+    /**
+     * Returns the components lazily extracted from the internal reference.
+     * 
+     * @return The components lazily extracted from the internal reference.
+     */
+    private Components getComponents() {
+        Components result = this.components;
+
+        if (result == null) {
+            result = new Components();
+            this.components = result;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the optional extensions for hierarchical identifiers. An
      * extensions part starts after the first '.' character of the last path
@@ -1367,42 +1539,14 @@ public class Reference {
      * @return The path component for hierarchical identifiers.
      */
     public String getPath() {
-        String result = null;
-        final String part = isRelative() ? getRelativePart()
-                : getSchemeSpecificPart();
+        Components c = getComponents();
 
-        if (part != null) {
-            if (part.startsWith("//")) {
-                // Authority found
-                final int index1 = part.indexOf('/', 2);
-
-                if (index1 != -1) {
-                    // Path found
-                    final int index2 = part.indexOf('?');
-                    if (index2 != -1) {
-                        // Query found
-                        result = part.substring(index1, index2);
-                    } else {
-                        // No query found
-                        result = part.substring(index1);
-                    }
-                } else {
-                    // Path must be empty in this case
-                }
-            } else {
-                // No authority found
-                final int index = part.indexOf('?');
-                if (index != -1) {
-                    // Query found
-                    result = part.substring(0, index);
-                } else {
-                    // No query found
-                    result = part;
-                }
-            }
+        if (!c.pathExtracted) {
+            c.path = extractPath();
+            c.pathExtracted = true;
         }
 
-        return result;
+        return c.path;
     }
 
     /**
@@ -1416,7 +1560,19 @@ public class Reference {
      * @see #getPath()
      */
     public String getPath(boolean decode) {
-        return decode ? decode(getPath()) : getPath();
+        String result = getPath();
+
+        if (decode && (result != null)) {
+            Components c = getComponents();
+
+            if (c.decodedPath == null) {
+                c.decodedPath = decode(result);
+            }
+
+            result = c.decodedPath;
+        }
+
+        return result;
     }
 
     /**
@@ -1426,24 +1582,14 @@ public class Reference {
      * @return The query component or null.
      */
     public String getQuery() {
-        if (hasQuery()) {
-            // Query found
-            if (hasFragment()) {
-                if (this.queryIndex < this.fragmentIndex) {
-                    // Fragment found and query sign not inside fragment
-                    return this.internalRef.substring(this.queryIndex + 1,
-                            this.fragmentIndex);
-                }
-
-                return null;
-            }
+        Components c = getComponents();
 
-            // No fragment found
-            return this.internalRef.substring(this.queryIndex + 1);
+        if (!c.queryExtracted) {
+            c.query = extractQuery();
+            c.queryExtracted = true;
         }
 
-        // No query found
-        return null;
+        return c.query;
     }
 
     /**
@@ -1456,7 +1602,19 @@ public class Reference {
      * @see #getQuery()
      */
     public String getQuery(boolean decode) {
-        return decode ? decode(getQuery()) : getQuery();
+        String result = getQuery();
+
+        if (decode && (result != null)) {
+            Components c = getComponents();
+
+            if (c.decodedQuery == null) {
+                c.decodedQuery = decode(result);
+            }
+
+            result = c.decodedQuery;
+        }
+
+        return result;
     }
 
     /**
@@ -1851,42 +2009,13 @@ public class Reference {
      * @return The segments of a hierarchical path.
      */
     public List<String> getSegments() {
-        final List<String> result = new ArrayList<String>();
-        final String path = getPath();
-        int start = -2; // The index of the slash starting the segment
-        char current;
+        Components c = getComponents();
 
-        if (path != null) {
-            for (int i = 0; i < path.length(); i++) {
-                current = path.charAt(i);
-
-                if (current == '/') {
-                    if (start == -2) {
-                        // Beginning of an absolute path or sequence of two
-                        // separators
-                        start = i;
-                    } else {
-                        // End of a segment
-                        result.add(path.substring(start + 1, i));
-                        start = i;
-                    }
-                } else {
-                    if (start == -2) {
-                        // Starting a new segment for a relative path
-                        start = -1;
-                    } else {
-                        // Looking for the next character
-                    }
-                }
-            }
-
-            if (start != -2) {
-                // Add the last segment
-                result.add(path.substring(start + 1));
-            }
+        if (c.segments == null) {
+            c.segments = extractSegments();
         }
 
-        return result;
+        return new ArrayList<String>(Arrays.asList(c.segments));
     }
 
     /**
@@ -1899,12 +2028,25 @@ public class Reference {
      * @see #getSegments()
      */
     public List<String> getSegments(boolean decode) {
-        final List<String> result = getSegments();
+        List<String> result = null;
 
         if (decode) {
-            for (int i = 0; i < result.size(); i++) {
-                result.set(i, decode(result.get(i)));
+            Components c = getComponents();
+
+            if (c.decodedSegments == null) {
+                final List<String> segments = getSegments();
+
+                for (int i = 0; i < segments.size(); i++) {
+                    segments.set(i, decode(segments.get(i)));
+                }
+
+                c.decodedSegments = segments.toArray(new String[segments
+                        .size()]);
             }
+
+            result = new ArrayList<String>(Arrays.asList(c.decodedSegments));
+        } else {
+            result = getSegments();
         }
 
         return result;
@@ -2046,6 +2188,30 @@ public class Reference {
         return decode ? decode(getUserInfo()) : getUserInfo();
     }
 
+    /**
+     * Indicates if a path contains "." or ".." segments.
+     * 
+     * @param path
+     *            The path to test.
+     * @return True if the path contains "." or ".." segments.
+     */
+    private boolean hasDotSegments(String path) {
+        boolean result = false;
+        int start = 0;
+
+        for (int i = 0; !result && (i <= path.length()); i++) {
+            if ((i == path.length()) || (path.charAt(i) == '/')) {
+                // End of a segment
+                result = ((i - start == 1) && (path.charAt(start) == '.'))
+                        || ((i - start == 2) && (path.charAt(start) == '.') && (path
+                                .charAt(start + 1) == '.'));
+                start = i + 1;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Indicates if this reference has file-like extensions on its last path
      * segment.
@@ -2194,11 +2360,54 @@ public class Reference {
      * @return The current reference.
      */
     public Reference normalize() {
+        final String path = getPath();
+
+        if ((path == null) || hasDotSegments(path)) {
+            setPath(removeDotSegments(path));
+        }
+
+        // Ensure that the scheme and host names are reset in lower case
+        final String scheme = getScheme();
+
+        if ((scheme != null)
+                && !scheme.equals(encodeInvalidCharacters(scheme).toLowerCase())) {
+            setScheme(scheme);
+        }
+
+        final String hostDomain = getHostDomain();
+
+        if ((hostDomain == null)
+                || !hostDomain.equals(hostDomain.toLowerCase())) {
+            setHostDomain(hostDomain);
+        }
+
+        // Remove the port if it is equal to the default port of the reference's
+        // Protocol.
+        final int hostPort = getHostPort();
+        if (hostPort != -1) {
+            final int defaultPort = Protocol.valueOf(getScheme())
+                    .getDefaultPort();
+            if (hostPort == defaultPort) {
+                setHostPort(null);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Removes the dot segments of a path, as defined by the section 5.2.4 of
+     * the RFC 3986.
+     * 
+     * @param path
+     *            The path to process.
+     * @return The path without dot segments.
+     */
+    private String removeDotSegments(String path) {
         // 1. The input buffer is initialized with the now-appended path
         // components and the output buffer is initialized to the empty string.
         final StringBuilder output = new StringBuilder();
         final StringBuilder input = new StringBuilder();
-        final String path = getPath();
         if (path != null) {
             input.append(path);
         }
@@ -2276,24 +2485,7 @@ public class Reference {
         }
 
         // Finally, the output buffer is returned as the result
-        setPath(output.toString());
-
-        // Ensure that the scheme and host names are reset in lower case
-        setScheme(getScheme());
-        setHostDomain(getHostDomain());
-
-        // Remove the port if it is equal to the default port of the reference's
-        // Protocol.
-        final int hostPort = getHostPort();
-        if (hostPort != -1) {
-            final int defaultPort = Protocol.valueOf(getScheme())
-                    .getDefaultPort();
-            if (hostPort == defaultPort) {
-                setHostPort(null);
-            }
-        }
-
-        return this;
+        return output.toString();
     }
 
     /**
@@ -3039,6 +3231,8 @@ public class Reference {
      * Updates internal indexes.
      */
     private void updateIndexes() {
+        this.components = null;
+
         if (this.internalRef != null) {
             // Compute the indexes
             final int firstSlashIndex = this.internalRef.indexOf('/');
@@ -41,6 +41,7 @@ import org.restlet.Context;
 import org.restlet.data.Protocol;
 import org.restlet.engine.header.Header;
 import org.restlet.engine.header.HeaderUtils;
+import org.restlet.engine.util.HeaderSeries;
 import org.restlet.representation.InputRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.util.Series;
@@ -134,15 +135,9 @@ public abstract class Call {
         this.method = null;
         this.protocol = null;
         this.reasonPhrase = "";
-        // [ifndef gwt] instruction
-        this.requestHeaders = new Series<Header>(Header.class);
-        // [ifdef gwt] instruction uncomment
-        // this.requestHeaders = new org.restlet.engine.util.HeaderSeries();
+        this.requestHeaders = new HeaderSeries();
         this.requestUri = null;
-        // [ifndef gwt] instruction
-        this.responseHeaders = new Series<Header>(Header.class);
-        // [ifdef gwt] instruction uncomment
-        // this.responseHeaders = new org.restlet.engine.util.HeaderSeries();
+        this.responseHeaders = new HeaderSeries();
         this.serverAddress = null;
         this.serverPort = -1;
         this.statusCode = 200;
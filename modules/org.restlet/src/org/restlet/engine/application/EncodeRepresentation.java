@@ -43,15 +43,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.restlet.data.Disposition;
 import org.restlet.data.Encoding;
 import org.restlet.engine.io.BioUtils;
+import org.restlet.engine.io.DeflaterPool;
+import org.restlet.engine.io.DeflatingOutputStream;
 import org.restlet.engine.io.NioUtils;
+import org.restlet.engine.io.ReadableDeflatingChannel;
 import org.restlet.representation.Representation;
 import org.restlet.util.WrapperList;
 import org.restlet.util.WrapperRepresentation;
@@ -59,10 +61,25 @@ import org.restlet.util.WrapperRepresentation;
 // [excludes gwt]
 /**
  * Content that encodes a wrapped content. Allows to apply only one encoding.
+ * The GZIP and DEFLATE encodings reuse pooled deflaters and are directly
+ * streamed when the content is read as a channel or a stream.
  * 
  * @author Jerome Louvel
  */
 public class EncodeRepresentation extends WrapperRepresentation {
+
+    /** The maximum number of pooled deflaters of each kind. */
+    private static final int MAX_POOLED_DEFLATERS = 2 * Runtime.getRuntime()
+            .availableProcessors();
+
+    /** The pool of deflaters for the DEFLATE encoding. */
+    private static final DeflaterPool DEFLATE_DEFLATERS = new DeflaterPool(
+            false, MAX_POOLED_DEFLATERS);
+
+    /** The pool of deflaters for the GZIP encoding. */
+    private static final DeflaterPool GZIP_DEFLATERS = new DeflaterPool(true,
+            MAX_POOLED_DEFLATERS);
+
     /**
      * Returns the list of supported encodings.
      * 
@@ -76,6 +93,9 @@ public class EncodeRepresentation extends WrapperRepresentation {
     /** Indicates if the encoding can happen. */
     private volatile boolean canEncode;
 
+    /** The compression level. */
+    private volatile int compressionLevel;
+
     /** The encoding to apply. */
     private volatile Encoding encoding;
 
@@ -83,7 +103,7 @@ public class EncodeRepresentation extends WrapperRepresentation {
     private volatile List<Encoding> encodings;
 
     /**
-     * Constructor.
+     * Constructor using the default compression level.
      * 
      * @param encoding
      *            Encoder algorithm.
@@ -92,8 +112,24 @@ public class EncodeRepresentation extends WrapperRepresentation {
      */
     public EncodeRepresentation(Encoding encoding,
             Representation wrappedRepresentation) {
+        this(encoding, wrappedRepresentation, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param encoding
+     *            Encoder algorithm.
+     * @param wrappedRepresentation
+     *            The wrapped representation.
+     * @param compressionLevel
+     *            The compression level, from 0 to 9 or -1 for the default one.
+     */
+    public EncodeRepresentation(Encoding encoding,
+            Representation wrappedRepresentation, int compressionLevel) {
         super(wrappedRepresentation);
         this.canEncode = getSupportedEncodings().contains(encoding);
+        this.compressionLevel = compressionLevel;
         this.encodings = null;
         this.encoding = encoding;
     }
@@ -130,20 +166,57 @@ public class EncodeRepresentation extends WrapperRepresentation {
     }
 
     /**
-     * Returns a readable byte channel. If it is supported by a file a read-only
-     * instance of FileChannel is returned.
+     * Returns a readable byte channel. The GZIP and DEFLATE encodings compress
+     * the wrapped channel as it is read.
      * 
      * @return A readable byte channel.
      */
     @Override
     public ReadableByteChannel getChannel() throws IOException {
         if (canEncode()) {
-            return NioUtils.getChannel(this);
+            DeflaterPool deflaterPool = getDeflaterPool();
+
+            if (deflaterPool != null) {
+                return new ReadableDeflatingChannel(getWrappedRepresentation()
+                        .getChannel(), deflaterPool, getCompressionLevel(),
+                        deflaterPool.isNowrap());
+            } else if (this.encoding.equals(Encoding.IDENTITY)) {
+                return getWrappedRepresentation().getChannel();
+            } else {
+                return NioUtils.getChannel(this);
+            }
         } else {
             return getWrappedRepresentation().getChannel();
         }
     }
 
+    /**
+     * Returns the compression level, from 0 to 9 or -1 for the default one.
+     * 
+     * @return The compression level.
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Returns the pool of deflaters of the encoding or null if it doesn't rely
+     * on a pooled deflater.
+     * 
+     * @return The pool of deflaters or null.
+     */
+    private DeflaterPool getDeflaterPool() {
+        DeflaterPool result = null;
+
+        if (this.encoding.equals(Encoding.GZIP)) {
+            result = GZIP_DEFLATERS;
+        } else if (this.encoding.equals(Encoding.DEFLATE)) {
+            result = DEFLATE_DEFLATERS;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the applied encodings.
      * 
@@ -250,7 +323,11 @@ public class EncodeRepresentation extends WrapperRepresentation {
     @Override
     public InputStream getStream() throws IOException {
         if (canEncode()) {
-            return BioUtils.getInputStream(this);
+            if (getDeflaterPool() != null) {
+                return NioUtils.getStream(getChannel());
+            } else {
+                return BioUtils.getInputStream(this);
+            }
         } else {
             return getWrappedRepresentation().getStream();
         }
@@ -268,12 +345,21 @@ public class EncodeRepresentation extends WrapperRepresentation {
     @Override
     public void write(OutputStream outputStream) throws IOException {
         if (canEncode()) {
-            DeflaterOutputStream encoderOutputStream = null;
-
-            if (this.encoding.equals(Encoding.GZIP)) {
-                encoderOutputStream = new GZIPOutputStream(outputStream);
-            } else if (this.encoding.equals(Encoding.DEFLATE)) {
-                encoderOutputStream = new DeflaterOutputStream(outputStream);
+            DeflaterPool deflaterPool = getDeflaterPool();
+
+            if (deflaterPool != null) {
+                Deflater deflater = deflaterPool
+                        .checkout(getCompressionLevel());
+
+                try {
+                    DeflatingOutputStream encoderOutputStream = new DeflatingOutputStream(
+                            outputStream, deflater, deflaterPool.isNowrap());
+                    getWrappedRepresentation().write(encoderOutputStream);
+                    encoderOutputStream.flush();
+                    encoderOutputStream.finish();
+                } finally {
+                    deflaterPool.checkin(deflater);
+                }
             } else if (this.encoding.equals(Encoding.ZIP)) {
                 final ZipOutputStream stream = new ZipOutputStream(outputStream);
                 String name = "entry";
@@ -286,17 +372,13 @@ public class EncodeRepresentation extends WrapperRepresentation {
                                     name);
                 }
                 
+                stream.setLevel(getCompressionLevel());
                 stream.putNextEntry(new ZipEntry(name));
-                encoderOutputStream = stream;
-            } else if (this.encoding.equals(Encoding.IDENTITY)) {
-                // Encoder unnecessary for identity encoding
-            }
-
-            if (encoderOutputStream != null) {
-                getWrappedRepresentation().write(encoderOutputStream);
-                encoderOutputStream.flush();
-                encoderOutputStream.finish();
+                getWrappedRepresentation().write(stream);
+                stream.flush();
+                stream.finish();
             } else {
+                // Encoder unnecessary for identity encoding
                 getWrappedRepresentation().write(outputStream);
             }
         } else {
@@ -66,6 +66,22 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * <th>Description</th>
  * </tr>
  * <tr>
+ * <td>controllerBlocking</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the controller thread should block on its NIO selector
+ * until some IO event or pending work wakes it up, instead of polling it after
+ * sleeping for "controllerSleepTimeMs".</td>
+ * </tr>
+ * <tr>
+ * <td>controllerBlockingTimeMs</td>
+ * <td>int</td>
+ * <td>1000</td>
+ * <td>Maximum time for a blocking controller thread to wait on its NIO
+ * selector. It bounds the delay to detect idle connections time outs. A value
+ * strictly superior to 0 is required.</td>
+ * </tr>
+ * <tr>
  * <td>controllerDaemon</td>
  * <td>boolean</td>
  * <td>true (client), false (server)</td>
@@ -93,7 +109,8 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * <td>8</td>
  * <td>Number of worker threads determining when the connector is considered
  * overloaded. This triggers some protection actions such as not accepting new
- * connections.</td>
+ * connections. With virtual worker threads, this is the number of in-flight
+ * calls.</td>
  * </tr>
  * <tr>
  * <td>maxThreads</td>
@@ -101,7 +118,8 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * <td>10</td>
  * <td>Maximum number of worker threads that can service calls. If this number
  * is reached then additional calls are queued if the "maxQueued" value hasn't
- * been reached.</td>
+ * been reached. With virtual worker threads, this is the maximum number of
+ * in-flight calls, which can be set much higher.</td>
  * </tr>
  * <tr>
  * <td>maxQueued</td>
@@ -144,6 +162,16 @@ import org.restlet.engine.log.LoggingThreadFactory;
  * never block, otherwise the other connections would hang.</td>
  * </tr>
  * <tr>
+ * <td>workerThreadsType</td>
+ * <td>String</td>
+ * <td>platform</td>
+ * <td>Type of the worker threads, either "platform" or "virtual". Virtual
+ * threads are cheap to create and to block, so each call gets its own thread
+ * which ends once idle, and the "minThreads" and "maxThreadIdleTimeMs" values
+ * are ignored. If the JVM doesn't support virtual
+ * threads (before Java 21), platform threads are used instead.</td>
+ * </tr>
+ * <tr>
  * <td>inboundBufferSize</td>
  * <td>int</td>
  * <td>16 * 1024</td>
@@ -212,8 +240,8 @@ public abstract class BaseHelper<T extends Connector> extends
     public BaseHelper(T connector, boolean clientSide) {
         super(connector);
         this.clientSide = clientSide;
-        this.inboundMessages = new ConcurrentLinkedQueue<Response>();
-        this.outboundMessages = new ConcurrentLinkedQueue<Response>();
+        this.inboundMessages = createMessageQueue();
+        this.outboundMessages = createMessageQueue();
         this.controller = createController();
     }
 
@@ -225,14 +253,19 @@ public abstract class BaseHelper<T extends Connector> extends
     protected boolean control() {
         boolean result = false;
 
-        // Control pending inbound messages
-        for (int i = 0; i < getInboundMessages().size(); i++) {
-            handleInbound(getInboundMessages().poll());
+        Response response;
+
+        // Control pending inbound messages. Messages queued again while
+        // handled are left for the next control cycle.
+        for (int i = getInboundMessages().size(); (i > 0)
+                && ((response = getInboundMessages().poll()) != null); i--) {
+            handleInbound(response);
         }
 
         // Control pending outbound messages
-        for (int i = 0; i < getOutboundMessages().size(); i++) {
-            handleOutbound(getOutboundMessages().poll());
+        for (int i = getOutboundMessages().size(); (i > 0)
+                && ((response = getOutboundMessages().poll()) != null); i--) {
+            handleOutbound(response);
         }
 
         return result;
@@ -255,6 +288,29 @@ public abstract class BaseHelper<T extends Connector> extends
                 getLogger(), isControllerDaemon()));
     }
 
+    /**
+     * Creates a queue of messages pending for handling. Each addition wakes up
+     * the controller in case it is blocked on its NIO selector.
+     * 
+     * @return A queue of messages pending for handling.
+     */
+    protected Queue<Response> createMessageQueue() {
+        return new ConcurrentLinkedQueue<Response>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean offer(Response response) {
+                boolean result = super.offer(response);
+
+                if (getController() != null) {
+                    getController().wakeup();
+                }
+
+                return result;
+            }
+        };
+    }
+
     /**
      * Creates the request object.
      * 
@@ -283,9 +339,27 @@ public abstract class BaseHelper<T extends Connector> extends
             queue = new ArrayBlockingQueue<Runnable>(getMaxQueued());
         }
 
+        LoggingThreadFactory threadFactory = new LoggingThreadFactory(
+                getLogger(), true, isWorkerThreadsVirtual());
+
+        if (isWorkerThreadsVirtual() && !threadFactory.isVirtual()) {
+            getLogger().info(
+                    "Virtual threads aren't supported by this JVM. Platform worker threads will be used instead.");
+        }
+
+        long keepAliveTimeMs = getMaxThreadIdleTimeMs();
+
+        if (threadFactory.isVirtual()) {
+            // A new virtual thread is created for each call until the maximum
+            // number of in-flight calls is reached. Idle virtual threads end
+            // right away instead of being kept as core threads.
+            minThreads = maxThreads;
+            keepAliveTimeMs = 1;
+        }
+
         ThreadPoolExecutor result = new ThreadPoolExecutor(minThreads,
-                maxThreads, getMaxThreadIdleTimeMs(), TimeUnit.MILLISECONDS,
-                queue, new LoggingThreadFactory(getLogger(), true));
+                maxThreads, keepAliveTimeMs, TimeUnit.MILLISECONDS, queue,
+                threadFactory);
         result.setRejectedExecutionHandler(new RejectedExecutionHandler() {
             public void rejectedExecution(Runnable r,
                     ThreadPoolExecutor executor) {
@@ -297,8 +371,13 @@ public abstract class BaseHelper<T extends Connector> extends
             }
         });
 
-        // Ensure that core threads act like a minimum number of threads
-        result.prestartAllCoreThreads();
+        if (threadFactory.isVirtual()) {
+            result.allowCoreThreadTimeOut(true);
+        } else {
+            // Ensure that core threads act like a minimum number of threads
+            result.prestartAllCoreThreads();
+        }
+
         return result;
     }
 
@@ -319,7 +398,7 @@ public abstract class BaseHelper<T extends Connector> extends
 
         // Stops the controller
         if (this.controllerService != null) {
-            this.controller.setRunning(false);
+            stopControllers();
             this.controllerService.shutdown();
 
             try {
@@ -391,6 +470,27 @@ public abstract class BaseHelper<T extends Connector> extends
         return controller;
     }
 
+    /**
+     * Returns the connector controller service.
+     * 
+     * @return The connector controller service.
+     */
+    protected ExecutorService getControllerService() {
+        return controllerService;
+    }
+
+    /**
+     * Returns the maximum time for a blocking controller thread to wait on its
+     * NIO selector.
+     * 
+     * @return The maximum time for a blocking controller thread to wait on its
+     *         NIO selector.
+     */
+    public int getControllerBlockingTimeMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "controllerBlockingTimeMs", "1000"));
+    }
+
     /**
      * Returns the time for the controller thread to sleep between each control.
      * 
@@ -561,6 +661,16 @@ public abstract class BaseHelper<T extends Connector> extends
         return workerService;
     }
 
+    /**
+     * Returns the type of the worker threads, either "platform" or "virtual".
+     * 
+     * @return The type of the worker threads.
+     */
+    public String getWorkerThreadsType() {
+        return getHelpedParameters().getFirstValue("workerThreadsType",
+                "platform");
+    }
+
     /**
      * Handle the given inbound message.
      * 
@@ -588,6 +698,7 @@ public abstract class BaseHelper<T extends Connector> extends
                             doHandleInbound(response);
                         } finally {
                             Engine.clearThreadLocalVariables();
+                            onWorkerTaskCompleted();
                         }
                     }
 
@@ -627,6 +738,7 @@ public abstract class BaseHelper<T extends Connector> extends
                             doHandleOutbound(response);
                         } finally {
                             Engine.clearThreadLocalVariables();
+                            onWorkerTaskCompleted();
                         }
                     }
 
@@ -658,6 +770,17 @@ public abstract class BaseHelper<T extends Connector> extends
         return clientSide;
     }
 
+    /**
+     * Indicates if the controller thread should block on its NIO selector until
+     * some IO event or pending work wakes it up.
+     * 
+     * @return True if the controller thread should block on its NIO selector.
+     */
+    public boolean isControllerBlocking() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "controllerBlocking", "false"));
+    }
+
     /**
      * Indicates if the controller thread should be a daemon (not blocking JVM
      * exit).
@@ -679,6 +802,15 @@ public abstract class BaseHelper<T extends Connector> extends
                         "directBuffers", "false"));
     }
 
+    /**
+     * Indicates if virtual worker threads are requested.
+     * 
+     * @return True if virtual worker threads are requested.
+     */
+    public boolean isWorkerThreadsVirtual() {
+        return "virtual".equalsIgnoreCase(getWorkerThreadsType());
+    }
+
     /**
      * Indicates if it is helping a server connector.
      * 
@@ -746,6 +878,17 @@ public abstract class BaseHelper<T extends Connector> extends
         }
     }
 
+    /**
+     * Called back by a worker thread when it has completed a task. If the
+     * controller is overloaded, it is woken up so it can check again the
+     * overload state without waiting for its next control.
+     */
+    protected void onWorkerTaskCompleted() {
+        if ((getController() != null) && getController().isOverloaded()) {
+            getController().wakeup();
+        }
+    }
+
     @Override
     public void start() throws Exception {
         super.start();
@@ -755,6 +898,14 @@ public abstract class BaseHelper<T extends Connector> extends
             this.workerService = createWorkerService();
         }
 
+        startControllers();
+    }
+
+    /**
+     * Submits the controller tasks to the controller service. Called once the
+     * controller and worker services are created.
+     */
+    protected void startControllers() {
         this.controllerService.submit(this.controller);
     }
 
@@ -765,6 +916,15 @@ public abstract class BaseHelper<T extends Connector> extends
         doFinishStop();
     }
 
+    /**
+     * Stops the controller tasks run by the controller service. Called once
+     * the pending workers have completed.
+     */
+    protected void stopControllers() {
+        this.controller.setRunning(false);
+        this.controller.wakeup();
+    }
+
     /**
      * Adds traces on the worker service.
      */
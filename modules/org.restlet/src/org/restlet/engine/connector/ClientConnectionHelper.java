@@ -34,17 +34,23 @@
 package org.restlet.engine.connector;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketAddress;
 import java.net.UnknownHostException;
 import java.nio.channels.SocketChannel;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.logging.Level;
 
 import org.restlet.Client;
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.data.Method;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
 
@@ -60,6 +66,53 @@ import org.restlet.data.Status;
  * <th>Description</th>
  * </tr>
  * <tr>
+ * <td>dnsCacheMaxSize</td>
+ * <td>int</td>
+ * <td>1000</td>
+ * <td>Maximum number of host name resolutions cached.</td>
+ * </tr>
+ * <tr>
+ * <td>dnsCacheNegativeTtlMs</td>
+ * <td>int</td>
+ * <td>10000</td>
+ * <td>Time during which a failed resolution of a host name is cached, or 0 to
+ * not cache failed resolutions.</td>
+ * </tr>
+ * <tr>
+ * <td>dnsCacheTtlMs</td>
+ * <td>int</td>
+ * <td>30000</td>
+ * <td>Time during which a successful resolution of a host name is cached, or 0
+ * to disable the cache. Resolutions used during the last fifth of this time are
+ * refreshed in the background. The IP addresses of a host are used in turn.</td>
+ * </tr>
+ * <tr>
+ * <td>maxConnectionWaitTimeMs</td>
+ * <td>int</td>
+ * <td>60000</td>
+ * <td>Maximum time a call can wait for a connection when the maximum number of
+ * connections per host or in total is reached, before failing.</td>
+ * </tr>
+ * <tr>
+ * <td>maxWaitingCallsPerHost</td>
+ * <td>int</td>
+ * <td>100</td>
+ * <td>Maximum number of calls waiting for a connection to the same host when
+ * the maximum number of connections per host or in total is reached. Use 0 to
+ * fail the calls right away.</td>
+ * </tr>
+ * <tr>
+ * <td>pipeliningDepth</td>
+ * <td>int</td>
+ * <td>8</td>
+ * <td>Maximum number of requests sent on a connection while waiting for their
+ * responses, when the "pipeliningConnections" parameter is enabled. Requests
+ * are pipelined once the maximum number of connections per host or in total is
+ * reached. Only idempotent requests are pipelined and those left unanswered
+ * when the connection closes are sent again first on another connection, up
+ * to this number of times.</td>
+ * </tr>
+ * <tr>
  * <td>proxyHost</td>
  * <td>String</td>
  * <td>System property "http.proxyHost"</td>
@@ -126,6 +179,21 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
 
     protected static final String CONNECTOR_LATCH = "org.restlet.engine.connector.latch";
 
+    /** The name of the request attribute counting the replays of a request. */
+    protected static final String CONNECTOR_REPLAYS = "org.restlet.engine.connector.replays";
+
+    /**
+     * The connections indexed by target host name and port, so that the
+     * limits per host apply whatever the IP addresses it resolves to.
+     */
+    private final ConcurrentMap<InetSocketAddress, HostConnections> hostConnections;
+
+    /** The custom host resolver or null to rely on the JVM. */
+    private volatile HostResolver hostResolver;
+
+    /** The cache of host resolutions. */
+    private volatile HostResolverCache hostResolverCache;
+
     /**
      * Constructor.
      * 
@@ -134,6 +202,95 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
      */
     public ClientConnectionHelper(Client connector) {
         super(connector, true);
+        this.hostConnections = new ConcurrentHashMap<InetSocketAddress, HostConnections>();
+    }
+
+    /**
+     * Removes the connection from the index of its target host before
+     * checking it back into the pool.
+     * 
+     * @param connection
+     *            The connection to check in.
+     */
+    @Override
+    protected void checkin(Connection<?> connection) {
+        SocketAddress socketAddress = connection.getSocketAddress();
+
+        if (socketAddress != null) {
+            HostConnections host = this.hostConnections.get(socketAddress);
+
+            if ((host != null) && host.remove(connection)) {
+                removeIfEmpty(host);
+            }
+        }
+
+        super.checkin(connection);
+    }
+
+    @Override
+    protected boolean control() {
+        boolean result = false;
+
+        // Give the waiting calls a chance to get a connection first
+        for (HostConnections host : this.hostConnections.values()) {
+            if (host.getWaitingCount() > 0) {
+                result |= controlWaitingCalls(host);
+            }
+        }
+
+        return super.control() || result;
+    }
+
+    /**
+     * Fails the waiting calls that have expired and dispatches the others to
+     * the connections that became available.
+     * 
+     * @param host
+     *            The connections to the target host.
+     * @return Indicates if some concrete activity occurred.
+     */
+    protected boolean controlWaitingCalls(HostConnections host) {
+        boolean result = false;
+        Response response;
+
+        while ((response = host.pollExpired(System.currentTimeMillis())) != null) {
+            getLogger().log(
+                    Level.WARNING,
+                    "Unable to get a connection to " + host.getSocketAddress()
+                            + " before the maximum wait time");
+            response.setStatus(Status.CONNECTOR_ERROR_COMMUNICATION,
+                    "Unable to get a connection before the maximum wait time");
+            unblock(response);
+            result = true;
+        }
+
+        while ((response = host.peek()) != null) {
+            try {
+                Connection<Client> bestConn = getBestConnection(
+                        response.getRequest(), host);
+
+                if (bestConn == null) {
+                    break;
+                }
+
+                host.poll();
+                bestConn.getOutboundWay().handle(response);
+                getConnections().add(bestConn);
+            } catch (Throwable t) {
+                host.poll();
+                getLogger()
+                        .log(Level.FINE,
+                                "An error occured during the communication with the remote server.",
+                                t);
+                response.setStatus(Status.CONNECTOR_ERROR_COMMUNICATION, t);
+                unblock(response);
+            }
+
+            result = true;
+        }
+
+        removeIfEmpty(host);
+        return result;
     }
 
     @Override
@@ -204,7 +361,8 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
     protected SocketChannel createSocketChannel(boolean secure,
             String hostDomain, int hostPort) throws UnknownHostException,
             IOException {
-        return createSocketChannel(secure, new InetSocketAddress(hostDomain, hostPort));
+        return createSocketChannel(secure, new InetSocketAddress(
+                resolve(hostDomain), hostPort));
     }
 
     @Override
@@ -231,6 +389,8 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
 
     @Override
     public void doHandleOutbound(Response response) {
+        HostConnections host = null;
+
         try {
             if ((response != null) && (response.getRequest() != null)) {
                 if (getLogger().isLoggable(Level.FINE)) {
@@ -240,12 +400,57 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                                     + response.getRequest());
                 }
 
-                Connection<Client> bestConn = getBestConnection(response
+                InetSocketAddress socketAddress = getSocketAddress(response
                         .getRequest());
+                Connection<Client> bestConn = null;
+                boolean queued = false;
+
+                if (socketAddress == null) {
+                    getLogger()
+                            .log(Level.WARNING,
+                                    "Unable to create a socket address related to the request.");
+                } else {
+                    // Resolve the host name on the calling thread
+                    InetSocketAddress resolvedAddress = resolve(socketAddress);
+                    boolean indexed = false;
+
+                    while (!indexed) {
+                        host = getHostConnections(socketAddress);
+
+                        // Prevent the concurrent removal of the index while
+                        // it is still empty
+                        synchronized (host) {
+                            indexed = !host.isRemoved();
+
+                            if (indexed) {
+                                host.setResolvedAddress(resolvedAddress);
+
+                                if (host.getWaitingCount() == 0) {
+                                    bestConn = getBestConnection(
+                                            response.getRequest(), host);
+                                }
+
+                                queued = (bestConn == null)
+                                        && host.offer(
+                                                response,
+                                                System.currentTimeMillis()
+                                                        + getMaxConnectionWaitTimeMs(),
+                                                getMaxWaitingCallsPerHost());
+                            }
+                        }
+                    }
+                }
 
                 if (bestConn != null) {
                     bestConn.getOutboundWay().handle(response);
                     getConnections().add(bestConn);
+                } else if (queued) {
+                    if (getLogger().isLoggable(Level.FINE)) {
+                        getLogger().log(
+                                Level.FINE,
+                                "Waiting for a connection to: "
+                                        + socketAddress);
+                    }
                 } else {
                     getLogger().log(Level.WARNING,
                             "Unable to find a connection to send the request");
@@ -261,6 +466,11 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                             t);
             response.setStatus(Status.CONNECTOR_ERROR_COMMUNICATION, t);
             unblock(response);
+        } finally {
+            if (host != null) {
+                // Don't keep the index of a host whose connection failed
+                removeIfEmpty(host);
+            }
         }
     }
 
@@ -279,12 +489,6 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
             throws UnknownHostException, IOException {
         Connection<Client> result = null;
 
-        // Try to reuse an existing connection for the same host and
-        // port
-        int hostConnectionCount = 0;
-        int bestScore = 0;
-        boolean foundConn = false;
-
         // Determine the target host domain and port of the request.
         InetSocketAddress socketAddress = getSocketAddress(request);
 
@@ -293,71 +497,227 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                     .log(Level.WARNING,
                             "Unable to create a socket address related to the request.");
         } else {
-            // Associate the given request to the first available connection
-            // opened on the same host domain and port.
-            for (Iterator<Connection<Client>> iterator = getConnections()
-                    .iterator(); !foundConn && iterator.hasNext();) {
-                Connection<Client> currConn = iterator.next();
-
-                if (socketAddress.equals(currConn.getSocketAddress())) {
-                    if (currConn.isAvailable()) {
-                        result = currConn;
-                        foundConn = true;
-                    } else {
-                        // Assign the request to the busy connection that
-                        // handles the less number of messages. This is useful
-                        // in case the maximum number of connections has been
-                        // reached. As a drawback, the message will only be
-                        // handled as soon as possible.
-                        int currScore = currConn.getLoadScore();
-
-                        if (bestScore > currScore) {
-                            bestScore = currScore;
-                            result = currConn;
-                        }
+            // Resolve the host name on the calling thread
+            InetSocketAddress resolvedAddress = resolve(socketAddress);
+            boolean indexed = false;
+
+            while (!indexed) {
+                HostConnections host = getHostConnections(socketAddress);
 
-                        hostConnectionCount++;
+                // Prevent the concurrent removal of the index while it is
+                // still empty
+                synchronized (host) {
+                    indexed = !host.isRemoved();
+
+                    try {
+                        if (indexed) {
+                            host.setResolvedAddress(resolvedAddress);
+                            result = getBestConnection(request, host);
+                        }
+                    } finally {
+                        removeIfEmpty(host);
                     }
                 }
             }
+        }
+
+        return result;
+    }
 
-            // No connection has been found, try to create a new one that will
-            // handle the message soon.
-            if (foundConn) {
+    /**
+     * Tries to reuse an idle connection opened to the target host, or creates a
+     * new one. When the maximum number of connections per host or in general is
+     * reached, the request is pipelined on a busy connection if possible,
+     * otherwise null is returned. New connections are opened to the address
+     * last resolved by a calling thread, see
+     * {@link HostConnections#getResolvedAddress()}, so this method never
+     * blocks on a name resolution and can be called by the controller.
+     * 
+     * @param request
+     *            The request to handle.
+     * @param host
+     *            The connections to the target host.
+     * @return An existing connection able to handle the request or new one.
+     * @throws UnknownHostException
+     * @throws IOException
+     */
+    protected Connection<Client> getBestConnection(Request request,
+            HostConnections host) throws UnknownHostException, IOException {
+        InetSocketAddress socketAddress = host.getSocketAddress();
+
+        // Associate the given request to the most recent idle connection
+        // opened on the same host domain and port.
+        Connection<Client> result = host.getAvailableConnection();
+
+        if (result != null) {
+            if (getLogger().isLoggable(Level.FINE)) {
                 getLogger().log(
                         Level.FINE,
                         "Reusing an existing client connection to: "
                                 + socketAddress);
-            } else if ((getMaxTotalConnections() != -1)
-                    && (getConnections().size() >= getMaxTotalConnections())) {
-                getLogger()
-                        .log(Level.WARNING,
-                                "Unable to create a new connection. Maximum total number of connections reached!");
-            } else if ((getMaxConnectionsPerHost() != -1)
-                    && (hostConnectionCount >= getMaxConnectionsPerHost())) {
-                getLogger()
-                        .log(Level.WARNING,
-                                "Unable to create a new connection. Maximum number of connections reached for host: "
-                                        + socketAddress);
-            } else {
-                // Create a new connection
-                if (getLogger().isLoggable(Level.FINE)) {
-                    getLogger().log(
-                            Level.FINE,
-                            "Creating a new client connection to: "
-                                    + socketAddress);
-                }
+            }
+        } else if (((getMaxTotalConnections() == -1) || (getConnections()
+                .size() < getMaxTotalConnections()))
+                && ((getMaxConnectionsPerHost() == -1) || (host
+                        .getConnectionCount() < getMaxConnectionsPerHost()))) {
+            // Create a new connection
+            if (getLogger().isLoggable(Level.FINE)) {
+                getLogger().log(Level.FINE,
+                        "Creating a new client connection to: "
+                                + socketAddress);
+            }
 
-                result = checkout(
-                        createSocketChannel(request.isConfidential(),
-                                socketAddress), getController(), socketAddress);
-                getConnections().add(result);
+            InetSocketAddress resolvedAddress = host.getResolvedAddress();
+
+            if (resolvedAddress == null) {
+                throw new UnknownHostException("Unresolved host: "
+                        + socketAddress.getHostName());
             }
+
+            result = checkout(
+                    createSocketChannel(request.isConfidential(),
+                            resolvedAddress), getController(), socketAddress);
+            host.add(result);
+            getConnections().add(result);
+        } else if (isPipelinable(request)
+                && ((result = host
+                        .getPipelinableConnection(getPipeliningDepth())) != null)) {
+            if (getLogger().isLoggable(Level.FINE)) {
+                getLogger().log(
+                        Level.FINE,
+                        "Pipelining a request on a client connection to: "
+                                + socketAddress);
+            }
+        } else if (getLogger().isLoggable(Level.FINE)) {
+            getLogger().log(
+                    Level.FINE,
+                    "Unable to create a new connection. Maximum number of connections reached for host: "
+                            + socketAddress);
         }
 
         return result;
     }
 
+    /**
+     * Returns the maximum number of host name resolutions cached.
+     * 
+     * @return The maximum number of host name resolutions cached.
+     */
+    public int getDnsCacheMaxSize() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "dnsCacheMaxSize", "1000"));
+    }
+
+    /**
+     * Returns the time during which a failed resolution of a host name is
+     * cached.
+     * 
+     * @return The time during which a failed resolution is cached.
+     */
+    public int getDnsCacheNegativeTtlMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "dnsCacheNegativeTtlMs", "10000"));
+    }
+
+    /**
+     * Returns the time during which a successful resolution of a host name is
+     * cached.
+     * 
+     * @return The time during which a successful resolution is cached.
+     */
+    public int getDnsCacheTtlMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "dnsCacheTtlMs", "30000"));
+    }
+
+    /**
+     * Returns the connections to the given host and port, creating the index
+     * entry if needed.
+     * 
+     * @param socketAddress
+     *            The target host and port.
+     * @return The connections to the given host and port.
+     */
+    protected HostConnections getHostConnections(InetSocketAddress socketAddress) {
+        HostConnections result = this.hostConnections.get(socketAddress);
+
+        if (result == null) {
+            result = new HostConnections(socketAddress);
+            HostConnections current = this.hostConnections.putIfAbsent(
+                    socketAddress, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the connections indexed by target host and port. Each entry
+     * provides gauges of the active, idle and waiting counts.
+     * 
+     * @return The connections indexed by target host and port.
+     */
+    public Collection<HostConnections> getHostConnections() {
+        return Collections.unmodifiableCollection(this.hostConnections
+                .values());
+    }
+
+    /**
+     * Returns the custom host resolver.
+     * 
+     * @return The custom host resolver or null if the JVM is relied on.
+     */
+    public HostResolver getHostResolver() {
+        return hostResolver;
+    }
+
+    /**
+     * Returns the cache of host resolutions, available once the connector is
+     * started.
+     * 
+     * @return The cache of host resolutions.
+     */
+    public HostResolverCache getHostResolverCache() {
+        return hostResolverCache;
+    }
+
+    /**
+     * Returns the maximum time a call can wait for a connection when the
+     * maximum number of connections per host or in total is reached.
+     * 
+     * @return The maximum time a call can wait for a connection.
+     */
+    public int getMaxConnectionWaitTimeMs() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxConnectionWaitTimeMs", "60000"));
+    }
+
+    /**
+     * Returns the maximum number of calls waiting for a connection to the same
+     * host.
+     * 
+     * @return The maximum number of calls waiting for a connection to the same
+     *         host.
+     */
+    public int getMaxWaitingCallsPerHost() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxWaitingCallsPerHost", "100"));
+    }
+
+    /**
+     * Returns the maximum number of requests sent on a connection while waiting
+     * for their responses, when pipelining is enabled.
+     * 
+     * @return The maximum number of pipelined requests per connection.
+     */
+    public int getPipeliningDepth() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "pipeliningDepth", "8"));
+    }
+
     /**
      * Returns the host name of the HTTP proxy, if specified.
      * 
@@ -385,17 +745,18 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
     }
 
     /**
-     * Returns an IP socket address representing the target host domain and port
-     * for a given request. If the helper relies on a proxy, the socket
-     * represents the domain and port of the proxy host. Used by the
-     * {@link #getBestConnection(Request)} method.
+     * Returns an unresolved socket address representing the target host domain
+     * and port for a given request. If the helper relies on a proxy, the
+     * socket represents the domain and port of the proxy host. Used by the
+     * {@link #getBestConnection(Request)} method. The host domain is resolved
+     * by the calling thread for each call, before it is indexed or queued.
      * 
      * @param request
      *            The given request
-     * @return The IP socket address representing the target host domain and
-     *         port for a given request.
+     * @return The unresolved socket address representing the target host
+     *         domain and port for a given request.
      * @throws UnknownHostException
-     *             If the proxy port is invalid or the host unresolved.
+     *             If the proxy port is invalid.
      */
     protected InetSocketAddress getSocketAddress(Request request)
             throws UnknownHostException {
@@ -433,10 +794,7 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
         }
 
         if (hostDomain != null) {
-            result = new InetSocketAddress(hostDomain, hostPort);
-            if (result != null && result.getAddress() == null) {
-                throw new UnknownHostException(hostDomain);
-            }
+            result = InetSocketAddress.createUnresolved(hostDomain, hostPort);
         }
 
         return result;
@@ -544,6 +902,24 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                 "controllerDaemon", "true"));
     }
 
+    /**
+     * Indicates if a request can be pipelined on a busy connection. This
+     * requires pipelining to be enabled and an idempotent method. HEAD requests
+     * are excluded as their responses can announce a content length without
+     * an entity. Replayed requests are excluded so that they are sent first on
+     * their next connection.
+     * 
+     * @param request
+     *            The request to send.
+     * @return True if the request can be pipelined.
+     */
+    protected boolean isPipelinable(Request request) {
+        return isPipeliningConnections() && (getPipeliningDepth() > 1)
+                && request.getMethod().isIdempotent()
+                && !Method.HEAD.equals(request.getMethod())
+                && (request.getAttributes().get(CONNECTOR_REPLAYS) == null);
+    }
+
     @Override
     public boolean isProxying() {
         return getProxyHost() != null;
@@ -584,9 +960,124 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
                 "socketOobInline", "false"));
     }
 
+    /**
+     * Sends again a request that was pipelined on a connection closed before
+     * receiving its response. Requests that were sent are only replayed if
+     * their method is idempotent. As each closed connection answers at least
+     * one request, or fails, a request is replayed at most as many times as
+     * the pipelining depth.
+     * 
+     * @param response
+     *            The response of the request to send again.
+     * @param sent
+     *            Indicates if the request was fully or partially sent.
+     * @return True if the request will be sent again.
+     */
+    public boolean replay(Response response, boolean sent) {
+        boolean result = false;
+        Request request = response.getRequest();
+        Integer replays = (Integer) request.getAttributes().get(
+                CONNECTOR_REPLAYS);
+        int count = (replays == null) ? 0 : replays.intValue();
+
+        if ((!sent || request.getMethod().isIdempotent())
+                && (count < getPipeliningDepth())
+                && ((request.getEntity() == null) || !request.getEntity()
+                        .isTransient())) {
+            if (getLogger().isLoggable(Level.FINE)) {
+                getLogger().log(Level.FINE,
+                        "Replaying a pipelined request: " + request);
+            }
+
+            request.getAttributes().put(CONNECTOR_REPLAYS, count + 1);
+            getOutboundMessages().add(response);
+            result = true;
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the index of the connections to a target host if it has no
+     * connection and no waiting call. Synchronized on the index so that no
+     * connection or call can be concurrently added to it.
+     * 
+     * @param host
+     *            The connections to the target host.
+     */
+    protected void removeIfEmpty(HostConnections host) {
+        synchronized (host) {
+            if (!host.isRemoved() && host.isEmpty()) {
+                host.setRemoved(true);
+                this.hostConnections.remove(host.getSocketAddress(), host);
+            }
+        }
+    }
+
+    /**
+     * Resolves the host name of an unresolved socket address, relying on the
+     * cache of host resolutions once the connector is started. This can block
+     * so it must not be called by the controller.
+     * 
+     * @param socketAddress
+     *            The unresolved socket address.
+     * @return The resolved socket address.
+     * @throws UnknownHostException
+     *             If no IP address could be found for the host.
+     */
+    protected InetSocketAddress resolve(InetSocketAddress socketAddress)
+            throws UnknownHostException {
+        return new InetSocketAddress(resolve(socketAddress.getHostName()),
+                socketAddress.getPort());
+    }
+
+    /**
+     * Resolves a host name into an IP address, relying on the cache of host
+     * resolutions once the connector is started.
+     * 
+     * @param hostDomain
+     *            The host name or IP address literal.
+     * @return An IP address of the host.
+     * @throws UnknownHostException
+     *             If no IP address could be found for the host.
+     */
+    protected InetAddress resolve(String hostDomain)
+            throws UnknownHostException {
+        InetAddress result = null;
+        HostResolverCache cache = getHostResolverCache();
+
+        if (cache != null) {
+            result = cache.resolve(hostDomain);
+        } else if (getHostResolver() != null) {
+            result = getHostResolver().resolve(hostDomain)[0];
+        } else {
+            result = InetAddress.getByName(hostDomain);
+        }
+
+        return result;
+    }
+
+    /**
+     * Sets the custom host resolver.
+     * 
+     * @param hostResolver
+     *            The custom host resolver or null to rely on the JVM.
+     */
+    public void setHostResolver(HostResolver hostResolver) {
+        this.hostResolver = hostResolver;
+        HostResolverCache cache = getHostResolverCache();
+
+        if (cache != null) {
+            cache.setResolver(hostResolver);
+        }
+    }
+
     @Override
     public void start() throws Exception {
         getLogger().info("Starting the internal " + getProtocols() + " client");
+        this.hostResolverCache = new HostResolverCache(getHostResolver(),
+                getDnsCacheTtlMs(), getDnsCacheNegativeTtlMs(),
+                getDnsCacheMaxSize(), getLogger());
         super.start();
     }
 
@@ -594,6 +1085,24 @@ public abstract class ClientConnectionHelper extends ConnectionHelper<Client> {
     public void stop() throws Exception {
         getLogger().info("Stopping the internal" + getProtocols() + " client");
         super.stop();
+
+        // Fail the calls still waiting for a connection
+        for (HostConnections host : this.hostConnections.values()) {
+            Response response;
+
+            while ((response = host.poll()) != null) {
+                response.setStatus(Status.CONNECTOR_ERROR_COMMUNICATION,
+                        "The client connector was stopped");
+                unblock(response);
+            }
+        }
+
+        this.hostConnections.clear();
+
+        if (this.hostResolverCache != null) {
+            this.hostResolverCache.stop();
+            this.hostResolverCache = null;
+        }
     }
 
     /**
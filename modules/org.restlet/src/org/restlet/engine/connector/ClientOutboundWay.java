@@ -94,6 +94,11 @@ public abstract class ClientOutboundWay extends OutboundWay {
         return (Connection<Client>) super.getConnection();
     }
 
+    @Override
+    public ClientConnectionHelper getHelper() {
+        return (ClientConnectionHelper) super.getHelper();
+    }
+
     @Override
     public void onCompleted(boolean endDetected) throws IOException {
         Response message = getMessage();
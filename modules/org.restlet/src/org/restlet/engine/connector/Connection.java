@@ -65,6 +65,9 @@ import org.restlet.util.SelectionRegistration;
  */
 public class Connection<T extends Connector> implements SelectionListener {
 
+    /** The IO controller. */
+    private volatile ConnectionController controller;
+
     /** The parent connector helper. */
     private final ConnectionHelper<T> helper;
 
@@ -139,6 +142,7 @@ public class Connection<T extends Connector> implements SelectionListener {
     public void clear() {
         this.inboundWay.clear();
         this.outboundWay.clear();
+        this.controller = null;
         this.readableSelectionChannel = null;
         this.socketChannel = null;
         this.registration = null;
@@ -259,6 +263,15 @@ public class Connection<T extends Connector> implements SelectionListener {
                         .getInetAddress().getHostAddress();
     }
 
+    /**
+     * Returns the IO controller.
+     * 
+     * @return The IO controller.
+     */
+    public ConnectionController getController() {
+        return controller;
+    }
+
     /**
      * Returns the parent connector helper.
      * 
@@ -448,8 +461,11 @@ public class Connection<T extends Connector> implements SelectionListener {
         this.pipelining = helper.isPipeliningConnections();
         this.maxIoIdleTimeMs = helper.getMaxIoIdleTimeMs();
         this.state = ConnectionState.OPENING;
+        this.controller = controller;
         this.socketChannel = socketChannel;
         this.socketAddress = socketAddress;
+        getInboundWay().getRegistration().setWakeupListener(controller);
+        getOutboundWay().getRegistration().setWakeupListener(controller);
 
         if ((controller != null) && (socketChannel != null)
                 && (socketAddress != null)) {
@@ -490,6 +506,19 @@ public class Connection<T extends Connector> implements SelectionListener {
         return getHelper().isClientSide();
     }
 
+    /**
+     * Indicates if entities can be directly transferred to the socket channel,
+     * bypassing the writable selection channel. Returns true by default;
+     * connections whose writable channel transforms the bytes, for example to
+     * encrypt them, must return false.
+     * 
+     * @return True if entities can be directly transferred to the socket
+     *         channel.
+     */
+    public boolean isDirectTransfer() {
+        return true;
+    }
+
     /**
      * Indicates if the connection is empty of messages and bytes.
      * 
@@ -778,4 +807,16 @@ public class Connection<T extends Connector> implements SelectionListener {
 
         return result;
     }
+
+    /**
+     * Wakes up the IO controller, if any, so it can process the pending work of
+     * this connection.
+     */
+    public void wakeup() {
+        ConnectionController controller = getController();
+
+        if (controller != null) {
+            controller.wakeup();
+        }
+    }
 }
@@ -39,26 +39,45 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import org.restlet.Context;
 import org.restlet.engine.io.IoState;
 import org.restlet.util.SelectionListener;
 import org.restlet.util.SelectionRegistration;
+import org.restlet.util.WakeupListener;
 
 /**
  * Controls the IO work of parent connector helper and manages its connections.
+ * When the "controllerBlocking" parameter is set, the controller blocks on its
+ * NIO selector and is woken up by {@link #wakeup()} when pending work is
+ * queued by another thread.
  * 
  * @author Jerome Louvel
  */
-public class ConnectionController extends Controller implements Runnable {
+public class ConnectionController extends Controller implements Runnable,
+        WakeupListener {
+
+    /** Indicates if the controller blocks on its NIO selector. */
+    private volatile boolean blocking;
+
+    /** The maximum time to block on the NIO selector. */
+    private volatile long blockingTimeMs;
+
+    /** The thread running the control loop. */
+    private volatile Thread controllerThread;
 
     /** The NIO selector. */
     private volatile Selector selector;
 
+    /** Indicates if a wake up has been requested since the last selection. */
+    private final AtomicBoolean wakeupPending;
+
     /** The list of new selection registrations. */
     private final Queue<SelectionRegistration> newRegistrations;
 
@@ -75,6 +94,19 @@ public class ConnectionController extends Controller implements Runnable {
         super(helper);
         this.newRegistrations = new ConcurrentLinkedQueue<SelectionRegistration>();
         this.updatedRegistrations = new ConcurrentLinkedQueue<SelectionRegistration>();
+        this.wakeupPending = new AtomicBoolean(false);
+    }
+
+    /**
+     * Detaches a closed connection from the helper and checks it in the
+     * connection pool.
+     * 
+     * @param connection
+     *            The closed connection.
+     */
+    protected void collect(Connection<?> connection) {
+        getHelper().getConnections().remove(connection);
+        getHelper().checkin(connection);
     }
 
     /**
@@ -84,7 +116,7 @@ public class ConnectionController extends Controller implements Runnable {
      */
     protected void controlConnections() throws IOException {
         // Close connections or register interest in NIO operations
-        for (Connection<?> conn : getHelper().getConnections()) {
+        for (Connection<?> conn : getConnections()) {
             if (getHelper().getLogger().isLoggable(Level.FINEST)) {
                 getHelper().getLogger().log(Level.FINEST,
                         "Connection status: " + conn);
@@ -92,8 +124,7 @@ public class ConnectionController extends Controller implements Runnable {
 
             if (conn.getState() == ConnectionState.CLOSED) {
                 // Detach the connection and collect it
-                getHelper().getConnections().remove(conn);
-                getHelper().checkin(conn);
+                collect(conn);
             } else if ((conn.getState() == ConnectionState.CLOSING)
                     && conn.isEmpty()) {
                 conn.close(false);
@@ -131,7 +162,8 @@ public class ConnectionController extends Controller implements Runnable {
 
     @Override
     protected void doInit() {
-        this.selector = createSelector();
+        initSelector();
+
         // Done in the controller for thread safety reason regarding the byte
         // buffers part of the pooled connections
         getHelper().createConnectionPool();
@@ -154,6 +186,17 @@ public class ConnectionController extends Controller implements Runnable {
         updateKeys();
         selectKeys(sleepTime);
         controlConnections();
+        getHelper().trimPools();
+    }
+
+    /**
+     * Returns the connections controlled. By default, it returns all the
+     * connections of the parent helper.
+     * 
+     * @return The connections controlled.
+     */
+    protected Collection<? extends Connection<?>> getConnections() {
+        return getHelper().getConnections();
     }
 
     /**
@@ -174,6 +217,29 @@ public class ConnectionController extends Controller implements Runnable {
         return selector;
     }
 
+    /**
+     * Returns the number of selection registrations waiting to be registered
+     * or updated by the controller.
+     * 
+     * @return The number of pending selection registrations.
+     */
+    public int getQueueDepth() {
+        return getNewRegistrations().size() + getUpdatedRegistrations().size();
+    }
+
+    /**
+     * Returns the number of channels registered with the NIO selector. As the
+     * selector isn't thread-safe, this value is only an estimation when called
+     * outside the controller thread.
+     * 
+     * @return The number of channels registered with the NIO selector.
+     */
+    public int getRegistrationsCount() {
+        Selector selector = getSelector();
+        return ((selector == null) || !selector.isOpen()) ? 0 : selector
+                .keys().size();
+    }
+
     /**
      * Returns the queue of updated selection registrations.
      * 
@@ -183,6 +249,35 @@ public class ConnectionController extends Controller implements Runnable {
         return this.updatedRegistrations;
     }
 
+    /**
+     * Initializes the NIO selector and the related settings. Called by
+     * {@link #doInit()} from the controller thread. The selector is created
+     * before the blocking mode is enabled so that any thread seeing this mode
+     * can wake up the selector. As registrations queued before the selector
+     * was ready couldn't wake it up, the first selection doesn't block when
+     * some are pending.
+     */
+    protected void initSelector() {
+        this.controllerThread = Thread.currentThread();
+        this.selector = createSelector();
+        this.blockingTimeMs = getHelper().getControllerBlockingTimeMs();
+        this.blocking = getHelper().isControllerBlocking();
+
+        if (getQueueDepth() > 0) {
+            this.wakeupPending.set(true);
+        }
+    }
+
+    /**
+     * Indicates if the controller blocks on its NIO selector until some IO
+     * event or pending work wakes it up.
+     * 
+     * @return True if the controller blocks on its NIO selector.
+     */
+    public boolean isBlocking() {
+        return blocking;
+    }
+
     /**
      * Called back when a ready key has been selected.
      * 
@@ -210,6 +305,17 @@ public class ConnectionController extends Controller implements Runnable {
         }
     }
 
+    /**
+     * Called back when a selection registration has been updated. By default,
+     * it calls {@link #wakeup()}.
+     * 
+     * @param selectionRegistration
+     *            The updated registration.
+     */
+    public void onWakeup(SelectionRegistration selectionRegistration) {
+        wakeup();
+    }
+
     /**
      * Registers a selection listener with the underlying selector for the given
      * operations and returns the registration created.
@@ -227,7 +333,9 @@ public class ConnectionController extends Controller implements Runnable {
             throws IOException {
         SelectionRegistration result = new SelectionRegistration(
                 selectableChannel, interestOperations, listener);
+        result.setWakeupListener(this);
         getNewRegistrations().add(result);
+        wakeup();
         return result;
     }
 
@@ -261,7 +369,17 @@ public class ConnectionController extends Controller implements Runnable {
     protected void selectKeys(long sleepTime) throws IOException,
             ClosedByInterruptException {
         // Select the connections ready for NIO operations
-        int selectCount = getSelector().select(sleepTime);
+        int selectCount = 0;
+
+        if (!isBlocking()) {
+            selectCount = getSelector().select(sleepTime);
+        } else if (this.wakeupPending.getAndSet(false)) {
+            // Some work is already pending, don't block
+            selectCount = getSelector().selectNow();
+        } else {
+            selectCount = getSelector().select(this.blockingTimeMs);
+            this.wakeupPending.set(false);
+        }
 
         if (selectCount > 0) {
             if (getHelper().getLogger().isLoggable(Level.FINEST)) {
@@ -308,4 +426,21 @@ public class ConnectionController extends Controller implements Runnable {
         }
     }
 
+    /**
+     * Wakes up the controller if it is blocked on its NIO selector, so that
+     * pending work can be processed without waiting for the selection time
+     * out. Redundant calls are coalesced until the next selection and calls
+     * made by the controller thread itself don't need to wake up the selector.
+     */
+    public void wakeup() {
+        if (isBlocking() && this.wakeupPending.compareAndSet(false, true)
+                && (Thread.currentThread() != this.controllerThread)) {
+            Selector selector = getSelector();
+
+            if (selector != null) {
+                selector.wakeup();
+            }
+        }
+    }
+
 }
@@ -38,8 +38,11 @@ import java.net.InetSocketAddress;
 import java.nio.channels.SocketChannel;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 
 import org.restlet.Connector;
+import org.restlet.engine.io.BufferPool;
 
 /**
  * Connector helper using network connections. Here is the list of parameters
@@ -67,6 +70,14 @@ import org.restlet.Connector;
  * simply reused.</td>
  * </tr>
  * <tr>
+ * <td>maxPooledConnections</td>
+ * <td>int</td>
+ * <td>1000</td>
+ * <td>Maximum number of connections retained in the connections pool. The
+ * connections closed while the pool is full are not recycled. Use -1 for an
+ * unbounded pool.</td>
+ * </tr>
+ * <tr>
  * <td>maxTotalConnections</td>
  * <td>int</td>
  * <td>-1</td>
@@ -91,6 +102,22 @@ import org.restlet.Connector;
  * <td>Indicates if connections should be pooled to save instantiation time.</td>
  * </tr>
  * <tr>
+ * <td>pooledBuffers</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if the byte buffers of the connections should be borrowed from
+ * a shared pool only while they hold data, and returned to it once empty. This
+ * reduces the memory retained by idle connections.</td>
+ * </tr>
+ * <tr>
+ * <td>poolTrimPeriodMs</td>
+ * <td>long</td>
+ * <td>60000</td>
+ * <td>Period in milliseconds after which the pooled connections and byte
+ * buffers that stayed unused during the whole period are released, keeping at
+ * least the initial number of connections. Use 0 to disable the trimming.</td>
+ * </tr>
+ * <tr>
  * <td>socketReceiveBufferSize</td>
  * <td>int</td>
  * <td>8192</td>
@@ -110,12 +137,18 @@ import org.restlet.Connector;
  */
 public abstract class ConnectionHelper<T extends Connector> extends
         BaseHelper<T> {
+    /** The byte buffer pool. */
+    private volatile BufferPool bufferPool;
+
     /** The connection pool. */
     private volatile ConnectionPool<T> connectionPool;
 
     /** The set of active connections. */
     private final Set<Connection<T>> connections;
 
+    /** The time of the last trimming of the pools. */
+    private final AtomicLong lastTrimTime;
+
     /**
      * Constructor.
      * 
@@ -128,6 +161,7 @@ public abstract class ConnectionHelper<T extends Connector> extends
         super(connector, clientSide);
         this.connections = new CopyOnWriteArraySet<Connection<T>>();
         this.connectionPool = null;
+        this.lastTrimTime = new AtomicLong();
     }
 
     /**
@@ -189,12 +223,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
             InetSocketAddress socketAddress) throws IOException;
 
     /**
-     * Creates the connection pool.
+     * Creates the connection pool. Also creates the byte buffer pool if the
+     * byte buffers are pooled.
      */
     public void createConnectionPool() {
+        if (isPooledBuffers()) {
+            this.bufferPool = new BufferPool(isDirectBuffers());
+        }
+
         if (isPooledConnection()) {
             this.connectionPool = new ConnectionPool<T>(this,
-                    getInitialConnections());
+                    getInitialConnections(), getMaxPooledConnections());
         }
     }
 
@@ -227,8 +266,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
         super.doFinishStop();
 
         if (isPooledConnection()) {
+            if (this.connectionPool != null) {
+                getLogger().fine(this.connectionPool.toString());
+            }
+
             this.connectionPool = null;
         }
+
+        if (this.bufferPool != null) {
+            getLogger().fine(this.bufferPool.toString());
+            this.bufferPool.clear();
+        }
     }
 
     @Override
@@ -241,6 +289,15 @@ public abstract class ConnectionHelper<T extends Connector> extends
         }
     }
 
+    /**
+     * Returns the byte buffer pool shared by the connections.
+     * 
+     * @return The byte buffer pool.
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
     /**
      * Returns the connection pool.
      * 
@@ -283,6 +340,18 @@ public abstract class ConnectionHelper<T extends Connector> extends
                 "maxConnectionsPerHost", "-1"));
     }
 
+    /**
+     * Returns the maximum number of connections retained in the connections
+     * pool. By default, it is 1000.
+     * 
+     * @return The maximum number of connections retained in the connections
+     *         pool or -1 if unbounded.
+     */
+    public int getMaxPooledConnections() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "maxPooledConnections", "1000"));
+    }
+
     /**
      * Returns the maximum number of concurrent connections allowed. By default,
      * it is unbounded.
@@ -295,6 +364,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
 
     }
 
+    /**
+     * Returns the period after which the pooled connections and byte buffers
+     * that stayed unused are released. By default, it is 60 seconds.
+     * 
+     * @return The period in milliseconds or 0 if the pools aren't trimmed.
+     */
+    public long getPoolTrimPeriodMs() {
+        return Long.parseLong(getHelpedParameters().getFirstValue(
+                "poolTrimPeriodMs", "60000"));
+    }
+
     /**
      * Returns the hinted size of the underlying TCP buffers used by the
      * platform for inbound network I/O.
@@ -328,6 +408,17 @@ public abstract class ConnectionHelper<T extends Connector> extends
                 "pipeliningConnections", "false"));
     }
 
+    /**
+     * Indicates if the byte buffers of the connections should be borrowed from
+     * a shared pool only while they hold data.
+     * 
+     * @return True if the byte buffers should be pooled.
+     */
+    public boolean isPooledBuffers() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "pooledBuffers", "false"));
+    }
+
     /**
      * Indicates if the connection objects should be pooled to save
      * instantiation time.
@@ -359,4 +450,39 @@ public abstract class ConnectionHelper<T extends Connector> extends
         return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
                 "socketReuseAddress", "true"));
     }
+
+    /**
+     * Releases the pooled connections and byte buffers that stayed unused
+     * since the previous trimming, if the trimming period has elapsed.
+     * Invoked regularly by the controllers.
+     * 
+     * @see #getPoolTrimPeriodMs()
+     */
+    public void trimPools() {
+        long period = getPoolTrimPeriodMs();
+        long last = this.lastTrimTime.get();
+        long now = System.currentTimeMillis();
+
+        if ((period > 0) && (now - last >= period)
+                && this.lastTrimTime.compareAndSet(last, now)) {
+            int connections = 0;
+            int buffers = 0;
+
+            if (this.connectionPool != null) {
+                connections = this.connectionPool
+                        .trim(getInitialConnections());
+            }
+
+            if (this.bufferPool != null) {
+                buffers = this.bufferPool.trim();
+            }
+
+            if (((connections > 0) || (buffers > 0))
+                    && getLogger().isLoggable(Level.FINE)) {
+                getLogger().fine(
+                        "Released " + connections + " pooled connections and "
+                                + buffers + " pooled byte buffers");
+            }
+        }
+    }
 }
@@ -58,8 +58,24 @@ public class ConnectionPool<T extends Connector> extends Pool<Connection<T>> {
      *            The initial pool size.
      */
     public ConnectionPool(ConnectionHelper<T> helper, int initialSize) {
+        this(helper, initialSize, -1);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent helper.
+     * @param initialSize
+     *            The initial pool size.
+     * @param maxSize
+     *            The maximum pool size or -1 if unbounded.
+     */
+    public ConnectionPool(ConnectionHelper<T> helper, int initialSize,
+            int maxSize) {
         super();
         this.helper = helper;
+        setMaxSize(maxSize);
         preCreate(initialSize);
     }
 
@@ -48,10 +48,10 @@ public abstract class Controller {
     protected final ConnectionHelper<?> helper;
 
     /** Indicates if the controller is overloaded. */
-    protected boolean overloaded;
+    protected volatile boolean overloaded;
 
     /** Indicates if the task is running. */
-    protected boolean running;
+    protected volatile boolean running;
 
     /**
      * Constructor.
@@ -105,6 +105,17 @@ public abstract class Controller {
         return getHelper().getWorkerService();
     }
 
+    /**
+     * Indicates if the controller should detect the overload of the worker
+     * service. By default, it returns true if the helper has worker threads.
+     * 
+     * @return True if the controller should detect the worker service
+     *         overload.
+     */
+    protected boolean isDetectingOverload() {
+        return getHelper().hasWorkerThreads();
+    }
+
     /**
      * Indicates if the controller is overloaded.
      * 
@@ -131,12 +142,12 @@ public abstract class Controller {
             doInit();
             setRunning(true);
             long sleepTime = getHelper().getControllerSleepTimeMs();
-            boolean hasWorkerThreads = getHelper().hasWorkerThreads();
+            boolean detectingOverload = isDetectingOverload();
             boolean isWorkerServiceOverloaded;
 
             while (isRunning()) {
                 try {
-                    if (hasWorkerThreads) {
+                    if (detectingOverload) {
                         isWorkerServiceOverloaded = getHelper()
                                 .isWorkerServiceOverloaded();
 
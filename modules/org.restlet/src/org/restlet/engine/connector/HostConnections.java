@@ -0,0 +1,400 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restlet.Client;
+import org.restlet.Response;
+
+/**
+ * Index of the client connections opened to a given host and port, with the
+ * queue of the calls waiting for a connection to become available. Also
+ * provides gauges of the active, idle and waiting counts.<br>
+ * <br>
+ * Concurrency note: an empty index is removed from its helper while
+ * synchronized on it, so connections and calls must be added while
+ * synchronized on it too, after checking that it wasn't removed. The host
+ * name is resolved by the calling threads, which record the result with
+ * {@link #setResolvedAddress(InetSocketAddress)} so that the connector
+ * controller can open connections for the waiting calls without blocking on
+ * a name resolution.
+ * 
+ * @author agent
+ */
+public class HostConnections {
+
+    /**
+     * Call waiting for a connection.
+     */
+    private static class WaitingCall {
+
+        /** The time after which the call should fail. */
+        private final long deadline;
+
+        /** The response of the waiting call. */
+        private final Response response;
+
+        /**
+         * Constructor.
+         * 
+         * @param response
+         *            The response of the waiting call.
+         * @param deadline
+         *            The time after which the call should fail.
+         */
+        public WaitingCall(Response response, long deadline) {
+            this.response = response;
+            this.deadline = deadline;
+        }
+    }
+
+    /** The connections opened to the host, the most recent last. */
+    private final List<Connection<Client>> connections;
+
+    /** Indicates if the index was removed from its helper. */
+    private volatile boolean removed;
+
+    /** The last resolved IP address and port of the target host. */
+    private volatile InetSocketAddress resolvedAddress;
+
+    /** The target host and port. */
+    private final InetSocketAddress socketAddress;
+
+    /** The calls waiting for a connection. */
+    private final Queue<WaitingCall> waitingCalls;
+
+    /** The number of calls waiting for a connection. */
+    private final AtomicInteger waitingCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param socketAddress
+     *            The target host and port.
+     */
+    public HostConnections(InetSocketAddress socketAddress) {
+        this.connections = new CopyOnWriteArrayList<Connection<Client>>();
+        this.removed = false;
+        this.resolvedAddress = null;
+        this.socketAddress = socketAddress;
+        this.waitingCalls = new ConcurrentLinkedQueue<WaitingCall>();
+        this.waitingCount = new AtomicInteger();
+    }
+
+    /**
+     * Adds a connection opened to the host.
+     * 
+     * @param connection
+     *            The connection to add.
+     */
+    public void add(Connection<Client> connection) {
+        this.connections.add(connection);
+    }
+
+    /**
+     * Returns the number of active connections, busy exchanging messages or
+     * being opened or closed.
+     * 
+     * @return The number of active connections.
+     */
+    public int getActiveCount() {
+        return getConnectionCount() - getIdleCount();
+    }
+
+    /**
+     * Returns an idle connection, preferring the most recently opened ones so
+     * that the others can time out when the load decreases.
+     * 
+     * @return An idle connection or null.
+     */
+    public Connection<Client> getAvailableConnection() {
+        Connection<Client> result = null;
+        Object[] snapshot = this.connections.toArray();
+
+        for (int i = snapshot.length - 1; (result == null) && (i >= 0); i--) {
+            @SuppressWarnings("unchecked")
+            Connection<Client> connection = (Connection<Client>) snapshot[i];
+
+            if (connection.isAvailable()) {
+                result = connection;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of connections opened to the host.
+     * 
+     * @return The number of connections opened to the host.
+     */
+    public int getConnectionCount() {
+        return this.connections.size();
+    }
+
+    /**
+     * Returns the number of idle connections, available for a new call.
+     * 
+     * @return The number of idle connections.
+     */
+    public int getIdleCount() {
+        int result = 0;
+
+        for (Connection<Client> connection : this.connections) {
+            if (connection.isAvailable()) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the least loaded connection able to pipeline a new request. The
+     * connection must support pipelining, be open, have already kept alive
+     * after a response, have less than the given number of requests waiting
+     * and only idempotent ones.
+     * 
+     * @param depth
+     *            The maximum number of pipelined requests per connection.
+     * @return The least loaded connection able to pipeline a request or null.
+     */
+    public Connection<Client> getPipelinableConnection(int depth) {
+        Connection<Client> result = null;
+        int bestScore = depth;
+
+        for (Connection<Client> connection : this.connections) {
+            if (connection.isPipelining() && connection.isPersistent()
+                    && (connection.getState() == ConnectionState.OPEN)
+                    && (connection.getInboundWay() instanceof HttpClientInboundWay)
+                    && ((HttpClientInboundWay) connection.getInboundWay())
+                            .isKeepAliveConfirmed()
+                    && (connection.getOutboundWay() instanceof HttpClientOutboundWay)) {
+                Queue<Response> inboundMessages = ((HttpClientInboundWay) connection
+                        .getInboundWay()).getMessages();
+                Queue<Response> outboundMessages = ((HttpClientOutboundWay) connection
+                        .getOutboundWay()).getMessages();
+                int score = inboundMessages.size() + outboundMessages.size();
+
+                if ((score < bestScore) && isIdempotent(inboundMessages)
+                        && isIdempotent(outboundMessages)) {
+                    result = connection;
+                    bestScore = score;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the last resolved IP address and port of the target host.
+     * 
+     * @return The last resolved IP address and port or null.
+     */
+    public InetSocketAddress getResolvedAddress() {
+        return resolvedAddress;
+    }
+
+    /**
+     * Returns the target host and port.
+     * 
+     * @return The target host and port.
+     */
+    public InetSocketAddress getSocketAddress() {
+        return socketAddress;
+    }
+
+    /**
+     * Returns the number of calls waiting for a connection.
+     * 
+     * @return The number of calls waiting for a connection.
+     */
+    public int getWaitingCount() {
+        return this.waitingCount.get();
+    }
+
+    /**
+     * Indicates if there is no connection and no waiting call.
+     * 
+     * @return True if there is no connection and no waiting call.
+     */
+    public boolean isEmpty() {
+        return this.connections.isEmpty() && (getWaitingCount() == 0);
+    }
+
+    /**
+     * Indicates if all the requests of a queue have an idempotent method.
+     * 
+     * @param messages
+     *            The queue of messages.
+     * @return True if all the requests have an idempotent method.
+     */
+    private boolean isIdempotent(Queue<Response> messages) {
+        boolean result = true;
+
+        for (Response message : messages) {
+            if (!message.getRequest().getMethod().isIdempotent()) {
+                result = false;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if the index was removed from its helper.
+     * 
+     * @return True if the index was removed from its helper.
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    /**
+     * Adds a call to the waiting queue if it isn't full.
+     * 
+     * @param response
+     *            The response of the call.
+     * @param deadline
+     *            The time after which the call should fail.
+     * @param maxWaiting
+     *            The maximum number of waiting calls.
+     * @return True if the call was queued.
+     */
+    public boolean offer(Response response, long deadline, int maxWaiting) {
+        boolean result = this.waitingCount.incrementAndGet() <= maxWaiting;
+
+        if (result) {
+            this.waitingCalls.offer(new WaitingCall(response, deadline));
+        } else {
+            this.waitingCount.decrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the next waiting call without removing it.
+     * 
+     * @return The response of the next waiting call or null.
+     */
+    public Response peek() {
+        WaitingCall call = this.waitingCalls.peek();
+        return (call == null) ? null : call.response;
+    }
+
+    /**
+     * Removes the next waiting call.
+     * 
+     * @return The response of the next waiting call or null.
+     */
+    public Response poll() {
+        Response result = null;
+        WaitingCall call = this.waitingCalls.poll();
+
+        if (call != null) {
+            this.waitingCount.decrementAndGet();
+            result = call.response;
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes the next waiting call if its deadline has passed.
+     * 
+     * @param now
+     *            The current time.
+     * @return The response of the expired call or null.
+     */
+    public Response pollExpired(long now) {
+        Response result = null;
+        WaitingCall call = this.waitingCalls.peek();
+
+        if ((call != null) && (call.deadline <= now)
+                && this.waitingCalls.remove(call)) {
+            this.waitingCount.decrementAndGet();
+            result = call.response;
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes a connection closed or detached from the host.
+     * 
+     * @param connection
+     *            The connection to remove.
+     * @return True if the connection was indexed.
+     */
+    public boolean remove(Connection<?> connection) {
+        return this.connections.remove(connection);
+    }
+
+    /**
+     * Indicates if the index was removed from its helper.
+     * 
+     * @param removed
+     *            True if the index was removed from its helper.
+     */
+    public void setRemoved(boolean removed) {
+        this.removed = removed;
+    }
+
+    /**
+     * Sets the last resolved IP address and port of the target host.
+     * 
+     * @param resolvedAddress
+     *            The last resolved IP address and port.
+     */
+    public void setResolvedAddress(InetSocketAddress resolvedAddress) {
+        this.resolvedAddress = resolvedAddress;
+    }
+
+    @Override
+    public String toString() {
+        return "Connections to " + getSocketAddress() + ": "
+                + getActiveCount() + " active, " + getIdleCount() + " idle, "
+                + getWaitingCount() + " waiting";
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Resolves host names into IP addresses for client connectors. Alternate
+ * implementations can be plugged into client helpers, for example to rely on a
+ * custom naming service or on a local stand-in during tests.
+ * 
+ * @author agent
+ * @see ClientConnectionHelper#setHostResolver(HostResolver)
+ */
+public interface HostResolver {
+
+    /**
+     * Returns all the IP addresses of a host.
+     * 
+     * @param hostDomain
+     *            The host name or IP address literal.
+     * @return All the IP addresses of the host.
+     * @throws UnknownHostException
+     *             If no IP address could be found for the host.
+     */
+    public InetAddress[] resolve(String hostDomain)
+            throws UnknownHostException;
+
+}
@@ -0,0 +1,412 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.restlet.engine.log.LoggingThreadFactory;
+
+/**
+ * Cache of host name resolutions for client connectors. Successful resolutions
+ * are kept for a positive time to live and failed ones for a negative time to
+ * live. When a cached resolution is used during the last fifth of its time to
+ * live, it is refreshed in the background so that callers don't wait for the
+ * underlying resolver. When a host has several IP addresses, they are returned
+ * in turn to spread the connections. When the maximum number of cached
+ * resolutions is reached, the expired ones are removed, then the oldest one if
+ * needed, before caching a new one.
+ * 
+ * @author agent
+ */
+public class HostResolverCache {
+
+    /**
+     * Cached resolution of a host.
+     */
+    private static class Entry {
+
+        /** The IP addresses of the host or null if it is unknown. */
+        private final InetAddress[] addresses;
+
+        /** The time after which the entry expires. */
+        private final long expirationTime;
+
+        /** The index of the next address to return. */
+        private final AtomicInteger nextIndex;
+
+        /** Indicates if a background refresh was requested. */
+        private final AtomicBoolean refreshing;
+
+        /** The time after which the entry should be refreshed. */
+        private final long refreshTime;
+
+        /**
+         * Constructor.
+         * 
+         * @param addresses
+         *            The IP addresses of the host or null if it is unknown.
+         * @param now
+         *            The current time.
+         * @param ttlMs
+         *            The time to live of the entry.
+         */
+        public Entry(InetAddress[] addresses, long now, long ttlMs) {
+            this.addresses = preferred(addresses);
+            this.expirationTime = now + ttlMs;
+            this.nextIndex = new AtomicInteger();
+            this.refreshing = new AtomicBoolean();
+            this.refreshTime = this.expirationTime - (ttlMs / 5);
+        }
+
+        /**
+         * Returns the next IP address in turn.
+         * 
+         * @return The next IP address in turn.
+         */
+        public InetAddress next() {
+            int index = this.nextIndex.getAndIncrement() & Integer.MAX_VALUE;
+            return this.addresses[index % this.addresses.length];
+        }
+    }
+
+    /**
+     * Returns the IP addresses of the same family as the first one, which is
+     * the one preferred by the JVM, so that the rotation doesn't alternate
+     * between IPv4 and IPv6 addresses.
+     * 
+     * @param addresses
+     *            The IP addresses of a host or null.
+     * @return The IP addresses of the preferred family or null.
+     */
+    private static InetAddress[] preferred(InetAddress[] addresses) {
+        InetAddress[] result = addresses;
+
+        if ((addresses != null) && (addresses.length > 1)) {
+            List<InetAddress> list = new ArrayList<InetAddress>();
+
+            for (InetAddress address : addresses) {
+                if (address.getClass().equals(addresses[0].getClass())) {
+                    list.add(address);
+                }
+            }
+
+            result = list.toArray(new InetAddress[list.size()]);
+        }
+
+        return result;
+    }
+
+    /** The default resolver relying on the JVM. */
+    private static final HostResolver SYSTEM_RESOLVER = new HostResolver() {
+        public InetAddress[] resolve(String hostDomain)
+                throws UnknownHostException {
+            return InetAddress.getAllByName(hostDomain);
+        }
+    };
+
+    /** The cached resolutions indexed by host name. */
+    private final ConcurrentMap<String, Entry> entries;
+
+    /** The logger. */
+    private final Logger logger;
+
+    /** The maximum number of cached resolutions. */
+    private final int maxSize;
+
+    /** The time to live of failed resolutions. */
+    private final long negativeTtlMs;
+
+    /** The service running the background refreshes. */
+    private volatile ExecutorService refreshService;
+
+    /** The underlying resolver. */
+    private volatile HostResolver resolver;
+
+    /** The time to live of successful resolutions. */
+    private final long ttlMs;
+
+    /**
+     * Constructor.
+     * 
+     * @param resolver
+     *            The underlying resolver or null to rely on the JVM.
+     * @param ttlMs
+     *            The time to live of successful resolutions or 0 to disable
+     *            the cache.
+     * @param negativeTtlMs
+     *            The time to live of failed resolutions or 0 to not cache
+     *            them.
+     * @param maxSize
+     *            The maximum number of cached resolutions.
+     * @param logger
+     *            The logger.
+     */
+    public HostResolverCache(HostResolver resolver, long ttlMs,
+            long negativeTtlMs, int maxSize, Logger logger) {
+        this.entries = new ConcurrentHashMap<String, Entry>();
+        this.logger = logger;
+        this.maxSize = maxSize;
+        this.negativeTtlMs = negativeTtlMs;
+        this.resolver = resolver;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Removes all the cached resolutions.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the underlying resolver.
+     * 
+     * @return The underlying resolver.
+     */
+    public HostResolver getResolver() {
+        return (this.resolver == null) ? SYSTEM_RESOLVER : this.resolver;
+    }
+
+    /**
+     * Returns the maximum number of cached resolutions.
+     * 
+     * @return The maximum number of cached resolutions.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the service running the background refreshes, creating it if
+     * needed.
+     * 
+     * @return The service running the background refreshes.
+     */
+    private ExecutorService getRefreshService() {
+        ExecutorService result = this.refreshService;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.refreshService;
+
+                if (result == null) {
+                    result = Executors
+                            .newSingleThreadExecutor(new LoggingThreadFactory(
+                                    this.logger, true));
+                    this.refreshService = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of cached resolutions.
+     * 
+     * @return The number of cached resolutions.
+     */
+    public int getSize() {
+        return this.entries.size();
+    }
+
+    /**
+     * Resolves a host with the underlying resolver and caches the result.
+     * 
+     * @param hostDomain
+     *            The host name.
+     * @return The new entry.
+     */
+    private Entry load(String hostDomain) {
+        Entry result = null;
+        long now = System.currentTimeMillis();
+
+        try {
+            InetAddress[] addresses = getResolver().resolve(hostDomain);
+
+            if ((addresses != null) && (addresses.length > 0)) {
+                result = new Entry(addresses, now, this.ttlMs);
+            }
+        } catch (UnknownHostException uhe) {
+            this.logger.log(Level.FINE, "Unable to resolve host: "
+                    + hostDomain, uhe);
+        }
+
+        if (result == null) {
+            result = new Entry(null, now, this.negativeTtlMs);
+        }
+
+        if (result.expirationTime > now) {
+            if (!this.entries.containsKey(hostDomain)
+                    && (this.entries.size() >= getMaxSize())) {
+                purge(now);
+            }
+
+            this.entries.put(hostDomain, result);
+        } else {
+            this.entries.remove(hostDomain);
+        }
+
+        return result;
+    }
+
+    /**
+     * Makes room for a new resolution by removing the expired ones, then the
+     * oldest one if the maximum number of cached resolutions is still reached.
+     * 
+     * @param now
+     *            The current time.
+     */
+    private void purge(long now) {
+        Entry oldest = null;
+        String oldestHost = null;
+
+        for (Iterator<java.util.Map.Entry<String, Entry>> iter = this.entries
+                .entrySet().iterator(); iter.hasNext();) {
+            java.util.Map.Entry<String, Entry> mapEntry = iter.next();
+
+            if (mapEntry.getValue().expirationTime <= now) {
+                iter.remove();
+            } else if ((oldest == null)
+                    || (mapEntry.getValue().expirationTime < oldest.expirationTime)) {
+                oldest = mapEntry.getValue();
+                oldestHost = mapEntry.getKey();
+            }
+        }
+
+        if ((oldest != null) && (this.entries.size() >= getMaxSize())) {
+            this.entries.remove(oldestHost, oldest);
+        }
+    }
+
+    /**
+     * Refreshes the resolution of a host in the background.
+     * 
+     * @param hostDomain
+     *            The host name.
+     * @param entry
+     *            The entry to refresh.
+     */
+    private void refresh(final String hostDomain, final Entry entry) {
+        try {
+            getRefreshService().execute(new Runnable() {
+                public void run() {
+                    try {
+                        InetAddress[] addresses = getResolver().resolve(
+                                hostDomain);
+
+                        if ((addresses != null) && (addresses.length > 0)) {
+                            entries.replace(hostDomain, entry, new Entry(
+                                    addresses, System.currentTimeMillis(),
+                                    ttlMs));
+                        }
+                    } catch (UnknownHostException uhe) {
+                        // Keep the current addresses until they expire
+                        logger.log(Level.FINE, "Unable to refresh host: "
+                                + hostDomain, uhe);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            this.logger.log(Level.FINE,
+                    "Unable to schedule the refresh of host: " + hostDomain, e);
+        }
+    }
+
+    /**
+     * Returns an IP address of a host. When the host has several IP addresses,
+     * they are returned in turn.
+     * 
+     * @param hostDomain
+     *            The host name or IP address literal.
+     * @return An IP address of the host.
+     * @throws UnknownHostException
+     *             If no IP address could be found for the host.
+     */
+    public InetAddress resolve(String hostDomain) throws UnknownHostException {
+        long now = System.currentTimeMillis();
+        Entry entry = this.entries.get(hostDomain);
+
+        if ((entry == null) || (entry.expirationTime <= now)) {
+            entry = load(hostDomain);
+        } else if ((entry.addresses != null) && (entry.refreshTime <= now)
+                && entry.refreshing.compareAndSet(false, true)) {
+            refresh(hostDomain, entry);
+        }
+
+        if (entry.addresses == null) {
+            throw new UnknownHostException(hostDomain);
+        }
+
+        return entry.next();
+    }
+
+    /**
+     * Sets the underlying resolver and clears the cached resolutions.
+     * 
+     * @param resolver
+     *            The underlying resolver or null to rely on the JVM.
+     */
+    public void setResolver(HostResolver resolver) {
+        this.resolver = resolver;
+        clear();
+    }
+
+    /**
+     * Stops the background refreshes and clears the cached resolutions.
+     */
+    public void stop() {
+        ExecutorService service = this.refreshService;
+
+        if (service != null) {
+            service.shutdown();
+            this.refreshService = null;
+        }
+
+        clear();
+    }
+
+}
@@ -49,6 +49,12 @@ import org.restlet.engine.io.IoState;
  */
 public class HttpClientInboundWay extends ClientInboundWay {
 
+    /**
+     * Indicates if a response was received while keeping the connection open,
+     * confirming that it is persistent.
+     */
+    private volatile boolean keepAliveConfirmed;
+
     /** The queue of messages. */
     private final Queue<Response> messages;
 
@@ -63,12 +69,14 @@ public class HttpClientInboundWay extends ClientInboundWay {
      */
     public HttpClientInboundWay(Connection<Client> connection, int bufferSize) {
         super(connection, bufferSize);
+        this.keepAliveConfirmed = false;
         this.messages = new ConcurrentLinkedQueue<Response>();
     }
 
     @Override
     public void clear() {
         super.clear();
+        this.keepAliveConfirmed = false;
         this.messages.clear();
     }
 
@@ -105,6 +113,16 @@ public class HttpClientInboundWay extends ClientInboundWay {
         return super.isEmpty() && getMessages().isEmpty();
     }
 
+    /**
+     * Indicates if a response was received while keeping the connection open,
+     * confirming that it is persistent and that requests can be pipelined.
+     * 
+     * @return True if the connection is confirmed to be persistent.
+     */
+    public boolean isKeepAliveConfirmed() {
+        return keepAliveConfirmed;
+    }
+
     /**
      * Indicates if the {@link IoState#READY} state can be granted.
      * 
@@ -116,6 +134,13 @@ public class HttpClientInboundWay extends ClientInboundWay {
                         .getListener() != null));
     }
 
+    @Override
+    public void onClosed() {
+        // The pipelined requests won't be answered on this connection
+        replayPending(Status.CONNECTOR_ERROR_COMMUNICATION);
+        super.onClosed();
+    }
+
     @Override
     public void onCompleted(boolean endDetected) throws IOException {
         if (getMessage() != null) {
@@ -123,31 +148,74 @@ public class HttpClientInboundWay extends ClientInboundWay {
         }
 
         super.onCompleted(endDetected);
-    }
 
-    @Override
-    public void onError(Status status) {
-        for (Response rsp : getMessages()) {
-            if (rsp != getMessage()) {
-                getMessages().remove(rsp);
-                getHelper().onInboundError(status, rsp);
+        if (getConnection().getState() == ConnectionState.OPEN) {
+            this.keepAliveConfirmed = true;
+        }
+
+        if (getBuffer().canDrain()) {
+            if (startNext()) {
+                // The next pipelined response is already buffered
+                setIoState(IoState.READY);
             }
+        } else if (getConnection().getState() != ConnectionState.OPEN) {
+            // The pipelined requests won't be answered on this connection
+            replayPending(Status.CONNECTOR_ERROR_COMMUNICATION);
+        } else {
+            startNext();
         }
+    }
 
+    @Override
+    public void onError(Status status) {
+        replayPending(status);
         super.onError(status);
     }
 
     @Override
     public void onTimeOut() {
+        replayPending(Status.CONNECTOR_ERROR_COMMUNICATION);
+        super.onTimeOut();
+    }
+
+    /**
+     * Sends again on other connections the requests waiting for a response
+     * behind the current one, as well as those not sent yet, when the
+     * connection can't be used anymore. The requests that can't be replayed
+     * are unblocked with the given error status.
+     * 
+     * @param status
+     *            The error status of the requests that can't be replayed.
+     */
+    protected void replayPending(Status status) {
         for (Response rsp : getMessages()) {
-            if (rsp != getMessage()) {
-                getMessages().remove(rsp);
-                getHelper().onInboundError(
-                        Status.CONNECTOR_ERROR_COMMUNICATION, rsp);
+            if ((rsp != getMessage()) && getMessages().remove(rsp)) {
+                if (!getConnection().isPipelining()
+                        || !getHelper().replay(rsp, true)) {
+                    getHelper().onInboundError(status, rsp);
+                }
             }
         }
 
-        super.onTimeOut();
+        ((HttpClientOutboundWay) getConnection().getOutboundWay())
+                .replayPending(status);
+    }
+
+    /**
+     * Prepares the reading of the next response if the previous one was fully
+     * received and a request is waiting for its response.
+     * 
+     * @return True if the next response can be read.
+     */
+    protected synchronized boolean startNext() {
+        boolean result = (getMessageState() == MessageState.IDLE)
+                && !getMessages().isEmpty();
+
+        if (result) {
+            setMessageState(MessageState.START);
+        }
+
+        return result;
     }
 
     @Override
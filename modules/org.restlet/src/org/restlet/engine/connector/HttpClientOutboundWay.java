@@ -87,6 +87,7 @@ public class HttpClientOutboundWay extends ClientOutboundWay {
     @Override
     protected void handle(Response response) {
         getMessages().add(response);
+        getConnection().wakeup();
     }
 
     @Override
@@ -100,16 +101,24 @@ public class HttpClientOutboundWay extends ClientOutboundWay {
 
         if (message != null) {
             Request request = message.getRequest();
-            Queue<Response> inboundMessages = ((HttpClientInboundWay) getConnection()
-                    .getInboundWay()).getMessages();
 
             // The request has been written
             getMessages().remove(message);
 
-            if (request.isExpectingResponse()) {
-                inboundMessages.add(message);
-                getConnection().getInboundWay().setMessageState(
-                        MessageState.START);
+            if (!request.isExpectingResponse()) {
+                // Nothing to read
+            } else if (getConnection().getState() == ConnectionState.CLOSING) {
+                // The response won't be received on this connection
+                if (!getConnection().isPipelining()
+                        || !getHelper().replay(message, true)) {
+                    getHelper().onOutboundError(
+                            Status.CONNECTOR_ERROR_COMMUNICATION, message);
+                }
+            } else {
+                ((HttpClientInboundWay) getConnection().getInboundWay())
+                        .getMessages().add(message);
+                ((HttpClientInboundWay) getConnection().getInboundWay())
+                        .startNext();
             }
         }
 
@@ -118,33 +127,40 @@ public class HttpClientOutboundWay extends ClientOutboundWay {
 
     @Override
     public void onError(Status status) {
-        for (Response rsp : getMessages()) {
-            if (rsp != getMessage()) {
-                getMessages().remove(rsp);
-                getHelper().onOutboundError(status, rsp);
-            }
-        }
-
+        replayPending(status);
         super.onError(status);
     }
 
     @Override
     public void onTimeOut() {
+        replayPending(Status.CONNECTOR_ERROR_COMMUNICATION);
+        super.onTimeOut();
+    }
+
+    /**
+     * Sends again on other connections the requests queued behind the current
+     * one, when the connection can't be used anymore. The requests that can't
+     * be replayed are unblocked with the given error status.
+     * 
+     * @param status
+     *            The error status of the requests that can't be replayed.
+     */
+    protected void replayPending(Status status) {
         for (Response rsp : getMessages()) {
-            if (rsp != getMessage()) {
-                getMessages().remove(rsp);
-                getHelper().onOutboundError(
-                        Status.CONNECTOR_ERROR_COMMUNICATION, rsp);
+            if ((rsp != getMessage()) && getMessages().remove(rsp)) {
+                if (!getConnection().isPipelining()
+                        || !getHelper().replay(rsp, false)) {
+                    getHelper().onOutboundError(status, rsp);
+                }
             }
         }
-
-        super.onTimeOut();
     }
 
     @Override
     public void updateState() {
         // Update the IO state if necessary
-        if (!getMessages().isEmpty() && (getMessage() == null)) {
+        if (!getMessages().isEmpty() && (getMessage() == null)
+                && (getConnection().getState() != ConnectionState.CLOSING)) {
             setMessage(getMessages().peek());
         }
 
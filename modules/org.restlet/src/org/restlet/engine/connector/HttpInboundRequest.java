@@ -57,11 +57,9 @@ import org.restlet.data.Tag;
 import org.restlet.data.Warning;
 import org.restlet.engine.header.CacheDirectiveReader;
 import org.restlet.engine.header.CookieReader;
-import org.restlet.engine.header.ExpectationReader;
 import org.restlet.engine.header.Header;
 import org.restlet.engine.header.HeaderConstants;
 import org.restlet.engine.header.HeaderReader;
-import org.restlet.engine.header.PreferenceReader;
 import org.restlet.engine.header.RangeReader;
 import org.restlet.engine.header.RecipientInfoReader;
 import org.restlet.engine.header.WarningReader;
@@ -75,6 +73,7 @@ import org.restlet.util.Series;
  * @author Jerome Louvel
  */
 public class HttpInboundRequest extends Request implements InboundRequest {
+
     /**
      * Adds a new header to the given request.
      * 
@@ -111,6 +110,12 @@ public class HttpInboundRequest extends Request implements InboundRequest {
     /** Indicates if the cookies were parsed and added. */
     private volatile boolean cookiesAdded;
 
+    /** Indicates if the date was parsed and added. */
+    private volatile boolean dateAdded;
+
+    /** Indicates if the max forwards was parsed and added. */
+    private volatile boolean maxForwardsAdded;
+
     /** The protocol name and version. */
     private volatile String protocol;
 
@@ -120,6 +125,12 @@ public class HttpInboundRequest extends Request implements InboundRequest {
     /** Indicates if the ranges data was parsed and added. */
     private volatile boolean rangesAdded;
 
+    /**
+     * The time at which the headers were received, used as the date when no
+     * valid "Date" header was sent.
+     */
+    private volatile long receivedTime;
+
     /** Indicates if the recipients info was parsed and added. */
     private volatile boolean recipientsInfoAdded;
 
@@ -162,8 +173,11 @@ public class HttpInboundRequest extends Request implements InboundRequest {
         this.clientAdded = false;
         this.conditionAdded = false;
         this.cookiesAdded = false;
+        this.dateAdded = false;
+        this.maxForwardsAdded = false;
         this.proxySecurityAdded = false;
         this.rangesAdded = false;
+        this.receivedTime = System.currentTimeMillis();
         this.recipientsInfoAdded = false;
         this.referrerAdded = false;
         this.resourceUri = resourceUri;
@@ -264,58 +278,10 @@ public class HttpInboundRequest extends Request implements InboundRequest {
      */
     @Override
     public ClientInfo getClientInfo() {
-        ClientInfo result = super.getClientInfo();
-
         if (!this.clientAdded) {
             if (getHeaders() != null) {
-                // Extract the header values
-                String acceptMediaType = getHeaders().getValues(
-                        HeaderConstants.HEADER_ACCEPT);
-                String acceptCharset = getHeaders().getValues(
-                        HeaderConstants.HEADER_ACCEPT_CHARSET);
-                String acceptEncoding = getHeaders().getValues(
-                        HeaderConstants.HEADER_ACCEPT_ENCODING);
-                String acceptLanguage = getHeaders().getValues(
-                        HeaderConstants.HEADER_ACCEPT_LANGUAGE);
-                String expect = getHeaders().getValues(
-                        HeaderConstants.HEADER_EXPECT);
-
-                // Parse the headers and update the call preferences
-
-                // Parse the Accept* headers. If an error occurs during the
-                // parsing of each header, the error is traced and we keep on
-                // with the other headers.
-                try {
-                    PreferenceReader.addCharacterSets(acceptCharset, result);
-                } catch (Exception e) {
-                    this.context.getLogger().log(Level.INFO, e.getMessage());
-                }
-
-                try {
-                    PreferenceReader.addEncodings(acceptEncoding, result);
-                } catch (Exception e) {
-                    this.context.getLogger().log(Level.INFO, e.getMessage());
-                }
-
-                try {
-                    PreferenceReader.addLanguages(acceptLanguage, result);
-                } catch (Exception e) {
-                    this.context.getLogger().log(Level.INFO, e.getMessage());
-                }
-
-                try {
-                    PreferenceReader.addMediaTypes(acceptMediaType, result);
-                } catch (Exception e) {
-                    this.context.getLogger().log(Level.INFO, e.getMessage());
-                }
-
-                try {
-                    ExpectationReader.addValues(expect, result);
-                } catch (Exception e) {
-                    this.context.getLogger().log(Level.INFO, e.getMessage());
-                }
-
-                // Set other properties
+                // The preferences and expectations are parsed on first access
+                ClientInfo result = new ClientInfo(getHeaders());
                 result.setAgent(getHeaders().getValues(
                         HeaderConstants.HEADER_USER_AGENT));
                 result.setFrom(getHeaders().getFirstValue(
@@ -349,12 +315,14 @@ public class HttpInboundRequest extends Request implements InboundRequest {
                         }
                     }
                 }
+
+                setClientInfo(result);
             }
 
             this.clientAdded = true;
         }
 
-        return result;
+        return super.getClientInfo();
     }
 
     /**
@@ -515,6 +483,63 @@ public class HttpInboundRequest extends Request implements InboundRequest {
         return result;
     }
 
+    /**
+     * Returns the date and time at which the message was originated. Parses
+     * the "Date" header on first access. If no valid header was sent, returns
+     * the time at which the headers were received.
+     * 
+     * @return The date and time at which the message was originated.
+     */
+    @Override
+    public Date getDate() {
+        if (!this.dateAdded) {
+            String dateHeader = (getHeaders() == null) ? null : getHeaders()
+                    .getFirstValue(HeaderConstants.HEADER_DATE);
+            Date date = null;
+
+            if (dateHeader != null) {
+                date = DateUtils.parse(dateHeader);
+            }
+
+            if (date == null) {
+                date = new Date(this.receivedTime);
+            }
+
+            setDate(date);
+        }
+
+        return super.getDate();
+    }
+
+    /**
+     * Returns the maximum number of intermediaries. Parses the "Max-Forwards"
+     * header on first access.
+     * 
+     * @return The maximum number of intermediaries.
+     */
+    @Override
+    public int getMaxForwards() {
+        if (!this.maxForwardsAdded) {
+            String maxForwardsHeader = (getHeaders() == null) ? null
+                    : getHeaders().getFirstValue(
+                            HeaderConstants.HEADER_MAX_FORWARDS);
+
+            if (maxForwardsHeader != null) {
+                try {
+                    super.setMaxForwards(Integer.parseInt(maxForwardsHeader));
+                } catch (NumberFormatException nfe) {
+                    Context.getCurrentLogger().info(
+                            "Unable to parse the Max-Forwards header: "
+                                    + maxForwardsHeader);
+                }
+            }
+
+            this.maxForwardsAdded = true;
+        }
+
+        return super.getMaxForwards();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -638,6 +663,12 @@ public class HttpInboundRequest extends Request implements InboundRequest {
         this.securityAdded = true;
     }
 
+    @Override
+    public void setDate(Date date) {
+        super.setDate(date);
+        this.dateAdded = true;
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -732,32 +763,16 @@ public class HttpInboundRequest extends Request implements InboundRequest {
             setOriginalRef(getResourceRef().getTargetRef());
         }
 
-        // Set the request date
-        String dateHeader = (getHeaders() == null) ? null : getHeaders()
-                .getFirstValue(HeaderConstants.HEADER_DATE);
-        Date date = null;
-        if (dateHeader != null) {
-            date = DateUtils.parse(dateHeader);
-        }
-
-        if (date == null) {
-            date = new Date();
-        }
+        // The request date and max forwards are parsed on first access
+        this.dateAdded = false;
+        this.maxForwardsAdded = false;
+        this.receivedTime = System.currentTimeMillis();
+    }
 
-        setDate(date);
-
-        // Set the max forwards
-        String maxForwardsHeader = (getHeaders() == null) ? null : getHeaders()
-                .getFirstValue(HeaderConstants.HEADER_MAX_FORWARDS);
-        if (maxForwardsHeader != null) {
-            try {
-                setMaxForwards(Integer.parseInt(maxForwardsHeader));
-            } catch (NumberFormatException nfe) {
-                Context.getCurrentLogger().info(
-                        "Unable to parse the Max-Forwards header: "
-                                + maxForwardsHeader);
-            }
-        }
+    @Override
+    public void setMaxForwards(int maxForwards) {
+        super.setMaxForwards(maxForwards);
+        this.maxForwardsAdded = true;
     }
 
     @Override
@@ -144,8 +144,13 @@ public class HttpServerInboundWay extends ServerInboundWay {
 
         if ((getIoState() == IoState.IDLE) && getMessages().isEmpty()
                 && outboundMessages.isEmpty()) {
-            // Read the next request
-            setIoState(IoState.INTEREST);
+            if (getBuffer().canDrain()) {
+                // The next request, pipelined by the client, is buffered
+                setIoState(IoState.READY);
+            } else {
+                // Read the next request
+                setIoState(IoState.INTEREST);
+            }
         }
 
         super.updateState();
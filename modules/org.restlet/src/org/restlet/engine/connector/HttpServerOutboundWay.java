@@ -88,6 +88,7 @@ public class HttpServerOutboundWay extends ServerOutboundWay {
     @Override
     protected void handle(Response response) {
         getMessages().add(response);
+        getConnection().wakeup();
     }
 
     @Override
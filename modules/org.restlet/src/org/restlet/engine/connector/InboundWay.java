@@ -48,6 +48,7 @@ import org.restlet.engine.io.IoState;
 import org.restlet.engine.io.ReadableChunkedChannel;
 import org.restlet.engine.io.ReadableSelectionChannel;
 import org.restlet.engine.io.ReadableSizedSelectionChannel;
+import org.restlet.engine.util.HeaderSeries;
 import org.restlet.representation.EmptyRepresentation;
 import org.restlet.representation.ReadableRepresentation;
 import org.restlet.representation.Representation;
@@ -247,7 +248,7 @@ public abstract class InboundWay extends Way {
 
                 if (header != null) {
                     if (getHeaders() == null) {
-                        setHeaders(new Series<Header>(Header.class));
+                        setHeaders(new HeaderSeries());
                     }
 
                     getHeaders().add(header);
@@ -350,6 +351,11 @@ public abstract class InboundWay extends Way {
                         getRegistration().getReadyOperations());
             }
         } else {
+            if (getIoState() == IoState.READY) {
+                // Parse the buffered message as if the socket was selected
+                setIoState(IoState.PROCESSING);
+            }
+
             result = super.processIoBuffer();
         }
 
@@ -394,6 +400,11 @@ public abstract class InboundWay extends Way {
     protected void setEntityRegistration(
             SelectionRegistration entityRegistration) {
         this.entityRegistration = entityRegistration;
+
+        if (entityRegistration != null) {
+            entityRegistration.setWakeupListener(getConnection()
+                    .getController());
+        }
     }
 
     @Override
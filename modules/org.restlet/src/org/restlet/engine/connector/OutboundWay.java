@@ -54,6 +54,7 @@ import org.restlet.engine.io.Buffer;
 import org.restlet.engine.io.IoState;
 import org.restlet.engine.io.ReadableChunkingChannel;
 import org.restlet.engine.io.ReadableSizedChannel;
+import org.restlet.engine.util.HeaderSeries;
 import org.restlet.engine.util.StringUtils;
 import org.restlet.representation.Representation;
 import org.restlet.service.ConnectorService;
@@ -87,6 +88,9 @@ public abstract class OutboundWay extends Way {
     /** The type of the entity channel. */
     private volatile EntityType entityChannelType;
 
+    /** The number of entity bytes remaining to be transferred. */
+    private volatile long entityRemainingSize;
+
     /**
      * The entity's NIO selection key holding the link between the entity to be
      * written and the way.
@@ -107,6 +111,7 @@ public abstract class OutboundWay extends Way {
     public OutboundWay(Connection<?> connection, int bufferSize) {
         super(connection, bufferSize);
         this.entityChannel = null;
+        this.entityRemainingSize = 0;
         this.entitySelectionKey = null;
         this.headerIndex = 0;
     }
@@ -163,6 +168,8 @@ public abstract class OutboundWay extends Way {
     public void clear() {
         super.clear();
         this.entityChannel = null;
+        this.entityChannelType = null;
+        this.entityRemainingSize = 0;
         this.entitySelectionKey = null;
         this.headerIndex = 0;
     }
@@ -218,6 +225,15 @@ public abstract class OutboundWay extends Way {
         return (SelectableChannel) getEntityChannel();
     }
 
+    /**
+     * Returns the number of entity bytes remaining to be transferred.
+     * 
+     * @return The number of entity bytes remaining to be transferred.
+     */
+    protected long getEntityRemainingSize() {
+        return entityRemainingSize;
+    }
+
     /**
      * Returns the entity's NIO selection key holding the link between the
      * entity to be written and the way.
@@ -341,11 +357,13 @@ public abstract class OutboundWay extends Way {
         // Write the message or part of it in the byte
         // buffer
         if (getMessageState() == MessageState.BODY) {
-            int filled = buffer.fill(getEntityChannel());
+            if (getEntityChannelType() != EntityType.TRANSFERABLE) {
+                int filled = buffer.fill(getEntityChannel());
 
-            // Detect end of entity reached
-            if (filled == -1) {
-                setMessageState(MessageState.END);
+                // Detect end of entity reached
+                if (filled == -1) {
+                    setMessageState(MessageState.END);
+                }
             }
         } else if (getMessageState() != MessageState.END) {
             // Write the start line or the headers,
@@ -411,6 +429,14 @@ public abstract class OutboundWay extends Way {
     public int processIoBuffer() throws IOException {
         int result = super.processIoBuffer();
 
+        if ((result != -1) && (getMessageState() == MessageState.BODY)
+                && (getEntityChannelType() == EntityType.TRANSFERABLE)
+                && getBuffer().isEmpty()) {
+            // Headers fully written, directly transfer the file entity
+            result += (int) Math.min(transferEntity(), Integer.MAX_VALUE
+                    - result);
+        }
+
         if (getMessage() != null) {
             if (getMessageState() == MessageState.END) {
                 // Message fully written, ready for a new one
@@ -444,6 +470,16 @@ public abstract class OutboundWay extends Way {
         this.entityChannelType = entityChannelType;
     }
 
+    /**
+     * Sets the number of entity bytes remaining to be transferred.
+     * 
+     * @param entityRemainingSize
+     *            The number of entity bytes remaining to be transferred.
+     */
+    protected void setEntityRemainingSize(long entityRemainingSize) {
+        this.entityRemainingSize = entityRemainingSize;
+    }
+
     /**
      * Sets the entity's NIO selection key holding the link between the entity
      * to be written and the way.
@@ -465,6 +501,25 @@ public abstract class OutboundWay extends Way {
         this.headerIndex = headerIndex;
     }
 
+    /**
+     * Indicates if the entity channel can be directly transferred to the
+     * socket channel, without copy via the byte buffer. This requires a file
+     * channel of known size, no tracing and a connection accepting direct
+     * transfers.
+     * 
+     * @param entity
+     *            The entity to send.
+     * @param entityChannel
+     *            The entity channel.
+     * @return True if the entity channel can be directly transferred.
+     */
+    protected boolean isTransferable(Representation entity,
+            ReadableByteChannel entityChannel) {
+        return (entityChannel instanceof FileChannel)
+                && getConnection().isDirectTransfer()
+                && !shouldBeChunked(entity) && !getHelper().isTracing();
+    }
+
     /**
      * Indicates if the entity should be chunked because its length is unknown.
      * 
@@ -511,7 +566,7 @@ public abstract class OutboundWay extends Way {
 
         case HEADERS:
             if (getHeaders() == null) {
-                setHeaders(new Series<Header>(Header.class));
+                setHeaders(new HeaderSeries());
                 setHeaderIndex(0);
                 addHeaders(getHeaders());
             }
@@ -547,7 +602,7 @@ public abstract class OutboundWay extends Way {
                     ReadableByteChannel rbc = getActualMessage().getEntity()
                             .getChannel();
 
-                    if (rbc instanceof FileChannel) {
+                    if (isTransferable(getActualMessage().getEntity(), rbc)) {
                         setEntityChannelType(EntityType.TRANSFERABLE);
                     } else if (rbc instanceof BlockableChannel) {
                         BlockableChannel bc = (BlockableChannel) rbc;
@@ -569,7 +624,12 @@ public abstract class OutboundWay extends Way {
                         setEntityChannelType(EntityType.BLOCKING);
                     }
 
-                    if (getActualMessage().getEntity().getAvailableSize() == Representation.UNKNOWN_SIZE) {
+                    if (getEntityChannelType() == EntityType.TRANSFERABLE) {
+                        setEntityChannel(rbc);
+                        setEntityRemainingSize(getActualMessage().getEntity()
+                                .getAvailableSize());
+                    } else if (getActualMessage().getEntity()
+                            .getAvailableSize() == Representation.UNKNOWN_SIZE) {
                         setEntityChannel(new ReadableChunkingChannel(rbc,
                                 getBuffer().capacity()));
                     } else {
@@ -587,6 +647,72 @@ public abstract class OutboundWay extends Way {
         }
     }
 
+    /**
+     * Directly transfers the file entity to the socket channel, relying on the
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * method. When throttling is enabled, the entity is transferred by slices
+     * of the byte buffer capacity.
+     * 
+     * @return The number of bytes transferred.
+     * @throws IOException
+     */
+    protected long transferEntity() throws IOException {
+        long result = 0;
+        FileChannel fileChannel = getEntityFileChannel();
+        boolean tryAgain = true;
+
+        while (tryAgain && (getEntityRemainingSize() > 0)
+                && canLoop(getBuffer())) {
+            long count = getEntityRemainingSize();
+
+            if (getHelper().getThrottleTimeMs() > 0) {
+                count = Math.min(count, getBuffer().capacity());
+            }
+
+            long position = fileChannel.position();
+            long transferred = fileChannel.transferTo(position, count,
+                    getConnection().getSocketChannel());
+
+            if (transferred > 0) {
+                fileChannel.position(position + transferred);
+                setEntityRemainingSize(getEntityRemainingSize() - transferred);
+                getConnection().onActivity();
+                result += transferred;
+
+                if (getLogger().isLoggable(Level.FINER)) {
+                    getLogger().log(Level.FINER,
+                            transferred + " bytes transferred");
+                }
+
+                if (getHelper().getThrottleTimeMs() > 0) {
+                    try {
+                        Thread.sleep(getHelper().getThrottleTimeMs());
+                    } catch (InterruptedException e) {
+                    }
+                }
+            } else if (position >= fileChannel.size()) {
+                throw new IOException(
+                        "Unexpected end of file entity with "
+                                + getEntityRemainingSize()
+                                + " bytes remaining to transfer");
+            } else {
+                // The socket channel can't write more, wait for a new NIO
+                // selection.
+                if (getIoState() == IoState.PROCESSING) {
+                    setIoState(IoState.INTEREST);
+                }
+
+                tryAgain = false;
+            }
+        }
+
+        if (getEntityRemainingSize() == 0) {
+            setMessageState(MessageState.END);
+        }
+
+        return result;
+    }
+
     /**
      * Writes the start line of the current outbound message.
      * 
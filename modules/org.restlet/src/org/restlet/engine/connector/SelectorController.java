@@ -0,0 +1,184 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.connector;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.restlet.Response;
+
+/**
+ * Controls the IO work of a subset of the connections of a parent server
+ * helper, using its own NIO selector and thread. New connections are accepted
+ * by the {@link ServerConnectionController} and then dispatched to one of the
+ * selector controllers which stays in charge of their IO until they are
+ * closed.
+ * 
+ * @author agent
+ */
+public class SelectorController extends ConnectionController {
+
+    /** The connections controlled. */
+    private final Set<Connection<?>> connections;
+
+    /** The queue of outbound messages for the connections controlled. */
+    private final Queue<Response> outboundMessages;
+
+    /**
+     * Constructor.
+     * 
+     * @param helper
+     *            The parent server helper.
+     */
+    public SelectorController(ServerConnectionHelper helper) {
+        super(helper);
+        this.connections = new CopyOnWriteArraySet<Connection<?>>();
+        this.outboundMessages = new ConcurrentLinkedQueue<Response>();
+    }
+
+    /**
+     * Adds an outbound message to be handled by this controller thread, as its
+     * connection is controlled by it.
+     * 
+     * @param response
+     *            The outbound message.
+     */
+    public void addOutboundMessage(Response response) {
+        getOutboundMessages().add(response);
+        wakeup();
+    }
+
+    /**
+     * Adds a new connection to control. As the connection was opened by the
+     * accepting thread, its NIO interest is updated in case its registration
+     * was already processed by this controller.
+     * 
+     * @param connection
+     *            The opened connection to control.
+     */
+    public void addConnection(Connection<?> connection) {
+        this.connections.add(connection);
+        getUpdatedRegistrations().add(connection.getRegistration());
+        wakeup();
+    }
+
+    @Override
+    protected void collect(Connection<?> connection) {
+        this.connections.remove(connection);
+        super.collect(connection);
+    }
+
+    @Override
+    protected void doInit() {
+        // The connection pool is managed by the accepting controller
+        initSelector();
+    }
+
+    /**
+     * Does the IO work of the connections controlled. The inbound messages
+     * queued in the parent helper are handled by the accepting controller
+     * while the outbound messages are handled by the selector controller
+     * owning their connection.
+     */
+    @Override
+    protected void doRun(long sleepTime) throws IOException {
+        Response response;
+
+        // Messages queued again while handled wait for the next cycle
+        for (int i = getOutboundMessages().size(); (i > 0)
+                && ((response = getOutboundMessages().poll()) != null); i--) {
+            getHelper().handleOutbound(response, true);
+        }
+
+        registerKeys();
+        updateKeys();
+        selectKeys(sleepTime);
+        controlConnections();
+    }
+
+    @Override
+    protected Collection<? extends Connection<?>> getConnections() {
+        return this.connections;
+    }
+
+    /**
+     * Returns the number of connections controlled.
+     * 
+     * @return The number of connections controlled.
+     */
+    public int getConnectionsCount() {
+        return this.connections.size();
+    }
+
+    /**
+     * Returns the queue of outbound messages for the connections controlled.
+     * 
+     * @return The queue of outbound messages.
+     */
+    public Queue<Response> getOutboundMessages() {
+        return outboundMessages;
+    }
+
+    /**
+     * Returns the parent server helper.
+     * 
+     * @return The parent server helper.
+     */
+    @Override
+    protected ServerConnectionHelper getHelper() {
+        return (ServerConnectionHelper) super.getHelper();
+    }
+
+    /**
+     * Returns false as the overload is detected by the accepting controller.
+     * 
+     * @return False.
+     */
+    @Override
+    protected boolean isDetectingOverload() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Selector controller (connections | registrations | queue): "
+                + getConnectionsCount() + " | " + getRegistrationsCount()
+                + " | " + getQueueDepth();
+    }
+
+}
@@ -40,6 +40,8 @@ import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -58,6 +60,9 @@ public class ServerConnectionController extends ConnectionController {
     /** The latch to countdown when the socket is ready to accept connections. */
     private final CountDownLatch latch;
 
+    /** The selection key of the server socket channel. */
+    private volatile SelectionKey serverKey;
+
     /**
      * Constructor.
      * 
@@ -84,6 +89,22 @@ public class ServerConnectionController extends ConnectionController {
         }
     }
 
+    /**
+     * Returns the connections controlled. When selector controllers are used,
+     * the connections are controlled by them and this controller only accepts
+     * new connections.
+     * 
+     * @return The connections controlled.
+     */
+    @Override
+    protected Collection<? extends Connection<?>> getConnections() {
+        if (getHelper().getSelectorControllers().isEmpty()) {
+            return super.getConnections();
+        }
+
+        return Collections.<Connection<?>> emptySet();
+    }
+
     /**
      * Returns the parent server helper.
      * 
@@ -110,14 +131,22 @@ public class ServerConnectionController extends ConnectionController {
                     if ((getHelper().getMaxTotalConnections() == -1)
                             || (connectionsCount <= getHelper()
                                     .getMaxTotalConnections())) {
+                        // Pin the connection to its controller
+                        SelectorController selectorController = getHelper()
+                                .chooseSelectorController();
                         Connection<Server> connection = getHelper().checkout(
                                 socketChannel,
-                                this,
+                                (selectorController == null) ? this
+                                        : selectorController,
                                 (InetSocketAddress) socketChannel.socket()
                                         .getRemoteSocketAddress());
                         connection.open();
                         getHelper().getConnections().add(connection);
 
+                        if (selectorController != null) {
+                            selectorController.addConnection(connection);
+                        }
+
                         if (getHelper().getLogger().isLoggable(Level.FINE)) {
                             getHelper().getLogger().fine(
                                     "Connection from \""
@@ -157,8 +186,8 @@ public class ServerConnectionController extends ConnectionController {
         
         // Register interest in NIO accept events
         try {
-            getHelper().getServerSocketChannel().register(getSelector(),
-                    SelectionKey.OP_ACCEPT);
+            this.serverKey = getHelper().getServerSocketChannel().register(
+                    getSelector(), SelectionKey.OP_ACCEPT);
         } catch (IOException ioe) {
             getHelper().getLogger().log(Level.WARNING,
                     "Unexpected error while registering an NIO selection key",
@@ -167,4 +196,23 @@ public class ServerConnectionController extends ConnectionController {
         
         this.latch.countDown();
     }
+
+    /**
+     * Indicates if the controller is overloaded. When blocking on the NIO
+     * selector, the interest in accept events is suspended during the overload
+     * so that pending connections don't keep waking up the controller.
+     * 
+     * @param overloaded
+     *            True if the controller is overloaded.
+     */
+    @Override
+    public void setOverloaded(boolean overloaded) {
+        boolean changed = (isOverloaded() != overloaded);
+        super.setOverloaded(overloaded);
+
+        if (changed && isBlocking() && (this.serverKey != null)
+                && this.serverKey.isValid()) {
+            this.serverKey.interestOps(overloaded ? 0 : SelectionKey.OP_ACCEPT);
+        }
+    }
 }
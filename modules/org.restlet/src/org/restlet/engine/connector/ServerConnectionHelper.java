@@ -39,12 +39,18 @@ import java.net.ServerSocket;
 import java.net.SocketAddress;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Server;
 import org.restlet.data.Status;
+import org.restlet.engine.log.LoggingThreadFactory;
 
 /**
  * Base server helper based on NIO non blocking sockets. Here is the list of
@@ -74,12 +80,35 @@ import org.restlet.data.Status;
  * <td>Enable/disable the SO_REUSEADDR socket option. See
  * java.io.ServerSocket#reuseAddress property for additional details.</td>
  * </tr>
+ * <tr>
+ * <td>selectorThreads</td>
+ * <td>int</td>
+ * <td>1</td>
+ * <td>Number of NIO selector threads controlling the IO of the connections. If
+ * superior to 1, the controller thread only accepts new connections and
+ * dispatches them to the selector threads. Each connection stays attached to
+ * the same selector thread until it is closed.</td>
+ * </tr>
+ * <tr>
+ * <td>selectorLeastLoaded</td>
+ * <td>boolean</td>
+ * <td>false</td>
+ * <td>Indicates if new connections should be dispatched to the selector
+ * thread controlling the fewest connections instead of following a round-robin
+ * order.</td>
+ * </tr>
  * </table>
  * 
  * @author Jerome Louvel
  */
 public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
 
+    /** The index of the next selector controller in round-robin order. */
+    private final AtomicInteger selectorIndex;
+
+    /** The selector controllers. */
+    private final List<SelectorController> selectorControllers;
+
     /** The server socket channel. */
     private volatile ServerSocketChannel serverSocketChannel;
 
@@ -91,6 +120,8 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
      */
     public ServerConnectionHelper(Server server) {
         super(server, false);
+        this.selectorIndex = new AtomicInteger();
+        this.selectorControllers = new CopyOnWriteArrayList<SelectorController>();
 
         // Clear the ephemeral port
         getAttributes().put("ephemeralPort", -1);
@@ -111,6 +142,35 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
     protected abstract boolean canHandle(Connection<Server> connection,
             Response response) throws IOException;
 
+    /**
+     * Chooses the selector controller that will control the IO of a new
+     * connection. Returns null if no selector controller is used.
+     * 
+     * @return The selector controller chosen or null.
+     */
+    protected SelectorController chooseSelectorController() {
+        SelectorController result = null;
+        int size = getSelectorControllers().size();
+
+        if (size > 0) {
+            if (isSelectorLeastLoaded()) {
+                for (SelectorController selectorController : getSelectorControllers()) {
+                    if ((result == null)
+                            || (selectorController.getConnectionsCount() < result
+                                    .getConnectionsCount())) {
+                        result = selectorController;
+                    }
+                }
+            } else {
+                int index = (this.selectorIndex.getAndIncrement() & Integer.MAX_VALUE)
+                        % size;
+                result = getSelectorControllers().get(index);
+            }
+        }
+
+        return result;
+    }
+
     @Override
     protected Connection<Server> createConnection(SocketChannel socketChannel,
             ConnectionController controller, InetSocketAddress socketAddress)
@@ -124,6 +184,33 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         return new ServerConnectionController(this);
     }
 
+    /**
+     * Creates the connector controller service. It provides a thread to the
+     * accepting controller and to each selector controller.
+     * 
+     * @return The connector controller service.
+     */
+    @Override
+    protected ExecutorService createControllerService() {
+        int selectorThreads = getSelectorThreads();
+
+        if (selectorThreads <= 1) {
+            return super.createControllerService();
+        }
+
+        return Executors.newFixedThreadPool(selectorThreads + 1,
+                new LoggingThreadFactory(getLogger(), isControllerDaemon()));
+    }
+
+    /**
+     * Creates a new selector controller.
+     * 
+     * @return A new selector controller.
+     */
+    protected SelectorController createSelectorController() {
+        return new SelectorController(this);
+    }
+
     /**
      * Creates a new request.
      * 
@@ -229,6 +316,27 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         return (ServerConnectionController) super.getController();
     }
 
+    /**
+     * Returns the selector controllers. The list is empty if the accepting
+     * controller also controls the IO of the connections.
+     * 
+     * @return The selector controllers.
+     */
+    public List<SelectorController> getSelectorControllers() {
+        return selectorControllers;
+    }
+
+    /**
+     * Returns the number of NIO selector threads controlling the IO of the
+     * connections.
+     * 
+     * @return The number of NIO selector threads.
+     */
+    public int getSelectorThreads() {
+        return Integer.parseInt(getHelpedParameters().getFirstValue(
+                "selectorThreads", "1"));
+    }
+
     /**
      * Returns the server socket channel.
      * 
@@ -260,7 +368,22 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
 
     @Override
     protected void handleOutbound(Response response) {
-        handleOutbound(response, true);
+        Connection<Server> connection = null;
+
+        if ((response != null)
+                && (response.getRequest() instanceof InboundRequest)) {
+            connection = ((InboundRequest) response.getRequest())
+                    .getConnection();
+        }
+
+        if ((connection != null)
+                && (connection.getController() instanceof SelectorController)) {
+            // Let the thread controlling the connection handle the message
+            ((SelectorController) connection.getController())
+                    .addOutboundMessage(response);
+        } else {
+            handleOutbound(response, true);
+        }
     }
 
     @Override
@@ -286,6 +409,19 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
                 "reuseAddress", "true"));
     }
 
+    /**
+     * Indicates if new connections should be dispatched to the selector
+     * controller with the fewest connections instead of following a
+     * round-robin order.
+     * 
+     * @return True if new connections go to the least loaded selector
+     *         controller.
+     */
+    public boolean isSelectorLeastLoaded() {
+        return Boolean.parseBoolean(getHelpedParameters().getFirstValue(
+                "selectorLeastLoaded", "false"));
+    }
+
     /**
      * Sets the ephemeral port in the attributes map if necessary.
      * 
@@ -318,7 +454,15 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         // Sets the ephemeral port is necessary
         setEphemeralPort(this.serverSocketChannel.socket());
 
-        // Start the controller
+        // Create the selector controllers before accepting connections so
+        // that none is controlled by the accepting thread
+        if (getSelectorThreads() > 1) {
+            for (int i = 0; i < getSelectorThreads(); i++) {
+                getSelectorControllers().add(createSelectorController());
+            }
+        }
+
+        // Start the controllers
         getLogger().info(
                 "Starting the internal " + getProtocols() + " server on port "
                         + getHelped().getActualPort());
@@ -337,12 +481,25 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         }
     }
 
+    /**
+     * Submits the selector controllers before the accepting controller.
+     */
+    @Override
+    protected void startControllers() {
+        for (SelectorController selectorController : getSelectorControllers()) {
+            getControllerService().submit(selectorController);
+        }
+
+        super.startControllers();
+    }
+
     @Override
     public synchronized void stop() throws Exception {
         getLogger().info("Stopping the internal " + getProtocols() + " server");
 
         // Stop the controller
         super.stop();
+        getSelectorControllers().clear();
 
         // Close the server socket channel
         if (getServerSocketChannel() != null) {
@@ -352,4 +509,25 @@ public abstract class ServerConnectionHelper extends ConnectionHelper<Server> {
         // Clear the ephemeral port
         getAttributes().put("ephemeralPort", -1);
     }
+
+    @Override
+    protected void stopControllers() {
+        super.stopControllers();
+
+        for (SelectorController selectorController : getSelectorControllers()) {
+            selectorController.setRunning(false);
+            selectorController.wakeup();
+        }
+    }
+
+    @Override
+    public void traceWorkerService() {
+        super.traceWorkerService();
+
+        if (getLogger().isLoggable(Level.FINE)) {
+            for (SelectorController selectorController : getSelectorControllers()) {
+                getLogger().fine(selectorController.toString());
+            }
+        }
+    }
 }
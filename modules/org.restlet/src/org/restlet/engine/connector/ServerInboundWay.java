@@ -213,8 +213,13 @@ public abstract class ServerInboundWay extends InboundWay {
         }
 
         if ((getIoState() == IoState.IDLE) && getConnection().isPipelining()) {
-            // Read the next request
-            setIoState(IoState.INTEREST);
+            if (getBuffer().canDrain()) {
+                // The next request is already buffered
+                setIoState(IoState.READY);
+            } else {
+                // Read the next request
+                setIoState(IoState.INTEREST);
+            }
         }
 
         // Update the registration
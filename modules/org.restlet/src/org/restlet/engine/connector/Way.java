@@ -97,7 +97,9 @@ public abstract class Way implements SelectionListener, CompletionListener,
      */
     public Way(Connection<?> connection, int bufferSize) {
         this.connection = connection;
-        this.buffer = new Buffer(bufferSize, getHelper().isDirectBuffers());
+        this.buffer = getHelper().isPooledBuffers() ? new Buffer(bufferSize,
+                getHelper().getBufferPool()) : new Buffer(bufferSize,
+                getHelper().isDirectBuffers());
         this.headers = null;
         this.ioState = IoState.IDLE;
         this.lineBuilder = new StringBuilder();
@@ -135,6 +137,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
         }
 
         this.buffer.clear();
+        this.buffer.release();
         this.headers = null;
         this.ioState = IoState.IDLE;
         clearLineBuilder();
@@ -330,6 +333,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
         setMessage(null);
         setHeaders(null);
         getBuffer().clear();
+        getBuffer().release();
     }
 
     /**
@@ -436,6 +440,9 @@ public abstract class Way implements SelectionListener, CompletionListener,
             } else if ((getIoState() == IoState.PROCESSING)) {
                 onPostProcessing();
             }
+
+            // Return the byte buffer to the pool if idle
+            getBuffer().release();
         } catch (Exception e) {
             getConnection().onError("Error while processing a connection", e,
                     Status.CONNECTOR_ERROR_COMMUNICATION);
@@ -506,6 +513,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
             }
 
             this.ioState = ioState;
+            getConnection().wakeup();
         }
     }
 
@@ -538,6 +546,7 @@ public abstract class Way implements SelectionListener, CompletionListener,
     protected void setMessageState(MessageState messageState) {
         if (this.messageState != messageState) {
             this.messageState = messageState;
+            getConnection().wakeup();
 
             if (getLogger().isLoggable(Level.FINEST)) {
                 if (this instanceof OutboundWay) {
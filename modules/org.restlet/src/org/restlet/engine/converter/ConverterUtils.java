@@ -63,12 +63,31 @@ public class ConverterUtils {
      */
     public static ConverterHelper getBestHelper(Object source, Variant target,
             Resource resource) {
+        return getBestHelper(Engine.getInstance().getRegisteredConverters(),
+                source, target, resource);
+    }
+
+    /**
+     * Returns the best converter helper matching the given parameters among
+     * the given helpers.
+     * 
+     * @param helpers
+     *            The converter helpers to score.
+     * @param source
+     *            The object to convert to a representation.
+     * @param target
+     *            The target representation variant.
+     * @param resource
+     *            The optional parent resource.
+     * @return The matched converter helper or null.
+     */
+    public static ConverterHelper getBestHelper(List<ConverterHelper> helpers,
+            Object source, Variant target, Resource resource) {
         ConverterHelper result = null;
         float bestScore = -1.0F;
         float currentScore;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
+        for (ConverterHelper ch : helpers) {
             if (ch != null) {
                 try {
                     currentScore = ch.score(source, target, resource);
@@ -104,12 +123,34 @@ public class ConverterUtils {
      */
     public static <T> ConverterHelper getBestHelper(Representation source,
             Class<T> target, Resource resource) {
+        return getBestHelper(Engine.getInstance().getRegisteredConverters(),
+                source, target, resource);
+    }
+
+    /**
+     * Returns the best converter helper matching the given parameters among
+     * the given helpers.
+     * 
+     * @param <T>
+     *            The target class.
+     * @param helpers
+     *            The converter helpers to score.
+     * @param source
+     *            The source representation variant.
+     * @param target
+     *            The target class.
+     * @param resource
+     *            The parent resource.
+     * @return The matched converter helper or null.
+     */
+    public static <T> ConverterHelper getBestHelper(
+            List<ConverterHelper> helpers, Representation source,
+            Class<T> target, Resource resource) {
         ConverterHelper result = null;
         float bestScore = -1.0F;
         float currentScore;
 
-        for (ConverterHelper ch : Engine.getInstance()
-                .getRegisteredConverters()) {
+        for (ConverterHelper ch : helpers) {
             if (ch != null) {
                 currentScore = ch.score(source, target, resource);
 
@@ -47,6 +47,11 @@ import org.restlet.util.Series;
  */
 public class ContentTypeReader extends HeaderReader<ContentType> {
 
+    // [ifndef gwt] member
+    /** The content types interned by header value. */
+    private static final org.restlet.engine.util.InternCache<ContentType> INTERNED = new org.restlet.engine.util.InternCache<ContentType>(
+            1024);
+
     /**
      * Constructor.
      * 
@@ -76,7 +81,7 @@ public class ContentTypeReader extends HeaderReader<ContentType> {
 
             if (charSet != null) {
                 parameters.removeAll("charset");
-                characterSet = new CharacterSet(charSet);
+                characterSet = CharacterSet.valueOf(charSet);
             }
 
             return new ContentType(new MediaType(mediaType.toString(),
@@ -102,7 +107,10 @@ public class ContentTypeReader extends HeaderReader<ContentType> {
         String nextValue = readRawValue();
         int nextIndex = 0;
 
-        if (nextValue != null) {
+        // [ifndef gwt] instruction
+        result = INTERNED.get(nextValue);
+
+        if ((result == null) && (nextValue != null)) {
             int nextChar = nextValue.charAt(nextIndex++);
 
             while (result == null) {
@@ -252,6 +260,9 @@ public class ContentTypeReader extends HeaderReader<ContentType> {
                 nextChar = (nextIndex < nextValue.length()) ? nextValue
                         .charAt(nextIndex++) : -1;
             }
+
+            // [ifndef gwt] instruction
+            result = INTERNED.intern(nextValue, result);
         }
 
         return result;
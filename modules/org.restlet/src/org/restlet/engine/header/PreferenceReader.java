@@ -69,6 +69,11 @@ public class PreferenceReader<T extends Metadata> extends
 
     public static final int TYPE_MEDIA_TYPE = 4;
 
+    // [ifndef gwt] member
+    /** The media types with parameters interned by {@link #createMediaType}. */
+    private static final org.restlet.engine.util.InternCache<MediaType> INTERNED_MEDIA_TYPES = new org.restlet.engine.util.InternCache<MediaType>(
+            1024);
+
     /**
      * Parses character set preferences from a header.
      * 
@@ -160,6 +165,56 @@ public class PreferenceReader<T extends Metadata> extends
         }
     }
 
+    // [ifndef gwt] method
+    /**
+     * Creates a media type with parameters, returning a shared instance if the
+     * same media type was already read.
+     * 
+     * @param name
+     *            The media type name.
+     * @param parameters
+     *            The media type parameters.
+     * @return The media type.
+     */
+    private static MediaType createMediaType(String name,
+            Series<Parameter> parameters) {
+        StringBuilder key = new StringBuilder(name);
+        String value;
+        char c;
+
+        // Values are always quoted to keep the key unambiguous
+        for (Parameter param : parameters) {
+            key.append(';').append(param.getName());
+            value = param.getValue();
+
+            if (value != null) {
+                key.append("=\"");
+
+                for (int i = 0; i < value.length(); i++) {
+                    c = value.charAt(i);
+
+                    if ((c == '"') || (c == '\\')) {
+                        key.append('\\');
+                    }
+
+                    key.append(c);
+                }
+
+                key.append('"');
+            }
+        }
+
+        String keyValue = key.toString();
+        MediaType result = INTERNED_MEDIA_TYPES.get(keyValue);
+
+        if (result == null) {
+            result = INTERNED_MEDIA_TYPES.intern(keyValue, new MediaType(name,
+                    parameters));
+        }
+
+        return result;
+    }
+
     /**
      * Parses a quality value.<br>
      * If the quality is invalid, an IllegalArgumentException is thrown.
@@ -241,20 +296,29 @@ public class PreferenceReader<T extends Metadata> extends
 
             switch (this.type) {
             case TYPE_CHARACTER_SET:
-                result.setMetadata((T) new CharacterSet(metadata.toString()));
+                result.setMetadata((T) CharacterSet.valueOf(metadata.toString()));
                 break;
 
             case TYPE_ENCODING:
-                result.setMetadata((T) new Encoding(metadata.toString()));
+                result.setMetadata((T) Encoding.valueOf(metadata.toString()));
                 break;
 
             case TYPE_LANGUAGE:
-                result.setMetadata((T) new Language(metadata.toString()));
+                result.setMetadata((T) Language.valueOf(metadata.toString()));
                 break;
 
             case TYPE_MEDIA_TYPE:
-                result.setMetadata((T) new MediaType(metadata.toString(),
-                        mediaParams));
+                if (mediaParams.isEmpty()) {
+                    result.setMetadata((T) MediaType.valueOf(metadata
+                            .toString()));
+                } else {
+                    // [ifndef gwt] instruction
+                    result.setMetadata((T) createMediaType(metadata.toString(),
+                            mediaParams));
+                    // [ifdef gwt] instruction uncomment
+                    // result.setMetadata((T) new
+                    // MediaType(metadata.toString(), mediaParams));
+                }
                 break;
             }
         }
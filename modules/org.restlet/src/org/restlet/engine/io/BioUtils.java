@@ -312,8 +312,10 @@ public final class BioUtils {
     // [ifndef gwt] method
     /**
      * Returns an input stream based on the given representation's content and
-     * its write(OutputStream) method. Internally, it uses a writer thread and a
-     * pipe stream.
+     * its write(OutputStream) method. When the representation isn't transient
+     * and its known size fits in {@link IoUtils#BRIDGE_SIZE}, the content is
+     * produced on the calling thread. Otherwise, including when the size is
+     * unknown, it uses a writer thread and a pipe stream.
      * 
      * @param representation
      *            the representation to get the {@link java.io.OutputStream}
@@ -329,6 +331,12 @@ public final class BioUtils {
                 return null;
             }
 
+            BoundedOutputStream bos = produce(representation, false);
+
+            if (bos != null) {
+                return bos.getInputStream();
+            }
+
             final PipeStream pipe = new PipeStream();
             // Creates a thread that will handle the task of continuously
             // writing the representation into the input side of the pipe
@@ -405,8 +413,10 @@ public final class BioUtils {
 
     // [ifndef gwt] method
     /**
-     * Returns a reader from a writer representation.Internally, it uses a
-     * writer thread and a pipe stream.
+     * Returns a reader from a writer representation. When the representation
+     * isn't transient and its known size fits in {@link IoUtils#BRIDGE_SIZE},
+     * the content is produced on the calling thread. Otherwise, including when
+     * the size is unknown, it uses a writer thread and a pipe stream.
      * 
      * @param representation
      *            The representation to read from.
@@ -417,7 +427,29 @@ public final class BioUtils {
             final org.restlet.representation.WriterRepresentation representation)
             throws IOException {
         Reader result = null;
-        if (Edition.CURRENT != Edition.GAE) {
+        BoundedWriter bw = null;
+
+        if (isProducible(representation)) {
+            // Try to produce the content on the calling thread
+            bw = new BoundedWriter(IoUtils.BUFFER_SIZE, IoUtils.BRIDGE_SIZE);
+
+            try {
+                representation.write(bw);
+            } catch (IOException ioe) {
+                if (!bw.isOverflowed()) {
+                    Context.getCurrentLogger().log(Level.FINE,
+                            "Error while writing to the bounded writer.", ioe);
+                }
+            } catch (RuntimeException re) {
+                if (!bw.isOverflowed()) {
+                    throw re;
+                }
+            }
+        }
+
+        if ((bw != null) && !bw.isOverflowed()) {
+            result = bw.getReader();
+        } else if (Edition.CURRENT != Edition.GAE) {
             // [ifndef gae]
             final java.io.PipedWriter pipedWriter = new java.io.PipedWriter();
             java.io.PipedReader pipedReader = new java.io.PipedReader(
@@ -514,6 +546,77 @@ public final class BioUtils {
         return result;
     }
 
+    // [ifndef gwt] method
+    /**
+     * Indicates if the content of a representation can be produced on the
+     * calling thread. The representation must not be transient and have a
+     * known size that fits in {@link IoUtils#BRIDGE_SIZE}.<br>
+     * <br>
+     * Representations of unknown size, such as most JSON or XML writers, are
+     * excluded. A write overflowing the buffer can't continue into a pipe, as
+     * the calling thread that would read the pipe is still busy writing, and it
+     * can't be done again without losing the content of one-shot producers.
+     * Setting the size of such representations, when it is cheap to compute,
+     * lets them benefit from the in-thread production.
+     * 
+     * @param representation
+     *            The representation to write.
+     * @return True if the content can be produced on the calling thread.
+     */
+    private static boolean isProducible(Representation representation) {
+        long size = representation.getSize();
+        return (IoUtils.BRIDGE_SIZE > 0) && !representation.isTransient()
+                && (size >= 0) && (size <= IoUtils.BRIDGE_SIZE);
+    }
+
+    // [ifndef gwt] method
+    /**
+     * Produces the content of a representation on the calling thread into a
+     * buffer bounded by {@link IoUtils#BRIDGE_SIZE}. As with a pipe, a write
+     * error is logged and truncates the content.
+     * 
+     * @param representation
+     *            The representation to write.
+     * @param channel
+     *            Indicates if the write(WritableByteChannel) method should be
+     *            used instead of the write(OutputStream) method.
+     * @return The bounded buffer or null if the representation is transient,
+     *         of unknown size or too large.
+     */
+    static BoundedOutputStream produce(Representation representation,
+            boolean channel) {
+        BoundedOutputStream result = null;
+
+        if (isProducible(representation)) {
+            result = new BoundedOutputStream(
+                    (int) representation.getSize(), IoUtils.BRIDGE_SIZE);
+
+            try {
+                if (channel) {
+                    representation.write(NioUtils.getChannel(result));
+                } else {
+                    representation.write(result);
+                }
+            } catch (IOException ioe) {
+                if (!result.isOverflowed()) {
+                    Context.getCurrentLogger().log(Level.FINE,
+                            "Error while writing to the bounded stream.", ioe);
+                }
+            } catch (RuntimeException re) {
+                if (!result.isOverflowed()) {
+                    throw re;
+                }
+            }
+
+            if (result.isOverflowed()) {
+                // Fall back to a pipe
+                result = null;
+            }
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Converts a char array into a byte array using the default character set.
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+// [excludes gwt]
+/**
+ * Output stream collecting bytes in memory up to a maximum size. Used to
+ * produce the content of write-only representations on the calling thread
+ * instead of relying on a pipe and a writer thread. When the maximum size is
+ * exceeded, an {@link IOException} is thrown and the stream is marked as
+ * overflowed.
+ * 
+ * @author agent
+ */
+public class BoundedOutputStream extends OutputStream {
+
+    /** The collected bytes. */
+    private byte[] bytes;
+
+    /** The number of collected bytes. */
+    private int count;
+
+    /** The maximum number of bytes. */
+    private final int maxSize;
+
+    /** Indicates if the maximum size was exceeded. */
+    private boolean overflowed;
+
+    /**
+     * Constructor.
+     * 
+     * @param initialSize
+     *            The initial capacity.
+     * @param maxSize
+     *            The maximum number of bytes.
+     */
+    public BoundedOutputStream(int initialSize, int maxSize) {
+        this.bytes = new byte[Math.max(1, Math.min(initialSize, maxSize))];
+        this.count = 0;
+        this.maxSize = maxSize;
+        this.overflowed = false;
+    }
+
+    /**
+     * Ensures that a number of bytes can be added.
+     * 
+     * @param length
+     *            The number of bytes to add.
+     * @throws IOException
+     *             If the maximum size would be exceeded.
+     */
+    private void ensureCapacity(int length) throws IOException {
+        if (this.overflowed || (length > this.maxSize - this.count)) {
+            this.overflowed = true;
+            throw new IOException("The maximum size of " + this.maxSize
+                    + " bytes was exceeded");
+        }
+
+        if (this.count + length > this.bytes.length) {
+            byte[] newBytes = new byte[Math.min(this.maxSize, Math.max(
+                    this.count + length, 2 * this.bytes.length))];
+            System.arraycopy(this.bytes, 0, newBytes, 0, this.count);
+            this.bytes = newBytes;
+        }
+    }
+
+    /**
+     * Returns a readable channel on the collected bytes, without copying them.
+     * 
+     * @return A readable channel on the collected bytes.
+     */
+    public ReadableByteChannel getChannel() {
+        final ByteBuffer source = ByteBuffer.wrap(this.bytes, 0, this.count);
+
+        return new ReadableByteChannel() {
+            private volatile boolean open = true;
+
+            public void close() {
+                this.open = false;
+            }
+
+            public boolean isOpen() {
+                return this.open;
+            }
+
+            public int read(ByteBuffer dst) {
+                int result = Math.min(source.remaining(), dst.remaining());
+
+                if (source.hasRemaining()) {
+                    int limit = source.limit();
+                    source.limit(source.position() + result);
+                    dst.put(source);
+                    source.limit(limit);
+                } else {
+                    result = -1;
+                }
+
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns an input stream on the collected bytes, without copying them.
+     * 
+     * @return An input stream on the collected bytes.
+     */
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(this.bytes, 0, this.count);
+    }
+
+    /**
+     * Returns the number of collected bytes.
+     * 
+     * @return The number of collected bytes.
+     */
+    public int getSize() {
+        return this.count;
+    }
+
+    /**
+     * Indicates if the maximum size was exceeded.
+     * 
+     * @return True if the maximum size was exceeded.
+     */
+    public boolean isOverflowed() {
+        return this.overflowed;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureCapacity(len);
+        System.arraycopy(b, off, this.bytes, this.count, len);
+        this.count += len;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureCapacity(1);
+        this.bytes[this.count++] = (byte) b;
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+// [excludes gwt]
+/**
+ * Writer collecting characters in memory up to a maximum size. Used to produce
+ * the content of writer representations on the calling thread instead of
+ * relying on a pipe and a writer thread. When the maximum size is exceeded, an
+ * {@link IOException} is thrown and the writer is marked as overflowed.
+ * 
+ * @author agent
+ */
+public class BoundedWriter extends Writer {
+
+    /** The collected characters. */
+    private char[] chars;
+
+    /** The number of collected characters. */
+    private int count;
+
+    /** The maximum number of characters. */
+    private final int maxSize;
+
+    /** Indicates if the maximum size was exceeded. */
+    private boolean overflowed;
+
+    /**
+     * Constructor.
+     * 
+     * @param initialSize
+     *            The initial capacity.
+     * @param maxSize
+     *            The maximum number of characters.
+     */
+    public BoundedWriter(int initialSize, int maxSize) {
+        this.chars = new char[Math.max(1, Math.min(initialSize, maxSize))];
+        this.count = 0;
+        this.maxSize = maxSize;
+        this.overflowed = false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Returns a reader on the collected characters, without copying them.
+     * 
+     * @return A reader on the collected characters.
+     */
+    public Reader getReader() {
+        return new CharArrayReader(this.chars, 0, this.count);
+    }
+
+    /**
+     * Indicates if the maximum size was exceeded.
+     * 
+     * @return True if the maximum size was exceeded.
+     */
+    public boolean isOverflowed() {
+        return this.overflowed;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (this.overflowed || (len > this.maxSize - this.count)) {
+            this.overflowed = true;
+            throw new IOException("The maximum size of " + this.maxSize
+                    + " characters was exceeded");
+        }
+
+        if (this.count + len > this.chars.length) {
+            char[] newChars = new char[Math.min(this.maxSize, Math.max(
+                    this.count + len, 2 * this.chars.length))];
+            System.arraycopy(this.chars, 0, newChars, 0, this.count);
+            this.chars = newChars;
+        }
+
+        System.arraycopy(cbuf, off, this.chars, this.count, len);
+        this.count += len;
+    }
+
+}
@@ -43,7 +43,12 @@ import org.restlet.Context;
 import org.restlet.engine.header.HeaderUtils;
 
 /**
- * Wrapper around a byte buffer and its state.
+ * Wrapper around a byte buffer and its state. When created with a
+ * {@link BufferPool}, the byte buffer is only borrowed from the pool when bytes
+ * need to be filled and can be returned to it via {@link #release()} once the
+ * buffer is empty. As the pool may lend a larger byte buffer, only a slice of
+ * the requested size is used, so that its capacity and its limit after each
+ * clear stay equal to that size.
  * 
  * @author Jerome Louvel
  */
@@ -70,12 +75,21 @@ public class Buffer {
         return result;
     }
 
-    /** The byte buffer. */
-    private final ByteBuffer bytes;
+    /** The byte buffer or null if not borrowed yet from the pool. */
+    private volatile ByteBuffer bytes;
 
     /** The index of the buffer's beginning while filling. */
     private volatile int fillBegin;
 
+    /** The pool providing the byte buffer or null. */
+    private final BufferPool pool;
+
+    /** The byte buffer borrowed from the pool, sliced by the byte buffer. */
+    private volatile ByteBuffer pooledBytes;
+
+    /** The byte buffer size to borrow from the pool. */
+    private final int size;
+
     /** The byte buffer IO state. */
     private volatile BufferState state;
 
@@ -101,9 +115,30 @@ public class Buffer {
         super();
         this.fillBegin = 0;
         this.bytes = byteBuffer;
+        this.pool = null;
+        this.pooledBytes = null;
+        this.size = byteBuffer.capacity();
         this.state = byteBufferState;
     }
 
+    /**
+     * Constructor. The byte buffer is lazily borrowed from the given pool.
+     * 
+     * @param bufferSize
+     *            The byte buffer size.
+     * @param pool
+     *            The pool providing the byte buffer.
+     */
+    public Buffer(int bufferSize, BufferPool pool) {
+        super();
+        this.fillBegin = 0;
+        this.bytes = null;
+        this.pool = pool;
+        this.pooledBytes = null;
+        this.size = bufferSize;
+        this.state = BufferState.FILLING;
+    }
+
     /**
      * Constructor. Allocates a new non-direct byte buffer.
      * 
@@ -154,6 +189,10 @@ public class Buffer {
      * @return True if a compacting operation can be beneficial.
      */
     public boolean canCompact() {
+        if (this.bytes == null) {
+            return false;
+        }
+
         return isFilling() ? (this.fillBegin > 0) : (getBytes().position() > 0);
     }
 
@@ -181,7 +220,7 @@ public class Buffer {
      * @return The maximum capacity of this buffer.
      */
     public final int capacity() {
-        return getBytes().capacity();
+        return (this.bytes == null) ? this.size : getBytes().capacity();
     }
 
     /**
@@ -189,7 +228,11 @@ public class Buffer {
      */
     public void clear() {
         this.fillBegin = 0;
-        this.bytes.clear();
+
+        if (this.bytes != null) {
+            this.bytes.clear();
+        }
+
         this.state = BufferState.FILLING;
     }
 
@@ -197,7 +240,9 @@ public class Buffer {
      * Compacts the bytes to be drained at the beginning of the buffer.
      */
     public void compact() {
-        if (isDraining()) {
+        if (this.bytes == null) {
+            return;
+        } else if (isDraining()) {
             getBytes().compact();
             getBytes().flip();
         } else {
@@ -213,7 +258,8 @@ public class Buffer {
      * @return True if bytes could be drained.
      */
     public boolean couldDrain() {
-        return (isFilling() && (getBytes().position() > this.fillBegin));
+        return isFilling() && (this.bytes != null)
+                && (getBytes().position() > this.fillBegin);
     }
 
     /**
@@ -409,7 +455,14 @@ public class Buffer {
      * Flip from draining to filling or the other way around.
      */
     public void flip() {
-        if (isFilling()) {
+        if (this.bytes == null) {
+            // Nothing was borrowed, hence nothing to drain
+            if (isFilling()) {
+                setState(BufferState.DRAINING);
+            } else if (isDraining()) {
+                clear();
+            }
+        } else if (isFilling()) {
             setState(BufferState.DRAINING);
             getBytes().limit(getBytes().position());
             getBytes().position(this.fillBegin);
@@ -427,12 +480,27 @@ public class Buffer {
     }
 
     /**
-     * Returns the byte buffer.
+     * Returns the byte buffer. If the buffer relies on a pool, the byte buffer
+     * is borrowed if necessary.
      * 
      * @return The byte buffer.
      */
     public ByteBuffer getBytes() {
-        return bytes;
+        ByteBuffer result = this.bytes;
+
+        if (result == null) {
+            synchronized (getLock()) {
+                if (this.bytes == null) {
+                    this.pooledBytes = this.pool.checkout(this.size);
+                    this.pooledBytes.limit(this.size);
+                    this.bytes = this.pooledBytes.slice();
+                }
+
+                result = this.bytes;
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -442,7 +510,16 @@ public class Buffer {
      * @return The lock on which multiple thread can synchronize.
      */
     public Object getLock() {
-        return this.bytes;
+        return this;
+    }
+
+    /**
+     * Returns the pool providing the byte buffer or null.
+     * 
+     * @return The pool providing the byte buffer or null.
+     */
+    public BufferPool getPool() {
+        return pool;
     }
 
     /**
@@ -460,7 +537,7 @@ public class Buffer {
      * @return True if the buffer has remaining bytes to be read or written.
      */
     public final boolean hasRemaining() {
-        return getBytes().hasRemaining();
+        return (this.bytes == null) ? isFilling() : getBytes().hasRemaining();
     }
 
     /**
@@ -480,6 +557,10 @@ public class Buffer {
      * @return True if the buffer is empty.
      */
     public boolean isEmpty() {
+        if (this.bytes == null) {
+            return true;
+        }
+
         return isFilling() ? (capacity() == remaining()) : !hasRemaining();
     }
 
@@ -657,9 +738,38 @@ public class Buffer {
      * @return The number of bytes that can be read or written.
      */
     public final int remaining() {
+        if (this.bytes == null) {
+            return isFilling() ? this.size : 0;
+        }
+
         return getBytes().remaining();
     }
 
+    /**
+     * Returns the byte buffer to its pool if it is empty, so that idle buffers
+     * don't retain memory. Does nothing if the buffer doesn't rely on a pool.
+     * 
+     * @return True if the byte buffer was returned to the pool.
+     */
+    public boolean release() {
+        boolean result = false;
+
+        if (this.pool != null) {
+            synchronized (getLock()) {
+                if ((this.bytes != null) && isEmpty()) {
+                    this.pool.checkin(this.pooledBytes);
+                    this.bytes = null;
+                    this.pooledBytes = null;
+                    this.fillBegin = 0;
+                    this.state = BufferState.FILLING;
+                    result = true;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Sets the byte buffer IO state.
      * 
@@ -672,7 +782,8 @@ public class Buffer {
 
     @Override
     public String toString() {
-        return getBytes().toString() + ", " + getState() + ", " + isEmpty();
+        return ((this.bytes == null) ? "Released byte buffer" : this.bytes
+                .toString()) + ", " + getState() + ", " + isEmpty();
     }
 
 }
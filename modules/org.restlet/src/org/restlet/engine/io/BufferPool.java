@@ -0,0 +1,247 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restlet.engine.util.Pool;
+
+/**
+ * Pool of recyclable byte buffers organized by size classes. Each requested
+ * size is rounded up to the next power of two so that byte buffers of slightly
+ * different sizes can be shared. Statistics about hits, misses and outstanding
+ * bytes are maintained.
+ * 
+ * @author agent
+ */
+public class BufferPool {
+
+    /**
+     * Pool of byte buffers of the same capacity.
+     */
+    private class SizeClassPool extends Pool<ByteBuffer> {
+
+        /** The capacity of the pooled byte buffers. */
+        private final int capacity;
+
+        /**
+         * Constructor.
+         * 
+         * @param capacity
+         *            The capacity of the pooled byte buffers.
+         */
+        public SizeClassPool(int capacity) {
+            super();
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected void clear(ByteBuffer byteBuffer) {
+            byteBuffer.clear();
+        }
+
+        @Override
+        protected ByteBuffer createObject() {
+            return isDirect() ? ByteBuffer.allocateDirect(this.capacity)
+                    : ByteBuffer.allocate(this.capacity);
+        }
+    }
+
+    /** Indicates if direct byte buffers should be allocated. */
+    private final boolean direct;
+
+    /** The number of bytes currently checked out. */
+    private final AtomicLong outstandingBytes;
+
+    /** The pools of byte buffers indexed by capacity. */
+    private final ConcurrentMap<Integer, SizeClassPool> pools;
+
+    /**
+     * Constructor.
+     * 
+     * @param direct
+     *            Indicates if direct byte buffers should be allocated.
+     */
+    public BufferPool(boolean direct) {
+        this.direct = direct;
+        this.outstandingBytes = new AtomicLong();
+        this.pools = new ConcurrentHashMap<Integer, SizeClassPool>();
+    }
+
+    /**
+     * Checks in a byte buffer into the pool of its size class.
+     * 
+     * @param byteBuffer
+     *            The byte buffer to check in.
+     */
+    public void checkin(ByteBuffer byteBuffer) {
+        if (byteBuffer != null) {
+            int capacity = byteBuffer.capacity();
+            getPool(capacity).checkin(byteBuffer);
+            this.outstandingBytes.addAndGet(-capacity);
+        }
+    }
+
+    /**
+     * Checks out a byte buffer with at least the given capacity. Creates a new
+     * one if the pool of the matching size class is empty.
+     * 
+     * @param size
+     *            The minimum capacity.
+     * @return A cleared byte buffer.
+     */
+    public ByteBuffer checkout(int size) {
+        int capacity = getSizeClass(size);
+        ByteBuffer result = getPool(capacity).checkout();
+        this.outstandingBytes.addAndGet(capacity);
+        return result;
+    }
+
+    /**
+     * Clears all the pooled byte buffers.
+     */
+    public void clear() {
+        this.pools.clear();
+    }
+
+    /**
+     * Returns the number of checkouts served by a pooled byte buffer.
+     * 
+     * @return The number of checkouts served by a pooled byte buffer.
+     */
+    public long getHits() {
+        long result = 0;
+
+        for (SizeClassPool pool : this.pools.values()) {
+            result += pool.getHits();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of checkouts requiring a new allocation.
+     * 
+     * @return The number of checkouts requiring a new allocation.
+     */
+    public long getMisses() {
+        long result = 0;
+
+        for (SizeClassPool pool : this.pools.values()) {
+            result += pool.getMisses();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes currently checked out.
+     * 
+     * @return The number of bytes currently checked out.
+     */
+    public long getOutstandingBytes() {
+        return this.outstandingBytes.get();
+    }
+
+    /**
+     * Returns the pool for the given capacity, creating it if needed.
+     * 
+     * @param capacity
+     *            The byte buffer capacity.
+     * @return The pool for the given capacity.
+     */
+    private SizeClassPool getPool(int capacity) {
+        SizeClassPool result = this.pools.get(capacity);
+
+        if (result == null) {
+            result = new SizeClassPool(capacity);
+            SizeClassPool current = this.pools.putIfAbsent(capacity, result);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the size class matching a requested size, that is to say the
+     * next power of two.
+     * 
+     * @param size
+     *            The requested size.
+     * @return The size class.
+     */
+    protected int getSizeClass(int size) {
+        int result = Integer.highestOneBit(Math.max(size, 1));
+        return (result < size) ? (result << 1) : result;
+    }
+
+    /**
+     * Indicates if direct byte buffers should be allocated.
+     * 
+     * @return True if direct byte buffers should be allocated.
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Releases the byte buffers that stayed unused in the pool since the
+     * previous call.
+     * 
+     * @return The number of byte buffers released.
+     * @see Pool#trim(int)
+     */
+    public int trim() {
+        int result = 0;
+
+        for (SizeClassPool pool : this.pools.values()) {
+            result += pool.trim(0);
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Buffer pool: " + getHits() + " hits, " + getMisses()
+                + " misses, " + getOutstandingBytes() + " outstanding bytes";
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.util.zip.Deflater;
+
+import org.restlet.engine.util.Pool;
+
+// [excludes gwt]
+/**
+ * Pool of reusable deflaters. Reusing them avoids the reallocation of the
+ * native compression state for each encoded entity. Deflaters are reset when
+ * checked in and their compression level is set when checked out. The
+ * deflaters dropped by the pool are ended to immediately release their native
+ * resources.
+ * 
+ * @author agent
+ */
+public class DeflaterPool extends Pool<Deflater> {
+
+    /** Indicates if the ZLIB header and checksum fields are omitted. */
+    private final boolean nowrap;
+
+    /**
+     * Constructor.
+     * 
+     * @param nowrap
+     *            Indicates if the ZLIB header and checksum fields are omitted,
+     *            as required by the GZIP format.
+     * @param maxSize
+     *            The maximum number of deflaters retained or -1 if unbounded.
+     */
+    public DeflaterPool(boolean nowrap, int maxSize) {
+        super(0, maxSize);
+        this.nowrap = nowrap;
+    }
+
+    /**
+     * Checks out a deflater and sets its compression level.
+     * 
+     * @param level
+     *            The compression level, from 0 to 9 or -1 for the default one.
+     * @return A deflater ready to compress a new entity.
+     * @see Deflater#setLevel(int)
+     */
+    public Deflater checkout(int level) {
+        Deflater result = checkout();
+        result.setLevel(level);
+        return result;
+    }
+
+    @Override
+    protected void clear(Deflater deflater) {
+        deflater.reset();
+    }
+
+    @Override
+    protected Deflater createObject() {
+        return new Deflater(Deflater.DEFAULT_COMPRESSION, isNowrap());
+    }
+
+    /**
+     * Indicates if the ZLIB header and checksum fields are omitted.
+     * 
+     * @return True if the ZLIB header and checksum fields are omitted.
+     */
+    public boolean isNowrap() {
+        return nowrap;
+    }
+
+    @Override
+    protected void release(Deflater deflater) {
+        deflater.end();
+    }
+
+}
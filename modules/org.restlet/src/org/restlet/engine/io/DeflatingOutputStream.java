@@ -0,0 +1,149 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// [excludes gwt]
+/**
+ * Output stream compressing the bytes written with a given deflater, either
+ * in the DEFLATE (ZLIB) or in the GZIP format. Contrary to the JDK streams,
+ * the deflater isn't ended by this stream so it can be reused.
+ * 
+ * @author agent
+ */
+public class DeflatingOutputStream extends DeflaterOutputStream {
+
+    /** The GZIP header, without file name nor modification time. */
+    static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED,
+            0, 0, 0, 0, 0, 0, 0 };
+
+    /** The size of the GZIP trailer. */
+    static final int GZIP_TRAILER_SIZE = 8;
+
+    /**
+     * Writes a 32 bits integer in the little endian order used by the GZIP
+     * format.
+     * 
+     * @param value
+     *            The integer value.
+     * @param target
+     *            The target array.
+     * @param offset
+     *            The offset in the target array.
+     */
+    private static void putInt(int value, byte[] target, int offset) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >> 8);
+        target[offset + 2] = (byte) (value >> 16);
+        target[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Writes the GZIP trailer containing the checksum and the size of the
+     * uncompressed bytes.
+     * 
+     * @param checksum
+     *            The checksum of the uncompressed bytes.
+     * @param deflater
+     *            The deflater used.
+     * @param target
+     *            The target array.
+     * @param offset
+     *            The offset in the target array.
+     */
+    static void putTrailer(CRC32 checksum, Deflater deflater, byte[] target,
+            int offset) {
+        putInt((int) checksum.getValue(), target, offset);
+        putInt((int) deflater.getBytesRead(), target, offset + 4);
+    }
+
+    /** The checksum of the uncompressed bytes or null if not GZIP. */
+    private final CRC32 checksum;
+
+    /** Indicates if the stream is finished. */
+    private boolean finished;
+
+    /**
+     * Constructor.
+     * 
+     * @param out
+     *            The output stream receiving the compressed bytes.
+     * @param deflater
+     *            The deflater to use. Must omit the ZLIB header for GZIP.
+     * @param gzip
+     *            Indicates if the GZIP format should be produced.
+     * @throws IOException
+     */
+    public DeflatingOutputStream(OutputStream out, Deflater deflater,
+            boolean gzip) throws IOException {
+        super(out, deflater, IoUtils.BUFFER_SIZE);
+        this.finished = false;
+
+        if (gzip) {
+            this.checksum = new CRC32();
+            out.write(GZIP_HEADER);
+        } else {
+            this.checksum = null;
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!this.finished) {
+            super.finish();
+            this.finished = true;
+
+            if (this.checksum != null) {
+                byte[] trailer = new byte[GZIP_TRAILER_SIZE];
+                putTrailer(this.checksum, this.def, trailer, 0);
+                this.out.write(trailer);
+            }
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+
+        if (this.checksum != null) {
+            this.checksum.update(b, off, len);
+        }
+    }
+
+}
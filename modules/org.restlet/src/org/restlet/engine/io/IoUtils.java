@@ -51,6 +51,18 @@ public class IoUtils {
     public static final int BUFFER_SIZE = getProperty(
             "org.restlet.engine.io.bufferSize", 8192);
 
+    /**
+     * The maximum number of bytes or characters that a write-only
+     * representation can produce on the calling thread when its content is
+     * read as a stream, reader or channel. Beyond this size, or when the size
+     * of the representation is unknown, a pipe fed by a writer thread is used
+     * instead. It looks for the System property
+     * "org.restlet.engine.io.bridgeSize" and if not defined, uses the "65536"
+     * default value. A value of 0 disables the in-thread production.
+     */
+    public static final int BRIDGE_SIZE = getProperty(
+            "org.restlet.engine.io.bridgeSize", 65536);
+
     /**
      * The number of milliseconds after which IO operation will time out. It
      * looks for the System property "org.restlet.engine.io.timeoutMs" and if
@@ -185,8 +185,12 @@ public class NioUtils {
 
     /**
      * Returns a readable byte channel based on the given representation's
-     * content and its write(WritableByteChannel) method. Internally, it uses a
-     * writer thread and a pipe channel.
+     * content and its write(WritableByteChannel) method. When the
+     * representation isn't transient and its known size fits in
+     * {@link IoUtils#BRIDGE_SIZE}, the content is produced on the calling
+     * thread, so that connectors can drain it without a helper thread.
+     * Otherwise, including when the size is unknown, it uses a writer thread
+     * and a pipe channel.
      * 
      * @param representation
      *            the representation to get the {@link OutputStream} from.
@@ -196,7 +200,11 @@ public class NioUtils {
     public static ReadableByteChannel getChannel(
             final Representation representation) throws IOException {
         ReadableByteChannel result = null;
-        if (Edition.CURRENT != Edition.GAE) {
+        BoundedOutputStream bos = BioUtils.produce(representation, true);
+
+        if (bos != null) {
+            result = bos.getChannel();
+        } else if (Edition.CURRENT != Edition.GAE) {
             // [ifndef gae]
             final java.nio.channels.Pipe pipe = java.nio.channels.Pipe.open();
 
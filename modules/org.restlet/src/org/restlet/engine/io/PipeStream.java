@@ -43,21 +43,25 @@ import java.util.concurrent.TimeUnit;
 // [excludes gwt]
 /**
  * Pipe stream that pipes output streams into input streams. Implementation
- * based on a shared synchronized queue.
+ * based on a shared synchronized queue of byte chunks, each write call being
+ * transferred as a single chunk.
  * 
  * @author Jerome Louvel
  */
 public class PipeStream {
 
+    /** The chunk marking the end of the stream. */
+    private static final byte[] END = new byte[0];
+
     /** The queue timeout. */
     private static final long QUEUE_TIMEOUT = 5;
 
     /** The supporting synchronized queue. */
-    private final BlockingQueue<Integer> queue;
+    private final BlockingQueue<byte[]> queue;
 
     /** Constructor. */
     public PipeStream() {
-        this.queue = new ArrayBlockingQueue<Integer>(1024);
+        this.queue = new ArrayBlockingQueue<byte[]>(64);
     }
 
     /**
@@ -67,29 +71,58 @@ public class PipeStream {
      */
     public InputStream getInputStream() {
         return new InputStream() {
-            private boolean endReached = false;
+            /** The current chunk. */
+            private byte[] chunk = null;
 
-            @Override
-            public int read() throws IOException {
-                try {
-                    if (this.endReached) {
-                        return -1;
-                    }
+            /** The read position in the current chunk. */
+            private int position = 0;
 
-                    final Integer value = queue.poll(QUEUE_TIMEOUT,
-                            TimeUnit.SECONDS);
-                    this.endReached = (value == -1);
-                    
-                    if (value == null) {
+            /**
+             * Ensures that the current chunk has bytes to read, waiting for
+             * the next one if needed.
+             * 
+             * @return False if the end of the stream was reached.
+             * @throws IOException
+             */
+            private boolean fill() throws IOException {
+                while ((this.chunk != END)
+                        && ((this.chunk == null) || (this.position == this.chunk.length))) {
+                    try {
+                        this.chunk = queue.poll(QUEUE_TIMEOUT,
+                                TimeUnit.SECONDS);
+                        this.position = 0;
+
+                        if (this.chunk == null) {
+                            throw new IOException(
+                                    "Timeout while reading from the queue-based input stream");
+                        }
+                    } catch (InterruptedException ie) {
                         throw new IOException(
-                                "Timeout while reading from the queue-based input stream");
-                    } else {
-                        return value.intValue();
+                                "Interruption occurred while writing in the queue");
                     }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
                 }
+
+                return this.chunk != END;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return fill() ? (this.chunk[this.position++] & 0xff) : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int result = -1;
+
+                if (len == 0) {
+                    result = 0;
+                } else if (fill()) {
+                    result = Math.min(len, this.chunk.length - this.position);
+                    System.arraycopy(this.chunk, this.position, b, off, result);
+                    this.position += result;
+                }
+
+                return result;
             }
         };
     }
@@ -102,9 +135,20 @@ public class PipeStream {
     public OutputStream getOutputStream() {
         return new OutputStream() {
             @Override
-            public void write(int b) throws IOException {
+            public void close() throws IOException {
+                offer(END);
+            }
+
+            /**
+             * Offers a chunk to the queue.
+             * 
+             * @param chunk
+             *            The chunk to offer.
+             * @throws IOException
+             */
+            private void offer(byte[] chunk) throws IOException {
                 try {
-                    if (!queue.offer(b & 0xff, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
+                    if (!queue.offer(chunk, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
                         throw new IOException(
                                 "Timeout while writing to the queue-based output stream");
                     }
@@ -115,17 +159,18 @@ public class PipeStream {
             }
 
             @Override
-            public void close() throws IOException {
-                try {
-                    if (!queue.offer(-1, QUEUE_TIMEOUT, TimeUnit.SECONDS)) {
-                        throw new IOException(
-                                "Timeout while writing to the queue-based output stream");
-                    }
-                } catch (InterruptedException ie) {
-                    throw new IOException(
-                            "Interruption occurred while writing in the queue");
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len > 0) {
+                    byte[] chunk = new byte[len];
+                    System.arraycopy(b, off, chunk, 0, len);
+                    offer(chunk);
                 }
             }
+
+            @Override
+            public void write(int b) throws IOException {
+                offer(new byte[] { (byte) b });
+            }
         };
     }
 
@@ -114,6 +114,18 @@ public class ReadableBufferedChannel extends
         return endReached;
     }
 
+    /**
+     * Indicates if the channel is open. Stays open once the end is reached so
+     * that the end can still be reported after the underlying connection has
+     * been closed.
+     * 
+     * @return True if the channel is open.
+     */
+    @Override
+    public boolean isOpen() {
+        return isEndReached() || super.isOpen();
+    }
+
     /**
      * Callback invoked upon IO completion. Calls
      * {@link CompletionListener#onCompleted(boolean)} if the end has been
@@ -179,9 +191,11 @@ public class ReadableBufferedChannel extends
      *            True if the end of the channel has been reached.
      */
     protected void setEndReached(boolean endReached) throws IOException {
+        boolean completed = endReached && !this.endReached;
         this.endReached = endReached;
 
-        if (this.endReached) {
+        if (completed) {
+            // Only notify once as the next message may already be read
             onCompleted(false);
         }
     }
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// [excludes gwt]
+/**
+ * Readable byte channel compressing the bytes read from a source channel,
+ * either in the DEFLATE (ZLIB) or in the GZIP format. The compression happens
+ * as the channel is read, without requiring a pipe and a writer thread. The
+ * deflater comes from a pool and is returned to it once the compressed content
+ * is fully read or when the channel is closed.
+ * 
+ * @author agent
+ */
+public class ReadableDeflatingChannel extends
+        WrapperChannel<ReadableByteChannel> implements ReadableByteChannel {
+
+    /** The checksum of the uncompressed bytes or null if not GZIP. */
+    private final CRC32 checksum;
+
+    /** The deflater or null once released. */
+    private volatile Deflater deflater;
+
+    /** The pool of deflaters. */
+    private final DeflaterPool deflaterPool;
+
+    /** The buffer of uncompressed bytes read from the source channel. */
+    private final ByteBuffer input;
+
+    /** The buffer of compressed bytes not read yet. */
+    private final ByteBuffer output;
+
+    /** Indicates if the end of the source channel has been reached. */
+    private boolean sourceEnded;
+
+    /**
+     * Constructor.
+     * 
+     * @param source
+     *            The source channel of uncompressed bytes.
+     * @param deflaterPool
+     *            The pool of deflaters. Must omit the ZLIB header for GZIP.
+     * @param level
+     *            The compression level, from 0 to 9 or -1 for the default one.
+     * @param gzip
+     *            Indicates if the GZIP format should be produced.
+     */
+    public ReadableDeflatingChannel(ReadableByteChannel source,
+            DeflaterPool deflaterPool, int level, boolean gzip) {
+        super(source);
+        this.deflaterPool = deflaterPool;
+        this.deflater = deflaterPool.checkout(level);
+        this.input = ByteBuffer.allocate(IoUtils.BUFFER_SIZE);
+        this.output = ByteBuffer.allocate(IoUtils.BUFFER_SIZE);
+        this.sourceEnded = false;
+
+        if (gzip) {
+            this.checksum = new CRC32();
+            this.output.put(DeflatingOutputStream.GZIP_HEADER);
+        } else {
+            this.checksum = null;
+        }
+
+        this.output.flip();
+    }
+
+    /**
+     * Releases the deflater and closes the source channel.
+     */
+    @Override
+    public void close() throws IOException {
+        release();
+        super.close();
+    }
+
+    /**
+     * Compresses the available uncompressed bytes into the output buffer,
+     * adding the GZIP trailer once the compression is finished.
+     */
+    private void deflate() {
+        int max = this.output.capacity();
+
+        if (this.checksum != null) {
+            // Keep room for the trailer
+            max -= DeflatingOutputStream.GZIP_TRAILER_SIZE;
+        }
+
+        this.output.clear();
+        int length = this.deflater.deflate(this.output.array(), 0, max);
+
+        if (this.deflater.finished()) {
+            if (this.checksum != null) {
+                DeflatingOutputStream.putTrailer(this.checksum, this.deflater,
+                        this.output.array(), length);
+                length += DeflatingOutputStream.GZIP_TRAILER_SIZE;
+            }
+
+            release();
+        }
+
+        this.output.limit(length);
+    }
+
+    /**
+     * Reads more uncompressed bytes from the source channel.
+     * 
+     * @return The number of bytes read or -1 if the end was reached.
+     * @throws IOException
+     */
+    private int fill() throws IOException {
+        this.input.clear();
+        int result = getWrappedChannel().read(this.input);
+
+        if (result == -1) {
+            this.sourceEnded = true;
+            this.deflater.finish();
+        } else if (result > 0) {
+            if (this.checksum != null) {
+                this.checksum.update(this.input.array(), 0, result);
+            }
+
+            this.deflater.setInput(this.input.array(), 0, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads some compressed bytes and put them into the destination buffer.
+     * 
+     * @param dst
+     *            The destination buffer.
+     * @return The number of bytes read, or -1 if the end of the channel has
+     *         been reached.
+     */
+    public int read(ByteBuffer dst) throws IOException {
+        int result = 0;
+        boolean tryAgain = true;
+
+        while (tryAgain && dst.hasRemaining()) {
+            if (this.output.hasRemaining()) {
+                // Transfer the pending compressed bytes
+                int length = Math.min(dst.remaining(), this.output.remaining());
+                dst.put(this.output.array(), this.output.position(), length);
+                this.output.position(this.output.position() + length);
+                result += length;
+            } else if (this.deflater == null) {
+                // The compressed content was fully read
+                tryAgain = false;
+
+                if (result == 0) {
+                    result = -1;
+                }
+            } else if (this.deflater.needsInput() && !this.sourceEnded) {
+                // Stop if no uncompressed byte is available for now
+                tryAgain = (fill() != 0);
+            } else {
+                deflate();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the deflater to its pool.
+     */
+    private void release() {
+        Deflater current = this.deflater;
+
+        if (current != null) {
+            this.deflater = null;
+            this.deflaterPool.checkin(current);
+        }
+    }
+
+}
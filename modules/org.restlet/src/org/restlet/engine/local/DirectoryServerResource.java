@@ -36,7 +36,9 @@ package org.restlet.engine.local;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -44,23 +46,30 @@ import java.util.logging.Level;
 import org.restlet.Request;
 import org.restlet.Response;
 import org.restlet.Restlet;
+import org.restlet.data.Dimension;
+import org.restlet.data.Encoding;
 import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Preference;
 import org.restlet.data.Reference;
 import org.restlet.data.ReferenceList;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.representation.ByteArrayRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.Variant;
 import org.restlet.resource.Directory;
 import org.restlet.resource.ResourceException;
 import org.restlet.resource.ServerResource;
+import org.restlet.service.EncoderService;
 
 /**
  * Resource supported by a set of context representations (from file system,
  * class loaders and webapp context). A content negotiation mechanism (similar
  * to Apache HTTP server) is available. It is based on path extensions to detect
- * variants (languages, media types or character sets).
+ * variants (languages, media types or character sets). When the client accepts
+ * a compressed encoding, a precompressed sibling file or a cached encoded
+ * variant can be served instead of the selected file.
  * 
  * @see <a
  *      href="http://httpd.apache.org/docs/2.0/content-negotiation.html">Apache
@@ -100,6 +109,9 @@ public class DirectoryServerResource extends ServerResource {
     /** The context's directory URI (file, clap URI). */
     private volatile String directoryUri;
 
+    /** The encoded variants served instead of the selected file variants. */
+    private volatile Map<Variant, Variant> encodedVariants;
+
     /** If the resource is a file, this contains its content. */
     private volatile Representation fileContent;
 
@@ -124,6 +136,9 @@ public class DirectoryServerResource extends ServerResource {
     /** The unique representation of the target URI, if it exists. */
     private volatile Reference uniqueReference;
 
+    /** The context's URIs of the file variants for the GET method. */
+    private volatile Map<Variant, String> variantsSources;
+
     @Override
     public Representation delete() throws ResourceException {
         if (this.directory.isModifiable()) {
@@ -191,6 +206,8 @@ public class DirectoryServerResource extends ServerResource {
             this.directory = (Directory) getRequestAttributes().get(
                     "org.restlet.directory");
             this.relativePart = getReference().getRemainingPart(false, false);
+            this.encodedVariants = new IdentityHashMap<Variant, Variant>();
+            this.variantsSources = new IdentityHashMap<Variant, String>();
             setNegotiated(this.directory.isNegotiatingContent());
 
             // Restore the original URI in case the call has been tunneled.
@@ -416,7 +433,7 @@ public class DirectoryServerResource extends ServerResource {
             getResponse().setStatus(Status.CLIENT_ERROR_NOT_FOUND);
         } else {
             if (variants.size() == 1) {
-                result = (Representation) variants.get(0);
+                result = (Representation) getEncodedVariant(variants.get(0));
             } else {
                 ReferenceList variantRefs = new ReferenceList();
 
@@ -490,6 +507,207 @@ public class DirectoryServerResource extends ServerResource {
         return this.directoryUri;
     }
 
+    /**
+     * Returns the encoded variant to serve instead of a file variant, when the
+     * client accepts a compressed encoding. A precompressed sibling file is
+     * preferred, then an entry of the directory's encoded cache. Returns the
+     * given variant if none applies.
+     * 
+     * @param variant
+     *            The selected variant.
+     * @return The variant to serve.
+     */
+    protected Variant getEncodedVariant(Variant variant) {
+        Variant result = variant;
+        String sourceUri = (variant == null) ? null : this.variantsSources
+                .get(variant);
+
+        if ((sourceUri != null)
+                && (getDirectory().isPrecompressedAllowed() || (getDirectory()
+                        .getEncodedCache() != null))) {
+            // The response now depends on the accepted encodings
+            getDimensions().add(Dimension.ENCODING);
+            result = this.encodedVariants.get(variant);
+
+            if (result == null) {
+                Representation source = (Representation) variant;
+                Representation encoded = null;
+                Encoding[] encodings = getPreferredEncodings();
+
+                for (int i = 0; (encoded == null) && (i < encodings.length); i++) {
+                    encoded = getPrecompressed(sourceUri, source, encodings[i]);
+
+                    if (encoded == null) {
+                        encoded = getCachedEncoded(sourceUri, source,
+                                encodings[i]);
+                    }
+
+                    if (encoded != null) {
+                        updateEncodedMetadata(encoded, source, encodings[i]);
+                    }
+                }
+
+                result = (encoded == null) ? variant : encoded;
+                this.encodedVariants.put(variant, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the variant of a file encoded by the directory's encoded cache,
+     * if any.
+     * 
+     * @param sourceUri
+     *            The context's URI of the file.
+     * @param source
+     *            The representation of the file.
+     * @param encoding
+     *            The encoding to apply.
+     * @return The encoded variant or null.
+     */
+    private Representation getCachedEncoded(String sourceUri,
+            Representation source, Encoding encoding) {
+        Representation result = null;
+        EncodedVariantCache cache = getDirectory().getEncodedCache();
+        EncoderService encoderService = (getApplication() == null) ? null
+                : getApplication().getEncoderService();
+
+        if ((cache != null) && isIdentity(source)
+                && ((encoderService == null) || encoderService
+                        .canEncode(source))) {
+            int level = (encoderService == null) ? EncoderService.DEFAULT_COMPRESSION_LEVEL
+                    : encoderService.getCompressionLevel();
+
+            try {
+                byte[] bytes = cache.get(sourceUri, source, encoding, level);
+
+                if (bytes != null) {
+                    result = new ByteArrayRepresentation(bytes);
+                    result.setSize(bytes.length);
+                    result.setModificationDate(source.getModificationDate());
+                }
+            } catch (IOException ioe) {
+                getLogger().log(Level.WARNING,
+                        "Unable to encode the file: " + sourceUri, ioe);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the precompressed sibling of a file, if it is allowed, exists
+     * and isn't older than the file.
+     * 
+     * @param sourceUri
+     *            The context's URI of the file.
+     * @param source
+     *            The representation of the file.
+     * @param encoding
+     *            The encoding of the sibling.
+     * @return The precompressed sibling or null.
+     */
+    private Representation getPrecompressed(String sourceUri,
+            Representation source, Encoding encoding) {
+        Representation result = null;
+        String extension = getDirectory().getPrecompressedExtension(encoding);
+
+        if (getDirectory().isPrecompressedAllowed() && (extension != null)
+                && isIdentity(source)) {
+            Response contextResponse = getRepresentation(sourceUri + "."
+                    + extension);
+            Representation sibling = contextResponse.getEntity();
+
+            if (contextResponse.getStatus().isSuccess()
+                    && (sibling != null)
+                    && !MediaType.TEXT_URI_LIST.equals(sibling.getMediaType())) {
+                if ((sibling.getModificationDate() != null)
+                        && (source.getModificationDate() != null)
+                        && sibling.getModificationDate().before(
+                                source.getModificationDate())) {
+                    getLogger().fine(
+                            "Ignoring the outdated precompressed file: "
+                                    + sourceUri + "." + extension);
+                } else {
+                    result = sibling;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the compressed encodings accepted by the client, sorted by
+     * decreasing preference. An encoding explicitly listed by the client
+     * overrides the "*" wildcard and is excluded if its quality is zero.
+     * Compressed encodings less preferred than the identity encoding are
+     * excluded too.
+     * 
+     * @return The accepted compressed encodings.
+     */
+    private Encoding[] getPreferredEncodings() {
+        float gzip = getQuality(Encoding.GZIP);
+        float deflate = getQuality(Encoding.DEFLATE);
+        float identity = getQuality(Encoding.IDENTITY);
+
+        if (gzip < identity) {
+            gzip = 0F;
+        }
+
+        if (deflate < identity) {
+            deflate = 0F;
+        }
+
+        Encoding[] result;
+
+        if ((gzip > 0F) && (deflate > 0F)) {
+            result = (deflate > gzip) ? new Encoding[] { Encoding.DEFLATE,
+                    Encoding.GZIP } : new Encoding[] { Encoding.GZIP,
+                    Encoding.DEFLATE };
+        } else if (gzip > 0F) {
+            result = new Encoding[] { Encoding.GZIP };
+        } else if (deflate > 0F) {
+            result = new Encoding[] { Encoding.DEFLATE };
+        } else {
+            result = new Encoding[0];
+        }
+
+        return result;
+    }
+
+    @Override
+    protected Variant getPreferredVariant(List<Variant> variants) {
+        return getEncodedVariant(super.getPreferredVariant(variants));
+    }
+
+    /**
+     * Returns the quality with which the client accepts an encoding. An
+     * explicit preference for the encoding prevails over the "*" wildcard.
+     * 
+     * @param encoding
+     *            The encoding.
+     * @return The quality of the encoding or 0 if it isn't accepted.
+     */
+    private float getQuality(Encoding encoding) {
+        Float explicit = null;
+        Float wildcard = null;
+
+        for (Preference<Encoding> pref : getClientInfo()
+                .getAcceptedEncodings()) {
+            if (encoding.equals(pref.getMetadata())) {
+                explicit = pref.getQuality();
+            } else if (Encoding.ALL.equals(pref.getMetadata())) {
+                wildcard = pref.getQuality();
+            }
+        }
+
+        return (explicit != null) ? explicit : ((wildcard != null) ? wildcard
+                : 0F);
+    }
+
     /**
      * Returns a representation of the resource at the target URI. Leverages the
      * client dispatcher of the parent directory's context.
@@ -632,6 +850,7 @@ public class DirectoryServerResource extends ServerResource {
                                 }
 
                                 resultSet.add(rep);
+                                this.variantsSources.put(rep, ref.toString());
                             }
                         }
                     }
@@ -688,6 +907,7 @@ public class DirectoryServerResource extends ServerResource {
 
                     result = new ArrayList<Variant>();
                     result.add(this.fileContent);
+                    this.variantsSources.put(this.fileContent, this.targetUri);
                 }
 
                 this.variantsGet = result;
@@ -796,6 +1016,23 @@ public class DirectoryServerResource extends ServerResource {
         return result;
     }
 
+    /**
+     * Indicates if a representation has no encoding other than identity.
+     * 
+     * @param representation
+     *            The representation to test.
+     * @return True if the representation has no encoding.
+     */
+    private boolean isIdentity(Representation representation) {
+        boolean result = true;
+
+        for (Encoding encoding : representation.getEncodings()) {
+            result = result && Encoding.IDENTITY.equals(encoding);
+        }
+
+        return result;
+    }
+
     /**
      * Indicates if the target resource is a directory.
      * 
@@ -836,6 +1073,35 @@ public class DirectoryServerResource extends ServerResource {
         return null;
     }
 
+    /**
+     * Copies the metadata of a file to its encoded variant, which differs by
+     * its encoding, size and entity tag.
+     * 
+     * @param encoded
+     *            The encoded variant.
+     * @param source
+     *            The representation of the file.
+     * @param encoding
+     *            The encoding applied.
+     */
+    private void updateEncodedMetadata(Representation encoded,
+            Representation source, Encoding encoding) {
+        encoded.setCharacterSet(source.getCharacterSet());
+        encoded.setDisposition(source.getDisposition());
+        encoded.setExpirationDate(source.getExpirationDate());
+        encoded.setLocationRef(source.getLocationRef());
+        encoded.setMediaType(source.getMediaType());
+        encoded.getEncodings().clear();
+        encoded.getEncodings().add(encoding);
+        encoded.getLanguages().clear();
+        encoded.getLanguages().addAll(source.getLanguages());
+
+        if (source.getTag() != null) {
+            encoded.setTag(new Tag(source.getTag().getName() + "-"
+                    + encoding.getName(), source.getTag().isWeak()));
+        }
+    }
+
     /**
      * Sets the context's target URI (file, clap URI).
      * 
@@ -0,0 +1,252 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.local;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.restlet.data.Encoding;
+import org.restlet.engine.application.EncodeRepresentation;
+import org.restlet.representation.Representation;
+
+/**
+ * Bounded in-memory cache of encoded variants of local files. Entries are keyed
+ * by the file URI, size, modification date, encoding and compression level, so
+ * that a modified file or a changed compression level is never served from a
+ * stale entry. When the total size of the cached entries exceeds the maximum
+ * size, the least recently used ones are evicted.
+ * 
+ * @see org.restlet.resource.Directory#setEncodedCache(EncodedVariantCache)
+ * @author agent
+ */
+public class EncodedVariantCache {
+
+    /**
+     * Key of a cached encoded variant.
+     */
+    private static class Key {
+
+        /** The compression level used. */
+        private final int compressionLevel;
+
+        /** The encoding applied. */
+        private final Encoding encoding;
+
+        /** The modification time of the file. */
+        private final long modificationTime;
+
+        /** The size of the file. */
+        private final long size;
+
+        /** The URI of the file. */
+        private final String uri;
+
+        /**
+         * Constructor.
+         * 
+         * @param uri
+         *            The URI of the file.
+         * @param size
+         *            The size of the file.
+         * @param modificationTime
+         *            The modification time of the file.
+         * @param encoding
+         *            The encoding applied.
+         * @param compressionLevel
+         *            The compression level used.
+         */
+        public Key(String uri, long size, long modificationTime,
+                Encoding encoding, int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            this.encoding = encoding;
+            this.modificationTime = modificationTime;
+            this.size = size;
+            this.uri = uri;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean result = (object instanceof Key);
+
+            if (result) {
+                Key key = (Key) object;
+                result = this.uri.equals(key.uri) && (this.size == key.size)
+                        && (this.modificationTime == key.modificationTime)
+                        && this.encoding.equals(key.encoding)
+                        && (this.compressionLevel == key.compressionLevel);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * this.uri.hashCode()) + this.encoding.hashCode()
+                    + (int) (this.size ^ this.modificationTime)
+                    + this.compressionLevel;
+        }
+    }
+
+    /** The cached encoded bytes, in least recently used order. */
+    private final LinkedHashMap<Key, byte[]> entries;
+
+    /** The maximum total size of the cached entries, in bytes. */
+    private final long maxSize;
+
+    /** The current total size of the cached entries, in bytes. */
+    private long size;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum total size of the cached entries, in bytes.
+     */
+    public EncodedVariantCache(long maxSize) {
+        this.entries = new LinkedHashMap<Key, byte[]>(16, 0.75f, true);
+        this.maxSize = maxSize;
+        this.size = 0;
+    }
+
+    /**
+     * Removes all the cached entries.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns the encoded bytes of a file, encoding and caching them if needed.
+     * Returns null if the file has no known size or modification date, or if
+     * it is too large to be cached.
+     * 
+     * @param uri
+     *            The URI of the file.
+     * @param source
+     *            The representation of the file.
+     * @param encoding
+     *            The encoding to apply.
+     * @param compressionLevel
+     *            The compression level to use.
+     * @return The encoded bytes or null.
+     * @throws IOException
+     */
+    public byte[] get(String uri, Representation source, Encoding encoding,
+            int compressionLevel) throws IOException {
+        byte[] result = null;
+
+        if ((source.getSize() != Representation.UNKNOWN_SIZE)
+                && (source.getSize() <= this.maxSize)
+                && (source.getModificationDate() != null)) {
+            Key key = new Key(uri, source.getSize(), source
+                    .getModificationDate().getTime(), encoding,
+                    compressionLevel);
+
+            synchronized (this) {
+                result = this.entries.get(key);
+            }
+
+            if (result == null) {
+                // Encode outside of the lock, concurrent misses are harmless
+                ByteArrayOutputStream out = new ByteArrayOutputStream(
+                        (int) source.getSize() / 2);
+                new EncodeRepresentation(encoding, source, compressionLevel)
+                        .write(out);
+                result = out.toByteArray();
+                put(key, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * 
+     * @return The number of cached entries.
+     */
+    public synchronized int getCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the maximum total size of the cached entries, in bytes.
+     * 
+     * @return The maximum total size of the cached entries, in bytes.
+     */
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the current total size of the cached entries, in bytes.
+     * 
+     * @return The current total size of the cached entries, in bytes.
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Caches encoded bytes then evicts the least recently used entries until
+     * the total size fits.
+     * 
+     * @param key
+     *            The entry key.
+     * @param bytes
+     *            The encoded bytes.
+     */
+    private synchronized void put(Key key, byte[] bytes) {
+        if (bytes.length <= this.maxSize) {
+            byte[] previous = this.entries.put(key, bytes);
+            this.size += bytes.length;
+
+            if (previous != null) {
+                this.size -= previous.length;
+            }
+
+            for (Iterator<Map.Entry<Key, byte[]>> iter = this.entries
+                    .entrySet().iterator(); (this.size > this.maxSize)
+                    && iter.hasNext();) {
+                this.size -= iter.next().getValue().length;
+                iter.remove();
+            }
+        }
+    }
+
+}
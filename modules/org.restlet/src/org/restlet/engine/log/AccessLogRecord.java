@@ -0,0 +1,340 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.log;
+
+import java.util.Calendar;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.data.Method;
+import org.restlet.data.Status;
+
+// [excludes gwt]
+/**
+ * Access log entry holding the fields of a call needed by the default access
+ * log format. The fields are copied from the call so that the entry can be
+ * formatted later, possibly by another thread, and the instances can be reused
+ * for successive calls.<br>
+ * <br>
+ * Concurrency note: instances of this class aren't thread-safe. They must be
+ * handed over between threads through a synchronized structure. Formatting
+ * doesn't do any network access, as the user identifier is resolved before
+ * the fields are copied, see {@link #getUserIdentifier(Response, boolean)}.
+ * 
+ * @see org.restlet.service.LogService
+ * @author agent
+ */
+public class AccessLogRecord {
+
+    /**
+     * Appends a number padded with a leading zero.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param number
+     *            The number between 0 and 99.
+     */
+    private static void appendTwoDigits(StringBuilder sb, int number) {
+        if (number < 10) {
+            sb.append('0');
+        }
+
+        sb.append(number);
+    }
+
+    /**
+     * Appends a value or "-" if it is null.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param value
+     *            The value to append.
+     */
+    private static void appendValue(StringBuilder sb, String value) {
+        sb.append((value == null) ? "-" : value);
+    }
+
+    /**
+     * Returns the user identifier of a call. When the identity check is
+     * enabled, it is obtained from the client host via the IDENT protocol (see
+     * RFC 1413), which blocks the calling thread. Otherwise, the identifier of
+     * the challenge response is used.
+     * 
+     * @param response
+     *            The response to log.
+     * @param identityCheck
+     *            Indicates if the identity check (as specified by RFC1413) is
+     *            enabled.
+     * @return The user identifier or null.
+     */
+    public static String getUserIdentifier(Response response,
+            boolean identityCheck) {
+        String result = null;
+        Request request = response.getRequest();
+
+        if (identityCheck) {
+            // [ifndef gae]
+            IdentClient ic = new IdentClient(request.getClientInfo()
+                    .getUpstreamAddress(), request.getClientInfo().getPort(),
+                    response.getServerInfo().getPort());
+            result = ic.getUserIdentifier();
+        } else if (request.getChallengeResponse() != null) {
+            result = request.getChallengeResponse().getIdentifier();
+            // [enddef]
+        }
+
+        return result;
+    }
+
+    /** The client agent name. */
+    private String agentName;
+
+    /** The client IP address. */
+    private String clientAddress;
+
+    /** The call duration (in milliseconds). */
+    private int duration;
+
+    /** The host reference. */
+    private String hostRef;
+
+    /** The preformatted message or null to use the default format. */
+    private String message;
+
+    /** The method name. */
+    private String methodName;
+
+    /** The received size or -1 if unknown. */
+    private long receivedSize;
+
+    /** The referrer reference. */
+    private String referrerRef;
+
+    /** The resource path. */
+    private String resourcePath;
+
+    /** The resource query. */
+    private String resourceQuery;
+
+    /** The sent size or -1 if unknown. */
+    private long sentSize;
+
+    /** The server IP address. */
+    private String serverAddress;
+
+    /** The server port. */
+    private int serverPort;
+
+    /** The status code or -1 if unknown. */
+    private int statusCode;
+
+    /** The time of the call. */
+    private long time;
+
+    /** The user identifier. */
+    private String userIdentifier;
+
+    /**
+     * Clears the fields in order to release the call's values.
+     */
+    public void clear() {
+        this.agentName = null;
+        this.clientAddress = null;
+        this.hostRef = null;
+        this.message = null;
+        this.methodName = null;
+        this.referrerRef = null;
+        this.resourcePath = null;
+        this.resourceQuery = null;
+        this.serverAddress = null;
+        this.userIdentifier = null;
+    }
+
+    /**
+     * Appends the entry to a builder. If a preformatted message is available,
+     * it is appended, otherwise the default access log format is used.
+     * 
+     * @param sb
+     *            The target builder.
+     * @param calendar
+     *            The calendar used to compute the date and time fields.
+     */
+    public void format(StringBuilder sb, Calendar calendar) {
+        if (this.message != null) {
+            sb.append(this.message);
+        } else {
+            calendar.setTimeInMillis(this.time);
+
+            // Append the date of the request
+            sb.append(calendar.get(Calendar.YEAR)).append('-');
+            appendTwoDigits(sb, calendar.get(Calendar.MONTH) + 1);
+            sb.append('-');
+            appendTwoDigits(sb, calendar.get(Calendar.DAY_OF_MONTH));
+            sb.append('\t');
+
+            // Append the time of the request
+            appendTwoDigits(sb, calendar.get(Calendar.HOUR_OF_DAY));
+            sb.append(':');
+            appendTwoDigits(sb, calendar.get(Calendar.MINUTE));
+            sb.append(':');
+            appendTwoDigits(sb, calendar.get(Calendar.SECOND));
+            sb.append('\t');
+
+            // Append the client IP address
+            appendValue(sb, this.clientAddress);
+            sb.append('\t');
+
+            // Append the user name
+            appendValue(sb, this.userIdentifier);
+            sb.append('\t');
+
+            // Append the server IP address
+            appendValue(sb, this.serverAddress);
+            sb.append('\t');
+
+            // Append the server port
+            sb.append(this.serverPort);
+            sb.append('\t');
+
+            // Append the method name
+            appendValue(sb, this.methodName);
+
+            // Append the resource path
+            sb.append('\t');
+            appendValue(sb, this.resourcePath);
+
+            // Append the resource query
+            sb.append('\t');
+            appendValue(sb, this.resourceQuery);
+
+            // Append the status code
+            sb.append('\t');
+
+            if (this.statusCode == -1) {
+                sb.append('-');
+            } else {
+                sb.append(this.statusCode);
+            }
+
+            // Append the returned size
+            sb.append('\t');
+
+            if (this.sentSize == -1) {
+                sb.append('-');
+            } else {
+                sb.append(this.sentSize);
+            }
+
+            // Append the received size
+            sb.append('\t');
+
+            if (this.receivedSize == -1) {
+                sb.append('-');
+            } else {
+                sb.append(this.receivedSize);
+            }
+
+            // Append the duration
+            sb.append('\t');
+            sb.append(this.duration);
+
+            // Append the host reference
+            sb.append('\t');
+            appendValue(sb, this.hostRef);
+
+            // Append the agent name
+            sb.append('\t');
+            appendValue(sb, this.agentName);
+
+            // Append the referrer
+            sb.append('\t');
+            appendValue(sb, this.referrerRef);
+        }
+    }
+
+    /**
+     * Copies the fields of a call.
+     * 
+     * @param response
+     *            The response to log.
+     * @param duration
+     *            The call duration (in milliseconds).
+     * @param message
+     *            The preformatted message or null to use the default format.
+     * @param userIdentifier
+     *            The user identifier, see
+     *            {@link #getUserIdentifier(Response, boolean)}.
+     */
+    public void update(Response response, int duration, String message,
+            String userIdentifier) {
+        this.message = message;
+
+        if (message == null) {
+            Request request = response.getRequest();
+            this.time = System.currentTimeMillis();
+            this.clientAddress = request.getClientInfo().getUpstreamAddress();
+            this.userIdentifier = userIdentifier;
+            this.serverAddress = response.getServerInfo().getAddress();
+            this.serverPort = response.getServerInfo().getPort();
+            this.methodName = (request.getMethod() == null) ? null : request
+                    .getMethod().getName();
+            this.resourcePath = (request.getResourceRef() == null) ? null
+                    : request.getResourceRef().getPath();
+            this.resourceQuery = (request.getResourceRef() == null) ? null
+                    : request.getResourceRef().getQuery();
+            this.statusCode = (response.getStatus() == null) ? -1 : response
+                    .getStatus().getCode();
+
+            if (!response.isEntityAvailable()
+                    || Status.REDIRECTION_NOT_MODIFIED.equals(response
+                            .getStatus())
+                    || Status.SUCCESS_NO_CONTENT.equals(response.getStatus())
+                    || Method.HEAD.equals(request.getMethod())) {
+                this.sentSize = 0;
+            } else {
+                this.sentSize = response.getEntity().getSize();
+            }
+
+            this.receivedSize = (request.getEntity() == null) ? 0 : request
+                    .getEntity().getSize();
+            this.duration = duration;
+            this.hostRef = (request.getHostRef() == null) ? null : request
+                    .getHostRef().toString();
+            this.agentName = request.getClientInfo().getAgent();
+            this.referrerRef = (request.getReferrerRef() == null) ? null
+                    : request.getReferrerRef().getIdentifier();
+        }
+    }
+
+}
@@ -0,0 +1,418 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.restlet.Response;
+
+// [excludes gwt]
+/**
+ * Asynchronous access log writer. The calls are copied into a preallocated
+ * ring buffer of {@link AccessLogRecord} instances, then formatted and appended
+ * to a file in batches by a dedicated thread, through a buffered
+ * {@link FileChannel}. When the ring buffer is full, the calls are either
+ * dropped and counted, or the logging threads wait for a free slot.
+ * 
+ * @see org.restlet.service.LogService#setAsynchronous(boolean)
+ * @author agent
+ */
+public class AccessLogWriter implements Runnable {
+
+    /** The size of the write buffer. */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /** Indicates if the logging threads wait when the ring buffer is full. */
+    private final boolean blocking;
+
+    /** The number of records available in the ring buffer. */
+    private int count;
+
+    /** The number of dropped records. */
+    private final AtomicLong droppedCount;
+
+    /** The log file. */
+    private final File file;
+
+    /** The index of the first available record in the ring buffer. */
+    private int head;
+
+    /** The lock protecting the ring buffer. */
+    private final ReentrantLock lock;
+
+    /** The logger. */
+    private final Logger logger;
+
+    /** Signaled when records become available. */
+    private final Condition notEmpty;
+
+    /** Signaled when slots become free. */
+    private final Condition notFull;
+
+    /** The ring buffer of records. */
+    private final AccessLogRecord[] records;
+
+    /** Indicates if the writer is running. */
+    private volatile boolean running;
+
+    /** The spare records exchanged with the ring buffer by the writer thread. */
+    private final AccessLogRecord[] spareRecords;
+
+    /** The writer thread. */
+    private volatile Thread thread;
+
+    /** The number of written records. */
+    private final AtomicLong writtenCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param file
+     *            The log file to append to.
+     * @param capacity
+     *            The capacity of the ring buffer.
+     * @param blocking
+     *            Indicates if the logging threads wait when the ring buffer is
+     *            full, otherwise the records are dropped.
+     * @param logger
+     *            The logger used to report errors.
+     */
+    public AccessLogWriter(File file, int capacity, boolean blocking,
+            Logger logger) {
+        this.blocking = blocking;
+        this.count = 0;
+        this.droppedCount = new AtomicLong();
+        this.file = file;
+        this.head = 0;
+        this.lock = new ReentrantLock();
+        this.logger = logger;
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
+        this.records = new AccessLogRecord[capacity];
+        this.spareRecords = new AccessLogRecord[capacity];
+        this.writtenCount = new AtomicLong();
+
+        for (int i = 0; i < capacity; i++) {
+            this.records[i] = new AccessLogRecord();
+            this.spareRecords[i] = new AccessLogRecord();
+        }
+    }
+
+    /**
+     * Returns the capacity of the ring buffer.
+     * 
+     * @return The capacity of the ring buffer.
+     */
+    public int getCapacity() {
+        return this.records.length;
+    }
+
+    /**
+     * Returns the number of records dropped because the ring buffer was full.
+     * 
+     * @return The number of dropped records.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    /**
+     * Returns the log file.
+     * 
+     * @return The log file.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Returns the number of records written to the log file.
+     * 
+     * @return The number of written records.
+     */
+    public long getWrittenCount() {
+        return this.writtenCount.get();
+    }
+
+    /**
+     * Indicates if the logging threads wait when the ring buffer is full.
+     * 
+     * @return True if the logging threads wait when the ring buffer is full.
+     */
+    public boolean isBlocking() {
+        return this.blocking;
+    }
+
+    /**
+     * Indicates if the writer is running.
+     * 
+     * @return True if the writer is running.
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Logs a call by copying its fields into the ring buffer. When the identity
+     * check is enabled, the user identifier is resolved on the calling thread
+     * before the call is queued, so that a slow IDENT peer doesn't stall the
+     * writer thread.
+     * 
+     * @param response
+     *            The response to log.
+     * @param duration
+     *            The call duration (in milliseconds).
+     * @param message
+     *            The preformatted message or null to use the default format.
+     * @param identityCheck
+     *            Indicates if the identity check (as specified by RFC1413) is
+     *            enabled.
+     * @return True if the call was accepted, false if it was dropped.
+     */
+    public boolean log(Response response, int duration, String message,
+            boolean identityCheck) {
+        boolean result = false;
+        String userIdentifier = (message == null) ? AccessLogRecord
+                .getUserIdentifier(response, identityCheck) : null;
+        this.lock.lock();
+
+        try {
+            while (this.blocking && this.running
+                    && (this.count == this.records.length)) {
+                this.notFull.await();
+            }
+
+            if (this.running && (this.count < this.records.length)) {
+                this.records[(this.head + this.count) % this.records.length]
+                        .update(response, duration, message, userIdentifier);
+                this.count++;
+                this.notEmpty.signal();
+                result = true;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (!result) {
+            this.droppedCount.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    /**
+     * Takes the available records by exchanging them with spare ones, waiting
+     * if none is available.
+     * 
+     * @return The number of records taken into the spare array.
+     * @throws InterruptedException
+     */
+    private int take() throws InterruptedException {
+        int result = 0;
+        this.lock.lock();
+
+        try {
+            while (this.running && (this.count == 0)) {
+                this.notEmpty.await();
+            }
+
+            result = this.count;
+
+            for (int i = 0; i < result; i++) {
+                int index = (this.head + i) % this.records.length;
+                AccessLogRecord record = this.records[index];
+                this.records[index] = this.spareRecords[i];
+                this.spareRecords[i] = record;
+            }
+
+            this.head = (this.head + result) % this.records.length;
+            this.count = 0;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Formats and writes the records in batches until the writer is stopped and
+     * the ring buffer is empty.
+     */
+    public void run() {
+        FileChannel channel = null;
+
+        try {
+            channel = new FileOutputStream(this.file, true).getChannel();
+            CharsetEncoder encoder = Charset.forName("UTF-8").newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            Calendar calendar = Calendar.getInstance();
+            String lineSeparator = System.getProperty("line.separator");
+            StringBuilder sb = new StringBuilder(256);
+            int taken = take();
+
+            while (taken > 0) {
+                for (int i = 0; i < taken; i++) {
+                    sb.setLength(0);
+
+                    try {
+                        this.spareRecords[i].format(sb, calendar);
+                    } catch (RuntimeException re) {
+                        this.logger.log(Level.WARNING,
+                                "Unable to format an access log entry", re);
+                    }
+
+                    this.spareRecords[i].clear();
+                    sb.append(lineSeparator);
+                    write(channel, encoder, CharBuffer.wrap(sb), buffer);
+                }
+
+                // Write the end of the batch
+                buffer.flip();
+
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                buffer.clear();
+                this.writtenCount.addAndGet(taken);
+                taken = take();
+            }
+        } catch (InterruptedException ie) {
+            this.logger.fine("Access log writer interrupted");
+        } catch (IOException ioe) {
+            this.logger.log(Level.WARNING, "Unable to write the access log to "
+                    + this.file, ioe);
+        } finally {
+            this.running = false;
+
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ioe) {
+                    this.logger.log(Level.FINE,
+                            "Unable to close the access log", ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public synchronized void start() {
+        if (!this.running) {
+            this.running = true;
+            this.thread = new LoggingThreadFactory(this.logger, true)
+                    .newThread(this);
+            this.thread.setName("Restlet-AccessLogWriter");
+            this.thread.start();
+        }
+    }
+
+    /**
+     * Stops the writer thread after the pending records are written.
+     * 
+     * @throws InterruptedException
+     */
+    public synchronized void stop() throws InterruptedException {
+        Thread writer = this.thread;
+        this.lock.lock();
+
+        try {
+            this.running = false;
+            this.notEmpty.signalAll();
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+
+        if (writer != null) {
+            writer.join();
+            this.thread = null;
+        }
+    }
+
+    /**
+     * Encodes characters into the write buffer, writing it to the channel each
+     * time it is full.
+     * 
+     * @param channel
+     *            The target channel.
+     * @param encoder
+     *            The character encoder.
+     * @param chars
+     *            The characters to write.
+     * @param buffer
+     *            The write buffer.
+     * @throws IOException
+     */
+    private void write(FileChannel channel, CharsetEncoder encoder,
+            CharBuffer chars, ByteBuffer buffer) throws IOException {
+        CoderResult result = encoder.encode(chars, buffer, true);
+
+        while (result.isOverflow()) {
+            buffer.flip();
+
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            buffer.clear();
+            result = encoder.encode(chars, buffer, true);
+        }
+
+        encoder.reset();
+    }
+
+}
@@ -99,15 +99,37 @@ public class LogFilter extends Filter {
      */
     @Override
     protected void afterHandle(Request request, Response response) {
-        if (request.isLoggable() && this.logLogger.isLoggable(Level.INFO)) {
-            long startTime = (Long) request.getAttributes().get(
-                    "org.restlet.startTime");
-            int duration = (int) (System.currentTimeMillis() - startTime);
-            this.logLogger.log(Level.INFO,
-                    this.logService.getResponseLogMessage(response, duration));
+        if (request.isLoggable()) {
+            // [ifndef gae]
+            if (this.logService.getAccessLogWriter() != null) {
+                // Bypass the logger and its synchronized handlers
+                this.logService.logAsynchronously(response,
+                        getDuration(request));
+            } else if (this.logLogger.isLoggable(Level.INFO)) {
+                // [enddef]
+                // [ifdef gae] uncomment
+                // if (this.logLogger.isLoggable(Level.INFO)) {
+                // [enddef]
+                this.logLogger.log(Level.INFO, this.logService
+                        .getResponseLogMessage(response, getDuration(request)));
+            }
         }
     }
 
+    /**
+     * Returns the duration of a call since the start time saved before its
+     * processing.
+     * 
+     * @param request
+     *            The request handled.
+     * @return The call duration (in milliseconds).
+     */
+    private int getDuration(Request request) {
+        long startTime = (Long) request.getAttributes().get(
+                "org.restlet.startTime");
+        return (int) (System.currentTimeMillis() - startTime);
+    }
+
     /**
      * Allows filtering before processing by the next Restlet. Saves the start
      * time.
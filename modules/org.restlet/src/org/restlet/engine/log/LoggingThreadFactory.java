@@ -37,8 +37,12 @@ import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.restlet.engine.util.SystemUtils;
+
 /**
  * Thread factory that logs uncaught exceptions thrown by the created threads.
+ * Can optionally create virtual threads when supported by the JVM, in which
+ * case the daemon setting is ignored as virtual threads are always daemons.
  * 
  * @author Jerome Louvel
  */
@@ -62,6 +66,9 @@ public class LoggingThreadFactory implements ThreadFactory {
     /** Indicates if threads should be created as daemons. */
     private final boolean daemon;
 
+    /** The JVM factory of virtual threads or null. */
+    private final ThreadFactory virtualThreadFactory;
+
     /**
      * Constructor.
      * 
@@ -81,8 +88,34 @@ public class LoggingThreadFactory implements ThreadFactory {
      *            Indicates if threads should be created as daemons.
      */
     public LoggingThreadFactory(Logger logger, boolean daemon) {
+        this(logger, daemon, false);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param logger
+     *            The associated logger.
+     * @param daemon
+     *            Indicates if threads should be created as daemons.
+     * @param virtual
+     *            Indicates if virtual threads should be created if supported
+     *            by the JVM.
+     */
+    public LoggingThreadFactory(Logger logger, boolean daemon, boolean virtual) {
         this.logger = logger;
         this.daemon = daemon;
+        this.virtualThreadFactory = virtual ? SystemUtils
+                .createVirtualThreadFactory() : null;
+    }
+
+    /**
+     * Indicates if virtual threads are created.
+     * 
+     * @return True if virtual threads are created.
+     */
+    public boolean isVirtual() {
+        return this.virtualThreadFactory != null;
     }
 
     /**
@@ -92,10 +125,17 @@ public class LoggingThreadFactory implements ThreadFactory {
      *            The runnable task.
      */
     public Thread newThread(Runnable r) {
-        Thread result = new Thread(r);
+        Thread result;
+
+        if (isVirtual()) {
+            result = this.virtualThreadFactory.newThread(r);
+        } else {
+            result = new Thread(r);
+            result.setDaemon(this.daemon);
+        }
+
         result.setName("Restlet-" + result.hashCode());
         result.setUncaughtExceptionHandler(new LoggingExceptionHandler());
-        result.setDaemon(this.daemon);
         return result;
     }
 }
@@ -35,6 +35,7 @@ package org.restlet.engine.resource;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -158,12 +159,18 @@ public class AnnotationInfo {
     /** The input part of the annotation value. */
     private final String input;
 
+    /** The cached input types of the Java method. */
+    private volatile Class<?>[] javaInputTypes;
+
     /** The annotated Java method. */
     private final java.lang.reflect.Method javaMethod;
 
     /** The upper implementation of the annotated Java method. */
     private final java.lang.reflect.Method javaMethodImpl;
 
+    /** The cached output type of the Java method. */
+    private volatile Class<?> javaOutputType;
+
     /** The output part of the annotation value. */
     private final String output;
 
@@ -207,6 +214,17 @@ public class AnnotationInfo {
             this.javaMethodImpl = javaMethod;
         }
 
+        // Skip the access checks of each invocation for public methods
+        if (Modifier.isPublic(javaMethod.getModifiers())
+                && Modifier.isPublic(javaMethod.getDeclaringClass()
+                        .getModifiers())) {
+            try {
+                javaMethod.setAccessible(true);
+            } catch (SecurityException e) {
+                // Keep the access checks
+            }
+        }
+
         // Parse the main components of the annotation value
         if ((value != null) && !value.equals("")) {
             int queryIndex = value.indexOf('?');
@@ -346,19 +364,26 @@ public class AnnotationInfo {
     }
 
     /**
-     * Returns the input types of the Java method.
+     * Returns the input types of the Java method. The resolved types are
+     * cached and shared, so the returned array must not be modified.
      * 
      * @return The input types of the Java method.
      */
     public Class<?>[] getJavaInputTypes() {
-        int count = getJavaMethod().getParameterTypes().length;
-        Class<?>[] classes = new Class[count];
+        Class<?>[] result = this.javaInputTypes;
+
+        if (result == null) {
+            int count = getJavaMethod().getParameterTypes().length;
+            result = new Class[count];
 
-        for (int i = 0; i < count; i++) {
-            classes[i] = getJavaInputType(i);
+            for (int i = 0; i < count; i++) {
+                result[i] = getJavaInputType(i);
+            }
+
+            this.javaInputTypes = result;
         }
 
-        return classes;
+        return result;
     }
 
     /**
@@ -376,8 +401,15 @@ public class AnnotationInfo {
      * @return The output type of the Java method.
      */
     public Class<?> getJavaOutputType() {
-        return getJavaActualType(javaMethodImpl.getReturnType(),
-                javaMethodImpl.getGenericReturnType());
+        Class<?> result = this.javaOutputType;
+
+        if (result == null) {
+            result = getJavaActualType(javaMethodImpl.getReturnType(),
+                    javaMethodImpl.getGenericReturnType());
+            this.javaOutputType = result;
+        }
+
+        return result;
     }
 
     /**
@@ -34,6 +34,7 @@
 package org.restlet.engine.resource;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -53,9 +54,88 @@ import org.restlet.service.MetadataService;
  */
 public class AnnotationUtils {
 
+    /**
+     * Key of a cached dispatch plan. The services are compared by identity,
+     * along with the number of changes made to the metadata mappings.
+     */
+    private static class PlanKey {
+
+        /** The resource class. */
+        private final Class<?> clazz;
+
+        /** The converter service. */
+        private final org.restlet.service.ConverterService converterService;
+
+        /** The number of changes made to the metadata mappings. */
+        private final int metadataChanges;
+
+        /** The metadata service. */
+        private final MetadataService metadataService;
+
+        /** The Restlet method. */
+        private final Method method;
+
+        /**
+         * Constructor.
+         * 
+         * @param clazz
+         *            The resource class.
+         * @param method
+         *            The Restlet method.
+         * @param metadataService
+         *            The metadata service.
+         * @param converterService
+         *            The converter service.
+         */
+        public PlanKey(Class<?> clazz, Method method,
+                MetadataService metadataService,
+                org.restlet.service.ConverterService converterService) {
+            this.clazz = clazz;
+            this.converterService = converterService;
+            this.metadataChanges = metadataService.getModificationCount();
+            this.metadataService = metadataService;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            boolean result = (object instanceof PlanKey);
+
+            if (result) {
+                PlanKey key = (PlanKey) object;
+                result = (this.clazz == key.clazz)
+                        && this.method.equals(key.method)
+                        && (this.metadataService == key.metadataService)
+                        && (this.metadataChanges == key.metadataChanges)
+                        && (this.converterService == key.converterService);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * this.clazz.hashCode()) + this.method.hashCode()
+                    + System.identityHashCode(this.metadataService)
+                    + this.metadataChanges
+                    + System.identityHashCode(this.converterService);
+        }
+    }
+
+    /** The maximum number of cached dispatch plans. */
+    private static final int MAX_PLANS = 1000;
+
     /** Annotation info cache. */
     private final ConcurrentMap<Class<?>, List<AnnotationInfo>> cache = new ConcurrentHashMap<Class<?>, List<AnnotationInfo>>();
 
+    /** The registered converters when the dispatch plans were computed. */
+    private volatile List<org.restlet.engine.converter.ConverterHelper> converters = new ArrayList<org.restlet.engine.converter.ConverterHelper>();
+
+    /**
+     * Dispatch plans cache, by resource class, Restlet method and services.
+     */
+    private final ConcurrentMap<PlanKey, DispatchPlan> plans = new ConcurrentHashMap<PlanKey, DispatchPlan>();
+
     /** Current instance. */
     private static AnnotationUtils instance = new AnnotationUtils();
 
@@ -176,10 +256,11 @@ public class AnnotationUtils {
     }
 
     /**
-     * Clears the annotation descriptors cache.
+     * Clears the annotation descriptors and dispatch plans caches.
      */
     public void clearCache() {
         cache.clear();
+        plans.clear();
     }
 
     /**
@@ -276,6 +357,56 @@ public class AnnotationUtils {
         return addAnnotationDescriptors(null, clazz, clazz, javaMethod);
     }
 
+    /**
+     * Returns the dispatch plan of the given resource class for a Restlet
+     * method. Plans are cached by class, method and services, so that
+     * applications sharing a resource class keep their own plans. As the
+     * variants of the plans depend on the metadata mappings, the keys also
+     * include the number of changes made to those mappings. The cache is
+     * cleared when the registered converters change, or when it reaches its
+     * maximum size as the services of stopped applications or outdated plans
+     * could otherwise be retained.
+     * 
+     * @param clazz
+     *            The resource class.
+     * @param restletMethod
+     *            The Restlet method.
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     * @return The dispatch plan.
+     */
+    public DispatchPlan getDispatchPlan(Class<?> clazz, Method restletMethod,
+            MetadataService metadataService,
+            org.restlet.service.ConverterService converterService) {
+        List<org.restlet.engine.converter.ConverterHelper> registered = org.restlet.engine.Engine
+                .getInstance().getRegisteredConverters();
+
+        if (!this.converters.equals(registered)) {
+            // The variants of the plans may depend on the converters
+            this.plans.clear();
+            this.converters = new ArrayList<org.restlet.engine.converter.ConverterHelper>(
+                    registered);
+        }
+
+        PlanKey key = new PlanKey(clazz, restletMethod, metadataService,
+                converterService);
+        DispatchPlan result = this.plans.get(key);
+
+        if (result == null) {
+            if (this.plans.size() >= MAX_PLANS) {
+                this.plans.clear();
+            }
+
+            result = new DispatchPlan(getAnnotations(clazz), restletMethod,
+                    metadataService, converterService);
+            this.plans.put(key, result);
+        }
+
+        return result;
+    }
+
     /**
      * Returns an instance of {@link Method} according to the given annotations.
      * 
@@ -0,0 +1,314 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.restlet.data.Form;
+import org.restlet.data.MediaType;
+import org.restlet.data.Method;
+import org.restlet.data.Parameter;
+import org.restlet.representation.Representation;
+import org.restlet.representation.Variant;
+import org.restlet.service.ConverterService;
+import org.restlet.service.MetadataService;
+
+// [excludes gwt]
+/**
+ * Immutable dispatch plan of an annotated resource class for a given Restlet
+ * method. It holds the compatible annotation descriptors, in declaration order,
+ * with their query constraints, request variants and response variants
+ * computed once for a given pair of metadata and converter services. Only the
+ * checks depending on the actual query and request entity are left for each
+ * call.
+ * 
+ * @author agent
+ */
+public class DispatchPlan {
+
+    /**
+     * Candidate annotation descriptor with its precomputed metadata.
+     */
+    public static class Candidate {
+
+        /** The annotation descriptor. */
+        private final AnnotationInfo annotationInfo;
+
+        /** The media types accepted as input. */
+        private final List<MediaType> inputMediaTypes;
+
+        /** The parameters required in the query. */
+        private final List<Parameter> queryParameters;
+
+        /** The request variants. */
+        private final List<Variant> requestVariants;
+
+        /** The response variants. */
+        private final List<Variant> responseVariants;
+
+        /**
+         * Constructor.
+         * 
+         * @param annotationInfo
+         *            The annotation descriptor.
+         * @param metadataService
+         *            The metadata service to use.
+         * @param converterService
+         *            The converter service to use.
+         */
+        private Candidate(AnnotationInfo annotationInfo,
+                MetadataService metadataService,
+                ConverterService converterService) {
+            this.annotationInfo = annotationInfo;
+            this.inputMediaTypes = unmodifiable(metadataService
+                    .getAllMediaTypes(annotationInfo.getInput()));
+            this.queryParameters = (annotationInfo.getQuery() == null) ? null
+                    : unmodifiable(new ArrayList<Parameter>(new Form(
+                            annotationInfo.getQuery())));
+            this.requestVariants = unmodifiable(annotationInfo
+                    .getRequestVariants(metadataService, converterService));
+            this.responseVariants = unmodifiable(annotationInfo
+                    .getResponseVariants(metadataService, converterService));
+        }
+
+        /**
+         * Returns the annotation descriptor.
+         * 
+         * @return The annotation descriptor.
+         */
+        public AnnotationInfo getAnnotationInfo() {
+            return annotationInfo;
+        }
+
+        /**
+         * Returns an affinity score between the annotation input and the given
+         * request entity.
+         * 
+         * @param entity
+         *            The request entity or null.
+         * @return The affinity score.
+         */
+        public float getInputScore(Representation entity) {
+            float result = 0.5f;
+
+            if ((entity != null) && entity.isAvailable()
+                    && (this.inputMediaTypes != null)) {
+                MediaType emt = entity.getMediaType();
+
+                for (MediaType amt : this.inputMediaTypes) {
+                    if (amt.equals(emt)) {
+                        result = 1.0f;
+                    } else if (amt.includes(emt)) {
+                        result = Math.max(0.8f, result);
+                    } else if (amt.isCompatible(emt)) {
+                        result = Math.max(0.6f, result);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Returns the unmodifiable list of response variants or null if the
+         * annotated method doesn't return a value.
+         * 
+         * @return The unmodifiable list of response variants.
+         */
+        public List<Variant> getResponseVariants() {
+            return responseVariants;
+        }
+
+        /**
+         * Indicates if the annotated method is compatible with the given query
+         * and request entity.
+         * 
+         * @param query
+         *            The query parameters.
+         * @param entity
+         *            The request entity or null.
+         * @return True if the annotated method is compatible.
+         */
+        public boolean isCompatible(Form query, Representation entity) {
+            boolean result = true;
+
+            // Verify query parameters, rejecting missing names through the
+            // index of the query if available
+            if (this.queryParameters != null) {
+                for (int i = 0; result && (i < this.queryParameters.size()); i++) {
+                    Parameter param = this.queryParameters.get(i);
+                    result = (query.getFirst(param.getName()) != null)
+                            && query.contains(param);
+                }
+            }
+
+            // Verify request entity
+            if (result && (entity != null) && entity.isAvailable()) {
+                result = false;
+
+                if (this.requestVariants != null) {
+                    for (int i = 0; !result
+                            && (i < this.requestVariants.size()); i++) {
+                        result = this.requestVariants.get(i).isCompatible(
+                                entity);
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Returns an unmodifiable copy of a list or null.
+     * 
+     * @param list
+     *            The list to copy or null.
+     * @return The unmodifiable copy or null.
+     */
+    private static <T> List<T> unmodifiable(List<? extends T> list) {
+        return (list == null) ? null : Collections
+                .unmodifiableList(new ArrayList<T>(list));
+    }
+
+    /** The candidate annotation descriptors. */
+    private final List<Candidate> candidates;
+
+    /** The converter service used to compute the plan. */
+    private final ConverterService converterService;
+
+    /** The metadata service used to compute the plan. */
+    private final MetadataService metadataService;
+
+    /** The Restlet method. */
+    private final Method method;
+
+    /**
+     * Constructor.
+     * 
+     * @param annotations
+     *            The annotation descriptors of the resource class.
+     * @param method
+     *            The Restlet method.
+     * @param metadataService
+     *            The metadata service to use.
+     * @param converterService
+     *            The converter service to use.
+     */
+    public DispatchPlan(List<AnnotationInfo> annotations, Method method,
+            MetadataService metadataService, ConverterService converterService) {
+        List<Candidate> list = new ArrayList<Candidate>();
+
+        if (annotations != null) {
+            for (AnnotationInfo annotationInfo : annotations) {
+                if (method.equals(annotationInfo.getRestletMethod())) {
+                    list.add(new Candidate(annotationInfo, metadataService,
+                            converterService));
+                }
+            }
+        }
+
+        this.candidates = Collections.unmodifiableList(list);
+        this.converterService = converterService;
+        this.metadataService = metadataService;
+        this.method = method;
+    }
+
+    /**
+     * Returns the first annotation descriptor compatible with the given query
+     * and request entity.
+     * 
+     * @param query
+     *            The query parameters.
+     * @param entity
+     *            The request entity or null.
+     * @return The annotation descriptor or null.
+     */
+    public AnnotationInfo getAnnotation(Form query, Representation entity) {
+        AnnotationInfo result = null;
+
+        for (int i = 0; (result == null) && (i < this.candidates.size()); i++) {
+            if (this.candidates.get(i).isCompatible(query, entity)) {
+                result = this.candidates.get(i).getAnnotationInfo();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the unmodifiable list of candidate annotation descriptors.
+     * 
+     * @return The unmodifiable list of candidate annotation descriptors.
+     */
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns the Restlet method.
+     * 
+     * @return The Restlet method.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Indicates if the plan was computed with the given services.
+     * 
+     * @param metadataService
+     *            The metadata service.
+     * @param converterService
+     *            The converter service.
+     * @return True if the plan was computed with the given services.
+     */
+    public boolean isComputedWith(MetadataService metadataService,
+            ConverterService converterService) {
+        return (this.metadataService == metadataService)
+                && (this.converterService == converterService);
+    }
+
+    /**
+     * Indicates if the plan has no candidate annotation descriptor.
+     * 
+     * @return True if the plan has no candidate annotation descriptor.
+     */
+    public boolean isEmpty() {
+        return this.candidates.isEmpty();
+    }
+
+}
@@ -50,7 +50,9 @@ import org.restlet.representation.Representation;
 import org.restlet.util.Series;
 
 /**
- * Form reader.
+ * Form reader. The parameters are read one at a time from the underlying
+ * stream, so that large forms can be processed with
+ * {@link #readNextParameter()} without buffering the whole entity.
  * 
  * @author Jerome Louvel
  */
@@ -61,12 +63,18 @@ public class FormReader {
     /** Indicates if the parameters should be decoded. */
     private volatile boolean decode;
 
+    /** The buffer of the parameter name being read. */
+    private final StringBuilder nameBuffer;
+
     /** The separator character used between parameters. */
     private volatile char separator;
 
     /** The form stream. */
     private volatile InputStream stream;
 
+    /** The buffer of the parameter value being read. */
+    private final StringBuilder valueBuffer;
+
     /**
      * Constructor.<br>
      * In case the representation does not define a character set, the UTF-8
@@ -97,8 +105,18 @@ public class FormReader {
     public FormReader(Representation representation, boolean decode)
             throws IOException {
         this.decode = decode;
+        this.nameBuffer = new StringBuilder();
         this.stream = representation.getStream();
         this.separator = '&';
+        this.valueBuffer = new StringBuilder();
+
+        // [ifndef gwt]
+        if ((this.stream != null)
+                && !(this.stream instanceof java.io.BufferedInputStream)) {
+            // Avoids reading large entities byte by byte from the connector
+            this.stream = new java.io.BufferedInputStream(this.stream);
+        }
+        // [enddef]
 
         if (representation.getCharacterSet() != null) {
             this.characterSet = representation.getCharacterSet();
@@ -152,6 +170,8 @@ public class FormReader {
     public FormReader(String parametersString, CharacterSet characterSet,
             char separator, boolean decode) {
         this.decode = decode;
+        this.nameBuffer = new StringBuilder();
+        this.valueBuffer = new StringBuilder();
         // [ifndef gwt] instruction
         this.stream = new ByteArrayInputStream(parametersString.getBytes());
         // [ifdef gwt] instruction uncomment
@@ -268,8 +288,10 @@ public class FormReader {
             try {
                 boolean readingName = true;
                 boolean readingValue = false;
-                StringBuilder nameBuffer = new StringBuilder();
-                StringBuilder valueBuffer = new StringBuilder();
+                StringBuilder nameBuffer = this.nameBuffer;
+                StringBuilder valueBuffer = this.valueBuffer;
+                nameBuffer.setLength(0);
+                valueBuffer.setLength(0);
                 int nextChar = 0;
 
                 while ((result == null) && (nextChar != -1)) {
@@ -0,0 +1,270 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.restlet.engine.header.Header;
+import org.restlet.util.Series;
+
+/**
+ * Header series indexed by lower-case name. The insertion order is kept by the
+ * underlying list while the index, lazily built on the first lookup and
+ * rebuilt after each modification of the list, turns the name based lookups
+ * into constant time operations. Note that renaming a header already contained
+ * in the series isn't detected by the index.<br>
+ * <br>
+ * Concurrency note: the index is rebuilt into a new snapshot that is then
+ * atomically published, so several threads can read the series at the same
+ * time. As with the underlying list, modifications must not happen
+ * concurrently with other calls.
+ * 
+ * @author agent
+ */
+public class HeaderSeries extends Series<Header> {
+
+    /**
+     * Immutable snapshot of the index.
+     */
+    private static class Index {
+
+        /** The headers by lower-case name. */
+        private final Map<String, List<Header>> headers;
+
+        /** The modification count of the list when the index was built. */
+        private final int modCount;
+
+        /**
+         * Constructor.
+         * 
+         * @param headers
+         *            The headers by lower-case name.
+         * @param modCount
+         *            The modification count of the list when the index was
+         *            built.
+         */
+        public Index(Map<String, List<Header>> headers, int modCount) {
+            this.headers = headers;
+            this.modCount = modCount;
+        }
+    }
+
+    /** The minimum size above which the series is indexed. */
+    private static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Returns the key of a name in the index.
+     * 
+     * @param name
+     *            The header name.
+     * @return The index key.
+     */
+    private static String getKey(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    /** The last snapshot of the index or null. */
+    private volatile Index index;
+
+    /**
+     * Constructor.
+     */
+    public HeaderSeries() {
+        this(10);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param initialCapacity
+     *            The initial list capacity.
+     */
+    public HeaderSeries(int initialCapacity) {
+        super(Header.class, new IndexedList<Header>(initialCapacity));
+        this.index = null;
+    }
+
+    @Override
+    public Header createEntry(String name, String value) {
+        return new Header(name, value);
+    }
+
+    @Override
+    public Header getFirst(String name, boolean ignoreCase) {
+        Header result = null;
+        List<Header> headers = getIndexed(name);
+
+        if (headers == null) {
+            result = super.getFirst(name, ignoreCase);
+        } else {
+            for (int i = 0; (result == null) && (i < headers.size()); i++) {
+                if (matches(headers.get(i), name, ignoreCase)) {
+                    result = headers.get(i);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the indexed headers with the given name, ignoring the case, or
+     * null if the series isn't indexed.
+     * 
+     * @param name
+     *            The header name.
+     * @return The indexed headers, an empty list if none matches or null if
+     *         the series isn't indexed.
+     */
+    private List<Header> getIndexed(String name) {
+        List<Header> result = null;
+
+        if ((name != null) && (size() > INDEX_THRESHOLD)) {
+            int modCount = ((IndexedList<Header>) getDelegate()).getModCount();
+            Index current = this.index;
+
+            if ((current == null) || (current.modCount != modCount)) {
+                Map<String, List<Header>> map = new HashMap<String, List<Header>>();
+
+                for (Header header : getDelegate()) {
+                    if (header.getName() != null) {
+                        String key = getKey(header.getName());
+                        List<Header> headers = map.get(key);
+
+                        if (headers == null) {
+                            headers = new ArrayList<Header>(1);
+                            map.put(key, headers);
+                        }
+
+                        headers.add(header);
+                    }
+                }
+
+                current = new Index(map, modCount);
+                this.index = current;
+            }
+
+            result = current.headers.get(getKey(name));
+
+            if (result == null) {
+                result = Collections.emptyList();
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String getValues(String name, String separator, boolean ignoreCase) {
+        String result = null;
+        List<Header> headers = getIndexed(name);
+
+        if (headers == null) {
+            result = super.getValues(name, separator, ignoreCase);
+        } else {
+            StringBuilder sb = null;
+
+            for (Header header : headers) {
+                if (matches(header, name, ignoreCase)) {
+                    if (sb == null) {
+                        if (result == null) {
+                            result = header.getValue();
+                        } else {
+                            sb = new StringBuilder();
+                            sb.append(result).append(separator)
+                                    .append(header.getValue());
+                        }
+                    } else {
+                        sb.append(separator).append(header.getValue());
+                    }
+                }
+            }
+
+            if (sb != null) {
+                result = sb.toString();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if the name of an indexed header matches the given one.
+     * 
+     * @param header
+     *            The indexed header.
+     * @param name
+     *            The header name.
+     * @param ignoreCase
+     *            Indicates if the name comparison is case insensitive.
+     * @return True if the header name matches.
+     */
+    private boolean matches(Header header, String name, boolean ignoreCase) {
+        return ignoreCase ? name.equalsIgnoreCase(header.getName()) : name
+                .equals(header.getName());
+    }
+
+    @Override
+    public boolean removeAll(String name, boolean ignoreCase) {
+        List<Header> headers = getIndexed(name);
+        return ((headers != null) && headers.isEmpty()) ? false : super
+                .removeAll(name, ignoreCase);
+    }
+
+    @Override
+    public Series<Header> subList(String name, boolean ignoreCase) {
+        Series<Header> result = null;
+        List<Header> headers = getIndexed(name);
+
+        if (headers == null) {
+            result = super.subList(name, ignoreCase);
+        } else {
+            result = new HeaderSeries(headers.size());
+
+            for (Header header : headers) {
+                if (matches(header, name, ignoreCase)) {
+                    result.add(header);
+                }
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.restlet.data.CharacterSet;
+import org.restlet.data.Form;
+import org.restlet.data.Parameter;
+
+/**
+ * Form lazily indexing its parameters by name. The index is built on the first
+ * case sensitive lookup and rebuilt after each modification of the form, so
+ * that reading many parameters of the same form, such as a query, doesn't scan
+ * it again for each one.<br>
+ * <br>
+ * Note that only structural modifications of the form, such as adding or
+ * removing parameters, are detected. Renaming a contained parameter with
+ * {@link Parameter#setName(String)} leaves the index stale, so such forms
+ * should be replaced or copied instead.<br>
+ * <br>
+ * Concurrency note: the index is rebuilt into a new snapshot that is then
+ * atomically published, so several threads can read the form at the same
+ * time. As with the underlying list, modifications must not happen
+ * concurrently with other calls.
+ * 
+ * @author agent
+ */
+public class IndexedForm extends Form {
+
+    /**
+     * Immutable snapshot of the index.
+     */
+    private static class Index {
+
+        /** The modification count of the list when the index was built. */
+        private final int modCount;
+
+        /** The first parameter of each name. */
+        private final Map<String, Parameter> parameters;
+
+        /**
+         * Constructor.
+         * 
+         * @param parameters
+         *            The first parameter of each name.
+         * @param modCount
+         *            The modification count of the list when the index was
+         *            built.
+         */
+        public Index(Map<String, Parameter> parameters, int modCount) {
+            this.parameters = parameters;
+            this.modCount = modCount;
+        }
+    }
+
+    /** The last snapshot of the index or null. */
+    private volatile Index index;
+
+    /**
+     * Constructor.
+     */
+    public IndexedForm() {
+        super(new IndexedList<Parameter>(10));
+        this.index = null;
+    }
+
+    /**
+     * Constructor. Uses UTF-8 as the character set for decoding the parameters.
+     * 
+     * @param queryString
+     *            The Web form parameters as a string.
+     */
+    public IndexedForm(String queryString) {
+        this();
+        FormUtils.parse(this, queryString, CharacterSet.UTF_8, true, '&');
+    }
+
+    @Override
+    public Parameter getFirst(String name, boolean ignoreCase) {
+        Parameter result = null;
+
+        if (ignoreCase || (name == null)) {
+            result = super.getFirst(name, ignoreCase);
+        } else {
+            int modCount = ((IndexedList<Parameter>) getDelegate())
+                    .getModCount();
+            Index current = this.index;
+
+            if ((current == null) || (current.modCount != modCount)) {
+                Map<String, Parameter> map = new HashMap<String, Parameter>();
+
+                for (Parameter param : getDelegate()) {
+                    if ((param.getName() != null)
+                            && !map.containsKey(param.getName())) {
+                        map.put(param.getName(), param);
+                    }
+                }
+
+                current = new Index(map, modCount);
+                this.index = current;
+            }
+
+            result = current.parameters.get(name);
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.engine.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded cache of immutable values parsed from strings. Repeated parsing of
+ * the same string can then return a shared instance instead of a new one. The
+ * cache is concurrent and lock-free for lookups. When its maximum size is
+ * reached, it is simply cleared before accepting the new value, so that
+ * unusual strings, such as those sent by a malicious client, can't make it
+ * grow indefinitely while the frequent values are quickly interned again.
+ * 
+ * @author agent
+ * 
+ * @param <V>
+ *            The type of the interned values, which must be immutable.
+ */
+public class InternCache<V> {
+
+    /** The maximum number of interned values. */
+    private final int maxSize;
+
+    /** The interned values by source string. */
+    private final ConcurrentMap<String, V> values;
+
+    /**
+     * Constructor.
+     * 
+     * @param maxSize
+     *            The maximum number of interned values.
+     */
+    public InternCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.values = new ConcurrentHashMap<String, V>();
+    }
+
+    /**
+     * Removes all the interned values.
+     */
+    public void clear() {
+        this.values.clear();
+    }
+
+    /**
+     * Returns the value interned for a given string.
+     * 
+     * @param key
+     *            The source string.
+     * @return The interned value or null.
+     */
+    public V get(String key) {
+        return (key == null) ? null : this.values.get(key);
+    }
+
+    /**
+     * Returns the maximum number of interned values.
+     * 
+     * @return The maximum number of interned values.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Interns a value parsed from a given string. If another value was
+     * concurrently interned for the same string, it is returned instead.
+     * 
+     * @param key
+     *            The source string.
+     * @param value
+     *            The value parsed from the string.
+     * @return The shared value.
+     */
+    public V intern(String key, V value) {
+        V result = value;
+
+        if ((key != null) && (value != null)) {
+            if (this.values.size() >= getMaxSize()) {
+                this.values.clear();
+            }
+
+            V current = this.values.putIfAbsent(key, value);
+
+            if (current != null) {
+                result = current;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of interned values.
+     * 
+     * @return The number of interned values.
+     */
+    public int size() {
+        return this.values.size();
+    }
+
+}
@@ -35,9 +35,15 @@ package org.restlet.engine.util;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Generic object pool.
+ * Generic object pool. The store of reusable objects is a lock-free queue by
+ * default. The number of retained objects can be bounded, in which case the
+ * objects checked in while the pool is full are released. The objects that
+ * stayed unused between two calls to {@link #trim(int)} can be released too.
+ * Statistics about hits and misses are maintained.
  * 
  * @author Jerome Louvel
  * 
@@ -45,6 +51,21 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  */
 public abstract class Pool<T> {
 
+    /** The number of checkouts served by a pooled object. */
+    private final AtomicLong hits;
+
+    /** The maximum number of objects retained or -1 if unbounded. */
+    private volatile int maxSize;
+
+    /** The lowest number of stored objects since the last trimming. */
+    private final AtomicInteger minIdleSize;
+
+    /** The number of checkouts requiring a new object. */
+    private final AtomicLong misses;
+
+    /** The number of objects in the store. */
+    private final AtomicInteger size;
+
     /** Store of reusable objects. */
     private final Queue<T> store;
 
@@ -52,6 +73,11 @@ public abstract class Pool<T> {
      * Default constructor.
      */
     public Pool() {
+        this.hits = new AtomicLong();
+        this.maxSize = -1;
+        this.minIdleSize = new AtomicInteger();
+        this.misses = new AtomicLong();
+        this.size = new AtomicInteger();
         this.store = createStore();
     }
 
@@ -68,7 +94,23 @@ public abstract class Pool<T> {
     }
 
     /**
-     * Checks in an object into the pool.
+     * Constructor. Pre-creates the minimum number of objects if needed using
+     * the {@link #preCreate(int)} method.
+     * 
+     * @param initialSize
+     *            The initial number of objects in the pool.
+     * @param maxSize
+     *            The maximum number of objects retained or -1 if unbounded.
+     */
+    public Pool(int initialSize, int maxSize) {
+        this();
+        this.maxSize = maxSize;
+        preCreate(initialSize);
+    }
+
+    /**
+     * Checks in an object into the pool. The object is released if the pool is
+     * already full.
      * 
      * @param object
      *            The object to check in.
@@ -76,7 +118,19 @@ public abstract class Pool<T> {
     public void checkin(T object) {
         if (object != null) {
             clear(object);
-            this.store.offer(object);
+            int max = getMaxSize();
+
+            if ((max >= 0) && (this.size.incrementAndGet() > max)) {
+                // The pool is full, drop the object
+                this.size.decrementAndGet();
+                release(object);
+            } else {
+                if (max < 0) {
+                    this.size.incrementAndGet();
+                }
+
+                this.store.offer(object);
+            }
         }
     }
 
@@ -90,17 +144,35 @@ public abstract class Pool<T> {
         T result;
 
         if ((result = this.store.poll()) == null) {
+            this.misses.incrementAndGet();
             result = createObject();
+        } else {
+            this.hits.incrementAndGet();
+            int current = this.size.decrementAndGet();
+            int min = this.minIdleSize.get();
+
+            // Lower the idle size mark
+            while ((current < min)
+                    && !this.minIdleSize.compareAndSet(min, current)) {
+                min = this.minIdleSize.get();
+            }
         }
 
         return result;
     }
 
     /**
-     * Clears the store of reusable objects.
+     * Clears the store of reusable objects, releasing them.
      */
     public void clear() {
-        getStore().clear();
+        T object;
+
+        while ((object = getStore().poll()) != null) {
+            release(object);
+        }
+
+        this.size.set(0);
+        this.minIdleSize.set(0);
     }
 
     /**
@@ -130,6 +202,42 @@ public abstract class Pool<T> {
         return new ConcurrentLinkedQueue<T>();
     }
 
+    /**
+     * Returns the number of checkouts served by a pooled object.
+     * 
+     * @return The number of checkouts served by a pooled object.
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the maximum number of objects retained or -1 if unbounded.
+     * 
+     * @return The maximum number of objects retained or -1 if unbounded.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of checkouts requiring a new object.
+     * 
+     * @return The number of checkouts requiring a new object.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the number of objects available in the pool.
+     * 
+     * @return The number of objects available in the pool.
+     */
+    public int getSize() {
+        return this.size.get();
+    }
+
     /**
      * Returns the store containing the reusable objects.
      * 
@@ -152,4 +260,58 @@ public abstract class Pool<T> {
         }
     }
 
+    /**
+     * Releases an object dropped from the pool. Does nothing by default.
+     * 
+     * @param object
+     *            The object to release.
+     */
+    protected void release(T object) {
+
+    }
+
+    /**
+     * Sets the maximum number of objects retained or -1 if unbounded.
+     * 
+     * @param maxSize
+     *            The maximum number of objects retained or -1 if unbounded.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + getSize() + " objects, "
+                + getHits() + " hits, " + getMisses() + " misses";
+    }
+
+    /**
+     * Releases the objects that stayed unused in the pool since the previous
+     * call, keeping a minimum number of objects. Typically invoked
+     * periodically.
+     * 
+     * @param minSize
+     *            The minimum number of objects to keep.
+     * @return The number of objects released.
+     */
+    public int trim(int minSize) {
+        int result = 0;
+        int idle = this.minIdleSize.getAndSet(this.size.get());
+        T object;
+
+        while ((result < idle) && (this.size.get() > minSize)
+                && ((object = this.store.poll()) != null)) {
+            this.size.decrementAndGet();
+            release(object);
+            result++;
+        }
+
+        if (result > 0) {
+            this.minIdleSize.addAndGet(-result);
+        }
+
+        return result;
+    }
+
 }
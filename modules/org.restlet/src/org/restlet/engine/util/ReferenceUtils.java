@@ -33,7 +33,10 @@
 
 package org.restlet.engine.util;
 
+import java.io.UnsupportedEncodingException;
+
 import org.restlet.Request;
+import org.restlet.data.CharacterSet;
 import org.restlet.data.Reference;
 import org.restlet.engine.security.AuthenticatorUtils;
 
@@ -44,6 +47,194 @@ import org.restlet.engine.security.AuthenticatorUtils;
  */
 public class ReferenceUtils {
 
+    /** The upper-case hexadecimal digits. */
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Decodes a given string using the standard URI encoding mechanism, like
+     * {@link java.net.URLDecoder}. The '+' characters are decoded as spaces.
+     * The string is returned unchanged if it doesn't contain any escape
+     * sequence, otherwise the UTF-8 sequences are directly decoded.
+     * 
+     * @param toDecode
+     *            The string to decode.
+     * @param characterSet
+     *            The character set.
+     * @return The decoded string.
+     * @throws UnsupportedEncodingException
+     * @throws IllegalArgumentException
+     *             If an escape sequence is malformed.
+     */
+    public static String decode(String toDecode, CharacterSet characterSet)
+            throws UnsupportedEncodingException {
+        String result = toDecode;
+        int length = (toDecode == null) ? 0 : toDecode.length();
+        int start = 0;
+
+        while ((start < length) && (toDecode.charAt(start) != '%')
+                && (toDecode.charAt(start) != '+')) {
+            start++;
+        }
+
+        if (start < length) {
+            if (CharacterSet.UTF_8.equals(characterSet)) {
+                StringBuilder sb = new StringBuilder(length);
+                sb.append(toDecode, 0, start);
+                byte[] bytes = null;
+                char c;
+
+                for (int i = start; i < length;) {
+                    c = toDecode.charAt(i);
+
+                    if (c == '+') {
+                        sb.append(' ');
+                        i++;
+                    } else if (c == '%') {
+                        // Decode the sequence of consecutive escaped bytes
+                        if (bytes == null) {
+                            bytes = new byte[(length - i) / 3];
+                        }
+
+                        int count = 0;
+
+                        while ((i < length) && (toDecode.charAt(i) == '%')) {
+                            if (i + 2 >= length) {
+                                throw new IllegalArgumentException(
+                                        "Incomplete trailing escape (%) pattern");
+                            }
+
+                            int high = Character.digit(toDecode.charAt(i + 1),
+                                    16);
+                            int low = Character.digit(toDecode.charAt(i + 2),
+                                    16);
+
+                            if ((high == -1) || (low == -1)) {
+                                throw new IllegalArgumentException(
+                                        "Illegal hex characters in escape (%) pattern");
+                            }
+
+                            bytes[count++] = (byte) ((high << 4) + low);
+                            i += 3;
+                        }
+
+                        sb.append(new String(bytes, 0, count, "UTF-8"));
+                    } else {
+                        sb.append(c);
+                        i++;
+                    }
+                }
+
+                result = sb.toString();
+            } else {
+                result = java.net.URLDecoder.decode(toDecode,
+                        characterSet.getName());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Encodes a given string using the standard URI encoding mechanism, like
+     * {@link java.net.URLEncoder}. For query strings, the spaces are encoded
+     * as %20 instead of '+', the '*' characters as %2A and the '~' characters
+     * are kept. The string is returned unchanged if no character needs to be
+     * encoded, otherwise the UTF-8 sequences are directly encoded.
+     * 
+     * @param toEncode
+     *            The string to encode.
+     * @param queryString
+     *            True if the string to encode is part of a query string instead
+     *            of a HTML form post.
+     * @param characterSet
+     *            The character set.
+     * @return The encoded string.
+     * @throws UnsupportedEncodingException
+     */
+    public static String encode(String toEncode, boolean queryString,
+            CharacterSet characterSet) throws UnsupportedEncodingException {
+        String result = toEncode;
+        int length = (toEncode == null) ? 0 : toEncode.length();
+        int start = 0;
+
+        while ((start < length)
+                && isUnencoded(toEncode.charAt(start), queryString)) {
+            start++;
+        }
+
+        if (start < length) {
+            if (CharacterSet.UTF_8.equals(characterSet)) {
+                StringBuilder sb = new StringBuilder(length + 16);
+                sb.append(toEncode, 0, start);
+                char c;
+
+                for (int i = start; i < length;) {
+                    c = toEncode.charAt(i);
+
+                    if (isUnencoded(c, queryString)) {
+                        sb.append(c);
+                        i++;
+                    } else if (c == ' ') {
+                        sb.append(queryString ? "%20" : "+");
+                        i++;
+                    } else {
+                        // Encode the sequence of consecutive characters, so
+                        // that surrogate pairs are kept together
+                        int end = i + 1;
+
+                        while ((end < length)
+                                && !isUnencoded(toEncode.charAt(end),
+                                        queryString)
+                                && (toEncode.charAt(end) != ' ')) {
+                            end++;
+                        }
+
+                        byte[] bytes = toEncode.substring(i, end).getBytes(
+                                "UTF-8");
+
+                        for (byte b : bytes) {
+                            sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF])
+                                    .append(HEX_DIGITS[b & 0xF]);
+                        }
+
+                        i = end;
+                    }
+                }
+
+                result = sb.toString();
+            } else {
+                result = java.net.URLEncoder.encode(toEncode,
+                        characterSet.getName());
+
+                if (queryString) {
+                    result = result.replace("+", "%20").replace("*", "%2A")
+                            .replace("%7E", "~");
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates if a character is left unchanged by the URI encoding.
+     * 
+     * @param character
+     *            The character to test.
+     * @param queryString
+     *            True if the character is part of a query string instead of a
+     *            HTML form post.
+     * @return True if a character is left unchanged by the URI encoding.
+     */
+    private static boolean isUnencoded(char character, boolean queryString) {
+        return ((character >= 'a') && (character <= 'z'))
+                || ((character >= 'A') && (character <= 'Z'))
+                || ((character >= '0') && (character <= '9'))
+                || (character == '-') || (character == '.')
+                || (character == '_')
+                || (queryString ? (character == '~') : (character == '*'));
+    }
+
     /**
      * Returns the request URI.
      * 
@@ -40,6 +40,29 @@ package org.restlet.engine.util;
  */
 public class SystemUtils {
 
+    // [ifndef gwt] method
+    /**
+     * Creates a factory of virtual threads if the Java Runtime Environment
+     * supports them (Java 21 and later). Relies on reflection in order to
+     * remain compatible with older runtimes.
+     * 
+     * @return A factory of virtual threads or null if not supported.
+     */
+    public static java.util.concurrent.ThreadFactory createVirtualThreadFactory() {
+        java.util.concurrent.ThreadFactory result = null;
+
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            result = (java.util.concurrent.ThreadFactory) Class
+                    .forName("java.lang.Thread$Builder").getMethod("factory")
+                    .invoke(builder);
+        } catch (Exception e) {
+            // Virtual threads aren't supported
+        }
+
+        return result;
+    }
+
     // [ifndef gwt] method
     /**
      * Parses the "java.version" system property and returns the first digit of
@@ -40,10 +40,12 @@ import java.util.List;
 import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.data.Encoding;
 import org.restlet.data.MediaType;
 import org.restlet.data.Reference;
 import org.restlet.data.ReferenceList;
 import org.restlet.engine.local.DirectoryServerResource;
+import org.restlet.engine.local.EncodedVariantCache;
 import org.restlet.engine.util.AlphaNumericComparator;
 import org.restlet.engine.util.AlphabeticalComparator;
 import org.restlet.representation.Representation;
@@ -79,6 +81,12 @@ import org.restlet.representation.Variant;
  * idea</a>, using a different and faster implementation contributed by Rob
  * Heittman.<br>
  * <br>
+ * Compressed files can be served cheaply to clients accepting a compressed
+ * encoding. When the "precompressedAllowed" property is turned on, a sibling
+ * file such as "app.js.gz" is returned instead of "app.js" if it isn't older.
+ * Otherwise, an {@link EncodedVariantCache} can be set to keep the files
+ * encoded on the fly in memory.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -97,6 +105,9 @@ public class Directory extends Finder {
      */
     private volatile boolean deeplyAccessible;
 
+    /** The optional cache of encoded variants. */
+    private volatile EncodedVariantCache encodedCache;
+
     /** The index name, without extensions (ex: "index" or "home"). */
     private volatile String indexName;
 
@@ -112,6 +123,12 @@ public class Directory extends Finder {
      */
     private volatile boolean modifiable;
 
+    /**
+     * Indicates if precompressed sibling files can be served (false by
+     * default).
+     */
+    private volatile boolean precompressedAllowed;
+
     /** Indicates if the best content is automatically negotiated. */
     private volatile boolean negotiatingContent;
 
@@ -148,6 +165,7 @@ public class Directory extends Finder {
         this.listingAllowed = false;
         this.modifiable = false;
         this.negotiatingContent = true;
+        this.precompressedAllowed = false;
         setTargetClass(DirectoryServerResource.class);
     }
 
@@ -184,6 +202,18 @@ public class Directory extends Finder {
         return this.comparator;
     }
 
+    /**
+     * Returns the optional cache of encoded variants. When set, the files
+     * served to clients accepting a supported encoding are encoded once and
+     * then served from memory until they are modified or evicted. Returns null
+     * by default.
+     * 
+     * @return The cache of encoded variants or null.
+     */
+    public EncodedVariantCache getEncodedCache() {
+        return this.encodedCache;
+    }
+
     /**
      * Returns the index name, without extensions. Returns "index" by default.
      * 
@@ -231,6 +261,19 @@ public class Directory extends Finder {
         return result;
     }
 
+    /**
+     * Returns the extension of the precompressed sibling files for a given
+     * encoding, without the leading dot. Returns "gz" for
+     * {@link Encoding#GZIP} and null otherwise.
+     * 
+     * @param encoding
+     *            The encoding.
+     * @return The extension or null if the encoding isn't precompressed.
+     */
+    public String getPrecompressedExtension(Encoding encoding) {
+        return Encoding.GZIP.equals(encoding) ? "gz" : null;
+    }
+
     /**
      * Returns the root URI from which the relative resource URIs will be looked
      * up.
@@ -287,6 +330,17 @@ public class Directory extends Finder {
         return this.negotiatingContent;
     }
 
+    /**
+     * Indicates if precompressed sibling files such as "app.js.gz" can be
+     * served to clients accepting their encoding. Returns false by default.
+     * 
+     * @return True if precompressed sibling files can be served.
+     * @see #getPrecompressedExtension(Encoding)
+     */
+    public boolean isPrecompressedAllowed() {
+        return this.precompressedAllowed;
+    }
+
     /**
      * Sets the reference comparator based on classic alphabetical order.
      * 
@@ -330,6 +384,16 @@ public class Directory extends Finder {
         this.deeplyAccessible = deeplyAccessible;
     }
 
+    /**
+     * Sets the optional cache of encoded variants.
+     * 
+     * @param encodedCache
+     *            The cache of encoded variants or null.
+     */
+    public void setEncodedCache(EncodedVariantCache encodedCache) {
+        this.encodedCache = encodedCache;
+    }
+
     /**
      * Sets the index name, without extensions.
      * 
@@ -373,6 +437,16 @@ public class Directory extends Finder {
         this.negotiatingContent = negotiatingContent;
     }
 
+    /**
+     * Indicates if precompressed sibling files can be served.
+     * 
+     * @param precompressedAllowed
+     *            True if precompressed sibling files can be served.
+     */
+    public void setPrecompressedAllowed(boolean precompressedAllowed) {
+        this.precompressedAllowed = precompressedAllowed;
+    }
+
     /**
      * Sets the root URI from which the relative resource URIs will be lookep
      * up.
@@ -34,6 +34,8 @@
 package org.restlet.resource;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -104,6 +106,9 @@ public class Finder extends Restlet {
     /** Target {@link ServerResource} subclass. */
     private volatile Class<? extends ServerResource> targetClass;
 
+    /** The cached default constructor of the last created resource class. */
+    private volatile Constructor<? extends ServerResource> targetConstructor;
+
     /**
      * Constructor.
      */
@@ -154,7 +159,16 @@ public class Finder extends Restlet {
         if (targetClass != null) {
             try {
                 // Invoke the default constructor
-                result = targetClass.newInstance();
+                result = getTargetConstructor(targetClass).newInstance();
+            } catch (InvocationTargetException e) {
+                if (e.getTargetException() instanceof Error) {
+                    throw (Error) e.getTargetException();
+                }
+
+                getLogger()
+                        .log(Level.WARNING,
+                                "Exception while instantiating the target server resource.",
+                                e.getTargetException());
             } catch (Exception e) {
                 getLogger()
                         .log(Level.WARNING,
@@ -213,6 +227,39 @@ public class Finder extends Restlet {
         return this.targetClass;
     }
 
+    /**
+     * Returns the default constructor of the given resource class. The last
+     * constructor used is cached and the access checks are suppressed once
+     * for public classes and constructors.
+     * 
+     * @param targetClass
+     *            The target {@link ServerResource} subclass.
+     * @return The default constructor.
+     * @throws NoSuchMethodException
+     */
+    private Constructor<? extends ServerResource> getTargetConstructor(
+            Class<? extends ServerResource> targetClass)
+            throws NoSuchMethodException {
+        Constructor<? extends ServerResource> result = this.targetConstructor;
+
+        if ((result == null) || (result.getDeclaringClass() != targetClass)) {
+            result = targetClass.getDeclaredConstructor();
+
+            if (Modifier.isPublic(result.getModifiers())
+                    && Modifier.isPublic(targetClass.getModifiers())) {
+                try {
+                    result.setAccessible(true);
+                } catch (SecurityException e) {
+                    // Keep the access checks
+                }
+            }
+
+            this.targetConstructor = result;
+        }
+
+        return result;
+    }
+
     /**
      * Handles a call.
      * 
@@ -54,6 +54,7 @@ import org.restlet.data.CookieSetting;
 import org.restlet.data.Dimension;
 import org.restlet.data.Form;
 import org.restlet.data.Method;
+import org.restlet.data.Parameter;
 import org.restlet.data.Protocol;
 import org.restlet.data.Range;
 import org.restlet.data.Reference;
@@ -117,6 +118,12 @@ public abstract class Resource {
     /** The parent context. */
     private volatile Context context;
 
+    /** The query form parsed and cached by {@link #getParsedQuery()}. */
+    private volatile Form query;
+
+    /** The query string parsed into the cached query form. */
+    private volatile String queryString;
+
     /** The handled request. */
     private volatile Request request;
 
@@ -461,6 +468,37 @@ public abstract class Resource {
         return getRequest() == null ? null : getRequest().getOriginalRef();
     }
 
+    /**
+     * Returns the resource reference's optional query, parsed once then cached
+     * until the query string of the reference changes. This cached form is
+     * shared by the internal lookups, such as {@link #getQueryValue(String)}
+     * and the annotation dispatch, so it must not be modified.
+     * 
+     * @return The resource reference's optional query, parsed.
+     */
+    Form getParsedQuery() {
+        Form result = null;
+        Reference reference = getReference();
+
+        if (reference != null) {
+            String queryString = reference.getQuery();
+            result = this.query;
+
+            if ((result == null)
+                    || ((queryString == null) ? (this.queryString != null)
+                            : !queryString.equals(this.queryString))) {
+                // [ifndef gwt] instruction
+                result = new org.restlet.engine.util.IndexedForm(queryString);
+                // [ifdef gwt] instruction uncomment
+                // result = reference.getQueryAsForm();
+                this.query = result;
+                this.queryString = queryString;
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the protocol by first returning the resourceRef.schemeProtocol
      * property if it is set, or the baseRef.schemeProtocol property otherwise.
@@ -499,15 +537,27 @@ public abstract class Resource {
     }
 
     /**
-     * Returns the resource reference's optional query. Note that modifications
-     * to the returned {@link Form} object aren't reported to the underlying
-     * reference.
+     * Returns a copy of the resource reference's optional query. The query
+     * string is only parsed once, but each call returns a new {@link Form}
+     * owned by the caller. Note that modifications to the returned form aren't
+     * reported to the underlying reference.
      * 
      * @return The resource reference's optional query.
      * @see Reference#getQueryAsForm()
      */
     public Form getQuery() {
-        return getReference() == null ? null : getReference().getQueryAsForm();
+        Form result = null;
+        Form query = getParsedQuery();
+
+        if (query != null) {
+            result = new Form(query.size());
+
+            for (Parameter param : query) {
+                result.add(new Parameter(param.getName(), param.getValue()));
+            }
+        }
+
+        return result;
     }
 
     /**
@@ -520,7 +570,7 @@ public abstract class Resource {
      */
     public String getQueryValue(String name) {
         String result = null;
-        Form query = getQuery();
+        Form query = getParsedQuery();
 
         if (query != null) {
             result = query.getFirstValue(name);
@@ -708,6 +758,8 @@ public abstract class Resource {
      */
     public void init(Context context, Request request, Response response) {
         this.context = context;
+        this.query = null;
+        this.queryString = null;
         this.request = request;
         this.response = response;
 
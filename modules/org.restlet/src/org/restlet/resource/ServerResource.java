@@ -50,13 +50,13 @@ import org.restlet.data.ChallengeRequest;
 import org.restlet.data.CookieSetting;
 import org.restlet.data.Dimension;
 import org.restlet.data.Form;
-import org.restlet.data.MediaType;
 import org.restlet.data.Method;
 import org.restlet.data.Reference;
 import org.restlet.data.ServerInfo;
 import org.restlet.data.Status;
 import org.restlet.engine.resource.AnnotationInfo;
 import org.restlet.engine.resource.AnnotationUtils;
+import org.restlet.engine.resource.DispatchPlan;
 import org.restlet.engine.resource.VariantInfo;
 import org.restlet.representation.Representation;
 import org.restlet.representation.RepresentationInfo;
@@ -435,7 +435,7 @@ public abstract class ServerResource extends UniformResource {
                 } else if (method.equals(Method.OPTIONS)) {
                     result = options();
                 } else {
-                    result = doHandle(method, getQuery(), getRequestEntity());
+                    result = doHandle(method, getParsedQuery(), getRequestEntity());
                 }
             } else {
                 doError(Status.CLIENT_ERROR_NOT_FOUND);
@@ -465,12 +465,12 @@ public abstract class ServerResource extends UniformResource {
         Object resultObject = null;
         try {
             if (parameterTypes.length > 0) {
-                List<Object> parameters = new ArrayList<Object>();
+                Object[] parameters = new Object[parameterTypes.length];
                 Object parameter = null;
 
-                for (Class<?> parameterType : parameterTypes) {
-                    if (Variant.class.equals(parameterType)) {
-                        parameters.add(variant);
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    if (Variant.class.equals(parameterTypes[i])) {
+                        parameters[i] = variant;
                     } else {
                         if (getRequestEntity() != null
                                 && getRequestEntity().isAvailable()
@@ -479,7 +479,7 @@ public abstract class ServerResource extends UniformResource {
                             // NB: it does not handle the case where the size is
                             // unknown, but there is no content.
                             parameter = toObject(getRequestEntity(),
-                                    parameterType);
+                                    parameterTypes[i]);
 
                             if (parameter == null) {
                                 throw new ResourceException(
@@ -489,12 +489,12 @@ public abstract class ServerResource extends UniformResource {
                             parameter = null;
                         }
 
-                        parameters.add(parameter);
+                        parameters[i] = parameter;
                     }
                 }
 
                 resultObject = annotationInfo.getJavaMethod().invoke(this,
-                        parameters.toArray());
+                        parameters);
             } else {
                 resultObject = annotationInfo.getJavaMethod().invoke(this);
             }
@@ -714,7 +714,7 @@ public abstract class ServerResource extends UniformResource {
      * @return The annotation descriptor.
      */
     private AnnotationInfo getAnnotation(Method method) {
-        return getAnnotation(method, getQuery(), null);
+        return getAnnotation(method, getParsedQuery(), null);
     }
 
     /**
@@ -731,9 +731,7 @@ public abstract class ServerResource extends UniformResource {
     private AnnotationInfo getAnnotation(Method method, Form query,
             Representation entity) {
         if (isAnnotated()) {
-            return AnnotationUtils.getInstance().getAnnotation(
-                    getAnnotations(), method, query, entity,
-                    getMetadataService(), getConverterService());
+            return getDispatchPlan(method).getAnnotation(query, entity);
         }
 
         return null;
@@ -749,6 +747,19 @@ public abstract class ServerResource extends UniformResource {
                 getClass()) : null;
     }
 
+    /**
+     * Returns the cached dispatch plan of this resource class for the given
+     * method.
+     * 
+     * @param method
+     *            The Restlet method.
+     * @return The dispatch plan.
+     */
+    private DispatchPlan getDispatchPlan(Method method) {
+        return AnnotationUtils.getInstance().getDispatchPlan(getClass(),
+                method, getMetadataService(), getConverterService());
+    }
+
     /**
      * Returns the attribute value by looking up the given name in the response
      * attributes maps. The toString() method is then invoked on the attribute
@@ -864,46 +875,23 @@ public abstract class ServerResource extends UniformResource {
 
             // Add annotation-based variants in priority
             if (isAnnotated() && hasAnnotations()) {
-                List<Variant> annoVariants = null;
                 method = (Method.HEAD.equals(method)) ? Method.GET : method;
-
-                for (AnnotationInfo annotationInfo : getAnnotations()) {
-                    if (annotationInfo.isCompatible(method, getQuery(),
-                            getRequestEntity(), getMetadataService(),
-                            getConverterService())) {
-                        annoVariants = annotationInfo.getResponseVariants(
-                                getMetadataService(), getConverterService());
-
-                        if (annoVariants != null) {
-                            // Compute an affinity score between this annotation
-                            // and the input entity.
-                            float score = 0.5f;
-                            if ((getRequest().getEntity() != null)
-                                    && getRequest().getEntity().isAvailable()) {
-                                MediaType emt = getRequest().getEntity()
-                                        .getMediaType();
-                                List<MediaType> amts = getMetadataService()
-                                        .getAllMediaTypes(
-                                                annotationInfo.getInput());
-                                if (amts != null) {
-                                    for (MediaType amt : amts) {
-                                        if (amt.equals(emt)) {
-                                            score = 1.0f;
-                                        } else if (amt.includes(emt)) {
-                                            score = Math.max(0.8f, score);
-                                        } else if (amt.isCompatible(emt)) {
-                                            score = Math.max(0.6f, score);
-                                        }
-                                    }
-                                }
-                            }
-
-                            for (Variant v : annoVariants) {
-                                VariantInfo vi = new VariantInfo(v,
-                                        annotationInfo);
-                                vi.setInputScore(score);
-                                result.add(vi);
-                            }
+                Representation entity = getRequestEntity();
+                Form query = getParsedQuery();
+
+                for (DispatchPlan.Candidate candidate : getDispatchPlan(method)
+                        .getCandidates()) {
+                    if ((candidate.getResponseVariants() != null)
+                            && candidate.isCompatible(query, entity)) {
+                        // Compute an affinity score between this annotation
+                        // and the input entity.
+                        float score = candidate.getInputScore(entity);
+
+                        for (Variant v : candidate.getResponseVariants()) {
+                            VariantInfo vi = new VariantInfo(v,
+                                    candidate.getAnnotationInfo());
+                            vi.setInputScore(score);
+                            result.add(vi);
                         }
                     }
                 }
@@ -1176,7 +1164,7 @@ public abstract class ServerResource extends UniformResource {
      */
     protected Representation post(Representation entity)
             throws ResourceException {
-        return doHandle(Method.POST, getQuery(), entity);
+        return doHandle(Method.POST, getParsedQuery(), entity);
     }
 
     /**
@@ -1234,7 +1222,7 @@ public abstract class ServerResource extends UniformResource {
      */
     protected Representation put(Representation entity)
             throws ResourceException {
-        return doHandle(Method.PUT, getQuery(), entity);
+        return doHandle(Method.PUT, getParsedQuery(), entity);
     }
 
     /**
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+package org.restlet.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.util.RouteList;
+
+/**
+ * Compiled matcher of a list of routes. The routes based on a URI template are
+ * indexed in a prefix tree over the literal path segments found at the
+ * beginning of their pattern, before any variable. For a given call, only the
+ * routes indexed along the path of the remaining part and the routes that
+ * can't be indexed are scored, in their original order. The results are thus
+ * identical to the ones of {@link RouteList#getBest(Request, Response, float)}
+ * and {@link RouteList#getFirst(Request, Response, float)} as long as the
+ * required score is strictly positive, as routes that aren't candidates would
+ * score 0.<br>
+ * <br>
+ * Instances are immutable snapshots. Use {@link #isValid(RouteList)} to detect
+ * if the list of routes or the URI patterns have changed since the
+ * compilation, based on {@link RouteList#getModificationCount()}, on the
+ * template of each {@link TemplateRoute} and on the number of pattern changes
+ * of each of these templates.
+ * 
+ * @author agent
+ */
+final class RouteMatcher {
+
+    /**
+     * Node of the prefix tree.
+     */
+    private static final class Node {
+
+        /**
+         * The sorted indexes of the routes attached to this node or to its
+         * ancestors.
+         */
+        private int[] candidates;
+
+        /** The child nodes indexed by path segment. */
+        private final Map<String, Node> children = new HashMap<String, Node>();
+
+        /** The indexes of the routes attached to this node. */
+        private int[] routes = new int[0];
+
+        /**
+         * Adds a route index.
+         * 
+         * @param index
+         *            The route index.
+         */
+        private void add(int index) {
+            int[] newRoutes = new int[this.routes.length + 1];
+            System.arraycopy(this.routes, 0, newRoutes, 0, this.routes.length);
+            newRoutes[this.routes.length] = index;
+            this.routes = newRoutes;
+        }
+
+        /**
+         * Computes the candidates of this node and of its descendants.
+         * 
+         * @param parentCandidates
+         *            The candidates of the parent node.
+         */
+        private void index(int[] parentCandidates) {
+            if (this.routes.length == 0) {
+                this.candidates = parentCandidates;
+            } else {
+                this.candidates = new int[parentCandidates.length
+                        + this.routes.length];
+                System.arraycopy(parentCandidates, 0, this.candidates, 0,
+                        parentCandidates.length);
+                System.arraycopy(this.routes, 0, this.candidates,
+                        parentCandidates.length, this.routes.length);
+                Arrays.sort(this.candidates);
+            }
+
+            for (Node child : this.children.values()) {
+                child.index(this.candidates);
+            }
+        }
+    }
+
+    /**
+     * Returns the literal prefix of a URI pattern, up to the first variable or
+     * query separator.
+     * 
+     * @param pattern
+     *            The URI pattern.
+     * @return The literal prefix.
+     */
+    private static String getLiteralPrefix(String pattern) {
+        int end = pattern.length();
+
+        for (int i = 0; i < end; i++) {
+            char next = pattern.charAt(i);
+
+            if ((next == '{') || (next == '}') || (next == '?')) {
+                end = i;
+            }
+        }
+
+        return pattern.substring(0, end);
+    }
+
+    /**
+     * Returns the template of a route if it could be indexed, or null.
+     * Subclasses of {@link TemplateRoute} could override the matching logic, so
+     * only the base class is considered.
+     * 
+     * @param route
+     *            The route.
+     * @return The template or null.
+     */
+    private static Template getTemplate(Route route) {
+        Template result = null;
+
+        if ((route != null) && (route.getClass() == TemplateRoute.class)) {
+            result = ((TemplateRoute) route).getTemplate();
+        }
+
+        return result;
+    }
+
+    /** The modification count of the list of routes at compilation time. */
+    private final int modificationCount;
+
+    /** The number of pattern changes of each template at compilation time. */
+    private final int[] patternChanges;
+
+    /** The root node of the prefix tree. */
+    private final Node root;
+
+    /** The compiled list of routes. */
+    private final RouteList routeList;
+
+    /** The routes at compilation time. */
+    private final Route[] routes;
+
+    /** The template of each route at compilation time. */
+    private final Template[] templates;
+
+    /**
+     * Constructor. Compiles the given list of routes.
+     * 
+     * @param routeList
+     *            The list of routes to compile.
+     */
+    public RouteMatcher(RouteList routeList) {
+        // Read the counters first so that concurrent changes are detected
+        this.modificationCount = routeList.getModificationCount();
+        this.routeList = routeList;
+        this.routes = routeList.toArray(new Route[0]);
+        this.templates = new Template[this.routes.length];
+        this.patternChanges = new int[this.routes.length];
+        this.root = new Node();
+
+        for (int i = 0; i < this.routes.length; i++) {
+            Template template = getTemplate(this.routes[i]);
+            String pattern = null;
+            Node node = this.root;
+
+            if (template != null) {
+                this.templates[i] = template;
+                this.patternChanges[i] = template.getPatternChanges();
+
+                // Subclasses could override the matching logic
+                if (template.getClass() == Template.class) {
+                    pattern = template.getPattern();
+                }
+            }
+
+            if (pattern != null) {
+                String prefix = getLiteralPrefix(pattern);
+                int start = 0;
+
+                for (int end = prefix.indexOf('/'); end != -1; end = prefix
+                        .indexOf('/', start)) {
+                    String segment = prefix.substring(start, end);
+                    Node child = node.children.get(segment);
+
+                    if (child == null) {
+                        child = new Node();
+                        node.children.put(segment, child);
+                    }
+
+                    node = child;
+                    start = end + 1;
+                }
+            }
+
+            node.add(i);
+        }
+
+        this.root.index(new int[0]);
+    }
+
+    /**
+     * Returns the best route match for a given call.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The best route match or null.
+     * @see RouteList#getBest(Request, Response, float)
+     */
+    public Route getBest(Request request, Response response,
+            float requiredScore) {
+        Route result = null;
+        float bestScore = 0F;
+        float score;
+
+        for (int index : getCandidates(request)) {
+            score = this.routes[index].score(request, response);
+
+            if ((score > bestScore) && (score >= requiredScore)) {
+                bestScore = score;
+                result = this.routes[index];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the sorted indexes of the routes that could match the given call.
+     * They are precomputed for the deepest node matching the remaining part.
+     * 
+     * @param request
+     *            The request to route.
+     * @return The sorted indexes of the candidate routes.
+     */
+    private int[] getCandidates(Request request) {
+        Node result = this.root;
+        String remainingPart = (request.getResourceRef() == null) ? null
+                : request.getResourceRef().getRemainingPart(false, false);
+
+        if (remainingPart != null) {
+            Node node = this.root;
+            int start = 0;
+            int end = remainingPart.indexOf('/');
+
+            while ((node != null) && (end != -1)) {
+                node = node.children.get(remainingPart.substring(start, end));
+
+                if (node != null) {
+                    result = node;
+                }
+
+                start = end + 1;
+                end = remainingPart.indexOf('/', start);
+            }
+        }
+
+        return result.candidates;
+    }
+
+    /**
+     * Returns the first route match for a given call.
+     * 
+     * @param request
+     *            The request to score.
+     * @param response
+     *            The response to score.
+     * @param requiredScore
+     *            The minimum score required to have a match.
+     * @return The first route match or null.
+     * @see RouteList#getFirst(Request, Response, float)
+     */
+    public Route getFirst(Request request, Response response,
+            float requiredScore) {
+        for (int index : getCandidates(request)) {
+            if (this.routes[index].score(request, response) >= requiredScore) {
+                return this.routes[index];
+            }
+        }
+
+        // No match found
+        return null;
+    }
+
+    /**
+     * Indicates if this matcher still reflects the given list of routes and
+     * the URI patterns. This only compares the list instance, the templates
+     * and the change counters, without reading the patterns, so it is cheap
+     * enough to be called for each request.
+     * 
+     * @param routeList
+     *            The list of routes to check.
+     * @return True if this matcher is still valid.
+     */
+    public boolean isValid(RouteList routeList) {
+        boolean result = (routeList == this.routeList)
+                && (routeList.getModificationCount() == this.modificationCount);
+
+        for (int i = 0; result && (i < this.routes.length); i++) {
+            Template template = getTemplate(this.routes[i]);
+            result = (template == this.templates[i])
+                    && ((template == null) || (template
+                            .getPatternChanges() == this.patternChanges[i]));
+        }
+
+        return result;
+    }
+
+}
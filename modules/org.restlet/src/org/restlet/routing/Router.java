@@ -68,6 +68,13 @@ import org.restlet.util.RouteList;
  * patterns. Finally, you can modify the list of routes while handling incoming
  * calls as the delegation code is ensured to be thread-safe.<br>
  * <br>
+ * When many routes are attached, the {@link #isCompiledMatching()} property
+ * can be set to avoid scoring every route in the best match and first match
+ * modes. The routes are then indexed by the literal path segments at the
+ * beginning of their URI pattern and only the candidate routes are scored,
+ * with identical results. The index is rebuilt when the list of routes or
+ * their URI patterns change.<br>
+ * <br>
  * Concurrency note: instances of this class or its subclasses can be invoked by
  * several threads at the same time and therefore must be thread-safe. You
  * should be especially careful when storing state in member variables.
@@ -133,6 +140,9 @@ public class Router extends Restlet {
      */
     public static final int MODE_RANDOM_MATCH = 5;
 
+    /** Indicates if the routes should be matched via a compiled index. */
+    private volatile boolean compiledMatching;
+
     /** The default matching mode to use when selecting routes based on URIs. */
     private volatile int defaultMatchingMode;
 
@@ -157,6 +167,9 @@ public class Router extends Restlet {
     /** The delay (in milliseconds) before a new attempt. */
     private volatile long retryDelay;
 
+    /** The compiled matcher of the routes. */
+    private volatile RouteMatcher routeMatcher;
+
     /** The modifiable list of routes. */
     private volatile RouteList routes;
 
@@ -181,7 +194,9 @@ public class Router extends Restlet {
      */
     public Router(Context context) {
         super(context);
+        this.compiledMatching = false;
         this.routes = new RouteList();
+        this.routeMatcher = null;
         this.defaultMatchingMode = Template.MODE_EQUALS;
         this.defaultMatchingQuery = false;
         this.defaultRoute = null;
@@ -541,13 +556,23 @@ public class Router extends Restlet {
                 // Select the routing mode
                 switch (getRoutingMode()) {
                 case MODE_BEST_MATCH:
-                    result = getRoutes().getBest(request, response,
-                            getRequiredScore());
+                    if (isRouteMatcherUsable()) {
+                        result = getRouteMatcher().getBest(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getBest(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_FIRST_MATCH:
-                    result = getRoutes().getFirst(request, response,
-                            getRequiredScore());
+                    if (isRouteMatcherUsable()) {
+                        result = getRouteMatcher().getFirst(request, response,
+                                getRequiredScore());
+                    } else {
+                        result = getRoutes().getFirst(request, response,
+                                getRequiredScore());
+                    }
                     break;
 
                 case MODE_LAST_MATCH:
@@ -611,6 +636,23 @@ public class Router extends Restlet {
         return this.retryDelay;
     }
 
+    /**
+     * Returns the compiled matcher of the current routes. Compiles it again if
+     * the routes have changed.
+     * 
+     * @return The compiled matcher of the current routes.
+     */
+    private RouteMatcher getRouteMatcher() {
+        RouteMatcher result = this.routeMatcher;
+
+        if ((result == null) || !result.isValid(getRoutes())) {
+            result = new RouteMatcher(getRoutes());
+            this.routeMatcher = result;
+        }
+
+        return result;
+    }
+
     /**
      * Returns the modifiable list of routes. Creates a new instance if no one
      * has been set.
@@ -651,6 +693,26 @@ public class Router extends Restlet {
         }
     }
 
+    /**
+     * Indicates if the routes should be matched via a compiled index in the
+     * best match and first match modes. Default value is false.
+     * 
+     * @return True if the routes should be matched via a compiled index.
+     */
+    public boolean isCompiledMatching() {
+        return compiledMatching;
+    }
+
+    /**
+     * Indicates if the compiled matcher can be used. This requires a strictly
+     * positive required score as routes that aren't candidates aren't scored.
+     * 
+     * @return True if the compiled matcher can be used.
+     */
+    private boolean isRouteMatcherUsable() {
+        return isCompiledMatching() && (getRequiredScore() > 0F);
+    }
+
     /**
      * Logs the route selected.
      * 
@@ -667,6 +729,17 @@ public class Router extends Restlet {
         }
     }
 
+    /**
+     * Indicates if the routes should be matched via a compiled index in the
+     * best match and first match modes.
+     * 
+     * @param compiledMatching
+     *            True if the routes should be matched via a compiled index.
+     */
+    public void setCompiledMatching(boolean compiledMatching) {
+        this.compiledMatching = compiledMatching;
+    }
+
     /**
      * Sets the default matching mode to use when selecting routes based on
      * URIs. By default it is set to {@link Template#MODE_EQUALS}.
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -255,12 +256,18 @@ public class Template {
     /** The pattern to use for formatting or parsing. */
     private volatile String pattern;
 
+    /** The number of changes of the pattern, used to detect them cheaply. */
+    private final AtomicInteger patternChanges;
+
     /** The internal Regex pattern. */
     private volatile Pattern regexPattern;
 
     /** The sequence of Regex variable names as found in the pattern string. */
     private volatile List<String> regexVariables;
 
+    /** The compiled matcher used instead of the Regex pattern if possible. */
+    private volatile TemplateMatcher templateMatcher;
+
     /** The map of variables associated to the route's template. */
     private final Map<String, Variable> variables;
 
@@ -336,11 +343,13 @@ public class Template {
             boolean defaultFixed, boolean encodingVariables) {
         this.logger = (logger == null) ? Context.getCurrentLogger() : logger;
         this.pattern = pattern;
+        this.patternChanges = new AtomicInteger();
         this.defaultVariable = new Variable(defaultType, defaultDefaultValue,
                 defaultRequired, defaultFixed);
         this.matchingMode = matchingMode;
         this.variables = new ConcurrentHashMap<String, Variable>();
         this.regexPattern = null;
+        this.templateMatcher = null;
         this.encodingVariables = encodingVariables;
     }
 
@@ -492,6 +501,16 @@ public class Template {
         return this.pattern;
     }
 
+    /**
+     * Returns the number of changes of the pattern of this template. Used by
+     * the compiled route matchers to detect that they must be compiled again.
+     * 
+     * @return The number of changes of the pattern.
+     */
+    int getPatternChanges() {
+        return this.patternChanges.get();
+    }
+
     /**
      * Compiles the URI pattern into a Regex pattern.
      * 
@@ -567,6 +586,8 @@ public class Template {
                         }
                     }
 
+                    this.templateMatcher = TemplateMatcher.compile(
+                            getPattern(), getVariables(), getDefaultVariable());
                     this.regexPattern = Pattern.compile(patternBuffer
                             .toString());
                 }
@@ -684,8 +705,15 @@ public class Template {
 
         try {
             if (formattedString != null) {
-                final Matcher matcher = getRegexPattern().matcher(
-                        formattedString);
+                final Pattern regexPattern = getRegexPattern();
+                final TemplateMatcher templateMatcher = this.templateMatcher;
+
+                if (templateMatcher != null) {
+                    return templateMatcher.match(formattedString,
+                            getMatchingMode(), null);
+                }
+
+                final Matcher matcher = regexPattern.matcher(formattedString);
 
                 if ((getMatchingMode() == MODE_EQUALS) && matcher.matches()) {
                     result = matcher.end();
@@ -742,8 +770,16 @@ public class Template {
         int result = -1;
 
         if (formattedString != null) {
+            Pattern regexPattern = getRegexPattern();
+            TemplateMatcher templateMatcher = this.templateMatcher;
+
+            if (templateMatcher != null) {
+                return parse(templateMatcher, formattedString, variables,
+                        loggable);
+            }
+
             try {
-                Matcher matcher = getRegexPattern().matcher(formattedString);
+                Matcher matcher = regexPattern.matcher(formattedString);
                 boolean matched = ((getMatchingMode() == MODE_EQUALS) && matcher
                         .matches())
                         || ((getMatchingMode() == MODE_STARTS_WITH) && matcher
@@ -786,6 +822,55 @@ public class Template {
         return result;
     }
 
+    /**
+     * Attempts to parse a formatted reference with a compiled matcher. The
+     * variable values are only extracted if the whole match succeeds.
+     * 
+     * @param templateMatcher
+     *            The compiled matcher.
+     * @param formattedString
+     *            The string to parse.
+     * @param variables
+     *            The map of variables to update.
+     * @param loggable
+     *            True if the parsing should be logged.
+     * @return The number of matched characters or -1 if no character matched.
+     */
+    private int parse(TemplateMatcher templateMatcher, String formattedString,
+            Map<String, Object> variables, boolean loggable) {
+        int[] offsets = new int[2 * templateMatcher.getVariableCount()];
+        int result = templateMatcher.match(formattedString, getMatchingMode(),
+                offsets);
+
+        if (result != -1) {
+            String attributeName = null;
+            String attributeValue = null;
+
+            for (int i = 0; i < templateMatcher.getVariableCount(); i++) {
+                attributeName = templateMatcher.getName(i);
+                attributeValue = formattedString.substring(offsets[2 * i],
+                        offsets[2 * i + 1]);
+
+                Variable var = getVariables().get(attributeName);
+
+                if ((var != null) && var.isDecodingOnParse()) {
+                    attributeValue = Reference.decode(attributeValue);
+                }
+
+                if (loggable) {
+                    getLogger().fine(
+                            "Template variable \"" + attributeName
+                                    + "\" matched with value \""
+                                    + attributeValue + "\"");
+                }
+
+                variables.put(attributeName, attributeValue);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Attempts to parse a formatted reference. If the parsing succeeds, the
      * given request's attributes are updated.<br>
@@ -901,6 +986,8 @@ public class Template {
     public void setPattern(String pattern) {
         this.pattern = pattern;
         this.regexPattern = null;
+        this.templateMatcher = null;
+        this.patternChanges.incrementAndGet();
     }
 
     /**
@@ -0,0 +1,376 @@
+/**
+ * Copyright 2005-2012 Restlet S.A.S.
+ * 
+ * The contents of this file are subject to the terms of one of the following
+ * open source licenses: Apache 2.0 or LGPL 3.0 or LGPL 2.1 or CDDL 1.0 or EPL
+ * 1.0 (the "Licenses"). You can select the license that you prefer but you may
+ * not use this file except in compliance with one of these Licenses.
+ * 
+ * You can obtain a copy of the Apache 2.0 license at
+ * http://www.opensource.org/licenses/apache-2.0
+ * 
+ * You can obtain a copy of the LGPL 3.0 license at
+ * http://www.opensource.org/licenses/lgpl-3.0
+ * 
+ * You can obtain a copy of the LGPL 2.1 license at
+ * http://www.opensource.org/licenses/lgpl-2.1
+ * 
+ * You can obtain a copy of the CDDL 1.0 license at
+ * http://www.opensource.org/licenses/cddl1
+ * 
+ * You can obtain a copy of the EPL 1.0 license at
+ * http://www.opensource.org/licenses/eclipse-1.0
+ * 
+ * See the Licenses for the specific language governing permissions and
+ * limitations under the Licenses.
+ * 
+ * Alternatively, you can obtain a royalty free commercial license with less
+ * limitations, transferable or non-transferable, directly at
+ * http://www.restlet.com/products/restlet-framework
+ * 
+ * Restlet is a registered trademark of Restlet S.A.S.
+ */
+
+
+package org.restlet.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.restlet.data.Reference;
+
+/**
+ * Compiled matcher of the common URI templates, avoiding the usage of regular
+ * expressions. It supports templates made of literal characters and of
+ * variables of type {@link Variable#TYPE_URI_SEGMENT} or
+ * {@link Variable#TYPE_ALL}. The formatted string is scanned once and the
+ * boundaries of the variables values are recorded as offsets, without
+ * allocating any object. The values are only extracted when parsing.<br>
+ * <br>
+ * Only the templates for which the scanning gives exactly the same results as
+ * the regular expression built by {@link Template} are compiled:
+ * <ul>
+ * <li>each variable is used once, isn't fixed and has a non empty name</li>
+ * <li>a URI segment variable is followed by the end of the pattern or by a
+ * literal starting with a character that can't be part of a URI segment, like
+ * '/'</li>
+ * <li>a variable matching all characters is the last one of the pattern</li>
+ * </ul>
+ * Other templates should keep using the regular expression.
+ * 
+ * @author agent
+ */
+final class TemplateMatcher {
+
+    /**
+     * Compiles a template. Returns null if the template isn't supported.
+     * 
+     * @param pattern
+     *            The URI pattern.
+     * @param variables
+     *            The map of variable descriptors.
+     * @param defaultVariable
+     *            The default variable descriptor.
+     * @return The compiled matcher or null.
+     */
+    public static TemplateMatcher compile(String pattern,
+            Map<String, Variable> variables, Variable defaultVariable) {
+        List<String> literals = new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        List<Variable> descriptors = new ArrayList<Variable>();
+        StringBuilder buffer = new StringBuilder();
+        boolean inVariable = false;
+        char next;
+
+        for (int i = 0; i < pattern.length(); i++) {
+            next = pattern.charAt(i);
+
+            if (inVariable) {
+                if (Reference.isUnreserved(next)) {
+                    buffer.append(next);
+                } else if ((next == '}') && (buffer.length() > 0)) {
+                    String name = buffer.toString();
+
+                    if (names.contains(name)) {
+                        // Would require a back reference
+                        return null;
+                    }
+
+                    Variable variable = variables.get(name);
+
+                    if (variable == null) {
+                        variable = defaultVariable;
+                    }
+
+                    if (variable.isFixed()
+                            || ((variable.getType() != Variable.TYPE_URI_SEGMENT) && (variable
+                                    .getType() != Variable.TYPE_ALL))) {
+                        return null;
+                    }
+
+                    names.add(name);
+                    descriptors.add(variable);
+                    buffer = new StringBuilder();
+                    inVariable = false;
+                } else {
+                    // Invalid or empty variable name
+                    return null;
+                }
+            } else if (next == '{') {
+                literals.add(buffer.toString());
+                buffer = new StringBuilder();
+                inVariable = true;
+            } else if ((next == '}') || (next == '+')) {
+                // Characters that aren't quoted as literals
+                return null;
+            } else {
+                buffer.append(next);
+            }
+        }
+
+        if (inVariable) {
+            return null;
+        }
+
+        literals.add(buffer.toString());
+
+        // Check that the scanning is deterministic
+        for (int i = 0; i < descriptors.size(); i++) {
+            String following = literals.get(i + 1);
+
+            if (descriptors.get(i).getType() == Variable.TYPE_ALL) {
+                if (i < descriptors.size() - 1) {
+                    return null;
+                }
+            } else if (following.length() > 0) {
+                char first = following.charAt(0);
+
+                if (isSegmentCharacter(first) || (first == '%')) {
+                    return null;
+                }
+            } else if (i < descriptors.size() - 1) {
+                return null;
+            }
+        }
+
+        int[] types = new int[descriptors.size()];
+        boolean[] required = new boolean[descriptors.size()];
+
+        for (int i = 0; i < descriptors.size(); i++) {
+            types[i] = descriptors.get(i).getType();
+            required[i] = descriptors.get(i).isRequired();
+        }
+
+        return new TemplateMatcher(literals.toArray(new String[literals
+                .size()]), names.toArray(new String[names.size()]), types,
+                required);
+    }
+
+    /**
+     * Indicates if the character is a hexadecimal digit.
+     * 
+     * @param character
+     *            The character to test.
+     * @return True if the character is a hexadecimal digit.
+     */
+    private static boolean isHexa(char character) {
+        return ((character >= '0') && (character <= '9'))
+                || ((character >= 'a') && (character <= 'f'))
+                || ((character >= 'A') && (character <= 'F'));
+    }
+
+    /**
+     * Indicates if the character is a line terminator, not matched by the '.'
+     * regular expression.
+     * 
+     * @param character
+     *            The character to test.
+     * @return True if the character is a line terminator.
+     */
+    private static boolean isLineTerminator(char character) {
+        return (character == '\n') || (character == '\r')
+                || (character == '\u0085') || (character == '\u2028')
+                || (character == '\u2029');
+    }
+
+    /**
+     * Indicates if the character can be part of a URI segment, excluding
+     * percent-encoded characters.
+     * 
+     * @param character
+     *            The character to test.
+     * @return True if the character can be part of a URI segment.
+     */
+    private static boolean isSegmentCharacter(char character) {
+        return Reference.isUnreserved(character)
+                || Reference.isSubDelimiter(character) || (character == ':')
+                || (character == '@');
+    }
+
+    /** The literals before, between and after the variables. */
+    private final String[] literals;
+
+    /** The variable names. */
+    private final String[] names;
+
+    /** Indicates if each variable is required. */
+    private final boolean[] required;
+
+    /** The variable types. */
+    private final int[] types;
+
+    /**
+     * Constructor.
+     * 
+     * @param literals
+     *            The literals before, between and after the variables.
+     * @param names
+     *            The variable names.
+     * @param types
+     *            The variable types.
+     * @param required
+     *            Indicates if each variable is required.
+     */
+    private TemplateMatcher(String[] literals, String[] names, int[] types,
+            boolean[] required) {
+        this.literals = literals;
+        this.names = names;
+        this.types = types;
+        this.required = required;
+    }
+
+    /**
+     * Returns the name of a variable.
+     * 
+     * @param index
+     *            The variable index.
+     * @return The name of a variable.
+     */
+    public String getName(int index) {
+        return this.names[index];
+    }
+
+    /**
+     * Returns the number of variables.
+     * 
+     * @return The number of variables.
+     */
+    public int getVariableCount() {
+        return this.types.length;
+    }
+
+    /**
+     * Matches a formatted string.
+     * 
+     * @param formattedString
+     *            The formatted string to match.
+     * @param matchingMode
+     *            The matching mode.
+     * @param offsets
+     *            The array updated with the start and end offsets of each
+     *            variable value or null.
+     * @return The number of matched characters or -1 if the match failed.
+     */
+    public int match(String formattedString, int matchingMode, int[] offsets) {
+        boolean equals = (matchingMode == Template.MODE_EQUALS);
+        int length = formattedString.length();
+        int index = 0;
+        int start;
+        String literal;
+
+        for (int i = 0; i < this.types.length; i++) {
+            literal = this.literals[i];
+
+            if (!formattedString.startsWith(literal, index)) {
+                return -1;
+            }
+
+            index += literal.length();
+            start = index;
+
+            if (this.types[i] == Variable.TYPE_ALL) {
+                index = matchAll(formattedString, index, this.literals[i + 1],
+                        this.required[i], equals);
+
+                if (index == -1) {
+                    return -1;
+                }
+            } else {
+                while (index < length) {
+                    char next = formattedString.charAt(index);
+
+                    if (isSegmentCharacter(next)) {
+                        index++;
+                    } else if ((next == '%') && (index + 2 < length)
+                            && isHexa(formattedString.charAt(index + 1))
+                            && isHexa(formattedString.charAt(index + 2))) {
+                        index += 3;
+                    } else {
+                        break;
+                    }
+                }
+
+                if (this.required[i] && (index == start)) {
+                    return -1;
+                }
+            }
+
+            if (offsets != null) {
+                offsets[2 * i] = start;
+                offsets[2 * i + 1] = index;
+            }
+        }
+
+        literal = this.literals[this.types.length];
+
+        if (!formattedString.startsWith(literal, index)) {
+            return -1;
+        }
+
+        index += literal.length();
+        return (equals && (index != length)) ? -1 : index;
+    }
+
+    /**
+     * Matches a variable of type {@link Variable#TYPE_ALL} followed by the last
+     * literal, like a greedy regular expression would do.
+     * 
+     * @param formattedString
+     *            The formatted string to match.
+     * @param start
+     *            The start index of the variable value.
+     * @param literal
+     *            The last literal.
+     * @param required
+     *            Indicates if the variable is required.
+     * @param equals
+     *            Indicates if the whole string must be matched.
+     * @return The end index of the variable value or -1 if the match failed.
+     */
+    private int matchAll(String formattedString, int start, String literal,
+            boolean required, boolean equals) {
+        int min = required ? start + 1 : start;
+        int max = start;
+
+        while ((max < formattedString.length())
+                && !isLineTerminator(formattedString.charAt(max))) {
+            max++;
+        }
+
+        int result;
+
+        if (equals) {
+            result = formattedString.length() - literal.length();
+
+            if (result > max) {
+                result = -1;
+            }
+        } else {
+            result = formattedString.lastIndexOf(literal, max);
+        }
+
+        return (result < min) ? -1 : result;
+    }
+
+}
@@ -35,7 +35,13 @@ package org.restlet.service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import org.restlet.Context;
@@ -54,17 +60,123 @@ import org.restlet.resource.Resource;
  * objects. The conversion can work in both directions.<br>
  * <br>
  * By default, the following conversions are supported. Additional ones can be
- * plugged into the engine.
+ * plugged into the engine.<br>
+ * <br>
+ * The converter helper selected for a given source class, media type with its
+ * parameters, character set, target class and resource class is cached. The
+ * cache is dropped as soon as the list of converters registered with the
+ * engine changes.
  * 
  * @author Jerome Louvel
  */
 public class ConverterService extends Service {
 
+    /**
+     * Cache of the selected converter helpers, bound to a snapshot of the
+     * registered converters.
+     */
+    private static class HelperCache {
+
+        /** The snapshot of the registered converters. */
+        private final List<ConverterHelper> converters;
+
+        /** The helpers selected to convert objects into representations. */
+        private final ConcurrentMap<List<Object>, ConverterHelper> toRepresentationHelpers;
+
+        /** The helpers selected to convert representations into objects. */
+        private final ConcurrentMap<List<Object>, ConverterHelper> toObjectHelpers;
+
+        /**
+         * Constructor.
+         * 
+         * @param converters
+         *            The registered converters.
+         */
+        private HelperCache(List<ConverterHelper> converters) {
+            this.converters = Collections
+                    .unmodifiableList(new ArrayList<ConverterHelper>(
+                            converters));
+            this.toObjectHelpers = new ConcurrentHashMap<List<Object>, ConverterHelper>();
+            this.toRepresentationHelpers = new ConcurrentHashMap<List<Object>, ConverterHelper>();
+        }
+
+        /**
+         * Indicates if the snapshot still matches the registered converters.
+         * 
+         * @param registered
+         *            The registered converters.
+         * @return True if the snapshot still matches.
+         */
+        private boolean isCurrent(List<ConverterHelper> registered) {
+            boolean result = true;
+            Iterator<ConverterHelper> iter = registered.iterator();
+
+            for (int i = 0; result && (i < this.converters.size()); i++) {
+                result = iter.hasNext()
+                        && (iter.next() == this.converters.get(i));
+            }
+
+            return result && !iter.hasNext();
+        }
+
+        /**
+         * Returns the number of cached helpers.
+         * 
+         * @return The number of cached helpers.
+         */
+        private int size() {
+            return this.toObjectHelpers.size()
+                    + this.toRepresentationHelpers.size();
+        }
+    }
+
+    /** The maximum number of cached converter helpers. */
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    /** Marks the absence of target variant in the cache keys. */
+    private static final Object NO_VARIANT = new Object();
+
+    /**
+     * Returns the class of a resource or null.
+     * 
+     * @param resource
+     *            The resource or null.
+     * @return The class of the resource or null.
+     */
+    private static Class<?> getResourceClass(Resource resource) {
+        return (resource == null) ? null : resource.getClass();
+    }
+
+    /**
+     * Returns the part of a cache key describing a variant, based on its full
+     * media type including the parameters and on its character set.
+     * 
+     * @param variant
+     *            The variant or null.
+     * @return The variant key.
+     */
+    private static Object getVariantKey(Variant variant) {
+        return (variant == null) ? NO_VARIANT : Arrays.<Object> asList(
+                variant.getMediaType(), variant.getCharacterSet());
+    }
+
+    /** The number of helper selections served by the cache. */
+    private final AtomicLong cacheHits;
+
+    /** The number of helper selections that required a scoring. */
+    private final AtomicLong cacheMisses;
+
+    /** Indicates if the selected converter helpers are cached. */
+    private volatile boolean helperCached;
+
+    /** The current cache of selected converter helpers. */
+    private volatile HelperCache helperCache;
+
     /**
      * Constructor.
      */
     public ConverterService() {
-        super();
+        this(true);
     }
 
     /**
@@ -75,6 +187,147 @@ public class ConverterService extends Service {
      */
     public ConverterService(boolean enabled) {
         super(enabled);
+        this.cacheHits = new AtomicLong();
+        this.cacheMisses = new AtomicLong();
+        this.helperCached = true;
+        this.helperCache = null;
+    }
+
+    /**
+     * Clears the cache of selected converter helpers.
+     */
+    public void clearCache() {
+        this.helperCache = null;
+    }
+
+    /**
+     * Returns the best converter helper for the given parameters, using the
+     * cache when enabled.
+     * 
+     * @param source
+     *            The object to convert to a representation.
+     * @param target
+     *            The target representation variant.
+     * @param resource
+     *            The optional parent resource.
+     * @return The matched converter helper or null.
+     */
+    private ConverterHelper getBestHelper(Object source, Variant target,
+            Resource resource) {
+        ConverterHelper result = null;
+
+        if (isHelperCached() && (source != null)) {
+            HelperCache cache = getHelperCache();
+            List<Object> key = Arrays.<Object> asList(source.getClass(),
+                    getVariantKey(target), getResourceClass(resource));
+            result = cache.toRepresentationHelpers.get(key);
+
+            if (result == null) {
+                this.cacheMisses.incrementAndGet();
+                result = ConverterUtils.getBestHelper(cache.converters, source,
+                        target, resource);
+
+                if ((result != null) && (cache.size() < MAX_CACHE_SIZE)) {
+                    cache.toRepresentationHelpers.put(key, result);
+                }
+            } else {
+                this.cacheHits.incrementAndGet();
+            }
+        } else {
+            result = ConverterUtils.getBestHelper(source, target, resource);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the best converter helper for the given parameters, using the
+     * cache when enabled.
+     * 
+     * @param <T>
+     *            The target class.
+     * @param source
+     *            The source representation variant.
+     * @param target
+     *            The target class.
+     * @param resource
+     *            The parent resource.
+     * @return The matched converter helper or null.
+     */
+    private <T> ConverterHelper getBestHelper(Representation source,
+            Class<T> target, Resource resource) {
+        ConverterHelper result = null;
+
+        if (isHelperCached()) {
+            HelperCache cache = getHelperCache();
+            List<Object> key = Arrays.<Object> asList(source.getClass(),
+                    getVariantKey(source), target, getResourceClass(resource));
+            result = cache.toObjectHelpers.get(key);
+
+            if (result == null) {
+                this.cacheMisses.incrementAndGet();
+                result = ConverterUtils.getBestHelper(cache.converters, source,
+                        target, resource);
+
+                if ((result != null) && (cache.size() < MAX_CACHE_SIZE)) {
+                    cache.toObjectHelpers.put(key, result);
+                }
+            } else {
+                this.cacheHits.incrementAndGet();
+            }
+        } else {
+            result = ConverterUtils.getBestHelper(source, target, resource);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of converter helper selections served by the cache.
+     * 
+     * @return The number of cache hits.
+     */
+    public long getCacheHits() {
+        return this.cacheHits.get();
+    }
+
+    /**
+     * Returns the number of converter helper selections that required the
+     * scoring of the registered converters.
+     * 
+     * @return The number of cache misses.
+     */
+    public long getCacheMisses() {
+        return this.cacheMisses.get();
+    }
+
+    /**
+     * Returns the number of cached converter helper selections.
+     * 
+     * @return The number of cached converter helper selections.
+     */
+    public int getCacheSize() {
+        HelperCache cache = this.helperCache;
+        return (cache == null) ? 0 : cache.size();
+    }
+
+    /**
+     * Returns the current cache, replacing it if the registered converters
+     * changed since it was created.
+     * 
+     * @return The current cache.
+     */
+    private HelperCache getHelperCache() {
+        HelperCache result = this.helperCache;
+        List<ConverterHelper> registered = Engine.getInstance()
+                .getRegisteredConverters();
+
+        if ((result == null) || !result.isCurrent(registered)) {
+            result = new HelperCache(registered);
+            this.helperCache = result;
+        }
+
+        return result;
     }
 
     /**
@@ -119,6 +372,25 @@ public class ConverterService extends Service {
         return ConverterUtils.getVariants(source, target);
     }
 
+    /**
+     * Indicates if the selected converter helpers are cached. True by default.
+     * 
+     * @return True if the selected converter helpers are cached.
+     */
+    public boolean isHelperCached() {
+        return helperCached;
+    }
+
+    /**
+     * Indicates if the selected converter helpers should be cached.
+     * 
+     * @param helperCached
+     *            True if the selected converter helpers should be cached.
+     */
+    public void setHelperCached(boolean helperCached) {
+        this.helperCached = helperCached;
+    }
+
     /**
      * Converts a Representation into a regular Java object.
      * 
@@ -151,8 +423,7 @@ public class ConverterService extends Service {
         boolean loggable = (resource == null) ? true : resource.isLoggable();
 
         if ((source != null) && source.isAvailable() && (source.getSize() != 0)) {
-            ConverterHelper ch = ConverterUtils.getBestHelper(source, target,
-                    resource);
+            ConverterHelper ch = getBestHelper(source, target, resource);
 
             if (ch != null) {
                 try {
@@ -229,8 +500,7 @@ public class ConverterService extends Service {
             Resource resource) {
         Representation result = null;
         boolean loggable = (resource == null) ? true : resource.isLoggable();
-        ConverterHelper ch = ConverterUtils.getBestHelper(source, target,
-                resource);
+        ConverterHelper ch = getBestHelper(source, target, resource);
 
         if (ch != null) {
             try {
@@ -55,6 +55,9 @@ public class EncoderService extends Service {
     /** Indicates if the encoding should always occur, regardless of the size. */
     public static final int ANY_SIZE = -1;
 
+    /** Indicates that the default compression level of ZLIB should be used. */
+    public static final int DEFAULT_COMPRESSION_LEVEL = -1;
+
     /** Indicates if the default minimum size for encoding to occur. */
     public static final int DEFAULT_MINIMUM_SIZE = 1000;
 
@@ -93,6 +96,11 @@ public class EncoderService extends Service {
      */
     private volatile List<MediaType> acceptedMediaTypes;
 
+    /**
+     * The compression level.
+     */
+    private volatile int compressionLevel;
+
     /**
      * The media types that should be ignored.
      */
@@ -118,6 +126,7 @@ public class EncoderService extends Service {
      */
     public EncoderService(boolean enabled) {
         super(enabled);
+        this.compressionLevel = DEFAULT_COMPRESSION_LEVEL;
         this.mininumSize = DEFAULT_MINIMUM_SIZE;
         this.acceptedMediaTypes = getDefaultAcceptedMediaTypes();
         this.ignoredMediaTypes = getDefaultIgnoredMediaTypes();
@@ -201,6 +210,17 @@ public class EncoderService extends Service {
         return this.acceptedMediaTypes;
     }
 
+    /**
+     * Returns the compression level used by the GZIP, DEFLATE and ZIP
+     * encodings, from 0 (no compression) to 9 (best compression). Lower levels
+     * are faster. By default, it is {@link #DEFAULT_COMPRESSION_LEVEL}.
+     * 
+     * @return The compression level.
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
     /**
      * Returns the media types that should be ignored.
      * 
@@ -221,6 +241,18 @@ public class EncoderService extends Service {
         return this.mininumSize;
     }
 
+    /**
+     * Sets the compression level used by the GZIP, DEFLATE and ZIP encodings,
+     * from 0 (no compression) to 9 (best compression). Lower levels are
+     * faster.
+     * 
+     * @param compressionLevel
+     *            The compression level or {@link #DEFAULT_COMPRESSION_LEVEL}.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
     /**
      * Sets the minimum size a representation must have before compression is
      * done.
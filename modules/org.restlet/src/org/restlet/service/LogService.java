@@ -33,14 +33,14 @@
 
 package org.restlet.service;
 
+import java.util.Calendar;
 import java.util.logging.LogManager;
 
 import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
-import org.restlet.data.Method;
 import org.restlet.data.Reference;
-import org.restlet.data.Status;
+import org.restlet.engine.log.AccessLogRecord;
 import org.restlet.engine.log.LogFilter;
 import org.restlet.representation.Representation;
 import org.restlet.resource.ClientResource;
@@ -80,6 +80,14 @@ import org.restlet.routing.Template;
  * <br>
  * For custom access log format, see the syntax to use and the list of available
  * variable names in {@link org.restlet.routing.Template}. <br>
+ * <br>
+ * Under heavy load, the access log can be written asynchronously to a file by
+ * setting the "asynchronous" and "asyncLogFile" properties. The calls are then
+ * copied into a bounded ring buffer and written in batches by a dedicated
+ * thread, bypassing the java.util.logging handlers. When the buffer is full,
+ * the calls are dropped and counted unless the "asyncBlocking" property is
+ * set. When the identity check is enabled, the IDENT lookups are still done by
+ * the calling threads. This mode isn't available in the GAE edition.<br>
  * 
  * @see <a href="http://wiki.restlet.org/docs_2.1/201-restlet.html">User Guide -
  *      Access logging</a>
@@ -89,6 +97,28 @@ import org.restlet.routing.Template;
  */
 public class LogService extends Service {
 
+    /** The default capacity of the asynchronous ring buffer. */
+    public static final int DEFAULT_ASYNC_CAPACITY = 8192;
+
+    // [ifndef gae] member
+    /** The asynchronous access log writer, available once started. */
+    private volatile org.restlet.engine.log.AccessLogWriter accessLogWriter;
+
+    /** Indicates if the access log is written asynchronously. */
+    private volatile boolean asynchronous;
+
+    /**
+     * Indicates if the logging threads wait when the asynchronous ring buffer
+     * is full.
+     */
+    private volatile boolean asyncBlocking;
+
+    /** The capacity of the asynchronous ring buffer. */
+    private volatile int asyncCapacity;
+
+    /** The path of the asynchronous access log file. */
+    private volatile String asyncLogFile;
+
     /** Indicates if the debugging mode is enabled. */
     private volatile boolean debugging;
 
@@ -130,6 +160,10 @@ public class LogService extends Service {
         this.responseLogFormat = null;
         this.logPropertiesRef = null;
         this.identityCheck = false;
+        this.asynchronous = false;
+        this.asyncBlocking = false;
+        this.asyncCapacity = DEFAULT_ASYNC_CAPACITY;
+        this.asyncLogFile = null;
     }
 
     @Override
@@ -149,122 +183,65 @@ public class LogService extends Service {
     protected String getDefaultResponseLogMessage(Response response,
             int duration) {
         StringBuilder sb = new StringBuilder();
-        Request request = response.getRequest();
 
-        if (isDebugging()) {
-
-        } else {
-            long currentTime = System.currentTimeMillis();
-
-            // Append the date of the request
-            sb.append(String.format("%tF", currentTime));
-            sb.append('\t');
-
-            // Append the time of the request
-            sb.append(String.format("%tT", currentTime));
-            sb.append('\t');
-
-            // Append the client IP address
-            String clientAddress = request.getClientInfo().getUpstreamAddress();
-            sb.append((clientAddress == null) ? "-" : clientAddress);
-            sb.append('\t');
-
-            // Append the user name (via IDENT protocol)
-            if (isIdentityCheck()) {
-                // [ifndef gae]
-                org.restlet.engine.log.IdentClient ic = new org.restlet.engine.log.IdentClient(
-                        request.getClientInfo().getUpstreamAddress(), request
-                                .getClientInfo().getPort(), response
-                                .getServerInfo().getPort());
-                sb.append((ic.getUserIdentifier() == null) ? "-" : ic
-                        .getUserIdentifier());
-            } else if ((request.getChallengeResponse() != null)
-                    && (request.getChallengeResponse().getIdentifier() != null)) {
-                sb.append(request.getChallengeResponse().getIdentifier());
-            } else {
-                // [enddef]
-                sb.append('-');
-            }
+        if (!isDebugging()) {
+            AccessLogRecord record = new AccessLogRecord();
+            record.update(response, duration, null, AccessLogRecord
+                    .getUserIdentifier(response, isIdentityCheck()));
+            record.format(sb, Calendar.getInstance());
+        }
 
-            sb.append('\t');
-
-            // Append the server IP address
-            String serverAddress = response.getServerInfo().getAddress();
-            sb.append((serverAddress == null) ? "-" : serverAddress);
-            sb.append('\t');
-
-            // Append the server port
-            Integer serverport = response.getServerInfo().getPort();
-            sb.append((serverport == null) ? "-" : serverport.toString());
-            sb.append('\t');
-
-            // Append the method name
-            String methodName = (request.getMethod() == null) ? "-" : request
-                    .getMethod().getName();
-            sb.append((methodName == null) ? "-" : methodName);
-
-            // Append the resource path
-            sb.append('\t');
-            String resourcePath = (request.getResourceRef() == null) ? "-"
-                    : request.getResourceRef().getPath();
-            sb.append((resourcePath == null) ? "-" : resourcePath);
-
-            // Append the resource query
-            sb.append('\t');
-            String resourceQuery = (request.getResourceRef() == null) ? "-"
-                    : request.getResourceRef().getQuery();
-            sb.append((resourceQuery == null) ? "-" : resourceQuery);
-
-            // Append the status code
-            sb.append('\t');
-            sb.append((response.getStatus() == null) ? "-" : Integer
-                    .toString(response.getStatus().getCode()));
-
-            // Append the returned size
-            sb.append('\t');
-
-            if (!response.isEntityAvailable()
-                    || Status.REDIRECTION_NOT_MODIFIED.equals(response
-                            .getStatus())
-                    || Status.SUCCESS_NO_CONTENT.equals(response.getStatus())
-                    || Method.HEAD.equals(request.getMethod())) {
-                sb.append('0');
-            } else {
-                sb.append((response.getEntity().getSize() == -1) ? "-" : Long
-                        .toString(response.getEntity().getSize()));
-            }
+        return sb.toString();
+    }
 
-            // Append the received size
-            sb.append('\t');
+    /**
+     * Returns the asynchronous access log writer, available once the service
+     * is started in asynchronous mode.
+     * 
+     * @return The asynchronous access log writer or null.
+     */
+    // [ifndef gae] method
+    public org.restlet.engine.log.AccessLogWriter getAccessLogWriter() {
+        return this.accessLogWriter;
+    }
 
-            if (request.getEntity() == null) {
-                sb.append('0');
-            } else {
-                sb.append((request.getEntity().getSize() == -1) ? "-" : Long
-                        .toString(request.getEntity().getSize()));
-            }
+    /**
+     * Returns the capacity of the asynchronous ring buffer. Default value is
+     * {@link #DEFAULT_ASYNC_CAPACITY}.
+     * 
+     * @return The capacity of the asynchronous ring buffer.
+     */
+    public int getAsyncCapacity() {
+        return this.asyncCapacity;
+    }
 
-            // Append the duration
-            sb.append('\t');
-            sb.append(duration);
+    /**
+     * Returns the path of the asynchronous access log file.
+     * 
+     * @return The path of the asynchronous access log file.
+     */
+    public String getAsyncLogFile() {
+        return this.asyncLogFile;
+    }
 
-            // Append the host reference
-            sb.append('\t');
-            sb.append((request.getHostRef() == null) ? "-" : request
-                    .getHostRef().toString());
+    /**
+     * Returns the number of calls dropped because the asynchronous ring buffer
+     * was full.
+     * 
+     * @return The number of dropped calls.
+     */
+    public long getDroppedCount() {
+        long result = 0;
 
-            // Append the agent name
-            sb.append('\t');
-            String agentName = request.getClientInfo().getAgent();
-            sb.append((agentName == null) ? "-" : agentName);
+        // [ifndef gae]
+        org.restlet.engine.log.AccessLogWriter writer = getAccessLogWriter();
 
-            // Append the referrer
-            sb.append('\t');
-            sb.append((request.getReferrerRef() == null) ? "-" : request
-                    .getReferrerRef().getIdentifier());
+        if (writer != null) {
+            result = writer.getDroppedCount();
         }
+        // [enddef]
 
-        return sb.toString();
+        return result;
     }
 
     /**
@@ -347,6 +324,25 @@ public class LogService extends Service {
         return result;
     }
 
+    /**
+     * Indicates if the access log is written asynchronously. False by default.
+     * 
+     * @return True if the access log is written asynchronously.
+     */
+    public boolean isAsynchronous() {
+        return this.asynchronous;
+    }
+
+    /**
+     * Indicates if the logging threads wait when the asynchronous ring buffer
+     * is full, instead of dropping the calls. False by default.
+     * 
+     * @return True if the logging threads wait when the ring buffer is full.
+     */
+    public boolean isAsyncBlocking() {
+        return this.asyncBlocking;
+    }
+
     /**
      * Indicates if the debugging mode is enabled. False by default.
      * 
@@ -380,6 +376,82 @@ public class LogService extends Service {
                 .match(request.getResourceRef().getTargetRef().toString()) > 0;
     }
 
+    /**
+     * Logs a call through the asynchronous access log writer. The default
+     * format is applied by the writer thread while a custom response log
+     * format is applied by the calling thread.
+     * 
+     * @param response
+     *            The response to log.
+     * @param duration
+     *            The call duration (in milliseconds).
+     * @return True if the call was accepted, false if it was dropped or if the
+     *         service isn't started in asynchronous mode.
+     */
+    public boolean logAsynchronously(Response response, int duration) {
+        boolean result = false;
+
+        // [ifndef gae]
+        org.restlet.engine.log.AccessLogWriter writer = getAccessLogWriter();
+
+        if (writer != null) {
+            String message = (this.responseLogTemplate == null) ? null
+                    : this.responseLogTemplate.format(response.getRequest(),
+                            response);
+            result = writer.log(response, duration, message,
+                    isIdentityCheck());
+        }
+        // [enddef]
+
+        return result;
+    }
+
+    /**
+     * Indicates if the access log is written asynchronously. The
+     * {@link #getAsyncLogFile()} property must also be set. Note that in this
+     * mode, the {@link #getResponseLogMessage(Response, int)} method isn't
+     * invoked. Changes are taken into account when the service is started.
+     * 
+     * @param asynchronous
+     *            True if the access log is written asynchronously.
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * Indicates if the logging threads wait when the asynchronous ring buffer
+     * is full, instead of dropping the calls.
+     * 
+     * @param asyncBlocking
+     *            True if the logging threads wait when the ring buffer is
+     *            full.
+     */
+    public void setAsyncBlocking(boolean asyncBlocking) {
+        this.asyncBlocking = asyncBlocking;
+    }
+
+    /**
+     * Sets the capacity of the asynchronous ring buffer.
+     * 
+     * @param asyncCapacity
+     *            The capacity of the asynchronous ring buffer.
+     */
+    public void setAsyncCapacity(int asyncCapacity) {
+        this.asyncCapacity = asyncCapacity;
+    }
+
+    /**
+     * Sets the path of the asynchronous access log file. The entries are
+     * appended to the file.
+     * 
+     * @param asyncLogFile
+     *            The path of the asynchronous access log file.
+     */
+    public void setAsyncLogFile(String asyncLogFile) {
+        this.asyncLogFile = asyncLogFile;
+    }
+
     /**
      * Indicates if the debugging mode is enabled.
      * 
@@ -501,5 +573,39 @@ public class LogService extends Service {
                         logProperties.getStream());
             }
         }
+
+        // [ifndef gae]
+        if (isAsynchronous()) {
+            if (getAsyncLogFile() == null) {
+                Context.getCurrentLogger()
+                        .warning(
+                                "No asynchronous access log file was set, logging synchronously");
+            } else {
+                this.accessLogWriter = new org.restlet.engine.log.AccessLogWriter(
+                        new java.io.File(getAsyncLogFile()),
+                        getAsyncCapacity(), isAsyncBlocking(),
+                        Context.getCurrentLogger());
+                this.accessLogWriter.start();
+            }
+        }
+        // [enddef]
+    }
+
+    /**
+     * Stops the log service, writing the pending asynchronous access log
+     * entries.
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        // [ifndef gae]
+        org.restlet.engine.log.AccessLogWriter writer = this.accessLogWriter;
+
+        if (writer != null) {
+            this.accessLogWriter = null;
+            writer.stop();
+        }
+        // [enddef]
+
+        super.stop();
     }
 }
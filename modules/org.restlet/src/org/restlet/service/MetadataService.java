@@ -34,7 +34,10 @@
 package org.restlet.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.restlet.data.CharacterSet;
@@ -50,10 +53,87 @@ import org.restlet.engine.application.MetadataExtension;
  * {@link #addCommonExtensions()} method.<br>
  * <br>
  * Internally, the mappings are stored as a list of "extension, metadata" pairs.
+ * Lookups go through hash indexes by extension name and by metadata name,
+ * lazily rebuilt after each change of the mappings and keeping the order of the
+ * list.
  * 
  * @author Jerome Louvel
  */
 public class MetadataService extends Service {
+
+    /**
+     * Immutable indexes of the mappings by extension name and by lower-case
+     * metadata name, as languages, character sets and encodings compare their
+     * names ignoring the case. The indexed lists keep the order of the
+     * mappings.
+     */
+    private static class MappingIndex {
+
+        /** The mappings by extension name. */
+        private final Map<String, List<MetadataExtension>> byExtension;
+
+        /** The mappings by lower-case metadata name. */
+        private final Map<String, List<MetadataExtension>> byMetadata;
+
+        /**
+         * Constructor.
+         * 
+         * @param mappings
+         *            The mappings to index.
+         */
+        private MappingIndex(List<MetadataExtension> mappings) {
+            this.byExtension = new HashMap<String, List<MetadataExtension>>();
+            this.byMetadata = new HashMap<String, List<MetadataExtension>>();
+
+            for (MetadataExtension mapping : mappings) {
+                add(this.byExtension, mapping.getName(), mapping);
+
+                if ((mapping.getMetadata() != null)
+                        && (mapping.getMetadata().getName() != null)) {
+                    add(this.byMetadata, getKey(mapping.getMetadata()),
+                            mapping);
+                }
+            }
+        }
+
+        /**
+         * Adds a mapping to an index.
+         * 
+         * @param index
+         *            The index to update.
+         * @param key
+         *            The index key.
+         * @param mapping
+         *            The mapping to add.
+         */
+        private void add(Map<String, List<MetadataExtension>> index,
+                String key, MetadataExtension mapping) {
+            List<MetadataExtension> list = index.get(key);
+
+            if (list == null) {
+                list = new ArrayList<MetadataExtension>(2);
+                index.put(key, list);
+            }
+
+            list.add(mapping);
+        }
+
+        /**
+         * Returns the key of a metadata in the index by metadata name. The
+         * name is converted to lower case independently of the default locale.
+         * 
+         * @param metadata
+         *            The metadata with a name.
+         * @return The lower-case name of the metadata.
+         */
+        private static String getKey(Metadata metadata) {
+            // [ifndef gwt] instruction
+            return metadata.getName().toLowerCase(java.util.Locale.ENGLISH);
+            // [ifdef gwt] instruction uncomment
+            // return metadata.getName().toLowerCase();
+        }
+    }
+
     /** The default character set for textual representations. */
     private volatile CharacterSet defaultCharacterSet;
 
@@ -66,9 +146,18 @@ public class MetadataService extends Service {
     /** The default media type for representations. */
     private volatile MediaType defaultMediaType;
 
+    /** The indexes of the mappings, null when they need to be rebuilt. */
+    private volatile MappingIndex index;
+
     /** The list of mappings between extension names and metadata. */
     private final List<MetadataExtension> mappings;
 
+    /**
+     * The number of changes made to the mappings, only updated while holding
+     * the lock on the mappings.
+     */
+    private volatile int modificationCount;
+
     /**
      * Constructor. Sets the default language to {@link Language#ENGLISH_US},
      * the default encoding to {@link Encoding#IDENTITY} (no encoding) and the
@@ -84,6 +173,7 @@ public class MetadataService extends Service {
         // [ifdef gwt] instruction uncomment
         // this.defaultMediaType = MediaType.APPLICATION_JSON;
         this.mappings = new CopyOnWriteArrayList<MetadataExtension>();
+        this.modificationCount = 0;
         addCommonExtensions();
     }
 
@@ -369,7 +459,11 @@ public class MetadataService extends Service {
         ext(dm, "xml", MediaType.APPLICATION_XML);
 
         // Add all those mappings
-        this.mappings.addAll(dm);
+        synchronized (this.mappings) {
+            this.mappings.addAll(dm);
+            this.index = null;
+            this.modificationCount++;
+        }
     }
 
     /**
@@ -398,12 +492,18 @@ public class MetadataService extends Service {
      */
     public void addExtension(String extension, Metadata metadata,
             boolean preferred) {
-        if (preferred) {
-            // Add the mapping at the beginning of the list
-            this.mappings.add(0, new MetadataExtension(extension, metadata));
-        } else {
-            // Add the mapping at the end of the list
-            this.mappings.add(new MetadataExtension(extension, metadata));
+        synchronized (this.mappings) {
+            if (preferred) {
+                // Add the mapping at the beginning of the list
+                this.mappings
+                        .add(0, new MetadataExtension(extension, metadata));
+            } else {
+                // Add the mapping at the end of the list
+                this.mappings.add(new MetadataExtension(extension, metadata));
+            }
+
+            this.index = null;
+            this.modificationCount++;
         }
     }
 
@@ -411,7 +511,11 @@ public class MetadataService extends Service {
      * clears the mappings for all extensions.
      */
     public void clearExtensions() {
-        this.mappings.clear();
+        synchronized (this.mappings) {
+            this.mappings.clear();
+            this.index = null;
+            this.modificationCount++;
+        }
     }
 
     /**
@@ -487,9 +591,8 @@ public class MetadataService extends Service {
 
         if (extension != null) {
             // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())
-                        && (metadataExtension.getMetadata() instanceof CharacterSet)) {
+            for (MetadataExtension metadataExtension : getMappings(extension)) {
+                if (metadataExtension.getMetadata() instanceof CharacterSet) {
                     if (result == null) {
                         result = new ArrayList<CharacterSet>();
                     }
@@ -568,9 +671,8 @@ public class MetadataService extends Service {
 
         if (extension != null) {
             // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())
-                        && (metadataExtension.getMetadata() instanceof Language)) {
+            for (MetadataExtension metadataExtension : getMappings(extension)) {
+                if (metadataExtension.getMetadata() instanceof Language) {
                     if (result == null) {
                         result = new ArrayList<Language>();
                     }
@@ -614,9 +716,8 @@ public class MetadataService extends Service {
 
         if (extension != null) {
             // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())
-                        && (metadataExtension.getMetadata() instanceof MediaType)) {
+            for (MetadataExtension metadataExtension : getMappings(extension)) {
+                if (metadataExtension.getMetadata() instanceof MediaType) {
                     if (result == null) {
                         result = new ArrayList<MediaType>();
                     }
@@ -642,14 +743,12 @@ public class MetadataService extends Service {
 
         if (extension != null) {
             // Look for all registered convenient mapping.
-            for (MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())) {
-                    if (result == null) {
-                        result = new ArrayList<Metadata>();
-                    }
-
-                    result.add(metadataExtension.getMetadata());
+            for (MetadataExtension metadataExtension : getMappings(extension)) {
+                if (result == null) {
+                    result = new ArrayList<Metadata>();
                 }
+
+                result.add(metadataExtension.getMetadata());
             }
         }
 
@@ -747,17 +846,44 @@ public class MetadataService extends Service {
      * @return The first extension mapping to this metadata.
      */
     public String getExtension(Metadata metadata) {
-        if (metadata != null) {
-            // Look for the first registered convenient mapping.
-            for (final MetadataExtension metadataExtension : this.mappings) {
-                if (metadata.equals(metadataExtension.getMetadata())) {
-                    return metadataExtension.getName();
+        if ((metadata != null) && (metadata.getName() != null)) {
+            List<MetadataExtension> mappings = getIndex().byMetadata
+                    .get(MappingIndex.getKey(metadata));
+
+            if (mappings != null) {
+                // Look for the first registered convenient mapping.
+                for (final MetadataExtension metadataExtension : mappings) {
+                    if (metadata.equals(metadataExtension.getMetadata())) {
+                        return metadataExtension.getName();
+                    }
                 }
             }
         }
         return null;
     }
 
+    /**
+     * Returns the current indexes of the mappings, rebuilding them if needed.
+     * 
+     * @return The current indexes of the mappings.
+     */
+    private MappingIndex getIndex() {
+        MappingIndex result = this.index;
+
+        if (result == null) {
+            synchronized (this.mappings) {
+                result = this.index;
+
+                if (result == null) {
+                    result = new MappingIndex(this.mappings);
+                    this.index = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Returns the language associated to this extension. It returns null if the
      * extension was not declared of it is corresponds to another type of
@@ -781,6 +907,19 @@ public class MetadataService extends Service {
         // [enddef]
     }
 
+    /**
+     * Returns the ordered list of mappings for the given extension name.
+     * 
+     * @param extension
+     *            The extension name.
+     * @return The ordered list of mappings, possibly empty.
+     */
+    private List<MetadataExtension> getMappings(String extension) {
+        List<MetadataExtension> result = getIndex().byExtension.get(extension);
+        return (result == null) ? Collections.<MetadataExtension> emptyList()
+                : result;
+    }
+
     /**
      * Returns the mediatype associated to this extension. It returns null if
      * the extension was not declared of it is corresponds to another type of
@@ -819,10 +958,10 @@ public class MetadataService extends Service {
     public Metadata getMetadata(String extension) {
         if (extension != null) {
             // Look for the first registered convenient mapping.
-            for (final MetadataExtension metadataExtension : this.mappings) {
-                if (extension.equals(metadataExtension.getName())) {
-                    return metadataExtension.getMetadata();
-                }
+            List<MetadataExtension> mappings = getMappings(extension);
+
+            if (!mappings.isEmpty()) {
+                return mappings.get(0).getMetadata();
             }
         }
 
@@ -853,6 +992,17 @@ public class MetadataService extends Service {
         return null;
     }
 
+    /**
+     * Returns the number of changes made to the mappings, which changes each
+     * time an extension mapping is added or the mappings are cleared. It lets
+     * the caches of values computed from the mappings detect their changes.
+     * 
+     * @return The number of changes made to the mappings.
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
     /**
      * Sets the default character set for local representations.
      * 
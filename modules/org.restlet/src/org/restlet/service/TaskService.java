@@ -53,6 +53,7 @@ import org.restlet.Application;
 import org.restlet.Context;
 import org.restlet.Response;
 import org.restlet.engine.Engine;
+import org.restlet.engine.util.SystemUtils;
 import org.restlet.routing.VirtualHost;
 
 /**
@@ -69,7 +70,11 @@ import org.restlet.routing.VirtualHost;
  * Resources that are part of your context. In general this context corresponds
  * to a parent Application's context. If you want to have your own service
  * instance, you can use the {@link TaskService#wrap(ScheduledExecutorService)}
- * method to ensure that thread local variables are correctly set.
+ * method to ensure that thread local variables are correctly set.<br>
+ * <br>
+ * When the {@link #isVirtualThreads()} property is set and the JVM supports
+ * them, the tasks are run by virtual threads. In this case, the core pool size
+ * can be raised much higher as blocked virtual threads are cheap.
  * 
  * @author Jerome Louvel
  * @author Doug Lea (docs of ExecutorService in public domain)
@@ -84,14 +89,33 @@ public class TaskService extends Service implements ScheduledExecutorService {
      * @author Tim Peierls
      */
     private static class RestletThreadFactory implements ThreadFactory {
-        final ThreadFactory factory = Executors.defaultThreadFactory();
+        final ThreadFactory factory;
+
+        /**
+         * Constructor.
+         * 
+         * @param virtual
+         *            Indicates if virtual threads should be created if
+         *            supported by the JVM.
+         */
+        public RestletThreadFactory(boolean virtual) {
+            ThreadFactory virtualFactory = virtual ? SystemUtils
+                    .createVirtualThreadFactory() : null;
+            this.factory = (virtualFactory != null) ? virtualFactory
+                    : Executors.defaultThreadFactory();
+        }
 
         public Thread newThread(Runnable runnable) {
             Thread t = factory.newThread(runnable);
 
             // Default factory is documented as producing names of the
-            // form "pool-N-thread-M".
-            t.setName(t.getName().replaceFirst("pool", "restlet"));
+            // form "pool-N-thread-M", virtual threads are unnamed.
+            if (t.getName().length() == 0) {
+                t.setName("restlet-virtual-" + t.hashCode());
+            } else {
+                t.setName(t.getName().replaceFirst("pool", "restlet"));
+            }
+
             return t;
         }
     }
@@ -228,6 +252,9 @@ public class TaskService extends Service implements ScheduledExecutorService {
     /** The core pool size defining the maximum number of threads. */
     private volatile int corePoolSize;
 
+    /** Indicates if virtual threads should be used if supported. */
+    private volatile boolean virtualThreads;
+
     /**
      * Constructor. Set the core pool size to 4 by default.
      */
@@ -241,6 +268,7 @@ public class TaskService extends Service implements ScheduledExecutorService {
     public TaskService(int corePoolSize) {
         this.corePoolSize = corePoolSize;
         this.shutdownAllowed = false;
+        this.virtualThreads = false;
     }
 
     /**
@@ -277,12 +305,13 @@ public class TaskService extends Service implements ScheduledExecutorService {
 
     /**
      * Creates a new thread factory that will properly name the Restlet created
-     * threads with a "restlet-" prefix.
+     * threads with a "restlet-" prefix. Creates virtual threads if the
+     * {@link #isVirtualThreads()} property is set and the JVM supports them.
      * 
      * @return A new thread factory.
      */
     protected ThreadFactory createThreadFactory() {
-        return new RestletThreadFactory();
+        return new RestletThreadFactory(isVirtualThreads());
     }
 
     /**
@@ -443,6 +472,15 @@ public class TaskService extends Service implements ScheduledExecutorService {
         return (getWrapped() == null) || getWrapped().isTerminated();
     }
 
+    /**
+     * Indicates if virtual threads should be used if supported by the JVM.
+     * 
+     * @return True if virtual threads should be used if supported.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
     /**
      * Creates and executes a ScheduledFuture that becomes enabled after the
      * given delay.
@@ -564,6 +602,17 @@ public class TaskService extends Service implements ScheduledExecutorService {
         this.corePoolSize = corePoolSize;
     }
 
+    /**
+     * Indicates if virtual threads should be used if supported by the JVM.
+     * Must be set before the service is started.
+     * 
+     * @param virtualThreads
+     *            True if virtual threads should be used if supported.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Indicates if the {@link #shutdown()} and {@link #shutdownNow()} methods
      * are allowed to effectively shutdown the wrapped executor service.
@@ -33,10 +33,12 @@
 
 package org.restlet.util;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.restlet.Request;
 import org.restlet.Response;
@@ -50,7 +52,10 @@ import org.restlet.routing.Route;
  * {@link List}, in particular all the helper methods in {@link Collections}.<br>
  * <br>
  * Note that structural changes to this list are thread-safe, using an
- * underlying {@link CopyOnWriteArrayList}.
+ * underlying {@link CopyOnWriteArrayList}. Its iterators don't support
+ * modifications and its sub-lists are copies, so all structural changes go
+ * through the methods of this class and are counted by
+ * {@link #getModificationCount()}.
  * 
  * @author Jerome Louvel
  * @see java.util.Collections
@@ -60,12 +65,16 @@ public final class RouteList extends WrapperList<Route> {
     /** The index of the last route used in the round robin mode. */
     private volatile int lastIndex;
 
+    /** The number of structural changes made to this list. */
+    private final AtomicInteger modificationCount;
+
     /**
      * Constructor.
      */
     public RouteList() {
         super(new CopyOnWriteArrayList<Route>());
         this.lastIndex = -1;
+        this.modificationCount = new AtomicInteger();
     }
 
     /**
@@ -77,6 +86,40 @@ public final class RouteList extends WrapperList<Route> {
     public RouteList(List<Route> delegate) {
         super(new CopyOnWriteArrayList<Route>(delegate));
         this.lastIndex = -1;
+        this.modificationCount = new AtomicInteger();
+    }
+
+    @Override
+    public boolean add(Route route) {
+        boolean result = super.add(route);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public void add(int index, Route route) {
+        super.add(index, route);
+        this.modificationCount.incrementAndGet();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Route> routes) {
+        boolean result = super.addAll(routes);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Route> routes) {
+        boolean result = super.addAll(index, routes);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.modificationCount.incrementAndGet();
     }
 
     /**
@@ -154,6 +197,16 @@ public final class RouteList extends WrapperList<Route> {
         return null;
     }
 
+    /**
+     * Returns the number of structural changes made to this list, which
+     * changes each time a route is added, removed or replaced.
+     * 
+     * @return The number of structural changes made to this list.
+     */
+    public int getModificationCount() {
+        return this.modificationCount.get();
+    }
+
     /**
      * Returns a next route match in a round robin mode for a given call.
      * 
@@ -229,6 +282,27 @@ public final class RouteList extends WrapperList<Route> {
         return null;
     }
 
+    @Override
+    public Route remove(int index) {
+        Route result = super.remove(index);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public boolean remove(Object route) {
+        boolean result = super.remove(route);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> routes) {
+        boolean result = super.removeAll(routes);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
     /**
      * Removes all routes routing to a given target.
      * 
@@ -243,9 +317,25 @@ public final class RouteList extends WrapperList<Route> {
         }
     }
 
+    @Override
+    public boolean retainAll(Collection<?> routes) {
+        boolean result = super.retainAll(routes);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
+    @Override
+    public Route set(int index, Route route) {
+        Route result = super.set(index, route);
+        this.modificationCount.incrementAndGet();
+        return result;
+    }
+
     /**
-     * Returns a view of the portion of this list between the specified
-     * fromIndex, inclusive, and toIndex, exclusive.
+     * Returns a copy of the portion of this list between the specified
+     * fromIndex, inclusive, and toIndex, exclusive. Unlike
+     * {@link List#subList(int, int)}, the result isn't a view, so structural
+     * changes made to it don't affect this list nor its modification count.
      * 
      * @param fromIndex
      *            The start position.
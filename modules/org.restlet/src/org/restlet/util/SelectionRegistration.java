@@ -116,6 +116,9 @@ public class SelectionRegistration {
     /** The active selection key. */
     private volatile SelectionKey selectionKey;
 
+    /** The wakeup listener that will be notified. */
+    private volatile WakeupListener wakeupListener;
+
     /**
      * Constructor.
      * 
@@ -176,6 +179,8 @@ public class SelectionRegistration {
                                 + this.barrier.getNumberWaiting());
             }
 
+            // Make sure the selecting thread notices the blocked thread
+            wakeup();
             this.barrier.await(IoUtils.TIMEOUT_MS, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             Context.getCurrentLogger().log(Level.WARNING,
@@ -217,6 +222,15 @@ public class SelectionRegistration {
         return listener;
     }
 
+    /**
+     * Returns the wakeup listener that will be notified.
+     * 
+     * @return The wakeup listener that will be notified.
+     */
+    public WakeupListener getWakeupListener() {
+        return wakeupListener;
+    }
+
     /**
      * Returns the IO operations ready.
      * 
@@ -355,6 +369,11 @@ public class SelectionRegistration {
         }
 
         setReadyOperations(0);
+
+        if (result) {
+            wakeup();
+        }
+
         return result;
     }
 
@@ -392,6 +411,16 @@ public class SelectionRegistration {
         this.readyOperations = readyOperations;
     }
 
+    /**
+     * Sets the wakeup listener that will be notified.
+     * 
+     * @param wakeupListener
+     *            The wakeup listener that will be notified.
+     */
+    public void setWakeupListener(WakeupListener wakeupListener) {
+        this.wakeupListener = wakeupListener;
+    }
+
     /**
      * Sets interest in IO read operations.
      */
@@ -494,4 +523,16 @@ public class SelectionRegistration {
         return this.selectionKey;
     }
 
+    /**
+     * Notifies the wakeup listener, if any, that the selecting thread should
+     * take this registration into account.
+     */
+    public void wakeup() {
+        WakeupListener listener = getWakeupListener();
+
+        if (listener != null) {
+            listener.onWakeup(this);
+        }
+    }
+
 }